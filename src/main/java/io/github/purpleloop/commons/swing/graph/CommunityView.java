@@ -0,0 +1,433 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Stroke;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A view of a graph where communities of nodes are rendered as super-nodes,
+ * that can be expanded to show their nodes.
+ * 
+ * <p>
+ * A collapsed community is drawn as a disk at the center of its nodes, its
+ * size growing with its number of nodes. Links between collapsed communities,
+ * or between a node and a collapsed community, are aggregated into a single
+ * line whose width grows with the number of links. Links between communities
+ * are aggregated once when the view is built, links of expanded communities
+ * when a community is expanded or collapsed, so the drawing cost depends on
+ * the number of communities and expanded nodes, not on the size of the graph.
+ * </p>
+ * 
+ * <p>
+ * When the structure of the graph changes, removed nodes leave their
+ * community, added nodes are put in their own community and links between
+ * communities are aggregated again.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class CommunityView<E> {
+
+    /** Minimal radius of a super-node. */
+    private static final double MIN_RADIUS = 8;
+
+    /** Radius added for each square root of the number of nodes. */
+    private static final double RADIUS_FACTOR = 2;
+
+    /** Color of aggregated links. */
+    private static final Color AGGREGATED_LINK_COLOR = Color.GRAY;
+
+    /**
+     * Links between a node of an expanded community and a collapsed
+     * community, aggregated.
+     * 
+     * @param <E> the graph content type
+     * @param node the node
+     * @param community the collapsed community
+     * @param count number of links
+     */
+    private record NodeLinks<E>(Node<E> node, int community, int count) {
+    }
+
+    /** The graph. */
+    private Graph<E> graph;
+
+    /** Community of each node. */
+    private Map<Node<E>, Integer> communities = new IdentityHashMap<>();
+
+    /** Nodes of each community. */
+    private List<List<Node<E>>> members = new ArrayList<>();
+
+    /** Number of links between two communities, by pair of communities. */
+    private Map<Long, Integer> communityLinks = new HashMap<>();
+
+    /** Is each community expanded. */
+    private boolean[] expanded;
+
+    /** Links between nodes of expanded communities. */
+    private List<Link<E>> expandedLinks = new ArrayList<>();
+
+    /** Links between nodes of expanded communities and collapsed communities. */
+    private List<NodeLinks<E>> nodeLinks = new ArrayList<>();
+
+    /** Are the links of the expanded communities aggregated ? */
+    private boolean expandedLinksValid;
+
+    /** Abscissa of the center of each community. */
+    private double[] xs;
+
+    /** Ordinate of the center of each community. */
+    private double[] ys;
+
+    /** Version of the graph when centers were computed. */
+    private long version = -1;
+
+    /** Structure version of the graph when links were aggregated. */
+    private long structureVersion = -1;
+
+    /**
+     * Creates a view where all communities are collapsed. Nodes that are not
+     * in a given community are put in their own community.
+     * 
+     * @param graph the graph
+     * @param groups nodes of each community, for instance given by a community
+     *            detector
+     */
+    public CommunityView(Graph<E> graph, List<? extends Collection<Node<E>>> groups) {
+
+        this.graph = graph;
+        for (Collection<Node<E>> group : groups) {
+            List<Node<E>> community = new ArrayList<>(group);
+            for (Node<E> node : community) {
+                communities.put(node, members.size());
+            }
+            members.add(community);
+        }
+        expanded = new boolean[members.size()];
+        updateStructure();
+    }
+
+    /**
+     * Updates the communities and aggregates the links between communities
+     * again, if the structure of the graph has changed.
+     */
+    private void updateStructure() {
+
+        if (structureVersion == graph.getStructureVersion()) {
+            return;
+        }
+
+        // Removed nodes leave their community
+        List<Node<E>> nodes = graph.getNodes();
+        Set<Node<E>> graphNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        graphNodes.addAll(nodes);
+        for (int c = 0; c < members.size(); c++) {
+            List<Node<E>> community = members.get(c);
+            if (!graphNodes.containsAll(community)) {
+                community = new ArrayList<>(community);
+                community.removeIf(node -> !graphNodes.contains(node));
+                members.set(c, community);
+            }
+        }
+        communities.keySet().retainAll(graphNodes);
+
+        // Added nodes are put in their own community
+        for (Node<E> node : nodes) {
+            if (!communities.containsKey(node)) {
+                communities.put(node, members.size());
+                members.add(List.of(node));
+            }
+        }
+
+        communityLinks.clear();
+        for (Link<E> link : graph.getLinks()) {
+            int source = communities.get(link.getSource());
+            int target = communities.get(link.getTarget());
+            if (source != target) {
+                communityLinks.merge(pair(source, target), 1, Integer::sum);
+            }
+        }
+
+        expanded = Arrays.copyOf(expanded, members.size());
+        xs = new double[members.size()];
+        ys = new double[members.size()];
+        version = -1;
+        expandedLinksValid = false;
+        structureVersion = graph.getStructureVersion();
+    }
+
+    /**
+     * @param first a community
+     * @param second another community
+     * @return a key for the pair of communities, whatever their order
+     */
+    private static long pair(int first, int second) {
+        return ((long) Math.min(first, second) << 32) | Math.max(first, second);
+    }
+
+    /** @return the graph */
+    public Graph<E> getGraph() {
+        return graph;
+    }
+
+    /** @return the number of communities */
+    public int getCommunityCount() {
+        updateStructure();
+        return members.size();
+    }
+
+    /**
+     * @param node a node
+     * @return the community of the node, -1 if the node is not in the view
+     */
+    public int getCommunity(Node<E> node) {
+        updateStructure();
+        Integer community = communities.get(node);
+        return (community == null) ? -1 : community;
+    }
+
+    /**
+     * @param community a community
+     * @return true if the nodes of the community are shown
+     */
+    public boolean isExpanded(int community) {
+
+        // A single node is shown as itself, an empty community is not shown
+        return expanded[community] || members.get(community).size() <= 1;
+    }
+
+    /**
+     * @param community a community
+     * @param expand true to show the nodes of the community, false to show it
+     *            as a super-node
+     */
+    public void setExpanded(int community, boolean expand) {
+        expanded[community] = expand;
+        expandedLinksValid = false;
+    }
+
+    /**
+     * Expands a collapsed community, or collapses an expanded one.
+     * 
+     * @param community a community
+     */
+    public void toggle(int community) {
+        expanded[community] = !expanded[community];
+        expandedLinksValid = false;
+    }
+
+    /** @return the number of drawn nodes and super-nodes */
+    public int getVisibleNodeCount() {
+        updateStructure();
+        int count = 0;
+        for (int c = 0; c < members.size(); c++) {
+            count += isExpanded(c) ? members.get(c).size() : 1;
+        }
+        return count;
+    }
+
+    /**
+     * Gives the community whose super-node is drawn in (x,y).
+     * 
+     * @param x tested abscissa
+     * @param y tested ordinate
+     * @return the collapsed community, or -1 if there is none at the location
+     */
+    public int communityAt(int x, int y) {
+
+        updateCenters();
+        for (int c = 0; c < members.size(); c++) {
+            if (!isExpanded(c) && Math.hypot(x - xs[c], y - ys[c]) <= radius(c)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param community a community
+     * @return the abscissa of the center of the community nodes
+     */
+    public double xLoc(int community) {
+        updateCenters();
+        return xs[community];
+    }
+
+    /**
+     * @param community a community
+     * @return the ordinate of the center of the community nodes
+     */
+    public double yLoc(int community) {
+        updateCenters();
+        return ys[community];
+    }
+
+    /** Computes the centers of the communities, if the graph has changed. */
+    private void updateCenters() {
+
+        updateStructure();
+        if (version == graph.getVersion()) {
+            return;
+        }
+        for (int c = 0; c < members.size(); c++) {
+            double x = 0;
+            double y = 0;
+            for (Node<E> node : members.get(c)) {
+                x += node.xLoc();
+                y += node.yLoc();
+            }
+            int size = Math.max(1, members.get(c).size());
+            xs[c] = x / size;
+            ys[c] = y / size;
+        }
+        version = graph.getVersion();
+    }
+
+    /**
+     * @param community a community
+     * @return the radius of the super-node of the community
+     */
+    private double radius(int community) {
+        return MIN_RADIUS + RADIUS_FACTOR * Math.sqrt(members.get(community).size());
+    }
+
+    /**
+     * Renders the view : aggregated links, links of expanded communities,
+     * super-nodes and then nodes of expanded communities.
+     * 
+     * @param graphics Graphics where to render
+     */
+    public void draw(Graphics2D graphics) {
+
+        updateCenters();
+        Stroke stroke = graphics.getStroke();
+
+        // Links between collapsed communities
+        graphics.setColor(AGGREGATED_LINK_COLOR);
+        for (Map.Entry<Long, Integer> link : communityLinks.entrySet()) {
+            int first = (int) (link.getKey() >>> 32);
+            int second = (int) (long) link.getKey();
+            if (!isExpanded(first) && !isExpanded(second)) {
+                drawAggregatedLink(graphics, xs[first], ys[first], xs[second], ys[second],
+                        link.getValue());
+            }
+        }
+
+        // Links of the expanded communities
+        updateExpandedLinks();
+        for (NodeLinks<E> links : nodeLinks) {
+            drawAggregatedLink(graphics, links.node().xLoc(), links.node().yLoc(),
+                    xs[links.community()], ys[links.community()], links.count());
+        }
+        for (Link<E> link : expandedLinks) {
+            graphics.setColor(Color.BLACK);
+            graphics.setStroke(stroke);
+            link.draw(graphics, Graph.LINK_LAYER);
+        }
+        graphics.setStroke(stroke);
+
+        for (int c = 0; c < members.size(); c++) {
+            if (isExpanded(c)) {
+                for (Node<E> node : members.get(c)) {
+                    node.draw(graphics, Graph.NODE_LAYER);
+                }
+            } else {
+                drawSuperNode(graphics, c);
+            }
+        }
+    }
+
+    /**
+     * Aggregates the links of the expanded communities again, if the
+     * structure of the graph or an expanded community has changed. Links to
+     * expanded communities are kept by their source, links to collapsed
+     * communities are aggregated by community.
+     */
+    private void updateExpandedLinks() {
+
+        updateStructure();
+        if (expandedLinksValid) {
+            return;
+        }
+
+        expandedLinks.clear();
+        nodeLinks.clear();
+        Map<Integer, Integer> collapsedLinks = new HashMap<>();
+        for (int c = 0; c < members.size(); c++) {
+            if (!isExpanded(c)) {
+                continue;
+            }
+            for (Node<E> node : members.get(c)) {
+                for (Link<E> link : graph.outgoingLinksView(node)) {
+                    int target = communities.get(link.getTarget());
+                    if (isExpanded(target)) {
+                        expandedLinks.add(link);
+                    } else {
+                        collapsedLinks.merge(target, 1, Integer::sum);
+                    }
+                }
+                for (Link<E> link : graph.incomingLinksView(node)) {
+                    int source = communities.get(link.getSource());
+                    if (!isExpanded(source)) {
+                        collapsedLinks.merge(source, 1, Integer::sum);
+                    }
+                }
+                for (Map.Entry<Integer, Integer> links : collapsedLinks.entrySet()) {
+                    nodeLinks.add(new NodeLinks<>(node, links.getKey(), links.getValue()));
+                }
+                collapsedLinks.clear();
+            }
+        }
+        expandedLinksValid = true;
+    }
+
+    /**
+     * Draws aggregated links as a line whose width grows with their number.
+     * 
+     * @param graphics Graphics where to render
+     * @param x1 first abscissa
+     * @param y1 first ordinate
+     * @param x2 second abscissa
+     * @param y2 second ordinate
+     * @param count number of links
+     */
+    private static void drawAggregatedLink(Graphics2D graphics, double x1, double y1, double x2,
+            double y2, int count) {
+        float width = 1 + (float) (Math.log(count) / Math.log(2));
+        graphics.setStroke(new BasicStroke(width));
+        graphics.drawLine((int) x1, (int) y1, (int) x2, (int) y2);
+    }
+
+    /**
+     * Draws the super-node of a collapsed community, with its number of nodes.
+     * 
+     * @param graphics Graphics where to render
+     * @param community the community
+     */
+    private void drawSuperNode(Graphics2D graphics, int community) {
+
+        int r = (int) radius(community);
+        int x = (int) xs[community];
+        int y = (int) ys[community];
+
+        graphics.setColor(Color.getHSBColor((community * 0.618f) % 1, 0.35f, 1f));
+        graphics.fillOval(x - r, y - r, 2 * r, 2 * r);
+        graphics.setColor(Color.BLACK);
+        graphics.drawOval(x - r, y - r, 2 * r, 2 * r);
+
+        String size = Integer.toString(members.get(community).size());
+        int width = graphics.getFontMetrics().stringWidth(size);
+        graphics.drawString(size, x - width / 2, y + graphics.getFontMetrics().getAscent() / 2);
+    }
+
+}
@@ -0,0 +1,868 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/**
+ * A read-only graph stored in primitive arrays, for analytics on large graphs.
+ * 
+ * <p>
+ * Nodes and links are numbered from 0. Links are stored in compressed sparse
+ * rows (CSR) : the links starting from a node are contiguous, sorted by
+ * target, and a reverse index gives the links arriving at a node. Node
+ * locations are stored in double arrays, and labels are shared in a string
+ * pool. A node costs about 30 bytes and a link 16 bytes, instead of several
+ * hundreds for {@link Node} and {@link Link} objects.
+ * </p>
+ * 
+ * <p>
+ * The {@link IGraph} methods use {@link Node} and {@link Link} facades, which
+ * are created on first access only, and then kept so that a node or a link
+ * always has the same facade. Methods modifying the graph are not
+ * supported. A compact graph is created with a {@link Builder}, or from a
+ * {@link Graph} with {@link #fromGraph(Graph)}.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class CompactGraph<E> implements IGraph<E> {
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(CompactGraph.class);
+
+    /** Default id of compact graphs. */
+    private static final String DEFAULT_ID = "Default";
+
+    /** Error message for modifications. */
+    private static final String READ_ONLY = "A compact graph cannot be modified.";
+
+    /**
+     * Builds a compact graph.
+     * 
+     * @param <E> the graph content type
+     */
+    public static class Builder<E> {
+
+        /** Initial capacity of arrays. */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /** Graph id. */
+        private String id = DEFAULT_ID;
+
+        /** Is the graph oriented ? */
+        private boolean oriented = true;
+
+        /** Number of nodes. */
+        private int nodeCount;
+
+        /** Label references of nodes. */
+        private int[] labelRefs = new int[INITIAL_CAPACITY];
+
+        /** Node abscissas. */
+        private double[] xs = new double[INITIAL_CAPACITY];
+
+        /** Node ordinates. */
+        private double[] ys = new double[INITIAL_CAPACITY];
+
+        /** Node contents, null if no node has contents. */
+        private Object[] contents;
+
+        /** Number of links. */
+        private int linkCount;
+
+        /** Link sources. */
+        private int[] sources = new int[INITIAL_CAPACITY];
+
+        /** Link targets. */
+        private int[] targets = new int[INITIAL_CAPACITY];
+
+        /** Label references of links, -1 for no label. */
+        private int[] linkLabelRefs = new int[INITIAL_CAPACITY];
+
+        /** Shared labels. */
+        private List<String> labelPool = new ArrayList<>();
+
+        /** References of shared labels. */
+        private Map<String, Integer> labelRefsByLabel = new HashMap<>();
+
+        /** @param id the graph id */
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        /** @param oriented is the graph oriented */
+        public void setOriented(boolean oriented) {
+            this.oriented = oriented;
+        }
+
+        /**
+         * @param label a label
+         * @return the reference of the label in the pool
+         */
+        private int labelRef(String label) {
+            return labelRefsByLabel.computeIfAbsent(label, l -> {
+                labelPool.add(l);
+                return labelPool.size() - 1;
+            });
+        }
+
+        /**
+         * Adds a node.
+         * 
+         * @param label the node label
+         * @param x the node abscissa
+         * @param y the node ordinate
+         * @return the number of the node
+         */
+        public int addNode(String label, double x, double y) {
+
+            if (nodeCount == labelRefs.length) {
+                int capacity = nodeCount * 2;
+                labelRefs = Arrays.copyOf(labelRefs, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                if (contents != null) {
+                    contents = Arrays.copyOf(contents, capacity);
+                }
+            }
+
+            labelRefs[nodeCount] = labelRef(label);
+            xs[nodeCount] = x;
+            ys[nodeCount] = y;
+            return nodeCount++;
+        }
+
+        /**
+         * Sets the contents of a node.
+         * 
+         * @param node number of the node
+         * @param nodeContents the node contents, nullable
+         */
+        public void setContents(int node, E nodeContents) {
+
+            checkNode(node);
+            if (contents == null) {
+                if (nodeContents == null) {
+                    return;
+                }
+                contents = new Object[labelRefs.length];
+            }
+            contents[node] = nodeContents;
+        }
+
+        /**
+         * Adds a link without label.
+         * 
+         * @param source number of the source node
+         * @param target number of the target node
+         * @return the number of the link, before the graph is built
+         */
+        public int addLink(int source, int target) {
+            return addLink(source, target, null);
+        }
+
+        /**
+         * Adds a link.
+         * 
+         * @param source number of the source node
+         * @param target number of the target node
+         * @param label the link label, nullable
+         * @return the number of the link, before the graph is built
+         */
+        public int addLink(int source, int target, String label) {
+
+            checkNode(source);
+            checkNode(target);
+
+            if (linkCount == sources.length) {
+                int capacity = linkCount * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                linkLabelRefs = Arrays.copyOf(linkLabelRefs, capacity);
+            }
+
+            sources[linkCount] = source;
+            targets[linkCount] = target;
+            linkLabelRefs[linkCount] = (label == null) ? -1 : labelRef(label);
+            return linkCount++;
+        }
+
+        /**
+         * @param node a node number
+         * @throws IllegalArgumentException if there is no such node
+         */
+        private void checkNode(int node) {
+            if (node < 0 || node >= nodeCount) {
+                throw new IllegalArgumentException("No node " + node + " in the graph.");
+            }
+        }
+
+        /**
+         * Builds the compact graph. Links are numbered by source, then by
+         * target.
+         * 
+         * @return the compact graph
+         */
+        public CompactGraph<E> build() {
+
+            int[] permutation = sortLinks();
+
+            CompactGraph<E> graph = new CompactGraph<>(id, oriented, nodeCount, linkCount);
+            graph.labelPool = labelPool.toArray(new String[0]);
+            graph.labelRefs = Arrays.copyOf(labelRefs, nodeCount);
+            graph.xs = Arrays.copyOf(xs, nodeCount);
+            graph.ys = Arrays.copyOf(ys, nodeCount);
+            graph.contents = (contents == null) ? null : Arrays.copyOf(contents, nodeCount);
+
+            for (int link = 0; link < linkCount; link++) {
+                int added = permutation[link];
+                graph.linkSources[link] = sources[added];
+                graph.linkTargets[link] = targets[added];
+                graph.linkLabelRefs[link] = linkLabelRefs[added];
+                graph.outOffsets[sources[added] + 1]++;
+                graph.inOffsets[targets[added] + 1]++;
+            }
+
+            for (int node = 0; node < nodeCount; node++) {
+                graph.outOffsets[node + 1] += graph.outOffsets[node];
+                graph.inOffsets[node + 1] += graph.inOffsets[node];
+            }
+
+            int[] inFill = Arrays.copyOf(graph.inOffsets, nodeCount);
+            for (int link = 0; link < linkCount; link++) {
+                graph.inLinks[inFill[graph.linkTargets[link]]++] = link;
+            }
+
+            LOG.debug("Built compact graph " + id + " with " + nodeCount + " nodes and "
+                    + linkCount + " links");
+            return graph;
+        }
+
+        /**
+         * Sorts the links by source, then by target, then by addition.
+         * 
+         * @return the added link numbers, in sorted order
+         */
+        private int[] sortLinks() {
+
+            // Counting sort by source
+            int[] offsets = new int[nodeCount + 1];
+            for (int link = 0; link < linkCount; link++) {
+                offsets[sources[link] + 1]++;
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+
+            long[] rows = new long[linkCount];
+            int[] fill = Arrays.copyOf(offsets, nodeCount);
+            for (int link = 0; link < linkCount; link++) {
+                // Target in high bits, addition order in low bits
+                rows[fill[sources[link]]++] = ((long) targets[link] << 32) | link;
+            }
+
+            int[] permutation = new int[linkCount];
+            for (int node = 0; node < nodeCount; node++) {
+                Arrays.sort(rows, offsets[node], offsets[node + 1]);
+            }
+            for (int link = 0; link < linkCount; link++) {
+                permutation[link] = (int) rows[link];
+            }
+            return permutation;
+        }
+    }
+
+    /** A node facade. */
+    private static class VertexNode<E> extends Node<E> {
+
+        /** Number of the node in the compact graph. */
+        private int vertex;
+
+        /**
+         * Creates a node facade.
+         * 
+         * @param owner the facade owner graph
+         * @param label the node label
+         * @param vertex the node number
+         */
+        VertexNode(Graph<E> owner, String label, int vertex) {
+            super(owner, label);
+            this.vertex = vertex;
+        }
+    }
+
+    /** A link facade. */
+    private static class EdgeLink<E> extends Link<E> {
+
+        /**
+         * Creates a link facade.
+         * 
+         * @param owner the facade owner graph
+         * @param source the source node facade
+         * @param target the target node facade
+         */
+        EdgeLink(Graph<E> owner, Node<E> source, Node<E> target) {
+            super(owner, source, target);
+        }
+    }
+
+    /**
+     * Facades by number, created on first access and kept for the lifetime of
+     * the graph, so that a number always gives the same facade.
+     * 
+     * @param <T> type of the facades
+     */
+    private static class FacadeCache<T> {
+
+        /** Number of facades. */
+        private int size;
+
+        /** Facades by number, allocated on first access. */
+        private Object[] facades;
+
+        /** Creates the facade for a number. */
+        private IntFunction<T> factory;
+
+        /**
+         * @param size number of facades
+         * @param factory creates the facade for a number
+         */
+        FacadeCache(int size, IntFunction<T> factory) {
+            this.size = size;
+            this.factory = factory;
+        }
+
+        /**
+         * @param number a number
+         * @return the facade for the number, created on first access
+         */
+        @SuppressWarnings("unchecked")
+        T get(int number) {
+
+            if (facades == null) {
+                facades = new Object[size];
+            }
+
+            T facade = (T) facades[number];
+            if (facade == null) {
+                facade = factory.apply(number);
+                facades[number] = facade;
+            }
+            return facade;
+        }
+    }
+
+    /** The graph id. */
+    private String id;
+
+    /** Is the graph oriented ? */
+    private boolean oriented;
+
+    /** Number of nodes. */
+    private int nodeCount;
+
+    /** Number of links. */
+    private int linkCount;
+
+    /** Shared labels. */
+    private String[] labelPool;
+
+    /** Label references of nodes. */
+    private int[] labelRefs;
+
+    /** Node abscissas. */
+    private double[] xs;
+
+    /** Node ordinates. */
+    private double[] ys;
+
+    /** Node contents, null if no node has contents. */
+    private Object[] contents;
+
+    /** Offsets of the links starting from each node, plus the link count. */
+    private int[] outOffsets;
+
+    /** Link sources. */
+    private int[] linkSources;
+
+    /** Link targets. */
+    private int[] linkTargets;
+
+    /** Label references of links, -1 for no label. */
+    private int[] linkLabelRefs;
+
+    /** Offsets in inLinks of the links arriving at each node. */
+    private int[] inOffsets;
+
+    /** Links arriving at each node. */
+    private int[] inLinks;
+
+    /** Owner of the facades, created on first use. */
+    private Graph<E> facadeOwner;
+
+    /** Node facades, created on first access. */
+    private FacadeCache<Node<E>> nodeFacades;
+
+    /** Link facades, created on first access. */
+    private FacadeCache<Link<E>> linkFacades;
+
+    /**
+     * Creates an empty compact graph, filled by the builder.
+     * 
+     * @param id the graph id
+     * @param oriented is the graph oriented
+     * @param nodeCount number of nodes
+     * @param linkCount number of links
+     */
+    private CompactGraph(String id, boolean oriented, int nodeCount, int linkCount) {
+        this.id = id;
+        this.oriented = oriented;
+        this.nodeCount = nodeCount;
+        this.linkCount = linkCount;
+        this.outOffsets = new int[nodeCount + 1];
+        this.inOffsets = new int[nodeCount + 1];
+        this.linkSources = new int[linkCount];
+        this.linkTargets = new int[linkCount];
+        this.linkLabelRefs = new int[linkCount];
+        this.inLinks = new int[linkCount];
+        this.nodeFacades = new FacadeCache<>(nodeCount, this::createNode);
+        this.linkFacades = new FacadeCache<>(linkCount, this::createLink);
+    }
+
+    /**
+     * Creates a compact copy of a graph. Node labels, locations and contents
+     * and link labels are copied.
+     * 
+     * @param <E> the graph content type
+     * @param graph the graph to copy
+     * @return the compact graph
+     */
+    public static <E> CompactGraph<E> fromGraph(Graph<E> graph) {
+
+        GraphSnapshot<E> snapshot = graph.snapshot();
+
+        Builder<E> builder = new Builder<>();
+        builder.setId(graph.getId());
+        builder.setOriented(graph.isOriented());
+
+        Map<Node<E>, Integer> numbers = new IdentityHashMap<>();
+        for (Node<E> node : snapshot.getNodes()) {
+            int number = builder.addNode(node.getLabel(), snapshot.getPositions().xLoc(node),
+                    snapshot.getPositions().yLoc(node));
+            builder.setContents(number, node.getContents().orElse(null));
+            numbers.put(node, number);
+        }
+
+        for (Link<E> link : snapshot.getLinks()) {
+            builder.addLink(numbers.get(link.getSource()), numbers.get(link.getTarget()),
+                    link.getLabel());
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isOriented() {
+        return oriented;
+    }
+
+    /** @return true if a link has a label */
+    @Override
+    public boolean hasLinkLabels() {
+        for (int linkLabelRef : linkLabelRefs) {
+            if (linkLabelRef >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return nodeCount == 0;
+    }
+
+    /** @return the number of nodes */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /** @return the number of links */
+    public int linkCount() {
+        return linkCount;
+    }
+
+    /**
+     * @param node a node number
+     * @return the node label
+     */
+    public String getLabel(int node) {
+        return labelPool[labelRefs[node]];
+    }
+
+    /**
+     * @param node a node number
+     * @return the node abscissa
+     */
+    public double xLoc(int node) {
+        return xs[node];
+    }
+
+    /**
+     * @param node a node number
+     * @return the node ordinate
+     */
+    public double yLoc(int node) {
+        return ys[node];
+    }
+
+    /**
+     * @param node a node number
+     * @return the node contents, if any
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<E> getContents(int node) {
+        return (contents == null) ? Optional.empty() : Optional.ofNullable((E) contents[node]);
+    }
+
+    /**
+     * @param node a node number
+     * @return the number of links starting from the node
+     */
+    public int outDegree(int node) {
+        return outOffsets[node + 1] - outOffsets[node];
+    }
+
+    /**
+     * @param node a node number
+     * @return the number of links arriving at the node
+     */
+    public int inDegree(int node) {
+        return inOffsets[node + 1] - inOffsets[node];
+    }
+
+    /**
+     * @param node a node number
+     * @return the number of the first link starting from the node, links
+     *         starting from the node are numbered up to
+     *         {@code firstOutgoingLink(node) + outDegree(node) - 1}
+     */
+    public int firstOutgoingLink(int node) {
+        return outOffsets[node];
+    }
+
+    /**
+     * @param node a node number
+     * @param action action called with the number of each successor, by
+     *            increasing number
+     */
+    public void forEachSuccessor(int node, IntConsumer action) {
+        for (int link = outOffsets[node]; link < outOffsets[node + 1]; link++) {
+            action.accept(linkTargets[link]);
+        }
+    }
+
+    /**
+     * @param node a node number
+     * @param action action called with the number of each predecessor
+     */
+    public void forEachPredecessor(int node, IntConsumer action) {
+        for (int i = inOffsets[node]; i < inOffsets[node + 1]; i++) {
+            action.accept(linkSources[inLinks[i]]);
+        }
+    }
+
+    /**
+     * @param link a link number
+     * @return the number of the link source node
+     */
+    public int getLinkSource(int link) {
+        return linkSources[link];
+    }
+
+    /**
+     * @param link a link number
+     * @return the number of the link target node
+     */
+    public int getLinkTarget(int link) {
+        return linkTargets[link];
+    }
+
+    /**
+     * @param link a link number
+     * @return the link label, or null
+     */
+    public String getLinkLabel(int link) {
+        int labelRef = linkLabelRefs[link];
+        return (labelRef < 0) ? null : labelPool[labelRef];
+    }
+
+    /**
+     * @param source a source node number
+     * @param target a target node number
+     * @return true if a link goes from the source to the target, searched in
+     *         O(log(degree))
+     */
+    public boolean hasLink(int source, int target) {
+        return Arrays.binarySearch(linkTargets, outOffsets[source], outOffsets[source + 1],
+                target) >= 0;
+    }
+
+    /** @return the owner of facades */
+    private Graph<E> getFacadeOwner() {
+        if (facadeOwner == null) {
+            facadeOwner = new Graph<>(id);
+            facadeOwner.setOriented(oriented);
+        }
+        return facadeOwner;
+    }
+
+    /**
+     * @param node a node number
+     * @return the node facade
+     */
+    public Node<E> getNode(int node) {
+        Objects.checkIndex(node, nodeCount);
+        return nodeFacades.get(node);
+    }
+
+    /**
+     * @param node a node number
+     * @return a new node facade
+     */
+    private Node<E> createNode(int node) {
+        Node<E> facade = new VertexNode<>(getFacadeOwner(), getLabel(node), node);
+        facade.moveTo(xs[node], ys[node]);
+        getContents(node).ifPresent(facade::setContents);
+        return facade;
+    }
+
+    /**
+     * @param link a link number
+     * @return the link facade
+     */
+    public Link<E> getLink(int link) {
+        Objects.checkIndex(link, linkCount);
+        return linkFacades.get(link);
+    }
+
+    /**
+     * @param link a link number
+     * @return a new link facade
+     */
+    private Link<E> createLink(int link) {
+        Link<E> facade = new EdgeLink<>(getFacadeOwner(), getNode(linkSources[link]),
+                getNode(linkTargets[link]));
+        facade.setLabel(getLinkLabel(link));
+        return facade;
+    }
+
+    /**
+     * @param node a node facade
+     * @return the node number, or -1 if the node is not a facade of this graph
+     */
+    public int indexOf(Node<E> node) {
+        return (node instanceof VertexNode<E> vertexNode && facadeOwner != null
+                && node.getOwner() == facadeOwner) ? vertexNode.vertex : -1;
+    }
+
+    /**
+     * @param node a node facade
+     * @return the node number
+     * @throws GraphException if the node is not a facade of this graph
+     */
+    private int checkBelongs(Node<E> node) throws GraphException {
+        int number = indexOf(node);
+        if (number < 0) {
+            throw new GraphException("The node does not belong to the graph.");
+        }
+        return number;
+    }
+
+    /**
+     * @return the nodes, as an unmodifiable list whose facades are created on
+     *         access
+     */
+    @Override
+    public List<Node<E>> getNodes() {
+        return new FacadeList<>(nodeCount, this::getNode);
+    }
+
+    /**
+     * @return the links, as an unmodifiable list whose facades are created on
+     *         access
+     */
+    @Override
+    public List<Link<E>> getLinks() {
+        return new FacadeList<>(linkCount, this::getLink);
+    }
+
+    /**
+     * A list of facades, created on access.
+     * 
+     * @param <T> type of the facades
+     */
+    private static class FacadeList<T> extends AbstractList<T> implements RandomAccess {
+
+        /** Number of facades. */
+        private int size;
+
+        /** Gives the facade for a number. */
+        private IntFunction<T> facades;
+
+        /**
+         * @param size number of facades
+         * @param facades gives the facade for a number
+         */
+        FacadeList(int size, IntFunction<T> facades) {
+            this.size = size;
+            this.facades = facades;
+        }
+
+        @Override
+        public T get(int index) {
+            Objects.checkIndex(index, size);
+            return facades.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    @Override
+    public List<Node<E>> listSuccessors(Node<E> node) throws GraphException {
+
+        int number = checkBelongs(node);
+        List<Node<E>> successors = new ArrayList<>(outDegree(number));
+        forEachSuccessor(number, successor -> successors.add(getNode(successor)));
+        return successors;
+    }
+
+    @Override
+    public Optional<Node<E>> getNodeForObject(E object) {
+
+        if (contents != null) {
+            for (int node = 0; node < nodeCount; node++) {
+                if (contents[node] != null && contents[node].equals(object)) {
+                    return Optional.of(getNode(node));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Not supported, a compact graph cannot be modified.
+     * 
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Link<E> addLink(Node<E> sourceNode, Node<E> targetNode) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, a compact graph cannot be modified.
+     * 
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Link<E> addLink(String source, String target) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, a compact graph cannot be modified.
+     * 
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void loadLinksFromFile(String fileName) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void writeDotGraph(String fileName) throws PurpleException {
+
+        GraphExporter<E> exporter = new GraphExporter<>(this);
+        exporter.setGraphAttribute("rankdir", "LR");
+        exporter.setGraphAttribute("ratio", "compress");
+        exporter.setGraphAttribute("concentrate", "true");
+        exporter.exportTo(Paths.get(fileName), GraphExporter.Format.DOT);
+    }
+
+    @Override
+    public boolean areLinked(Node<E> a, Node<E> b) {
+
+        int first = indexOf(a);
+        int second = indexOf(b);
+        return first >= 0 && second >= 0 && (hasLink(first, second) || hasLink(second, first));
+    }
+
+    @Override
+    public List<Node<E>> getStartNodes() {
+
+        List<Node<E>> result = new ArrayList<>();
+        for (int node = 0; node < nodeCount; node++) {
+            if (inDegree(node) == 0) {
+                result.add(getNode(node));
+            }
+        }
+        return result;
+    }
+
+    /** @return lists all nodes that are single or that are end of an edge. */
+    public List<Node<E>> getEndNodes() {
+
+        List<Node<E>> result = new ArrayList<>();
+        for (int node = 0; node < nodeCount; node++) {
+            if (outDegree(node) == 0) {
+                result.add(getNode(node));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String getPathString(List<Node<E>> pathToDisplay) {
+
+        StringBuilder description = new StringBuilder("(");
+        for (Node<E> node : pathToDisplay) {
+            if (description.length() > 1) {
+                description.append(" -> ");
+            }
+            description.append(node.getLabel());
+        }
+        return description.append(")").toString();
+    }
+
+    @Override
+    public String toString() {
+        return "CompactGraph[" + id + ", " + nodeCount + " nodes, " + linkCount + " links]";
+    }
+
+}
@@ -0,0 +1,518 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/**
+ * A graph that can be modified by several threads, while being rendered.
+ * 
+ * <p>
+ * Changes (including node moves) are made under the write lock of a
+ * read/write lock, queries under its read lock. Lists of nodes and links are
+ * returned as immutable copies, shared until the graph structure changes.
+ * Rendering uses a {@link GraphSnapshot} taken at once under the read lock, so
+ * that each paint shows a consistent state of the graph.
+ * </p>
+ * 
+ * <p>
+ * A batch holds the write lock until it is committed, it has to be committed
+ * by the thread that began it. Change listeners are notified with the write
+ * lock held. Snapshots and lists of nodes and links do not wait for a batch
+ * of another thread: the last ones published are returned, once there are
+ * some.
+ * </p>
+ * 
+ * @param <E> graph content type
+ */
+public class ConcurrentGraph<E> extends Graph<E> {
+
+    /** Lists of nodes and links, for a version of the graph structure. */
+    private record Structure<E>(long version, List<Node<E>> nodes, List<Link<E>> links) {
+    }
+
+    /** Lock protecting the graph. */
+    private ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Last lists of nodes and links returned. */
+    private volatile Structure<E> lastStructure;
+
+    /** Last snapshot taken. */
+    private volatile GraphSnapshot<E> lastSnapshot;
+
+    /**
+     * Creates an empty concurrent graph with an id.
+     * 
+     * @param id the graph id
+     */
+    public ConcurrentGraph(String id) {
+        super(id);
+    }
+
+    /** Creates an empty concurrent graph with the default id. */
+    public ConcurrentGraph() {
+        super();
+    }
+
+    /**
+     * Runs a query under the read lock.
+     * 
+     * @param <T> result type
+     * @param query the query
+     * @return the query result
+     */
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a query under the read lock.
+     * 
+     * @param query the query
+     */
+    private void read(Runnable query) {
+        lock.readLock().lock();
+        try {
+            query.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a change under the write lock.
+     * 
+     * @param <T> result type
+     * @param change the change
+     * @return the change result
+     */
+    private <T> T write(Supplier<T> change) {
+        lock.writeLock().lock();
+        try {
+            return change.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a change under the write lock.
+     * 
+     * @param change the change
+     */
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the lists of nodes and links, without waiting for a batch of
+     * another thread if lists were already published.
+     * 
+     * @return the lists of nodes and links, the last published ones if the
+     *         graph is being changed by another thread
+     */
+    private Structure<E> readStructure() {
+
+        if (!lock.readLock().tryLock()) {
+            Structure<E> structure = lastStructure;
+            if (structure != null) {
+                return structure;
+            }
+            lock.readLock().lock();
+        }
+        try {
+            return getStructure();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the lists of nodes and links for the current structure version */
+    private Structure<E> getStructure() {
+
+        Structure<E> structure = lastStructure;
+        if (structure == null || structure.version() != getStructureVersion()) {
+            structure = new Structure<>(getStructureVersion(), List.copyOf(nodeList()),
+                    List.copyOf(linkList()));
+            lastStructure = structure;
+        }
+        return structure;
+    }
+
+    @Override
+    public GraphBatch<E> beginBatch() {
+        lock.writeLock().lock();
+        return super.beginBatch();
+    }
+
+    @Override
+    void endBatch() {
+        try {
+            super.endBatch();
+
+            // The adjacency is rebuilt before readers can query it
+            if (!isInBatch()) {
+                validateIndex();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public GraphSnapshot<E> snapshot() {
+
+        // The paint path does not wait for a batch of another thread
+        if (!lock.readLock().tryLock()) {
+            GraphSnapshot<E> snapshot = lastSnapshot;
+            if (snapshot != null) {
+                return snapshot;
+            }
+            lock.readLock().lock();
+        }
+        try {
+            GraphSnapshot<E> snapshot = lastSnapshot;
+            if (snapshot == null || snapshot.getVersion() != getVersion()) {
+                Structure<E> structure = getStructure();
+                snapshot = new GraphSnapshot<>(getVersion(), structure.nodes(),
+                        structure.links(), NodePositions.capture(structure.nodes()));
+                lastSnapshot = snapshot;
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Node<E>> getNodes() {
+        return readStructure().nodes();
+    }
+
+    @Override
+    public List<Link<E>> getLinks() {
+        return readStructure().links();
+    }
+
+    @Override
+    void nodeRelabeled(Node<E> node, String oldLabel) {
+        write(() -> super.nodeRelabeled(node, oldLabel));
+    }
+
+    @Override
+    void nodeUpdated(Node<E> node) {
+        write(() -> super.nodeUpdated(node));
+    }
+
+    @Override
+    void linkUpdated(Link<E> link) {
+        write(() -> super.linkUpdated(link));
+    }
+
+    @Override
+    void restoreNode(Node<E> node) {
+        write(() -> super.restoreNode(node));
+    }
+
+    @Override
+    void restoreLink(Link<E> link) {
+        write(() -> super.restoreLink(link));
+    }
+
+    @Override
+    void moveNode(Node<E> node, double dx, double dy) {
+        write(() -> super.moveNode(node, dx, dy));
+    }
+
+    @Override
+    void moveNodeTo(Node<E> node, double x, double y) {
+        write(() -> super.moveNodeTo(node, x, y));
+    }
+
+    @Override
+    public Node<E> addNode(String label) {
+        return write(() -> super.addNode(label));
+    }
+
+    @Override
+    public void removeNode(Node<E> nodeToRemove) {
+        write(() -> super.removeNode(nodeToRemove));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return read(super::isEmpty);
+    }
+
+    @Override
+    public int nodeCount() {
+        return read(super::nodeCount);
+    }
+
+    @Override
+    protected Node<E> getNodeByIndex(int nodeIndex) throws GraphException {
+        lock.readLock().lock();
+        try {
+            return super.getNodeByIndex(nodeIndex);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getNodeIndex(Node<E> n) {
+        return read(() -> super.getNodeIndex(n));
+    }
+
+    @Override
+    public Optional<Node<E>> getNodeByLabel(String nodeLabel) {
+        return read(() -> super.getNodeByLabel(nodeLabel));
+    }
+
+    @Override
+    public Optional<Node<E>> getNodeForObject(E object) {
+        return read(() -> super.getNodeForObject(object));
+    }
+
+    @Override
+    public List<Node<E>> getStartNodes() {
+        return read(super::getStartNodes);
+    }
+
+    @Override
+    public List<Node<E>> getEndNodes() {
+        return read(super::getEndNodes);
+    }
+
+    @Override
+    public Link<E> addLink(String source, String target) {
+        return write(() -> super.addLink(source, target));
+    }
+
+    @Override
+    public Link<E> addLink(Node<E> sourceNode, Node<E> targetNode) throws GraphException {
+        lock.writeLock().lock();
+        try {
+            return super.addLink(sourceNode, targetNode);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Link<E> addLink(int sourceNodeId, int targetNodeId) throws GraphException {
+        lock.writeLock().lock();
+        try {
+            return super.addLink(sourceNodeId, targetNodeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    void appendAll(List<Node<E>> newNodes, List<Link<E>> newLinks) {
+        write(() -> super.appendAll(newNodes, newLinks));
+    }
+
+    @Override
+    public SplineLink<E> addSplineLink(Node<E> sourceNode, Node<E> targetNode) {
+        return write(() -> super.addSplineLink(sourceNode, targetNode));
+    }
+
+    @Override
+    public Link<E> getLink(int linkIndex) {
+        return read(() -> super.getLink(linkIndex));
+    }
+
+    @Override
+    public List<Link<E>> getOutgoingLinks(Node<E> node) {
+        return read(() -> super.getOutgoingLinks(node));
+    }
+
+    @Override
+    public List<Link<E>> getIncomingLinks(Node<E> node) {
+        return read(() -> super.getIncomingLinks(node));
+    }
+
+    @Override
+    public List<Link<E>> getIOLinks(Node<E> node) {
+        return read(() -> super.getIOLinks(node));
+    }
+
+    @Override
+    public int linkCount() {
+        return read(super::linkCount);
+    }
+
+    @Override
+    public void linearize(SplineLink<E> splineLink) {
+        write(() -> super.linearize(splineLink));
+    }
+
+    @Override
+    public void splinize(Link<E> linearLink) {
+        write(() -> super.splinize(linearLink));
+    }
+
+    @Override
+    public void removeLink(Link<E> linkToRemove) {
+        write(() -> super.removeLink(linkToRemove));
+    }
+
+    /**
+     * Renders the graph from a snapshot, without blocking changes.
+     * 
+     * @param graphics Graphics where to render
+     */
+    @Override
+    public void draw(Graphics2D graphics) {
+        GraphSnapshot<E> snapshot = snapshot();
+        placeLabels(graphics, snapshot.getNodes(), snapshot.getLinks(), snapshot.getPositions());
+        try {
+            snapshot.draw(graphics);
+        } finally {
+            endLabelPlacement();
+        }
+    }
+
+    /**
+     * Renders the graph structure from a snapshot, at given locations.
+     * 
+     * @param graphics Graphics where to render
+     * @param locator locations of the nodes
+     */
+    @Override
+    public void draw(Graphics2D graphics, NodeLocator<E> locator) {
+        GraphSnapshot<E> snapshot = snapshot();
+        placeLabels(graphics, snapshot.getNodes(), snapshot.getLinks(), locator);
+        try {
+            snapshot.draw(graphics, locator);
+        } finally {
+            endLabelPlacement();
+        }
+    }
+
+    @Override
+    public FocusView<E> focusView(Node<E> reference, int depth) {
+        return read(() -> super.focusView(reference, depth));
+    }
+
+    @Override
+    public double xmax() {
+        return read(super::xmax);
+    }
+
+    @Override
+    public double ymax() {
+        return read(super::ymax);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return read(super::getPreferredSize);
+    }
+
+    @Override
+    public void dragTo(int x, int y) {
+        write(() -> super.dragTo(x, y));
+    }
+
+    @Override
+    public Selectable select(int x, int y) {
+        return write(() -> super.select(x, y));
+    }
+
+    @Override
+    public void unselect() {
+        write(super::unselect);
+    }
+
+    @Override
+    public void load(File graphFileToLoad) {
+        write(() -> super.load(graphFileToLoad));
+    }
+
+    @Override
+    public void saveXML(String fileName) {
+        read(() -> super.saveXML(fileName));
+    }
+
+    @Override
+    public void loadXML(String fileName) throws GraphException {
+        lock.writeLock().lock();
+        try {
+            super.loadXML(fileName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void save(File graphFile) {
+        read(() -> super.save(graphFile));
+    }
+
+    @Override
+    public void saveText(String fileName) {
+        read(() -> super.saveText(fileName));
+    }
+
+    @Override
+    public List<Node<E>> listSuccessors(Node<E> n) throws GraphException {
+        lock.readLock().lock();
+        try {
+            return super.listSuccessors(n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void loadLinksFromFile(String fileName) throws PurpleException {
+        GraphBatch<E> batch = beginBatch();
+        try {
+            super.loadLinksFromFile(fileName);
+        } finally {
+            batch.commit();
+        }
+    }
+
+    @Override
+    public void writeDotGraph(String fileName) throws PurpleException {
+        lock.readLock().lock();
+        try {
+            super.writeDotGraph(fileName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean areLinked(Node<E> a, Node<E> b) {
+        return read(() -> super.areLinked(a, b));
+    }
+
+    @Override
+    public Node<E> getElementIn(int x, int y, int range) {
+        return read(() -> super.getElementIn(x, y, range));
+    }
+
+}
@@ -0,0 +1,632 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Bundles the links of a graph, with the force-directed edge bundling method
+ * (Holten and van Wijk).
+ * 
+ * <p>
+ * Each link is subdivided into points, attracted by the matching points of
+ * compatible links (links of similar direction, length and location), and
+ * held by springs between consecutive points. Unlike the original method,
+ * whose attraction is inversely proportional to the distance, a point is
+ * pulled towards each matching point with a force of constant magnitude,
+ * weighted by the compatibility : far points still attract, and close points
+ * do not make the moves diverge. The number of points doubles at each cycle,
+ * while the moves get smaller. Links are bundled from a snapshot of the
+ * graph, so bundling can run in background while the graph is edited. The
+ * resulting {@link EdgeBundles} are cached until the graph changes.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class EdgeBundler<E> {
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(EdgeBundler.class);
+
+    /** Default number of cycles. */
+    public static final int DEFAULT_CYCLES = 5;
+
+    /** Default number of iterations of the first cycle. */
+    public static final int DEFAULT_ITERATIONS = 50;
+
+    /** Default minimal compatibility of bundled links. */
+    public static final double DEFAULT_COMPATIBILITY_THRESHOLD = 0.6;
+
+    /** Default maximal number of links attracting a link. */
+    public static final int DEFAULT_MAX_PARTNERS = 64;
+
+    /** Ratio of the number of iterations between two cycles. */
+    private static final double ITERATIONS_RATIO = 2.0 / 3;
+
+    /** Move of a point by unit of force, in the first cycle. */
+    private static final double INITIAL_STEP = 0.1;
+
+    /** Default stiffness of the springs holding the points of a link. */
+    private static final double DEFAULT_STIFFNESS = 0.1;
+
+    /** Default size of the cells of the grid where bundles are sampled. */
+    private static final double DEFAULT_GRID_SIZE = 3;
+
+    /** Minimal length of a bundled link. */
+    private static final double EPSILON = 1e-6;
+
+    /** The bundled graph. */
+    private Graph<E> graph;
+
+    /** Number of cycles. */
+    private int cycles = DEFAULT_CYCLES;
+
+    /** Number of iterations of the first cycle. */
+    private int iterations = DEFAULT_ITERATIONS;
+
+    /** Minimal compatibility of bundled links. */
+    private double compatibilityThreshold = DEFAULT_COMPATIBILITY_THRESHOLD;
+
+    /** Maximal number of links attracting a link. */
+    private int maxPartners = DEFAULT_MAX_PARTNERS;
+
+    /** Stiffness of the springs holding the points of a link. */
+    private double stiffness = DEFAULT_STIFFNESS;
+
+    /** Size of the cells of the grid where bundles are sampled. */
+    private double gridSize = DEFAULT_GRID_SIZE;
+
+    /** Are forces computed in parallel. */
+    private boolean parallel;
+
+    /** Executor bundling in background, a new virtual thread if null. */
+    private Executor executor;
+
+    /** Listeners notified of new bundles, on the event dispatch thread. */
+    private List<Consumer<EdgeBundles<E>>> bundlesListeners = new CopyOnWriteArrayList<>();
+
+    /** Latest bundles. */
+    private volatile EdgeBundles<E> bundles;
+
+    /** Is a bundling running in background. */
+    private boolean computing;
+
+    /**
+     * Creates an edge bundler.
+     * 
+     * @param graph the graph whose links are bundled
+     */
+    public EdgeBundler(Graph<E> graph) {
+        this.graph = graph;
+    }
+
+    /** @return the bundled graph */
+    public Graph<E> getGraph() {
+        return graph;
+    }
+
+    /** @param cycles number of cycles, the number of points doubling at each one */
+    public void setCycles(int cycles) {
+        this.cycles = cycles;
+    }
+
+    /** @param iterations number of iterations of the first cycle */
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * @param compatibilityThreshold minimal compatibility of bundled links, from
+     *            0 (all links attract each other) to 1
+     */
+    public void setCompatibilityThreshold(double compatibilityThreshold) {
+        this.compatibilityThreshold = compatibilityThreshold;
+    }
+
+    /**
+     * @param maxPartners maximal number of links attracting a link, a sample of
+     *            the compatible links, bounding the cost of an iteration
+     */
+    public void setMaxPartners(int maxPartners) {
+        this.maxPartners = maxPartners;
+    }
+
+    /** @param stiffness stiffness of the springs holding the points of a link */
+    public void setStiffness(double stiffness) {
+        this.stiffness = stiffness;
+    }
+
+    /**
+     * @param gridSize size of the cells of the grid where bundles are sampled,
+     *            in pixels, larger cells merging more segments
+     */
+    public void setGridSize(double gridSize) {
+        this.gridSize = gridSize;
+    }
+
+    /** @param parallel true to compute forces in parallel */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /** @param executor executor bundling in background, null for a new virtual thread */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /** @param listener listener notified of new bundles, on the event dispatch thread */
+    public void addBundlesListener(Consumer<EdgeBundles<E>> listener) {
+        bundlesListeners.add(listener);
+    }
+
+    /** @param listener listener to remove */
+    public void removeBundlesListener(Consumer<EdgeBundles<E>> listener) {
+        bundlesListeners.remove(listener);
+    }
+
+    /** @return the latest bundles, possibly of a previous version of the graph, or null */
+    public EdgeBundles<E> getBundles() {
+        return bundles;
+    }
+
+    /** @return true if the latest bundles match the current version of the graph */
+    public boolean isUpToDate() {
+        EdgeBundles<E> current = bundles;
+        return current != null && current.getVersion() == graph.getVersion();
+    }
+
+    /** @return true if a bundling is running in background */
+    public synchronized boolean isComputing() {
+        return computing;
+    }
+
+    /**
+     * Bundles the links of the graph in the calling thread.
+     * 
+     * @return the bundles
+     */
+    public EdgeBundles<E> bundle() {
+        EdgeBundles<E> result = bundle(graph.snapshot());
+        bundles = result;
+        return result;
+    }
+
+    /**
+     * Bundles the links of the graph in background, if the latest bundles are
+     * out of date and no bundling is running. Listeners are notified when the
+     * new bundles are available.
+     * 
+     * @return true if a bundling has been started
+     */
+    public synchronized boolean update() {
+
+        if (computing || isUpToDate()) {
+            return false;
+        }
+        computing = true;
+
+        GraphSnapshot<E> snapshot = graph.snapshot();
+        Runnable task = () -> run(snapshot);
+        if (executor == null) {
+            Thread.ofVirtual().name("edge-bundler").start(task);
+        } else {
+            executor.execute(task);
+        }
+        return true;
+    }
+
+    /**
+     * Bundles links in background and publishes the bundles.
+     * 
+     * @param snapshot the snapshot of the graph
+     */
+    private void run(GraphSnapshot<E> snapshot) {
+
+        try {
+            EdgeBundles<E> result = bundle(snapshot);
+            bundles = result;
+            if (!bundlesListeners.isEmpty()) {
+                SwingUtilities.invokeLater(() -> {
+                    for (Consumer<EdgeBundles<E>> listener : bundlesListeners) {
+                        listener.accept(result);
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Edge bundling failed", e);
+        } finally {
+            synchronized (this) {
+                computing = false;
+            }
+        }
+    }
+
+    /**
+     * Bundles the links of a snapshot.
+     * 
+     * @param snapshot the snapshot of the graph
+     * @return the bundles
+     */
+    private EdgeBundles<E> bundle(GraphSnapshot<E> snapshot) {
+
+        long start = System.nanoTime();
+        Bundling bundling = new Bundling(snapshot);
+        bundling.run();
+        EdgeBundles<E> result = new EdgeBundles<>(snapshot, bundling.polylines(), gridSize);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Bundled " + snapshot.getLinks().size() + " links in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms, "
+                    + result.getDistinctSegmentCount() + " distinct segments out of "
+                    + result.getSegmentCount());
+        }
+        return result;
+    }
+
+    /** A bundling of the links of a snapshot. */
+    private final class Bundling {
+
+        /** Number of links. */
+        private final int m;
+
+        /** Abscissas of the sources. */
+        private final double[] sx;
+
+        /** Ordinates of the sources. */
+        private final double[] sy;
+
+        /** Abscissas of the targets. */
+        private final double[] tx;
+
+        /** Ordinates of the targets. */
+        private final double[] ty;
+
+        /** Lengths of the links. */
+        private final double[] lengths;
+
+        /**
+         * Compatible links of each link, as (index &lt;&lt; 1) | flipped, flipped
+         * links being in the opposite direction.
+         */
+        private final int[][] partners;
+
+        /** Compatibilities with the compatible links. */
+        private final double[][] compatibilities;
+
+        /** Number of points of each link. */
+        private int points;
+
+        /** Abscissas of the points, by link then point. */
+        private double[] xs;
+
+        /** Ordinates of the points, by link then point. */
+        private double[] ys;
+
+        /**
+         * Prepares the bundling.
+         * 
+         * @param snapshot the snapshot of the graph
+         */
+        private Bundling(GraphSnapshot<E> snapshot) {
+
+            List<Link<E>> links = snapshot.getLinks();
+            NodePositions<E> positions = snapshot.getPositions();
+            m = links.size();
+            sx = new double[m];
+            sy = new double[m];
+            tx = new double[m];
+            ty = new double[m];
+            lengths = new double[m];
+            int i = 0;
+            for (Link<E> link : links) {
+                sx[i] = positions.xLoc(link.getSource());
+                sy[i] = positions.yLoc(link.getSource());
+                tx[i] = positions.xLoc(link.getTarget());
+                ty[i] = positions.yLoc(link.getTarget());
+                lengths[i] = Math.hypot(tx[i] - sx[i], ty[i] - sy[i]);
+                i++;
+            }
+            partners = new int[m][];
+            compatibilities = new double[m][];
+        }
+
+        /** Finds the compatible links and moves the points, cycle after cycle. */
+        private void run() {
+
+            findCompatibleLinks();
+
+            points = 1;
+            xs = new double[m];
+            ys = new double[m];
+            for (int i = 0; i < m; i++) {
+                xs[i] = (sx[i] + tx[i]) / 2;
+                ys[i] = (sy[i] + ty[i]) / 2;
+            }
+
+            double step = INITIAL_STEP;
+            double cycleIterations = iterations;
+            for (int cycle = 0; cycle < cycles; cycle++) {
+                if (cycle > 0) {
+                    subdivide();
+                    step /= 2;
+                    cycleIterations *= ITERATIONS_RATIO;
+                }
+                double[] nextXs = new double[xs.length];
+                double[] nextYs = new double[ys.length];
+                for (int iteration = 0; iteration < Math.max(1, (int) cycleIterations);
+                        iteration++) {
+                    double cycleStep = step;
+                    IntStream range = IntStream.range(0, m);
+                    (parallel ? range.parallel() : range)
+                            .forEach(i -> move(i, cycleStep, nextXs, nextYs));
+                    System.arraycopy(nextXs, 0, xs, 0, xs.length);
+                    System.arraycopy(nextYs, 0, ys, 0, ys.length);
+                }
+            }
+        }
+
+        /**
+         * Finds the compatible links of each link. Links are sorted by the
+         * abscissa of their middle, so only links close enough to be
+         * compatible are examined.
+         */
+        private void findCompatibleLinks() {
+
+            double maxLength = 0;
+            double[] middles = new double[m];
+            for (int i = 0; i < m; i++) {
+                maxLength = Math.max(maxLength, lengths[i]);
+                middles[i] = (sx[i] + tx[i]) / 2;
+            }
+            int[] order = IntStream.range(0, m).boxed()
+                    .sorted(Comparator.comparingDouble(i -> middles[i]))
+                    .mapToInt(Integer::intValue).toArray();
+            double[] sortedMiddles = new double[m];
+            for (int r = 0; r < m; r++) {
+                sortedMiddles[r] = middles[order[r]];
+            }
+
+            // The position compatibility bounds the distance between middles
+            double reach = maxLength * (1 / Math.max(compatibilityThreshold, EPSILON) - 1);
+
+            IntStream range = IntStream.range(0, m);
+            (parallel ? range.parallel() : range).forEach(r -> {
+                int i = order[r];
+                int[] found = new int[8];
+                double[] values = new double[8];
+                int count = 0;
+                if (lengths[i] > EPSILON) {
+                    int first = lowerBound(sortedMiddles, sortedMiddles[r] - reach);
+                    for (int q = first; q < m && sortedMiddles[q] <= sortedMiddles[r] + reach;
+                            q++) {
+                        int j = order[q];
+                        double compatibility = (j == i) ? 0 : compatibility(i, j);
+                        if (compatibility >= compatibilityThreshold) {
+                            if (count == found.length) {
+                                found = Arrays.copyOf(found, 2 * count);
+                                values = Arrays.copyOf(values, 2 * count);
+                            }
+                            boolean flipped = (tx[i] - sx[i]) * (tx[j] - sx[j])
+                                    + (ty[i] - sy[i]) * (ty[j] - sy[j]) < 0;
+                            found[count] = (j << 1) | (flipped ? 1 : 0);
+                            values[count] = compatibility;
+                            count++;
+                        }
+                    }
+                }
+                keepSample(i, found, values, count);
+            });
+        }
+
+        /**
+         * Keeps a sample of the compatible links of a link, evenly spread
+         * among them, with compatibilities scaled so that the sample attracts
+         * the link as much as all compatible links.
+         * 
+         * @param i the link
+         * @param found compatible links
+         * @param values compatibilities of the compatible links
+         * @param count number of compatible links
+         */
+        private void keepSample(int i, int[] found, double[] values, int count) {
+
+            int kept = Math.min(count, maxPartners);
+            double stride = (double) count / kept;
+            partners[i] = new int[kept];
+            compatibilities[i] = new double[kept];
+            for (int c = 0; c < kept; c++) {
+                int position = (int) (c * stride);
+                partners[i][c] = found[position];
+                compatibilities[i][c] = values[position] * stride;
+            }
+        }
+
+        /**
+         * @param sorted sorted values
+         * @param value a value
+         * @return the index of the first sorted value not lower than the value
+         */
+        private int lowerBound(double[] sorted, double value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Compatibility of two links : product of the angle, scale and position
+         * compatibilities.
+         * 
+         * @param i a link
+         * @param j another link
+         * @return the compatibility, from 0 to 1
+         */
+        private double compatibility(int i, int j) {
+
+            if (lengths[j] <= EPSILON) {
+                return 0;
+            }
+            double dot = (tx[i] - sx[i]) * (tx[j] - sx[j]) + (ty[i] - sy[i]) * (ty[j] - sy[j]);
+            double angle = Math.abs(dot) / (lengths[i] * lengths[j]);
+
+            double average = (lengths[i] + lengths[j]) / 2;
+            double scale = 2 / (average / Math.min(lengths[i], lengths[j])
+                    + Math.max(lengths[i], lengths[j]) / average);
+
+            double middles = Math.hypot((sx[i] + tx[i] - sx[j] - tx[j]) / 2,
+                    (sy[i] + ty[i] - sy[j] - ty[j]) / 2);
+            double position = average / (average + middles);
+
+            return angle * scale * position;
+        }
+
+        /**
+         * Computes the moved points of a link.
+         * 
+         * @param i the link
+         * @param step move by unit of force
+         * @param nextXs abscissas of the moved points, updated
+         * @param nextYs ordinates of the moved points, updated
+         */
+        private void move(int i, double step, double[] nextXs, double[] nextYs) {
+
+            int base = i * points;
+            if (partners[i].length == 0) {
+                System.arraycopy(xs, base, nextXs, base, points);
+                System.arraycopy(ys, base, nextYs, base, points);
+                return;
+            }
+
+            // Springs are stiffer when segments are shorter
+            double spring = stiffness * (points + 1) / lengths[i];
+            for (int k = 0; k < points; k++) {
+
+                double x = xs[base + k];
+                double y = ys[base + k];
+                double previousX = (k == 0) ? sx[i] : xs[base + k - 1];
+                double previousY = (k == 0) ? sy[i] : ys[base + k - 1];
+                double nextX = (k == points - 1) ? tx[i] : xs[base + k + 1];
+                double nextY = (k == points - 1) ? ty[i] : ys[base + k + 1];
+                double fx = spring * (previousX + nextX - 2 * x);
+                double fy = spring * (previousY + nextY - 2 * y);
+
+                for (int p = 0; p < partners[i].length; p++) {
+                    int j = partners[i][p] >>> 1;
+                    int q = ((partners[i][p] & 1) == 0) ? k : points - 1 - k;
+                    double dx = xs[j * points + q] - x;
+                    double dy = ys[j * points + q] - y;
+                    double squaredDistance = dx * dx + dy * dy;
+                    if (squaredDistance > EPSILON) {
+
+                        // Unit direction, weighted by the compatibility
+                        double force = compatibilities[i][p] / Math.sqrt(squaredDistance);
+                        fx += force * dx;
+                        fy += force * dy;
+                    }
+                }
+                nextXs[base + k] = x + step * fx;
+                nextYs[base + k] = y + step * fy;
+            }
+        }
+
+        /** Doubles the number of points of each link, evenly spaced on the link. */
+        private void subdivide() {
+
+            int newPoints = 2 * points;
+            double[] newXs = new double[m * newPoints];
+            double[] newYs = new double[m * newPoints];
+            double[] polyline = new double[2 * (points + 2)];
+
+            for (int i = 0; i < m; i++) {
+                fillPolyline(i, polyline);
+                double total = 0;
+                for (int p = 1; p < points + 2; p++) {
+                    total += segmentLength(polyline, p);
+                }
+
+                // Walks along the polyline to place the new points
+                double spacing = total / (newPoints + 1);
+                int segment = 1;
+                double walked = 0;
+                for (int k = 0; k < newPoints; k++) {
+                    double target = spacing * (k + 1);
+                    double length = segmentLength(polyline, segment);
+                    while (walked + length < target && segment < points + 1) {
+                        walked += length;
+                        segment++;
+                        length = segmentLength(polyline, segment);
+                    }
+                    double ratio = (length > EPSILON) ? (target - walked) / length : 0;
+                    newXs[i * newPoints + k] = polyline[2 * segment - 2]
+                            + ratio * (polyline[2 * segment] - polyline[2 * segment - 2]);
+                    newYs[i * newPoints + k] = polyline[2 * segment - 1]
+                            + ratio * (polyline[2 * segment + 1] - polyline[2 * segment - 1]);
+                }
+            }
+            points = newPoints;
+            xs = newXs;
+            ys = newYs;
+        }
+
+        /**
+         * @param polyline a polyline, as x,y pairs
+         * @param p index of the end of a segment
+         * @return the length of the segment
+         */
+        private double segmentLength(double[] polyline, int p) {
+            return Math.hypot(polyline[2 * p] - polyline[2 * p - 2],
+                    polyline[2 * p + 1] - polyline[2 * p - 1]);
+        }
+
+        /**
+         * @param i a link
+         * @param polyline where to put the source, the points and the target of
+         *            the link, as x,y pairs
+         */
+        private void fillPolyline(int i, double[] polyline) {
+            polyline[0] = sx[i];
+            polyline[1] = sy[i];
+            for (int k = 0; k < points; k++) {
+                polyline[2 * k + 2] = xs[i * points + k];
+                polyline[2 * k + 3] = ys[i * points + k];
+            }
+            polyline[2 * points + 2] = tx[i];
+            polyline[2 * points + 3] = ty[i];
+        }
+
+        /**
+         * @return the polylines of the links, links that are not bundled being
+         *         straight segments
+         */
+        private double[][] polylines() {
+
+            double[][] result = new double[m][];
+            for (int i = 0; i < m; i++) {
+                if (partners[i].length == 0) {
+                    result[i] = new double[] { sx[i], sy[i], tx[i], ty[i] };
+                } else {
+                    result[i] = new double[2 * (points + 2)];
+                    fillPolyline(i, result[i]);
+                }
+            }
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Stroke;
+import java.awt.geom.Path2D;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Links of a graph snapshot bundled by an {@link EdgeBundler}, ready to be
+ * rendered.
+ * 
+ * <p>
+ * Each link is a polyline, drawn smoothly with splines. Polylines are sampled
+ * on a grid, and segments shared by several links are merged, so the bundles
+ * are rendered as a few paths, one for each class of link count, whatever the
+ * number of links.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class EdgeBundles<E> {
+
+    /** Number of points sampled on each spline of a polyline. */
+    private static final int SPLINE_STEPS = 4;
+
+    /** Number of path widths, the widest path holding the most shared segments. */
+    private static final int WIDTHS = 5;
+
+    /** Color of the bundles. */
+    private static final Color BUNDLE_COLOR = new Color(0, 0, 0, 96);
+
+    /** The bundled graph snapshot. */
+    private GraphSnapshot<E> snapshot;
+
+    /** Polylines of the links, as x,y pairs from the source to the target. */
+    private double[][] polylines;
+
+    /** Merged segments, one path for each class of link count. */
+    private Path2D.Float[] paths = new Path2D.Float[WIDTHS];
+
+    /** Number of drawn segments, before merging. */
+    private int segmentCount;
+
+    /** Number of distinct segments, after merging. */
+    private int distinctSegmentCount;
+
+    /**
+     * Creates bundles.
+     * 
+     * @param snapshot the bundled graph snapshot
+     * @param polylines polylines of the links, in the order of the snapshot
+     * @param gridSize size of the cells of the grid where polylines are
+     *            sampled, in pixels
+     */
+    EdgeBundles(GraphSnapshot<E> snapshot, double[][] polylines, double gridSize) {
+        this.snapshot = snapshot;
+        this.polylines = polylines;
+        merge(gridSize);
+    }
+
+    /**
+     * Samples the polylines on the grid and merges shared segments.
+     * 
+     * @param gridSize size of the cells of the grid
+     */
+    private void merge(double gridSize) {
+
+        // Number of links using each segment, segments being packed grid ends
+        Map<Long, Integer> segments = new HashMap<>();
+        for (double[] polyline : polylines) {
+            int last = polyline.length / 2 - 1;
+            long previous = addSegment(segments, -1, cell(polyline[0], polyline[1], gridSize));
+
+            // Follows the splines held by the interior points
+            for (int p = 1; p < last; p++) {
+                for (int step = 0; step <= SPLINE_STEPS; step++) {
+                    double tau = (double) step / SPLINE_STEPS;
+                    double x = Spline.point(tau, polyline[2 * p - 2], polyline[2 * p],
+                            polyline[2 * p + 2]);
+                    double y = Spline.point(tau, polyline[2 * p - 1], polyline[2 * p + 1],
+                            polyline[2 * p + 3]);
+                    previous = addSegment(segments, previous, cell(x, y, gridSize));
+                }
+            }
+            addSegment(segments, previous,
+                    cell(polyline[2 * last], polyline[2 * last + 1], gridSize));
+        }
+        distinctSegmentCount = segments.size();
+
+        for (int w = 0; w < WIDTHS; w++) {
+            paths[w] = new Path2D.Float();
+        }
+        for (Map.Entry<Long, Integer> segment : segments.entrySet()) {
+            long key = segment.getKey();
+            int linkCountLog = 31 - Integer.numberOfLeadingZeros(segment.getValue());
+            int width = Math.min(WIDTHS - 1, linkCountLog);
+            paths[width].moveTo(((key >>> 48) & 0xFFFF) * gridSize,
+                    ((key >>> 32) & 0xFFFF) * gridSize);
+            paths[width].lineTo(((key >>> 16) & 0xFFFF) * gridSize, (key & 0xFFFF) * gridSize);
+        }
+    }
+
+    /**
+     * @param x an abscissa
+     * @param y an ordinate
+     * @param gridSize size of the cells of the grid
+     * @return the packed coordinates of the grid cell containing the point
+     */
+    private static long cell(double x, double y, double gridSize) {
+        long cx = Math.clamp(Math.round(x / gridSize), 0, 0xFFFF);
+        long cy = Math.clamp(Math.round(y / gridSize), 0, 0xFFFF);
+        return (cx << 16) | cy;
+    }
+
+    /**
+     * Counts a segment between two cells, in both directions.
+     * 
+     * @param segments link counts of the segments, updated
+     * @param from the start cell, -1 if there is none
+     * @param to the end cell
+     * @return the end cell
+     */
+    private long addSegment(Map<Long, Integer> segments, long from, long to) {
+        if (from >= 0 && from != to) {
+            long key = (from < to) ? (from << 32) | to : (to << 32) | from;
+            segments.merge(key, 1, Integer::sum);
+            segmentCount++;
+        }
+        return to;
+    }
+
+    /** @return the version of the bundled graph */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    /** @return the bundled links */
+    public List<Link<E>> getLinks() {
+        return snapshot.getLinks();
+    }
+
+    /**
+     * @param index index of a link, in the order of {@link #getLinks()}
+     * @return the polyline of the link, as x,y pairs from the source to the
+     *         target
+     */
+    public double[] getPolyline(int index) {
+        return polylines[index].clone();
+    }
+
+    /** @return the number of drawn segments, before merging shared ones */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /** @return the number of distinct segments stroked by {@link #draw} */
+    public int getDistinctSegmentCount() {
+        return distinctSegmentCount;
+    }
+
+    /**
+     * Renders the bundled links, then the selected links as usual and the
+     * nodes of the snapshot.
+     * 
+     * @param graphics Graphics where to render
+     */
+    public void draw(Graphics2D graphics) {
+
+        Stroke stroke = graphics.getStroke();
+        graphics.setColor(BUNDLE_COLOR);
+        for (int w = 0; w < WIDTHS; w++) {
+            graphics.setStroke(new BasicStroke(1 + w));
+            graphics.draw(paths[w]);
+        }
+        graphics.setStroke(stroke);
+
+        NodePositions<E> positions = snapshot.getPositions();
+        for (Link<E> link : snapshot.getLinks()) {
+            if (link.isSelected()) {
+                link.draw(graphics, Graph.LINK_LAYER, positions);
+            }
+        }
+        for (Node<E> node : snapshot.getNodes()) {
+            node.draw(graphics, Graph.NODE_LAYER, positions.xLoc(node), positions.yLoc(node));
+        }
+    }
+
+}
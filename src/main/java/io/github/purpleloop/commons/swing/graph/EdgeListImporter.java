@@ -0,0 +1,165 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+
+/**
+ * Bulk importer for large edge-list files.
+ * 
+ * <p>
+ * The file has the same format as the one read by
+ * {@link Graph#loadLinksFromFile(String)} : one link per line, given as
+ * <code>source|target</code> node labels. Lines without separator are ignored.
+ * </p>
+ * 
+ * <p>
+ * The file is read as UTF-8 through {@link Files#lines(Path)}, whose
+ * spliterator splits the (memory-mapped) file in chunks that are parsed in
+ * parallel. Node labels are interned in a concurrent map, seeded with the nodes
+ * already present in the graph, so that each label is resolved once. Created
+ * nodes and links are added to the graph in a single step, at the end of the
+ * import.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class EdgeListImporter<E> {
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(EdgeListImporter.class);
+
+    /** Separator between source and target labels. */
+    private static final char SEPARATOR = '|';
+
+    /** The graph where to import links. */
+    private Graph<E> graph;
+
+    /** Is the file parsed in parallel ? */
+    private boolean parallel = true;
+
+    /**
+     * Creates an importer for the given graph.
+     * 
+     * @param graph the graph where to import links
+     */
+    public EdgeListImporter(Graph<E> graph) {
+        this.graph = graph;
+    }
+
+    /** @param parallel is the file parsed in parallel */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /** @return is the file parsed in parallel */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Imports all links of an edge-list file in the graph.
+     * 
+     * @param edgeListFile the edge-list file
+     * @return number of imported links
+     * @throws PurpleException in case of problems while reading the file
+     */
+    public int importFile(Path edgeListFile) throws PurpleException {
+
+        LOG.debug("Importing links from " + edgeListFile.toAbsolutePath());
+
+        // Labels of existing nodes are resolved first, keeping the last node
+        // in case of duplicates as in Graph#addLink(String, String).
+        Map<String, Node<E>> nodesByLabel = new ConcurrentHashMap<>();
+        for (Node<E> existingNode : graph.getNodes()) {
+            nodesByLabel.put(existingNode.getLabel(), existingNode);
+        }
+
+        // Nodes created during the import
+        Queue<Node<E>> createdNodes = new ConcurrentLinkedQueue<>();
+
+        List<Link<E>> importedLinks;
+        try (Stream<String> lines = Files.lines(edgeListFile, StandardCharsets.UTF_8)) {
+
+            Stream<String> linesToParse = parallel ? lines.parallel() : lines;
+            importedLinks = linesToParse.map(line -> parseLine(line, nodesByLabel, createdNodes))
+                    .filter(link -> link != null).collect(Collectors.toList());
+
+        } catch (NoSuchFileException e) {
+            throw new PurpleException("File not found " + edgeListFile, e);
+        } catch (IOException e) {
+            throw new PurpleException("IOError on file " + edgeListFile, e);
+        } catch (UncheckedIOException e) {
+            throw new PurpleException("IOError on file " + edgeListFile, e.getCause());
+        }
+
+        // Created nodes are added in creation order
+        List<Node<E>> importedNodes = new ArrayList<>(createdNodes);
+        importedNodes.sort(Comparator.comparingInt(Node::getId));
+
+        graph.appendAll(importedNodes, importedLinks);
+
+        LOG.debug("Imported " + importedLinks.size() + " links and " + importedNodes.size()
+                + " new nodes");
+
+        return importedLinks.size();
+    }
+
+    /**
+     * Parses a line of the edge-list file.
+     * 
+     * @param line the line to parse
+     * @param nodesByLabel interned nodes, by label
+     * @param createdNodes nodes created during the import
+     * @return the link for the line or null if the line does not describe a
+     *         link
+     */
+    private Link<E> parseLine(String line, Map<String, Node<E>> nodesByLabel,
+            Queue<Node<E>> createdNodes) {
+
+        int index = line.indexOf(SEPARATOR);
+        if (index == -1) {
+            return null;
+        }
+
+        Node<E> source = intern(line.substring(0, index), nodesByLabel, createdNodes);
+        Node<E> target = intern(line.substring(index + 1), nodesByLabel, createdNodes);
+
+        return new Link<>(graph, source, target);
+    }
+
+    /**
+     * Gets the node for a label, creating it (outside of the graph) if needed.
+     * 
+     * @param label the node label
+     * @param nodesByLabel interned nodes, by label
+     * @param createdNodes nodes created during the import
+     * @return the node having the label
+     */
+    private Node<E> intern(String label, Map<String, Node<E>> nodesByLabel,
+            Queue<Node<E>> createdNodes) {
+        return nodesByLabel.computeIfAbsent(label, newLabel -> {
+            Node<E> createdNode = new Node<>(graph, newLabel);
+            createdNodes.add(createdNode);
+            return createdNode;
+        });
+    }
+
+}
@@ -0,0 +1,284 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The neighborhood of a reference node, with transient locations used to
+ * render it, the nodes of the graph keeping their own locations.
+ * 
+ * <p>
+ * For an oriented graph, the view contains the predecessors and successors of
+ * the reference node, on two half circles around it. Otherwise, it contains
+ * the nodes reachable in a given number of links, on circles around the
+ * reference node, one for each distance. The neighborhood is found through
+ * the adjacency index of the graph, so building a view only costs the size of
+ * the neighborhood.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class FocusView<E> implements NodeLocator<E> {
+
+    /** Drawing reference abscissa. */
+    private static final int DRAW_REFERENCE_ABSCISSA = 400;
+
+    /** Drawing reference ordinate. */
+    private static final int DRAW_REFERENCE_ORDINATE = 400;
+
+    /** Drawing radius. */
+    private static final double DRAW_RADIUS = 300.0;
+
+    /** The graph. */
+    private Graph<E> graph;
+
+    /** The reference node. */
+    private Node<E> reference;
+
+    /** Maximal distance of the nodes to the reference node. */
+    private int depth;
+
+    /** Version of the graph structure when the view was built. */
+    private long structureVersion;
+
+    /** Nodes of the view, the reference node first. */
+    private List<Node<E>> nodes = new ArrayList<>();
+
+    /** Links of the view. */
+    private List<Link<E>> links = new ArrayList<>();
+
+    /** Links arriving at the reference node, for oriented graphs. */
+    private Set<Link<E>> incomingLinks = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Locations of the nodes of the view. */
+    private Map<Node<E>, double[]> locations = new IdentityHashMap<>();
+
+    /** Locations of the nodes of the view, as positions. */
+    private NodePositions<E> positions;
+
+    /**
+     * Builds the view, the graph being read but not modified.
+     * 
+     * @param graph the graph
+     * @param reference the reference node
+     * @param depth maximal distance of the nodes to the reference node, for
+     *            unoriented graphs
+     */
+    FocusView(Graph<E> graph, Node<E> reference, int depth) {
+
+        this.graph = graph;
+        this.reference = reference;
+        this.depth = depth;
+        this.structureVersion = graph.getStructureVersion();
+
+        locate(reference, DRAW_REFERENCE_ABSCISSA, DRAW_REFERENCE_ORDINATE);
+        if (graph.isOriented()) {
+            collectOriented();
+        } else {
+            collectUnoriented();
+        }
+        positions = NodePositions.capture(nodes, this);
+    }
+
+    /** Collects and locates the predecessors and successors of the reference. */
+    private void collectOriented() {
+
+        List<Link<E>> incoming = graph.incomingLinksView(reference);
+        List<Link<E>> outgoing = graph.outgoingLinksView(reference);
+
+        List<Node<E>> predecessors = new ArrayList<>();
+        for (Link<E> link : incoming) {
+            incomingLinks.add(link);
+            links.add(link);
+            if (!locations.containsKey(link.getSource())) {
+                predecessors.add(link.getSource());
+                locations.put(link.getSource(), null);
+            }
+        }
+
+        List<Node<E>> successors = new ArrayList<>();
+        for (Link<E> link : outgoing) {
+            if (!incomingLinks.contains(link)) {
+                links.add(link);
+            }
+            if (!locations.containsKey(link.getTarget())) {
+                successors.add(link.getTarget());
+                locations.put(link.getTarget(), null);
+            }
+        }
+
+        locateInHalfCircle(predecessors, 1);
+        locateInHalfCircle(successors, -1);
+    }
+
+    /** Collects the nodes reachable from the reference and locates them. */
+    private void collectUnoriented() {
+
+        Set<Link<E>> collectedLinks = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Node<E>> ring = List.of(reference);
+
+        for (int distance = 1; distance <= depth && !ring.isEmpty(); distance++) {
+
+            List<Node<E>> nextRing = new ArrayList<>();
+            for (Node<E> node : ring) {
+                collectLinks(node, graph.outgoingLinksView(node), nextRing, collectedLinks);
+                collectLinks(node, graph.incomingLinksView(node), nextRing, collectedLinks);
+            }
+
+            double radius = DRAW_RADIUS * distance / depth;
+            for (int i = 0; i < nextRing.size(); i++) {
+                double angle = 2.0 * Math.PI * i / nextRing.size();
+                locate(nextRing.get(i), DRAW_REFERENCE_ABSCISSA + radius * Math.cos(angle),
+                        DRAW_REFERENCE_ORDINATE - radius * Math.sin(angle));
+            }
+            ring = nextRing;
+        }
+    }
+
+    /**
+     * Collects links of a node and the nodes they lead to.
+     * 
+     * @param node a node of the view
+     * @param nodeLinks links of the node
+     * @param nextRing nodes found at the next distance, updated
+     * @param collectedLinks links already collected, updated
+     */
+    private void collectLinks(Node<E> node, List<Link<E>> nodeLinks, List<Node<E>> nextRing,
+            Set<Link<E>> collectedLinks) {
+
+        for (Link<E> link : nodeLinks) {
+            if (collectedLinks.add(link)) {
+                links.add(link);
+                Node<E> opposite = link.getOpposite(node);
+                if (!locations.containsKey(opposite)) {
+                    locations.put(opposite, null);
+                    nextRing.add(opposite);
+                }
+            }
+        }
+    }
+
+    /**
+     * Locates nodes on a half circle around the reference.
+     * 
+     * @param nodesToLocate nodes to locate
+     * @param sign sign (-1/+1) used to determine half circle
+     */
+    private void locateInHalfCircle(List<Node<E>> nodesToLocate, int sign) {
+
+        double da = sign * Math.PI / (nodesToLocate.size() + 1.0);
+        double angle = Math.PI / 2 + da;
+        for (Node<E> node : nodesToLocate) {
+            locate(node, DRAW_REFERENCE_ABSCISSA + DRAW_RADIUS * Math.cos(angle),
+                    DRAW_REFERENCE_ORDINATE - DRAW_RADIUS * Math.sin(angle));
+            angle += da;
+        }
+    }
+
+    /**
+     * Adds a node to the view at a location.
+     * 
+     * @param node the node
+     * @param x abscissa of the node
+     * @param y ordinate of the node
+     */
+    private void locate(Node<E> node, double x, double y) {
+        locations.put(node, new double[] { x, y });
+        nodes.add(node);
+    }
+
+    /** @return the graph */
+    public Graph<E> getGraph() {
+        return graph;
+    }
+
+    /** @return the reference node */
+    public Node<E> getReference() {
+        return reference;
+    }
+
+    /** @return the maximal distance of the nodes to the reference node */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** @return the nodes of the view, the reference node first */
+    public List<Node<E>> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /** @return the links of the view */
+    public List<Link<E>> getLinks() {
+        return Collections.unmodifiableList(links);
+    }
+
+    /** @return the locations of the nodes of the view */
+    public NodePositions<E> getPositions() {
+        return positions;
+    }
+
+    /**
+     * @return true if the graph structure has not changed since the view was
+     *         built
+     */
+    public boolean isUpToDate() {
+        return graph.getStructureVersion() == structureVersion;
+    }
+
+    @Override
+    public double xLoc(Node<E> node) {
+        double[] location = locations.get(node);
+        return (location == null) ? node.xLoc() : location[0];
+    }
+
+    @Override
+    public double yLoc(Node<E> node) {
+        double[] location = locations.get(node);
+        return (location == null) ? node.yLoc() : location[1];
+    }
+
+    /**
+     * Selects the node of the view drawn in (x,y).
+     * 
+     * @param x Selection abscissa
+     * @param y Selection ordinate
+     * @return the selected node or null
+     */
+    public Node<E> select(int x, int y) {
+
+        for (Node<E> node : nodes) {
+            if (node.isIn(x, y, xLoc(node), yLoc(node))) {
+                node.markSelected();
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Renders the view, links and then nodes. For oriented graphs, links
+     * before the reference node are drawn in gray, nodes keeping their own
+     * colors.
+     * 
+     * @param graphics Graphics where to render
+     */
+    public void draw(Graphics2D graphics) {
+
+        for (Link<E> link : links) {
+            graphics.setColor(incomingLinks.contains(link) ? Color.GRAY : Color.BLACK);
+            link.draw(graphics, Graph.LINK_LAYER, this);
+        }
+
+        for (Node<E> node : nodes) {
+            node.draw(graphics, Graph.NODE_LAYER, xLoc(node), yLoc(node));
+        }
+        graphics.setColor(Color.BLACK);
+    }
+
+}
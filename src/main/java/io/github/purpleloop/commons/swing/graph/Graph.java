@@ -1,6 +1,5 @@
 package io.github.purpleloop.commons.swing.graph;
 
-import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.io.BufferedReader;
@@ -13,11 +12,15 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.io.PrintWriter;
-import java.util.ArrayList;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
@@ -55,21 +58,6 @@ public class Graph<E> implements IGraph<E> {
     /** The default graph id. */
     private static final String DEFAULT_GRAPH_ID = "Default";
 
-    /** Drawing arbitrary abscissa. */
-    private static final int ARBITRARY_ORDINATE = 500;
-
-    /** Drawing arbitrary ordinate. */
-    private static final int ARBITRARY_ABSCISSA = 500;
-
-    /** Drawing reference abscissa. */
-    private static final int DRAW_REFERENCE_ABSCISSA = 400;
-
-    /** Drawing reference ordinate. */
-    private static final int DRAW_REFERENCE_ORDINATE = 400;
-
-    /** Drawing radius. */
-    private static final double DRAW_RADIUS = 300.0;
-
     /** The node rendering layer. */
     public static final int NODE_LAYER = 1;
 
@@ -83,7 +71,7 @@ public class Graph<E> implements IGraph<E> {
     private static final Log LOG = LogFactory.getLog(Graph.class);
 
     /** Next graph object counter. */
-    private int nextGraphObjectId;
+    private AtomicInteger nextGraphObjectId;
 
     /** The graph id. */
     private String graphId;
@@ -94,6 +82,27 @@ public class Graph<E> implements IGraph<E> {
     /** Set of the links of the graph. */
     private List<Link<E>> links;
 
+    /** Lookup structures on nodes and links. */
+    private GraphIndex<E> index;
+
+    /** Listeners of the graph changes. */
+    private List<GraphChangeListener<E>> changeListeners;
+
+    /** Changes not yet notified to listeners. */
+    private GraphChanges<E> pendingChanges;
+
+    /** Depth of nested open batches. */
+    private int batchDepth;
+
+    /** Is the adjacency maintenance deferred until the end of the batch ? */
+    private boolean adjacencyDeferred;
+
+    /** Version of the graph, incremented on each change. */
+    private long version;
+
+    /** Version of the graph structure, incremented when nodes or links change. */
+    private long structureVersion;
+
     /**
      * Is node order change allowed ?
      * 
@@ -110,6 +119,9 @@ public class Graph<E> implements IGraph<E> {
     /** Are the links labeled ? */
     private boolean linkLabels = true;
 
+    /** Placer hiding overlapping labels, null if labels are always rendered. */
+    private LabelPlacer<E> labelPlacer;
+
     /** Is content rendering active ? */
     private boolean renderContents = false;
 
@@ -127,9 +139,12 @@ public class Graph<E> implements IGraph<E> {
     public Graph(String id) {
         setId(id);
 
-        this.nextGraphObjectId = 0;
+        this.nextGraphObjectId = new AtomicInteger();
         this.nodes = new LinkedList<>();
         this.links = new LinkedList<>();
+        this.index = new GraphIndex<>(this);
+        this.changeListeners = new CopyOnWriteArrayList<>();
+        this.pendingChanges = new GraphChanges<>();
     }
 
     /** Creates an empty graph with the default id. */
@@ -195,9 +210,264 @@ public class Graph<E> implements IGraph<E> {
         this.abbreviateLength = abbreviateLength;
     }
 
+    /** @return an unmodifiable view on the internal list of nodes */
+    List<Node<E>> nodeList() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /** @return an unmodifiable view on the internal list of links */
+    List<Link<E>> linkList() {
+        return Collections.unmodifiableList(links);
+    }
+
     /** @return the next graph object id */
-    public synchronized int getNextGraphObjectId() {
-        return nextGraphObjectId++;
+    public int getNextGraphObjectId() {
+        return nextGraphObjectId.getAndIncrement();
+    }
+
+    /**
+     * Adds a listener of the graph changes.
+     * 
+     * @param listener the listener to add
+     */
+    public void addGraphChangeListener(GraphChangeListener<E> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener of the graph changes.
+     * 
+     * @param listener the listener to remove
+     */
+    public void removeGraphChangeListener(GraphChangeListener<E> listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Begins a batch of changes. Until the batch is committed, changes are
+     * notified to listeners as a single event, and the adjacency index is
+     * rebuilt at most once.
+     * 
+     * @return the open batch, to commit when changes are done
+     */
+    public GraphBatch<E> beginBatch() {
+        if (batchDepth == 0) {
+            adjacencyDeferred = false;
+        }
+        batchDepth++;
+        return new GraphBatch<>(this);
+    }
+
+    /** @return true if a batch is open */
+    public boolean isInBatch() {
+        return batchDepth > 0;
+    }
+
+    /** Ends a batch, notifying changes if it is the outermost one. */
+    void endBatch() {
+        batchDepth--;
+        fireGraphChanged();
+    }
+
+    /** Rebuilds the adjacency index now, if it has been invalidated. */
+    void validateIndex() {
+        index.validateAdjacency();
+    }
+
+    /** @return true if changes have to be recorded for listeners */
+    private boolean isRecordingChanges() {
+        return !changeListeners.isEmpty();
+    }
+
+    /** Notifies the recorded changes to listeners, unless a batch is open. */
+    private void fireGraphChanged() {
+
+        if (batchDepth == 0 && !pendingChanges.isEmpty()) {
+            GraphChangeEvent<E> event = pendingChanges.toEvent(this);
+            for (GraphChangeListener<E> listener : changeListeners) {
+                listener.graphChanged(event);
+            }
+        }
+    }
+
+    /**
+     * Defers the adjacency maintenance if a batch is open.
+     * 
+     * @return true if the adjacency does not have to be updated
+     */
+    private boolean deferAdjacency() {
+
+        if (batchDepth == 0) {
+            return false;
+        }
+
+        if (!adjacencyDeferred) {
+            adjacencyDeferred = true;
+            index.invalidateAdjacency();
+            return true;
+        }
+
+        // If a query rebuilt the adjacency during the batch, it is maintained
+        return !index.isAdjacencyValid();
+    }
+
+    /**
+     * Registers a node in the graph.
+     * 
+     * @param node the node to register
+     */
+    private void registerNode(Node<E> node) {
+
+        structureChanged();
+        nodes.add(node);
+        index.addNode(node);
+        if (isRecordingChanges()) {
+            pendingChanges.nodeAdded(node);
+        }
+    }
+
+    /**
+     * Registers a link in the graph.
+     * 
+     * @param link the link to register
+     */
+    private void registerLink(Link<E> link) {
+
+        structureChanged();
+        links.add(link);
+        if (!deferAdjacency()) {
+            index.addLink(link);
+        }
+        if (isRecordingChanges()) {
+            pendingChanges.linkAdded(link);
+        }
+    }
+
+    /**
+     * Updates the index after a node label change.
+     * 
+     * @param node the relabeled node
+     * @param oldLabel the previous label of the node
+     */
+    void nodeRelabeled(Node<E> node, String oldLabel) {
+        index.relabel(node, oldLabel);
+        nodeUpdated(node);
+    }
+
+    /**
+     * Records a change of the label, shape, color or pinned state of a node.
+     * 
+     * @param node the updated node
+     */
+    void nodeUpdated(Node<E> node) {
+
+        version++;
+        if (isRecordingChanges() && index.contains(node)) {
+            pendingChanges.nodeUpdated(node);
+            fireGraphChanged();
+        }
+    }
+
+    /**
+     * Records a change of the label of a link.
+     * 
+     * @param link the updated link
+     */
+    void linkUpdated(Link<E> link) {
+
+        version++;
+        if (isRecordingChanges() && index.contains(link)) {
+            pendingChanges.linkUpdated(link);
+            fireGraphChanged();
+        }
+    }
+
+    /**
+     * Adds back a node that has been removed from this graph.
+     * 
+     * @param node the node to restore
+     */
+    void restoreNode(Node<E> node) {
+
+        if (node.getOwner() == this && !index.contains(node)) {
+            registerNode(node);
+            fireGraphChanged();
+        }
+    }
+
+    /**
+     * Adds back a link that has been removed from this graph. Its nodes have
+     * to be in the graph.
+     * 
+     * @param link the link to restore
+     */
+    void restoreLink(Link<E> link) {
+
+        if (index.contains(link.getSource()) && index.contains(link.getTarget())
+                && !index.contains(link)) {
+            registerLink(link);
+            fireGraphChanged();
+        }
+    }
+
+    /** Records a change of the nodes or links of the graph. */
+    private void structureChanged() {
+        version++;
+        structureVersion++;
+    }
+
+    /**
+     * @return the version of the graph, changing each time the graph is
+     *         modified (nodes, links or locations)
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the version of the graph structure, changing each time nodes or
+     *         links are added or removed
+     */
+    public long getStructureVersion() {
+        return structureVersion;
+    }
+
+    /**
+     * Moves a node by a vector, if it is not pinned.
+     * 
+     * @param node the node to move
+     * @param dx relative horizontal move
+     * @param dy relative vertical move
+     */
+    void moveNode(Node<E> node, double dx, double dy) {
+        if (node.translate(dx, dy)) {
+            nodeMoved(node);
+        }
+    }
+
+    /**
+     * Moves a node to a location, if it is not pinned.
+     * 
+     * @param node the node to move
+     * @param x target abscissa
+     * @param y target ordinate
+     */
+    void moveNodeTo(Node<E> node, double x, double y) {
+        moveNode(node, x - node.xLoc(), y - node.yLoc());
+    }
+
+    /**
+     * Records the move of a node.
+     * 
+     * @param node the moved node
+     */
+    private void nodeMoved(Node<E> node) {
+
+        version++;
+        if (isRecordingChanges() && index.contains(node)) {
+            pendingChanges.nodeMoved(node);
+            fireGraphChanged();
+        }
     }
 
     /**
@@ -208,7 +478,8 @@ public class Graph<E> implements IGraph<E> {
      */
     public Node<E> addNode(String label) {
         Node<E> newNode = new Node<>(this, label);
-        nodes.add(newNode);
+        registerNode(newNode);
+        fireGraphChanged();
         return newNode;
     }
 
@@ -220,24 +491,54 @@ public class Graph<E> implements IGraph<E> {
      */
     public void removeNode(Node<E> nodeToRemove) {
 
-        List<Link<E>> linksToRemove = new ArrayList<>();
+        if (!index.contains(nodeToRemove)) {
+            return;
+        }
+
+        // Links connected to the node are given by the index
+        Set<Link<E>> linksToRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+        linksToRemove.addAll(getIOLinks(nodeToRemove));
 
-        // Browses the list of links, checking those the node can belong.
-        for (Link<E> checkedLink : links) {
-            if (checkedLink.hasExtremity(nodeToRemove)) {
-                // A link to remove has been found, add to the remove list
-                linksToRemove.add(checkedLink);
+        if (!linksToRemove.isEmpty()) {
+            links.removeIf(linksToRemove::contains);
+            for (Link<E> removedLink : linksToRemove) {
+                unregisterLink(removedLink);
             }
         }
 
-        links.removeAll(linksToRemove);
-
+        structureChanged();
         nodes.remove(nodeToRemove);
+        index.removeNode(nodeToRemove);
+        if (isRecordingChanges()) {
+            pendingChanges.nodeRemoved(nodeToRemove);
+        }
+
+        fireGraphChanged();
     }
 
+    /**
+     * Unregisters a link already removed from the list of links.
+     * 
+     * @param removedLink the removed link
+     */
+    private void unregisterLink(Link<E> removedLink) {
+
+        structureChanged();
+        if (!deferAdjacency()) {
+            index.removeLink(removedLink);
+        }
+        if (isRecordingChanges()) {
+            pendingChanges.linkRemoved(removedLink);
+        }
+    }
+
+    /**
+     * @return all the nodes of the graph, as an unmodifiable view (nodes have
+     *         to be added or removed using the graph methods)
+     */
     @Override
     public List<Node<E>> getNodes() {
-        return nodes;
+        return Collections.unmodifiableList(nodes);
     }
 
     @Override
@@ -294,19 +595,7 @@ public class Graph<E> implements IGraph<E> {
      * @return the requested node if it has been found, optional
      */
     public Optional<Node<E>> getNodeByLabel(String nodeLabel) {
-        Node<E> testedNode = null;
-        boolean found = false;
-        int nodeIndex = 0;
-        while ((nodeIndex < nodes.size()) && (!found)) {
-            testedNode = nodes.get(nodeIndex);
-            found = testedNode.getLabel().equals(nodeLabel);
-            nodeIndex += (found) ? 0 : 1;
-        }
-        if (found) {
-            return Optional.of(testedNode);
-        } else {
-            return Optional.empty();
-        }
+        return index.getFirstNode(nodeLabel);
     }
 
     /**
@@ -327,16 +616,12 @@ public class Graph<E> implements IGraph<E> {
     @Override
     public List<Node<E>> getStartNodes() {
 
-        // Initially consider all nodes of the graph.
-        List<Node<E>> resultat = new LinkedList<>(nodes);
-
-        // Remove all nodes that are destinations, meaning that another node is
+        // Keep nodes that are not destinations, meaning that no other node is
         // "before"
-        Node<E> targetNode;
-        for (Link<E> testedLink : links) {
-            targetNode = testedLink.getTarget();
-            if (targetNode != null) {
-                resultat.remove(targetNode);
+        List<Node<E>> resultat = new LinkedList<>();
+        for (Node<E> node : nodes) {
+            if (index.getIncomingLinks(node).isEmpty()) {
+                resultat.add(node);
             }
         }
 
@@ -346,15 +631,12 @@ public class Graph<E> implements IGraph<E> {
     /** @return lists all nodes that are single or that are end of an edge. */
     public List<Node<E>> getEndNodes() {
 
-        List<Node<E>> result = new LinkedList<>(nodes);
-
-        // Remove all nodes that are sources, meaning that another node is
+        // Keep nodes that are not sources, meaning that no other node is
         // "after"
-        Node<E> source;
-        for (Link<E> testedLink : links) {
-            source = testedLink.getSource();
-            if (source != null) {
-                result.remove(source);
+        List<Node<E>> result = new LinkedList<>();
+        for (Node<E> node : nodes) {
+            if (index.getOutgoingLinks(node).isEmpty()) {
+                result.add(node);
             }
         }
 
@@ -364,24 +646,17 @@ public class Graph<E> implements IGraph<E> {
     @Override
     public Link<E> addLink(String source, String target) {
 
-        Node<E> sourceNode = null;
-        Node<E> targetNode = null;
-        for (Node<E> testedNode : nodes) {
-            if (testedNode.hasLabel(source)) {
-                sourceNode = testedNode;
-            }
-            if (testedNode.hasLabel(target)) {
-                targetNode = testedNode;
-            }
-        }
+        // In case of homonyms, the last added node is used
+        Node<E> sourceNode = index.getLastNode(source).orElse(null);
+        Node<E> targetNode = index.getLastNode(target).orElse(null);
 
         if (sourceNode == null) {
             sourceNode = new Node<>(this, source);
-            nodes.add(sourceNode);
+            registerNode(sourceNode);
         }
         if (targetNode == null) {
             targetNode = new Node<>(this, target);
-            nodes.add(targetNode);
+            registerNode(targetNode);
         }
 
         try {
@@ -401,16 +676,17 @@ public class Graph<E> implements IGraph<E> {
             return null;
         }
 
-        if (!nodes.contains(sourceNode)) {
+        if (!index.contains(sourceNode)) {
             throw new GraphException("The source node does not belong to the graph");
         }
 
-        if (!nodes.contains(targetNode)) {
+        if (!index.contains(targetNode)) {
             throw new GraphException("The target node does not belong to the graph");
         }
 
         Link<E> l = new Link<>(this, sourceNode, targetNode);
-        links.add(l);
+        registerLink(l);
+        fireGraphChanged();
         return l;
     }
 
@@ -429,6 +705,28 @@ public class Graph<E> implements IGraph<E> {
         return addLink(sourceNode, targetNode);
     }
 
+    /**
+     * Appends nodes and links, already created for this graph, in a single
+     * step. No checks are made, this is intended for bulk imports.
+     * 
+     * @param newNodes the nodes to append
+     * @param newLinks the links to append, between nodes of the graph
+     */
+    void appendAll(List<Node<E>> newNodes, List<Link<E>> newLinks) {
+
+        GraphBatch<E> batch = beginBatch();
+        try {
+            for (Node<E> newNode : newNodes) {
+                registerNode(newNode);
+            }
+            for (Link<E> newLink : newLinks) {
+                registerLink(newLink);
+            }
+        } finally {
+            batch.commit();
+        }
+    }
+
     /**
      * Adds a spline link between two nodes of the graph.
      * 
@@ -437,8 +735,10 @@ public class Graph<E> implements IGraph<E> {
      * @return the created spline link
      */
     public SplineLink<E> addSplineLink(Node<E> sourceNode, Node<E> targetNode) {
-        links.add(new SplineLink<>(this, sourceNode, targetNode));
-        return new SplineLink<>(this, sourceNode, targetNode);
+        SplineLink<E> splineLink = new SplineLink<>(this, sourceNode, targetNode);
+        registerLink(splineLink);
+        fireGraphChanged();
+        return splineLink;
     }
 
     /**
@@ -449,9 +749,12 @@ public class Graph<E> implements IGraph<E> {
         return links.get(linkIndex);
     }
 
-    /** @return all the links of the graph */
+    /**
+     * @return all the links of the graph, as an unmodifiable view (links have
+     *         to be added or removed using the graph methods)
+     */
     public List<Link<E>> getLinks() {
-        return links;
+        return Collections.unmodifiableList(links);
     }
 
     /**
@@ -461,15 +764,7 @@ public class Graph<E> implements IGraph<E> {
      * @return all outgoing links
      */
     public List<Link<E>> getOutgoingLinks(Node<E> node) {
-
-        List<Link<E>> lns = new LinkedList<>();
-
-        for (Link<E> l : links) {
-            if (l.hasSource(node)) {
-                lns.add(l);
-            }
-        }
-        return lns;
+        return new LinkedList<>(index.getOutgoingLinks(node));
     }
 
     /**
@@ -479,15 +774,23 @@ public class Graph<E> implements IGraph<E> {
      * @return all incoming links
      */
     public List<Link<E>> getIncomingLinks(Node<E> node) {
+        return new LinkedList<>(index.getIncomingLinks(node));
+    }
 
-        List<Link<E>> lns = new LinkedList<>();
+    /**
+     * @param node a node
+     * @return an unmodifiable view on the links starting from the node
+     */
+    List<Link<E>> outgoingLinksView(Node<E> node) {
+        return index.getOutgoingLinks(node);
+    }
 
-        for (Link<E> l : links) {
-            if (l.leadsTo(node)) {
-                lns.add(l);
-            }
-        }
-        return lns;
+    /**
+     * @param node a node
+     * @return an unmodifiable view on the links arriving at the node
+     */
+    List<Link<E>> incomingLinksView(Node<E> node) {
+        return index.getIncomingLinks(node);
     }
 
     /**
@@ -499,10 +802,11 @@ public class Graph<E> implements IGraph<E> {
      */
     public List<Link<E>> getIOLinks(Node<E> node) {
 
-        LinkedList<Link<E>> lns = new LinkedList<>();
+        LinkedList<Link<E>> lns = new LinkedList<>(index.getOutgoingLinks(node));
 
-        for (Link<E> l : links) {
-            if (l.hasExtremity(node)) {
+        // Loops are already in outgoing links
+        for (Link<E> l : index.getIncomingLinks(node)) {
+            if (!l.hasSource(node)) {
                 lns.add(l);
             }
         }
@@ -528,12 +832,7 @@ public class Graph<E> implements IGraph<E> {
         Link<E> nl = new Link<>(this, splineLink.getSource(), splineLink.getTarget());
         nl.setLabel(splineLink.getLabel());
 
-        try {
-            links.set(idx, nl);
-        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
-            LOG.error("Error : Transformation attempted to modify a link at a bad index.", e);
-
-        }
+        replaceLink(idx, splineLink, nl);
     }
 
     /**
@@ -548,11 +847,33 @@ public class Graph<E> implements IGraph<E> {
         SplineLink<E> nl = new SplineLink<>(this, linearLink.getSource(), linearLink.getTarget());
         nl.setLabel(linearLink.getLabel());
 
+        replaceLink(idx, linearLink, nl);
+    }
+
+    /**
+     * Replaces a link by another one, at the same index.
+     * 
+     * @param idx index of the replaced link
+     * @param replacedLink the replaced link
+     * @param newLink the new link
+     */
+    private void replaceLink(int idx, Link<E> replacedLink, Link<E> newLink) {
+
         try {
-            links.set(idx, nl);
-        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            links.set(idx, newLink);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
             LOG.error("Error : Transformation attempted to modify a link at a bad index.", e);
+            return;
         }
+
+        unregisterLink(replacedLink);
+        if (!deferAdjacency()) {
+            index.addLink(newLink);
+        }
+        if (isRecordingChanges()) {
+            pendingChanges.linkAdded(newLink);
+        }
+        fireGraphChanged();
     }
 
     /**
@@ -561,7 +882,10 @@ public class Graph<E> implements IGraph<E> {
      * @param linkToRemove the link to remove
      */
     public void removeLink(Link<E> linkToRemove) {
-        links.remove(linkToRemove);
+        if (links.remove(linkToRemove)) {
+            unregisterLink(linkToRemove);
+            fireGraphChanged();
+        }
     }
 
     /**
@@ -573,189 +897,102 @@ public class Graph<E> implements IGraph<E> {
      */
     public void draw(Graphics2D graphics) {
 
-        for (Link<E> l : links) {
-            l.draw(graphics, LINK_LAYER);
-        }
+        placeLabels(graphics, nodes, links, NodeLocator.current());
+        try {
+            for (Link<E> l : links) {
+                l.draw(graphics, LINK_LAYER);
+            }
 
-        for (Node<E> n : nodes) {
-            n.draw(graphics, NODE_LAYER);
+            for (Node<E> n : nodes) {
+                n.draw(graphics, NODE_LAYER);
 
+            }
+        } finally {
+            endLabelPlacement();
         }
     }
 
     /**
-     * Collects all nodes and links that can be reached from a reference node,
-     * up to a given depth.
+     * Renders a graph on a graphic, with nodes at given locations instead of
+     * their current ones.
      * 
-     * @param referenceNode The reference node
-     * @param reachableNodes All reachable nodes
-     * @param reachableLinks All reachable links
-     * @param depth depth
+     * @param graphics Graphics where to render
+     * @param locator locations of the nodes
      */
-    private void getReachables(Node<E> referenceNode, int depth, List<Node<E>> reachableNodes,
-            List<Link<E>> reachableLinks) {
-
-        // The reference node is always reachable
-        reachableNodes.add(referenceNode);
-
-        // Max depth reached
-        if (depth <= 0) {
-            return;
-        }
+    public void draw(Graphics2D graphics, NodeLocator<E> locator) {
 
-        Node<E> childNode = null;
-
-        // For all links concerning the reference node
-        for (Link<E> ioLink : getIOLinks(referenceNode)) {
-
-            // Get the opposite node (child)
-            childNode = ioLink.getOpposite(referenceNode);
-
-            // If not yet processed
-            if (!reachableNodes.contains(childNode)) {
+        placeLabels(graphics, nodes, links, locator);
+        try {
+            for (Link<E> l : links) {
+                l.draw(graphics, LINK_LAYER, locator);
+            }
 
-                // Add the link and go in recursion
-                reachableLinks.add(ioLink);
-                getReachables(childNode, depth - 1, reachableNodes, reachableLinks);
+            for (Node<E> n : nodes) {
+                n.draw(graphics, NODE_LAYER, locator.xLoc(n), locator.yLoc(n));
             }
+        } finally {
+            endLabelPlacement();
         }
     }
 
     /**
-     * Render a part of the graph centered on a reference node.
+     * Places the labels before rendering, if the label placement is active.
      * 
-     * The rendering occurs in two layers, links and then nodes.
-     *
-     * @param graphics Graphics used to render
-     * @param reference the reference node
-     * @param depth rendering depth
+     * @param graphics Graphics where to render
+     * @param renderedNodes the rendered nodes
+     * @param renderedLinks the rendered links
+     * @param locator locations of the nodes
      */
-    public void drawWithFocus(Graphics2D graphics, Node<E> reference, int depth) {
-
-        // Move all nodes to an arbitrary location
-        for (Node<E> nn : nodes) {
-            nn.moveTo(ARBITRARY_ABSCISSA, ARBITRARY_ORDINATE);
+    protected void placeLabels(Graphics2D graphics, List<Node<E>> renderedNodes,
+            List<Link<E>> renderedLinks, NodeLocator<E> locator) {
+        if (labelPlacer != null) {
+            labelPlacer.place(graphics, renderedNodes, renderedLinks, locator);
         }
+    }
 
-        // Moves only the reference node at a given location
-        reference.moveTo(DRAW_REFERENCE_ABSCISSA, DRAW_REFERENCE_ORDINATE);
-
-        if (!isOriented()) {
-            drawUnOrientedWithFocus(graphics, reference, depth);
-
-        } else {
-            drawOrientedWithFocus(graphics, reference);
-
+    /** Ends the rendering with placed labels, labels being no more hidden. */
+    protected void endLabelPlacement() {
+        if (labelPlacer != null) {
+            labelPlacer.endRendering();
         }
-
-        reference.draw(graphics, NODE_LAYER);
     }
 
     /**
-     * Draws an oriented graph with focus on a reference node.
+     * Takes a snapshot of the graph, that can be rendered while the graph is
+     * modified.
      * 
-     * @param graphics the graphics where to write
-     * @param reference the reference node
+     * @return an immutable snapshot of the nodes, links and locations
      */
-    private void drawOrientedWithFocus(Graphics2D graphics, Node<E> reference) {
-        List<Link<E>> focusedInLinks = getIncomingLinks(reference);
-        List<Link<E>> focusedOutLinks = getOutgoingLinks(reference);
-
-        List<Node<E>> focusedInNodes = new LinkedList<>();
-        for (Link<E> l : focusedInLinks) {
-            focusedInNodes.add(l.getSource());
-        }
-
-        List<Node<E>> focusedOutNodes = new LinkedList<>();
-        for (Link<E> l : focusedOutLinks) {
-            focusedOutNodes.add(l.getTarget());
-        }
-
-        drawNodesInHalfCircle(focusedInNodes, 1);
-        drawNodesInHalfCircle(focusedOutNodes, -1);
-
-        for (Link<E> l : focusedInLinks) {
-            graphics.setColor(Color.GRAY);
-            l.draw(graphics, LINK_LAYER);
-        }
-
-        for (Link<E> l : focusedOutLinks) {
-            graphics.setColor(Color.BLACK);
-            l.draw(graphics, LINK_LAYER);
-        }
-
-        for (Node<E> n : focusedInNodes) {
-            graphics.setColor(Color.GRAY);
-            n.draw(graphics, NODE_LAYER);
-        }
-
-        for (Node<E> n : focusedOutNodes) {
-            graphics.setColor(Color.BLACK);
-            n.draw(graphics, NODE_LAYER);
-        }
-
-        graphics.setColor(Color.BLACK);
-    }
-
-    private void drawUnOrientedWithFocus(Graphics2D graphics, Node<E> reference, int depth) {
-        LinkedList<Node<E>> focusedNodes = new LinkedList<>();
-        LinkedList<Link<E>> focusedLinks = new LinkedList<>();
-        getReachables(reference, depth, focusedNodes, focusedLinks);
-
-        drawNodesInCircle(focusedNodes);
-
-        for (Link<E> l : focusedLinks) {
-            l.draw(graphics, LINK_LAYER);
-        }
-
-        for (Node<E> n : focusedNodes) {
-            n.draw(graphics, NODE_LAYER);
-        }
+    public GraphSnapshot<E> snapshot() {
+        return new GraphSnapshot<>(version, List.copyOf(nodes), List.copyOf(links),
+                NodePositions.capture(nodes));
     }
 
     /**
-     * Draw given nodes in a half circular way around the reference.
+     * Builds the view of the neighborhood of a reference node, with transient
+     * locations. The graph is not modified.
      * 
-     * @param nodesToDraw nodes to draw
-     * @param sign sign (-1/+1) used to determine half circle to draw
+     * @param reference the reference node
+     * @param depth maximal distance of the nodes to the reference node, for
+     *            unoriented graphs
+     * @return the view of the neighborhood
      */
-    private void drawNodesInHalfCircle(List<Node<E>> nodesToDraw, int sign) {
-
-        int nodesCount = nodesToDraw.size();
-
-        if (nodesCount > 0) {
-
-            int nx;
-            int ny;
-            double da = sign * Math.PI / (nodesCount + 1.0);
-            double angle = Math.PI / 2 + da;
-
-            for (Node<E> n : nodesToDraw) {
-                nx = DRAW_REFERENCE_ABSCISSA + (int) (DRAW_RADIUS * Math.cos(angle));
-                ny = DRAW_REFERENCE_ORDINATE - (int) (DRAW_RADIUS * Math.sin(angle));
-                n.moveTo(nx, ny);
-                angle += da;
-            }
-        }
+    public FocusView<E> focusView(Node<E> reference, int depth) {
+        return new FocusView<>(this, reference, depth);
     }
 
-    private void drawNodesInCircle(LinkedList<Node<E>> nodesToDraw) {
-
-        int nodesCount = nodesToDraw.size();
-
-        if (nodesCount > 0) {
-
-            int nx;
-            int ny;
-
-            // Unfold all neighbor nodes in a circular way
-            for (int i = 1; i < nodesCount; i++) {
-                double angle = 2.0 * Math.PI * (i - 1.0) / (nodesCount - 1.0);
-                nx = DRAW_REFERENCE_ABSCISSA + (int) (DRAW_RADIUS * Math.cos(angle));
-                ny = DRAW_REFERENCE_ORDINATE - (int) (DRAW_RADIUS * Math.sin(angle));
-                (nodesToDraw.get(i)).moveTo(nx, ny);
-            }
-        }
+    /**
+     * Render a part of the graph centered on a reference node, without moving
+     * the nodes.
+     * 
+     * The rendering occurs in two layers, links and then nodes.
+     * 
+     * @param graphics Graphics used to render
+     * @param reference the reference node
+     * @param depth rendering depth
+     */
+    public void drawWithFocus(Graphics2D graphics, Node<E> reference, int depth) {
+        focusView(reference, depth).draw(graphics);
     }
 
     /**
@@ -864,6 +1101,24 @@ public class Graph<E> implements IGraph<E> {
 
     }
 
+    /** Removes all nodes and links of the graph, before a load. */
+    private void clear() {
+
+        structureChanged();
+        if (isRecordingChanges()) {
+            for (Link<E> removedLink : links) {
+                pendingChanges.linkRemoved(removedLink);
+            }
+            for (Node<E> removedNode : nodes) {
+                pendingChanges.nodeRemoved(removedNode);
+            }
+        }
+
+        nodes = new LinkedList<>();
+        links = new LinkedList<>();
+        index.rebuild();
+    }
+
     /**
      * Loads a graph from a binary file.
      * 
@@ -871,20 +1126,20 @@ public class Graph<E> implements IGraph<E> {
      */
     public void load(File graphFileToLoad) {
 
-        try (DataInputStream in = new DataInputStream(new FileInputStream(graphFileToLoad));) {
+        GraphBatch<E> batch = beginBatch();
+        try (DataInputStream in = new DataInputStream(new FileInputStream(graphFileToLoad))) {
 
             String id = in.readUTF();
 
             if (id.equals(SIGNATURE)) {
 
-                nextGraphObjectId = in.readInt();
+                nextGraphObjectId.set(in.readInt());
 
-                nodes = new LinkedList<>();
-                links = new LinkedList<>();
+                clear();
 
                 int nodeCount = in.readInt();
                 for (int i = 0; i < nodeCount; i++) {
-                    nodes.add(new Node<>(this, in));
+                    registerNode(new Node<>(this, in));
                 }
 
                 int linkCount = in.readInt();
@@ -895,9 +1150,9 @@ public class Graph<E> implements IGraph<E> {
                     linkType = in.readInt();
 
                     if (linkType == Link.LINK_CODE) {
-                        links.add(new Link<>(this, in));
+                        registerLink(new Link<>(this, in));
                     } else if (linkType == SplineLink.LINK_CODE) {
-                        links.add(new SplineLink<>(this, in));
+                        registerLink(new SplineLink<>(this, in));
                     } else {
                         LOG.error("Unknown link type : " + linkType);
                     }
@@ -909,6 +1164,8 @@ public class Graph<E> implements IGraph<E> {
 
         } catch (IOException e) {
             LOG.error("IO exception", e);
+        } finally {
+            batch.commit();
         }
     }
 
@@ -938,7 +1195,7 @@ public class Graph<E> implements IGraph<E> {
             document = db.newDocument();
 
             root = document.createElement("graph");
-            root.setAttribute("nextId", Integer.toString(nextGraphObjectId));
+            root.setAttribute("nextId", Integer.toString(nextGraphObjectId.get()));
 
             document.appendChild(root);
 
@@ -989,6 +1246,7 @@ public class Graph<E> implements IGraph<E> {
         int i;
         int typ;
 
+        GraphBatch<E> batch = beginBatch();
         try {
 
             File f = new File(fileName);
@@ -1005,8 +1263,8 @@ public class Graph<E> implements IGraph<E> {
 
             if (rootElement.getTagName().equals("graph")) {
 
-                nextGraphObjectId = Integer.parseInt(rootElement.getAttribute("nextId"));
-                nodes = new LinkedList<>();
+                nextGraphObjectId.set(Integer.parseInt(rootElement.getAttribute("nextId")));
+                clear();
 
                 NodeList nodeListNodes = rootElement.getElementsByTagName("nodes");
                 el = (Element) nodeListNodes.item(0);
@@ -1014,10 +1272,9 @@ public class Graph<E> implements IGraph<E> {
 
                 for (i = 0; i < nl2.getLength(); i++) {
                     n = new Node<>(this, (Element) nl2.item(i));
-                    nodes.add(n);
+                    registerNode(n);
                 }
 
-                links = new LinkedList<>();
                 NodeList nodeListLinks = rootElement.getElementsByTagName("links");
                 el = (Element) nodeListLinks.item(0);
                 nl2 = el.getElementsByTagName("link");
@@ -1038,7 +1295,7 @@ public class Graph<E> implements IGraph<E> {
                     } else {
                         link = new SplineLink<>(this, linkElement);
                     }
-                    links.add(link);
+                    registerLink(link);
                 }
 
             } else {
@@ -1047,6 +1304,8 @@ public class Graph<E> implements IGraph<E> {
             }
         } catch (ParserConfigurationException | SAXException | IOException e) {
             LOG.error("XML error", e);
+        } finally {
+            batch.commit();
         }
 
     }
@@ -1071,7 +1330,7 @@ public class Graph<E> implements IGraph<E> {
         try (DataOutputStream out = new DataOutputStream(new FileOutputStream(graphFile));) {
 
             out.writeUTF(SIGNATURE);
-            out.writeInt(nextGraphObjectId);
+            out.writeInt(nextGraphObjectId.get());
 
             out.writeInt(nodes.size());
             for (int i = 0; i < nodes.size(); i++) {
@@ -1144,6 +1403,26 @@ public class Graph<E> implements IGraph<E> {
         return linkLabels;
     }
 
+    /**
+     * Activates the label placement : labels that would overlap other labels
+     * are not rendered, the placement being updated when nodes move.
+     * 
+     * @param labelPlacement true to hide overlapping labels, false to render
+     *            all labels
+     */
+    public void setLabelPlacement(boolean labelPlacement) {
+        if (!labelPlacement) {
+            labelPlacer = null;
+        } else if (labelPlacer == null) {
+            labelPlacer = new LabelPlacer<>(this);
+        }
+    }
+
+    /** @return the placer hiding overlapping labels, or null if it is not active */
+    public LabelPlacer<E> getLabelPlacer() {
+        return labelPlacer;
+    }
+
     /** @return if node labels are used, false otherwise */
     public boolean hasNodeLabels() {
         return nodeLabels;
@@ -1155,10 +1434,8 @@ public class Graph<E> implements IGraph<E> {
         checkBelongs(n);
 
         List<Node<E>> suc = new LinkedList<>();
-        for (Link<E> l : links) {
-            if (l.getSource().equals(n)) {
-                suc.add(l.getTarget());
-            }
+        for (Link<E> l : index.getOutgoingLinks(n)) {
+            suc.add(l.getTarget());
         }
         return suc;
     }
@@ -1220,53 +1497,28 @@ public class Graph<E> implements IGraph<E> {
     @Override
     public void writeDotGraph(String fileName) throws PurpleException {
 
-        File file = new File(fileName);
-        try (PrintWriter pw = new PrintWriter(file);
-
-        ) {
-            LOG.debug("Writing DOT file " + file.getAbsolutePath());
-
-            pw.println("digraph G {");
-            pw.println(" rankdir=LR; ");
-            pw.println("ratio=compress;");
-            pw.println("concentrate=true;");
-            pw.println();
+        GraphExporter<E> exporter = new GraphExporter<>(this);
+        exporter.setGraphAttribute("rankdir", "LR");
+        exporter.setGraphAttribute("ratio", "compress");
+        exporter.setGraphAttribute("concentrate", "true");
+        exporter.exportTo(Paths.get(fileName), GraphExporter.Format.DOT);
+    }
 
-            int id = 0;
-            for (Node<E> n : nodes) {
-                pw.println("N" + (id++) + "[ label=\"" + n.getLabel() + "\" ];");
-            }
+    @Override
+    public boolean areLinked(Node<E> a, Node<E> b) {
 
-            for (Link<E> e : getLinks()) {
-                int src = nodes.indexOf(e.getSource());
-                int dst = nodes.indexOf(e.getTarget());
-                pw.println("N" + src + " -> N" + dst + ";");
+        for (Link<E> l : index.getOutgoingLinks(a)) {
+            if (l.hasExtremity(b)) {
+                return true;
             }
-
-            pw.println("}");
-
-            pw.flush();
-
-        } catch (IOException e) {
-            throw new PurpleException("Failed to write DOT graph.", e);
         }
 
-    }
-
-    @Override
-    public boolean areLinked(Node<E> a, Node<E> b) {
-        int i = 0;
-        boolean found = false;
-        Link<E> l = null;
-
-        while ((i < links.size()) && (!found)) {
-            l = links.get(i);
-            found = l.hasExtremity(a) && l.hasExtremity(b);
-            if (!found) {
-                i++;
+        for (Link<E> l : index.getIncomingLinks(a)) {
+            if (l.hasExtremity(b)) {
+                return true;
             }
         }
-        return found;
+        return false;
     }
 
     /**
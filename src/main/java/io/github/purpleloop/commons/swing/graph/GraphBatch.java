@@ -0,0 +1,65 @@
+package io.github.purpleloop.commons.swing.graph;
+
+/**
+ * A batch of graph changes.
+ * 
+ * <p>
+ * While a batch is open, the graph defers the maintenance of its adjacency
+ * index, and records changes instead of notifying them. When the batch is
+ * committed, change listeners receive a single coalesced event. Batches can be
+ * nested, the event being sent when the outermost batch is committed.
+ * </p>
+ * 
+ * <pre>
+ * GraphBatch&lt;E&gt; batch = graph.beginBatch();
+ * try {
+ *     // Any changes on the graph
+ * } finally {
+ *     batch.commit();
+ * }
+ * </pre>
+ * 
+ * @param <E> the graph content type
+ */
+public class GraphBatch<E> implements AutoCloseable {
+
+    /** The changed graph. */
+    private Graph<E> graph;
+
+    /** Is the batch still open ? */
+    private boolean open;
+
+    /**
+     * Creates an open batch. Use {@link Graph#beginBatch()}.
+     * 
+     * @param graph the changed graph
+     */
+    GraphBatch(Graph<E> graph) {
+        this.graph = graph;
+        this.open = true;
+    }
+
+    /** @return the changed graph */
+    public Graph<E> getGraph() {
+        return graph;
+    }
+
+    /** @return is the batch still open */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /** Commits the batch. Has no effect if the batch is already committed. */
+    public void commit() {
+        if (open) {
+            open = false;
+            graph.endBatch();
+        }
+    }
+
+    @Override
+    public void close() {
+        commit();
+    }
+
+}
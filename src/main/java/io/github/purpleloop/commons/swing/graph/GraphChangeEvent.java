@@ -0,0 +1,125 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An event describing the changes of a graph.
+ * 
+ * <p>
+ * Changes are coalesced : an object added then removed during the same batch
+ * is not reported, and added objects are not reported as moved or updated.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class GraphChangeEvent<E> {
+
+    /** The changed graph. */
+    private Graph<E> source;
+
+    /** Added nodes. */
+    private List<Node<E>> addedNodes;
+
+    /** Removed nodes. */
+    private List<Node<E>> removedNodes;
+
+    /** Moved nodes. */
+    private List<Node<E>> movedNodes;
+
+    /** Updated nodes. */
+    private List<Node<E>> updatedNodes;
+
+    /** Added links. */
+    private List<Link<E>> addedLinks;
+
+    /** Removed links. */
+    private List<Link<E>> removedLinks;
+
+    /** Updated links. */
+    private List<Link<E>> updatedLinks;
+
+    /**
+     * Creates a graph change event.
+     * 
+     * @param source the changed graph
+     * @param addedNodes added nodes
+     * @param removedNodes removed nodes
+     * @param movedNodes moved nodes
+     * @param updatedNodes updated nodes
+     * @param addedLinks added links
+     * @param removedLinks removed links
+     * @param updatedLinks updated links
+     */
+    GraphChangeEvent(Graph<E> source, Collection<Node<E>> addedNodes,
+            Collection<Node<E>> removedNodes, Collection<Node<E>> movedNodes,
+            Collection<Node<E>> updatedNodes, Collection<Link<E>> addedLinks,
+            Collection<Link<E>> removedLinks, Collection<Link<E>> updatedLinks) {
+
+        this.source = source;
+        this.addedNodes = Collections.unmodifiableList(new ArrayList<>(addedNodes));
+        this.removedNodes = Collections.unmodifiableList(new ArrayList<>(removedNodes));
+        this.movedNodes = Collections.unmodifiableList(new ArrayList<>(movedNodes));
+        this.updatedNodes = Collections.unmodifiableList(new ArrayList<>(updatedNodes));
+        this.addedLinks = Collections.unmodifiableList(new ArrayList<>(addedLinks));
+        this.removedLinks = Collections.unmodifiableList(new ArrayList<>(removedLinks));
+        this.updatedLinks = Collections.unmodifiableList(new ArrayList<>(updatedLinks));
+    }
+
+    /** @return the changed graph */
+    public Graph<E> getSource() {
+        return source;
+    }
+
+    /** @return the added nodes */
+    public List<Node<E>> getAddedNodes() {
+        return addedNodes;
+    }
+
+    /** @return the removed nodes */
+    public List<Node<E>> getRemovedNodes() {
+        return removedNodes;
+    }
+
+    /** @return the moved nodes */
+    public List<Node<E>> getMovedNodes() {
+        return movedNodes;
+    }
+
+    /** @return the nodes whose label, shape, color or pinned state changed */
+    public List<Node<E>> getUpdatedNodes() {
+        return updatedNodes;
+    }
+
+    /** @return the added links */
+    public List<Link<E>> getAddedLinks() {
+        return addedLinks;
+    }
+
+    /** @return the removed links */
+    public List<Link<E>> getRemovedLinks() {
+        return removedLinks;
+    }
+
+    /** @return the links whose label changed */
+    public List<Link<E>> getUpdatedLinks() {
+        return updatedLinks;
+    }
+
+    /** @return true if the graph structure (nodes or links) has changed */
+    public boolean isStructural() {
+        return !(addedNodes.isEmpty() && removedNodes.isEmpty() && addedLinks.isEmpty()
+                && removedLinks.isEmpty());
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "GraphChangeEvent[+%d/-%d nodes, %d moved, %d updated, +%d/-%d links, %d updated]",
+                addedNodes.size(), removedNodes.size(), movedNodes.size(), updatedNodes.size(),
+                addedLinks.size(), removedLinks.size(), updatedLinks.size());
+    }
+
+}
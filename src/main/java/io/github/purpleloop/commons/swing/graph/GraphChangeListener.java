@@ -0,0 +1,18 @@
+package io.github.purpleloop.commons.swing.graph;
+
+/**
+ * A listener for the changes of a graph.
+ * 
+ * @param <E> the graph content type
+ */
+public interface GraphChangeListener<E> {
+
+    /**
+     * Reacts to changes of the graph. Changes made during a batch are notified
+     * at once, when the batch is committed.
+     * 
+     * @param event the event describing the changes
+     */
+    void graphChanged(GraphChangeEvent<E> event);
+
+}
@@ -0,0 +1,128 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Records the changes of a graph, until they are notified.
+ * 
+ * @param <E> the graph content type
+ */
+class GraphChanges<E> {
+
+    /** Added nodes. */
+    private Set<Node<E>> addedNodes = new LinkedHashSet<>();
+
+    /** Removed nodes. */
+    private Set<Node<E>> removedNodes = new LinkedHashSet<>();
+
+    /** Moved nodes. */
+    private Set<Node<E>> movedNodes = new LinkedHashSet<>();
+
+    /** Updated nodes (label, shape, color or pinned state). */
+    private Set<Node<E>> updatedNodes = new LinkedHashSet<>();
+
+    /** Added links. */
+    private Set<Link<E>> addedLinks = new LinkedHashSet<>();
+
+    /** Removed links. */
+    private Set<Link<E>> removedLinks = new LinkedHashSet<>();
+
+    /** Updated links (label). */
+    private Set<Link<E>> updatedLinks = new LinkedHashSet<>();
+
+    /** @param node an added node */
+    void nodeAdded(Node<E> node) {
+
+        // A node removed and added back is only considered as moved
+        if (removedNodes.remove(node)) {
+            movedNodes.add(node);
+        } else {
+            addedNodes.add(node);
+        }
+    }
+
+    /** @param node a removed node */
+    void nodeRemoved(Node<E> node) {
+
+        movedNodes.remove(node);
+        updatedNodes.remove(node);
+        if (!addedNodes.remove(node)) {
+            removedNodes.add(node);
+        }
+    }
+
+    /** @param node a moved node */
+    void nodeMoved(Node<E> node) {
+
+        if (!addedNodes.contains(node)) {
+            movedNodes.add(node);
+        }
+    }
+
+    /** @param node an updated node */
+    void nodeUpdated(Node<E> node) {
+
+        if (!addedNodes.contains(node)) {
+            updatedNodes.add(node);
+        }
+    }
+
+    /** @param link an added link */
+    void linkAdded(Link<E> link) {
+
+        // A link removed and added back is only considered as updated
+        if (removedLinks.remove(link)) {
+            updatedLinks.add(link);
+        } else {
+            addedLinks.add(link);
+        }
+    }
+
+    /** @param link a removed link */
+    void linkRemoved(Link<E> link) {
+
+        updatedLinks.remove(link);
+        if (!addedLinks.remove(link)) {
+            removedLinks.add(link);
+        }
+    }
+
+    /** @param link an updated link */
+    void linkUpdated(Link<E> link) {
+
+        if (!addedLinks.contains(link)) {
+            updatedLinks.add(link);
+        }
+    }
+
+    /** @return true if no change has been recorded */
+    boolean isEmpty() {
+        return addedNodes.isEmpty() && removedNodes.isEmpty() && movedNodes.isEmpty()
+                && updatedNodes.isEmpty() && addedLinks.isEmpty() && removedLinks.isEmpty()
+                && updatedLinks.isEmpty();
+    }
+
+    /**
+     * Creates an event for the recorded changes, and clears them.
+     * 
+     * @param graph the changed graph
+     * @return the change event
+     */
+    GraphChangeEvent<E> toEvent(Graph<E> graph) {
+
+        GraphChangeEvent<E> event = new GraphChangeEvent<>(graph, addedNodes, removedNodes,
+                movedNodes, updatedNodes, addedLinks, removedLinks, updatedLinks);
+
+        addedNodes.clear();
+        removedNodes.clear();
+        movedNodes.clear();
+        updatedNodes.clear();
+        addedLinks.clear();
+        removedLinks.clear();
+        updatedLinks.clear();
+
+        return event;
+    }
+
+}
@@ -0,0 +1,405 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.awt.Color;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Predicate;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.color.ColorUtils;
+
+/**
+ * Streaming exporter of graphs in DOT or GraphML formats.
+ * 
+ * <p>
+ * Nodes and links are written one by one through a buffered channel, nodes
+ * being identified by their graph object id so that each link is written in
+ * constant time. Node locations, shapes, colors and pinned states are
+ * exported.
+ * </p>
+ * 
+ * <p>
+ * Filters can be given to export only a part of the graph, without copying it.
+ * A link is exported if it is accepted by the link filter and if both of its
+ * ends are accepted by the node filter.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class GraphExporter<E> {
+
+    /** Supported export formats. */
+    public enum Format {
+
+        /** Graphviz DOT format. */
+        DOT,
+
+        /** GraphML format. */
+        GRAPHML
+    }
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(GraphExporter.class);
+
+    /** Size of the write buffer, in chars. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The graph to export. */
+    private IGraph<E> graph;
+
+    /** Filter on exported nodes. */
+    private Predicate<? super Node<E>> nodeFilter = node -> true;
+
+    /** Filter on exported links. */
+    private Predicate<? super Link<E>> linkFilter = link -> true;
+
+    /** Global graph attributes (DOT format only). */
+    private Map<String, String> graphAttributes = new LinkedHashMap<>();
+
+    /**
+     * Creates an exporter for the given graph.
+     * 
+     * @param graph the graph to export
+     */
+    public GraphExporter(IGraph<E> graph) {
+        this.graph = graph;
+    }
+
+    /** @param nodeFilter filter on exported nodes */
+    public void setNodeFilter(Predicate<? super Node<E>> nodeFilter) {
+        this.nodeFilter = nodeFilter;
+    }
+
+    /** @param linkFilter filter on exported links */
+    public void setLinkFilter(Predicate<? super Link<E>> linkFilter) {
+        this.linkFilter = linkFilter;
+    }
+
+    /**
+     * Sets a global graph attribute, written in the DOT format only.
+     * 
+     * @param name attribute name
+     * @param value attribute value
+     */
+    public void setGraphAttribute(String name, String value) {
+        graphAttributes.put(name, value);
+    }
+
+    /**
+     * Exports the graph to a file.
+     * 
+     * @param file the file to write
+     * @param format the export format
+     * @throws PurpleException in case of problems while writing the file
+     */
+    public void exportTo(Path file, Format format) throws PurpleException {
+
+        LOG.debug("Writing " + format + " file " + file.toAbsolutePath());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            exportTo(channel, format);
+        } catch (IOException e) {
+            throw new PurpleException("Failed to write " + format + " graph.", e);
+        }
+    }
+
+    /**
+     * Exports the graph to a channel. The channel is not closed.
+     * 
+     * @param channel the channel where to write
+     * @param format the export format
+     * @throws IOException in case of problems while writing
+     */
+    public void exportTo(WritableByteChannel channel, Format format) throws IOException {
+
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+
+        if (format == Format.GRAPHML) {
+            writeGraphML(writer);
+        } else {
+            writeDot(writer);
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Tests if a link is exported.
+     * 
+     * @param link the tested link
+     * @return true if the link and it's ends are accepted by filters
+     */
+    private boolean isExported(Link<E> link) {
+        return linkFilter.test(link) && nodeFilter.test(link.getSource())
+                && nodeFilter.test(link.getTarget());
+    }
+
+    /**
+     * Writes the graph in the DOT format.
+     * 
+     * @param writer the writer to use
+     * @throws IOException in case of problems while writing
+     */
+    private void writeDot(Writer writer) throws IOException {
+
+        boolean oriented = graph.isOriented();
+
+        writer.write(oriented ? "digraph G {\n" : "graph G {\n");
+
+        for (Entry<String, String> graphAttribute : graphAttributes.entrySet()) {
+            writer.write(' ');
+            writer.write(graphAttribute.getKey());
+            writer.write('=');
+            writer.write(graphAttribute.getValue());
+            writer.write(";\n");
+        }
+        writer.write('\n');
+
+        for (Node<E> node : graph.getNodes()) {
+            if (nodeFilter.test(node)) {
+                writeDotNode(writer, node);
+            }
+        }
+
+        String edgeOperator = oriented ? " -> " : " -- ";
+        boolean linkLabels = graph.hasLinkLabels();
+
+        for (Link<E> link : graph.getLinks()) {
+            if (isExported(link)) {
+                writer.write('N');
+                writer.write(Integer.toString(link.getSource().getId()));
+                writer.write(edgeOperator);
+                writer.write('N');
+                writer.write(Integer.toString(link.getTarget().getId()));
+                if (linkLabels && link.getLabel() != null) {
+                    writer.write(" [ label=");
+                    writeDotString(writer, link.getLabel());
+                    writer.write(" ]");
+                }
+                writer.write(";\n");
+            }
+        }
+
+        writer.write("}\n");
+    }
+
+    /**
+     * Writes a node in the DOT format.
+     * 
+     * @param writer the writer to use
+     * @param node the node to write
+     * @throws IOException in case of problems while writing
+     */
+    private void writeDotNode(Writer writer, Node<E> node) throws IOException {
+
+        writer.write('N');
+        writer.write(Integer.toString(node.getId()));
+        writer.write(" [ label=");
+        writeDotString(writer, node.getLabel());
+
+        // DOT ordinates go upwards, a '!' suffix pins the node
+        writer.write(", pos=\"");
+        writer.write(Double.toString(node.xLoc()));
+        writer.write(',');
+        writer.write(Double.toString(-node.yLoc()));
+        writer.write(node.isPinned() ? "!\"" : "\"");
+        if (node.isPinned()) {
+            writer.write(", pin=true");
+        }
+
+        writer.write(", shape=");
+        writer.write(getDotShape(node.getShape()));
+
+        writer.write(node.getShape() == Node.NodeShape.ROUND_RECT ? ", style=\"filled,rounded\""
+                : ", style=filled");
+
+        Color color = node.getColor();
+        if (color != null) {
+            writer.write(", fillcolor=\"#");
+            writer.write(ColorUtils.getRGBHexString(color));
+            writer.write('"');
+        }
+
+        writer.write(" ];\n");
+    }
+
+    /**
+     * @param shape a node shape
+     * @return the closest DOT shape
+     */
+    private static String getDotShape(Node.NodeShape shape) {
+
+        if (shape == null) {
+            return "box";
+        }
+
+        switch (shape) {
+        case ELLIPSE:
+            return "ellipse";
+        case HALF_ROUNDED_RIGHT:
+            return "cds";
+        case RECT:
+        case ROUND_RECT:
+        default:
+            return "box";
+        }
+    }
+
+    /**
+     * Writes a quoted DOT string.
+     * 
+     * @param writer the writer to use
+     * @param text the text to write
+     * @throws IOException in case of problems while writing
+     */
+    private static void writeDotString(Writer writer, String text) throws IOException {
+
+        writer.write('"');
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    writer.write('\\');
+                }
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * Writes the graph in the GraphML format.
+     * 
+     * @param writer the writer to use
+     * @throws IOException in case of problems while writing
+     */
+    private void writeGraphML(Writer writer) throws IOException {
+
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+        writer.write(
+                "  <key id=\"label\" for=\"node\" attr.name=\"label\" attr.type=\"string\"/>\n");
+        writer.write("  <key id=\"x\" for=\"node\" attr.name=\"x\" attr.type=\"double\"/>\n");
+        writer.write("  <key id=\"y\" for=\"node\" attr.name=\"y\" attr.type=\"double\"/>\n");
+        writer.write(
+                "  <key id=\"shape\" for=\"node\" attr.name=\"shape\" attr.type=\"string\"/>\n");
+        writer.write(
+                "  <key id=\"color\" for=\"node\" attr.name=\"color\" attr.type=\"string\"/>\n");
+        writer.write("  <key id=\"pinned\" for=\"node\" attr.name=\"pinned\" "
+                + "attr.type=\"boolean\"/>\n");
+        writer.write("  <key id=\"linkLabel\" for=\"edge\" attr.name=\"label\" "
+                + "attr.type=\"string\"/>\n");
+
+        writer.write("  <graph id=\"");
+        writeXmlText(writer, graph.getId());
+        writer.write(graph.isOriented() ? "\" edgedefault=\"directed\">\n"
+                : "\" edgedefault=\"undirected\">\n");
+
+        for (Node<E> node : graph.getNodes()) {
+            if (nodeFilter.test(node)) {
+                writer.write("    <node id=\"N");
+                writer.write(Integer.toString(node.getId()));
+                writer.write("\">");
+                writeGraphMLData(writer, "label", node.getLabel());
+                writeGraphMLData(writer, "x", Double.toString(node.xLoc()));
+                writeGraphMLData(writer, "y", Double.toString(node.yLoc()));
+                if (node.getShape() != null) {
+                    writeGraphMLData(writer, "shape", node.getShape().name());
+                }
+                if (node.getColor() != null) {
+                    writeGraphMLData(writer, "color",
+                            "#" + ColorUtils.getRGBHexString(node.getColor()));
+                }
+                writeGraphMLData(writer, "pinned", Boolean.toString(node.isPinned()));
+                writer.write("</node>\n");
+            }
+        }
+
+        for (Link<E> link : graph.getLinks()) {
+            if (isExported(link)) {
+                writer.write("    <edge id=\"L");
+                writer.write(Integer.toString(link.getId()));
+                writer.write("\" source=\"N");
+                writer.write(Integer.toString(link.getSource().getId()));
+                writer.write("\" target=\"N");
+                writer.write(Integer.toString(link.getTarget().getId()));
+                writer.write("\">");
+                writeGraphMLData(writer, "linkLabel", link.getLabel());
+                writer.write("</edge>\n");
+            }
+        }
+
+        writer.write("  </graph>\n");
+        writer.write("</graphml>\n");
+    }
+
+    /**
+     * Writes a GraphML data element.
+     * 
+     * @param writer the writer to use
+     * @param key the data key
+     * @param value the data value, nothing is written if null
+     * @throws IOException in case of problems while writing
+     */
+    private static void writeGraphMLData(Writer writer, String key, String value)
+            throws IOException {
+
+        if (value != null) {
+            writer.write("<data key=\"");
+            writer.write(key);
+            writer.write("\">");
+            writeXmlText(writer, value);
+            writer.write("</data>");
+        }
+    }
+
+    /**
+     * Writes an XML escaped text.
+     * 
+     * @param writer the writer to use
+     * @param text the text to write
+     * @throws IOException in case of problems while writing
+     */
+    private static void writeXmlText(Writer writer, String text) throws IOException {
+
+        if (text == null) {
+            return;
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '<':
+                writer.write("&lt;");
+                break;
+            case '>':
+                writer.write("&gt;");
+                break;
+            case '&':
+                writer.write("&amp;");
+                break;
+            case '"':
+                writer.write("&quot;");
+                break;
+            default:
+                writer.write(c);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.swing.graph.GraphVersion.LinkState;
+import io.github.purpleloop.commons.swing.graph.GraphVersion.NodeState;
+
+/**
+ * Undo / redo history of a graph, based on persistent graph versions.
+ * 
+ * <p>
+ * The history listens to the changes of the graph and derives a new
+ * {@link GraphVersion} from each change event, sharing everything else with
+ * the previous version. A checkpoint only keeps a reference on the current
+ * version, and restoring a version only applies its differences with the
+ * current one, in a single batch.
+ * </p>
+ * 
+ * <p>
+ * Typical usage is to call {@link #checkpoint()} before each user edit. The
+ * history has to be used by the thread modifying the graph.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class GraphHistory<E> {
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(GraphHistory.class);
+
+    /** Default maximum number of undoable checkpoints. */
+    public static final int DEFAULT_MAX_DEPTH = 100;
+
+    /** The graph. */
+    private Graph<E> graph;
+
+    /** The current version of the graph. */
+    private GraphVersion<E> current;
+
+    /** Versions that can be restored by undo, the most recent first. */
+    private Deque<GraphVersion<E>> undoVersions = new ArrayDeque<>();
+
+    /** Versions that can be restored by redo, the most recent first. */
+    private Deque<GraphVersion<E>> redoVersions = new ArrayDeque<>();
+
+    /** Maximum number of undoable checkpoints. */
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+
+    /** Is a version being restored ? */
+    private boolean restoring;
+
+    /** Follows the changes of the graph. */
+    private GraphChangeListener<E> graphChangeListener = event -> {
+        if (!restoring) {
+            current = current.apply(event);
+        }
+    };
+
+    /**
+     * Creates a history for a graph, starting from its current state.
+     * 
+     * @param graph the graph
+     */
+    public GraphHistory(Graph<E> graph) {
+        this.graph = graph;
+        this.current = GraphVersion.capture(graph);
+        graph.addGraphChangeListener(graphChangeListener);
+    }
+
+    /** Stops following the changes of the graph. */
+    public void detach() {
+        graph.removeGraphChangeListener(graphChangeListener);
+    }
+
+    /** @return the graph */
+    public Graph<E> getGraph() {
+        return graph;
+    }
+
+    /** @return the current version of the graph, in constant time */
+    public GraphVersion<E> getCurrentVersion() {
+        return current;
+    }
+
+    /** @param maxDepth maximum number of undoable checkpoints */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+        while (undoVersions.size() > maxDepth) {
+            undoVersions.removeLast();
+        }
+    }
+
+    /**
+     * Records the current version as an undo point, and clears the redo
+     * versions. Nothing is recorded if the graph did not change since the last
+     * checkpoint.
+     */
+    public void checkpoint() {
+
+        if (undoVersions.peekFirst() == current) {
+            return;
+        }
+
+        undoVersions.push(current);
+        if (undoVersions.size() > maxDepth) {
+            undoVersions.removeLast();
+        }
+        redoVersions.clear();
+    }
+
+    /** @return true if a version can be restored by undo */
+    public boolean canUndo() {
+        return !undoVersions.isEmpty();
+    }
+
+    /** @return true if a version can be restored by redo */
+    public boolean canRedo() {
+        return !redoVersions.isEmpty();
+    }
+
+    /**
+     * Restores the last checkpoint.
+     * 
+     * @return true if a version has been restored
+     */
+    public boolean undo() {
+
+        if (undoVersions.isEmpty()) {
+            return false;
+        }
+
+        redoVersions.push(current);
+        restore(undoVersions.pop());
+        return true;
+    }
+
+    /**
+     * Restores the last undone version.
+     * 
+     * @return true if a version has been restored
+     */
+    public boolean redo() {
+
+        if (redoVersions.isEmpty()) {
+            return false;
+        }
+
+        undoVersions.push(current);
+        restore(redoVersions.pop());
+        return true;
+    }
+
+    /** Forgets all undo and redo versions. */
+    public void clear() {
+        undoVersions.clear();
+        redoVersions.clear();
+    }
+
+    /**
+     * Gives back to the graph the state of a version. Only the differences
+     * between the current version and the given one are applied.
+     * 
+     * @param version the version to restore
+     */
+    public void restore(GraphVersion<E> version) {
+
+        if (version.getGraph() != graph) {
+            throw new IllegalArgumentException("The version belongs to another graph.");
+        }
+
+        if (version == current) {
+            return;
+        }
+
+        LOG.debug("Restoring " + version);
+
+        List<Link<E>> linksToRestore = new ArrayList<>();
+
+        restoring = true;
+        GraphBatch<E> batch = graph.beginBatch();
+        try {
+
+            // Links are removed first, and restored once their nodes are
+            current.getLinkStates().diff(version.getLinkStates(),
+                    new PersistentIntMap.DiffVisitor<>() {
+
+                        @Override
+                        public void added(int key, LinkState<E> state) {
+                            linksToRestore.add(state.link());
+                        }
+
+                        @Override
+                        public void removed(int key, LinkState<E> state) {
+                            graph.removeLink(state.link());
+                        }
+
+                        @Override
+                        public void changed(int key, LinkState<E> oldState,
+                                LinkState<E> newState) {
+                            if (oldState.link() != newState.link()) {
+                                graph.removeLink(oldState.link());
+                            }
+                            linksToRestore.add(newState.link());
+                        }
+                    });
+
+            current.getNodeStates().diff(version.getNodeStates(),
+                    new PersistentIntMap.DiffVisitor<>() {
+
+                        @Override
+                        public void added(int key, NodeState<E> state) {
+                            graph.restoreNode(state.node());
+                            state.restore();
+                        }
+
+                        @Override
+                        public void removed(int key, NodeState<E> state) {
+                            graph.removeNode(state.node());
+                        }
+
+                        @Override
+                        public void changed(int key, NodeState<E> oldState,
+                                NodeState<E> newState) {
+                            if (oldState.node() != newState.node()) {
+                                graph.removeNode(oldState.node());
+                                graph.restoreNode(newState.node());
+                            }
+                            newState.restore();
+                        }
+                    });
+
+            for (Link<E> link : linksToRestore) {
+                graph.restoreLink(link);
+                link.setLabel(version.getLinkStates().get(link.getId()).label());
+            }
+
+        } finally {
+            batch.commit();
+            restoring = false;
+        }
+
+        current = version;
+    }
+
+}
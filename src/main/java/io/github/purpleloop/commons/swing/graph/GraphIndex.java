@@ -0,0 +1,284 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lookup structures of a graph.
+ * 
+ * <p>
+ * Nodes are indexed by label, and links are indexed by node (adjacency). Both
+ * are maintained incrementally by the graph. During a batch, adjacency
+ * maintenance is deferred : the adjacency is invalidated and rebuilt once, on
+ * the next query.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+class GraphIndex<E> {
+
+    /** Links of a node. */
+    private static class Adjacency<E> {
+
+        /** Links starting from the node. */
+        private List<Link<E>> outgoing = new ArrayList<>();
+
+        /** Links arriving at the node. */
+        private List<Link<E>> incoming = new ArrayList<>();
+    }
+
+    /** The indexed graph. */
+    private Graph<E> graph;
+
+    /** Nodes by label, in insertion order. */
+    private Map<String, List<Node<E>>> nodesByLabel = new HashMap<>();
+
+    /** Adjacency of nodes, null if invalidated. */
+    private Map<Node<E>, Adjacency<E>> adjacencies = new IdentityHashMap<>();
+
+    /**
+     * Creates an empty index for the graph.
+     * 
+     * @param graph the indexed graph
+     */
+    GraphIndex(Graph<E> graph) {
+        this.graph = graph;
+    }
+
+    /** Rebuilds the index from the nodes and links of the graph. */
+    void rebuild() {
+        nodesByLabel.clear();
+        for (Node<E> node : graph.nodeList()) {
+            nodesByLabel.computeIfAbsent(node.getLabel(), label -> new ArrayList<>(1)).add(node);
+        }
+        invalidateAdjacency();
+    }
+
+    /** Invalidates the adjacency, which will be rebuilt on the next query. */
+    void invalidateAdjacency() {
+        adjacencies = null;
+    }
+
+    /** @return true if the adjacency is up to date */
+    boolean isAdjacencyValid() {
+        return adjacencies != null;
+    }
+
+    /** Rebuilds the adjacency if it has been invalidated. */
+    void validateAdjacency() {
+        getAdjacencies();
+    }
+
+    /** @return the adjacency, rebuilt if it has been invalidated */
+    private Map<Node<E>, Adjacency<E>> getAdjacencies() {
+
+        if (adjacencies == null) {
+            Map<Node<E>, Adjacency<E>> rebuilt = new IdentityHashMap<>();
+            for (Node<E> node : graph.nodeList()) {
+                rebuilt.put(node, new Adjacency<>());
+            }
+            adjacencies = rebuilt;
+            for (Link<E> link : graph.linkList()) {
+                addLink(link);
+            }
+        }
+        return adjacencies;
+    }
+
+    /**
+     * Indexes an added node.
+     * 
+     * @param node the added node
+     */
+    void addNode(Node<E> node) {
+
+        nodesByLabel.computeIfAbsent(node.getLabel(), label -> new ArrayList<>(1)).add(node);
+        if (adjacencies != null) {
+            adjacencies.put(node, new Adjacency<>());
+        }
+    }
+
+    /**
+     * Removes a node from the index. Its links have to be removed first.
+     * 
+     * @param node the removed node
+     */
+    void removeNode(Node<E> node) {
+
+        removeFromLabel(node, node.getLabel());
+        if (adjacencies != null) {
+            adjacencies.remove(node);
+        }
+    }
+
+    /**
+     * Updates the index after a label change.
+     * 
+     * @param node the relabeled node
+     * @param oldLabel the previous label of the node
+     */
+    void relabel(Node<E> node, String oldLabel) {
+
+        if (removeFromLabel(node, oldLabel)) {
+            nodesByLabel.computeIfAbsent(node.getLabel(), label -> new ArrayList<>(1)).add(node);
+        }
+    }
+
+    /**
+     * Removes a node from the nodes having a label.
+     * 
+     * @param node the node to remove
+     * @param label the label under which the node is indexed
+     * @return true if the node was indexed, false otherwise
+     */
+    private boolean removeFromLabel(Node<E> node, String label) {
+
+        List<Node<E>> homonyms = nodesByLabel.get(label);
+        if (homonyms == null) {
+            return false;
+        }
+
+        for (int i = 0; i < homonyms.size(); i++) {
+            if (homonyms.get(i) == node) {
+                homonyms.remove(i);
+                if (homonyms.isEmpty()) {
+                    nodesByLabel.remove(label);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indexes an added link.
+     * 
+     * @param link the added link
+     */
+    void addLink(Link<E> link) {
+
+        if (adjacencies != null) {
+            adjacencies.computeIfAbsent(link.getSource(), node -> new Adjacency<>()).outgoing
+                    .add(link);
+            adjacencies.computeIfAbsent(link.getTarget(), node -> new Adjacency<>()).incoming
+                    .add(link);
+        }
+    }
+
+    /**
+     * Removes a link from the index.
+     * 
+     * @param link the removed link
+     */
+    void removeLink(Link<E> link) {
+
+        if (adjacencies != null) {
+            Adjacency<E> sourceAdjacency = adjacencies.get(link.getSource());
+            if (sourceAdjacency != null) {
+                removeIdentity(sourceAdjacency.outgoing, link);
+            }
+            Adjacency<E> targetAdjacency = adjacencies.get(link.getTarget());
+            if (targetAdjacency != null) {
+                removeIdentity(targetAdjacency.incoming, link);
+            }
+        }
+    }
+
+    /**
+     * Removes a link from a list, by identity.
+     * 
+     * @param list the list of links
+     * @param link the link to remove
+     */
+    private static <E> void removeIdentity(List<Link<E>> list, Link<E> link) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i) == link) {
+                list.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param node a node
+     * @return true if the node is indexed
+     */
+    boolean contains(Node<E> node) {
+
+        if (node == null || node.getOwner() != graph) {
+            return false;
+        }
+
+        List<Node<E>> homonyms = nodesByLabel.get(node.getLabel());
+        if (homonyms != null) {
+            for (Node<E> homonym : homonyms) {
+                if (homonym == node) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param link a link
+     * @return true if the link is indexed
+     */
+    boolean contains(Link<E> link) {
+
+        if (link == null || link.getOwner() != graph) {
+            return false;
+        }
+
+        for (Link<E> outgoing : getOutgoingLinks(link.getSource())) {
+            if (outgoing == link) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param label a node label
+     * @return the first added node having the label, if any
+     */
+    Optional<Node<E>> getFirstNode(String label) {
+        List<Node<E>> homonyms = nodesByLabel.get(label);
+        return (homonyms == null) ? Optional.empty() : Optional.of(homonyms.get(0));
+    }
+
+    /**
+     * @param label a node label
+     * @return the last added node having the label, if any
+     */
+    Optional<Node<E>> getLastNode(String label) {
+        List<Node<E>> homonyms = nodesByLabel.get(label);
+        return (homonyms == null) ? Optional.empty() : Optional.of(homonyms.getLast());
+    }
+
+    /**
+     * @param node a node
+     * @return an unmodifiable view on the links starting from the node
+     */
+    List<Link<E>> getOutgoingLinks(Node<E> node) {
+        Adjacency<E> adjacency = getAdjacencies().get(node);
+        return (adjacency == null) ? Collections.emptyList()
+                : Collections.unmodifiableList(adjacency.outgoing);
+    }
+
+    /**
+     * @param node a node
+     * @return an unmodifiable view on the links arriving at the node
+     */
+    List<Link<E>> getIncomingLinks(Node<E> node) {
+        Adjacency<E> adjacency = getAdjacencies().get(node);
+        return (adjacency == null) ? Collections.emptyList()
+                : Collections.unmodifiableList(adjacency.incoming);
+    }
+
+}
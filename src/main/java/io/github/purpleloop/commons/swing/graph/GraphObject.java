@@ -4,7 +4,6 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.commons.logging.Log;
@@ -45,6 +44,9 @@ public class GraphObject<E> {
     /** The id of the graph object in the owning graph. */
     private int id;
 
+    /** Hash code, computed once from the owner identity and the id. */
+    private int hash;
+
     /**
      * Base constructor for a graph object.
      * 
@@ -54,6 +56,7 @@ public class GraphObject<E> {
         this.id = owner.getNextGraphObjectId();
         this.owner = owner;
         this.contents = Optional.empty();
+        this.hash = computeHash();
     }
 
     /**
@@ -67,6 +70,7 @@ public class GraphObject<E> {
         this.id = owner.getNextGraphObjectId();
         this.owner = owner;
         this.contents = Optional.ofNullable(contents);
+        this.hash = computeHash();
     }
 
     /**
@@ -83,6 +87,7 @@ public class GraphObject<E> {
         } catch (IOException e) {
             LOG.error("Error, unable to load graph object.", e);
         }
+        this.hash = computeHash();
     }
 
     /**
@@ -95,6 +100,18 @@ public class GraphObject<E> {
 
         this.owner = owner;
         this.id = XMLTools.getIntegerAttributeValue(xmlElement, "id", -1);
+        this.hash = computeHash();
+    }
+
+    /**
+     * Computes the hash code of the graph object. Graph objects are equal if
+     * they have the same owner and id, so the identity hash of the owner is
+     * used rather than its (non unique) graph id.
+     * 
+     * @return the hash code
+     */
+    private int computeHash() {
+        return 31 * System.identityHashCode(owner) + id;
     }
 
     /** @return the graph that owns this graph object */
@@ -119,7 +136,7 @@ public class GraphObject<E> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(owner.getId(), getId());
+        return hash;
     }
 
     @Override
@@ -129,12 +146,14 @@ public class GraphObject<E> {
             return true;
         }
 
-        if (!(otherObject instanceof GraphObject<?>)) {
+        if (otherObject == null || otherObject.getClass() != getClass()) {
             return false;
         }
 
+        // Hash codes may collide, they are only a shortcut
         GraphObject<?> otherGraphObject = (GraphObject<?>) otherObject;
-        return hashCode() == otherGraphObject.hashCode();
+        return hash == otherGraphObject.hash && id == otherGraphObject.id
+                && owner == otherGraphObject.owner;
     }
 
     @Override
@@ -0,0 +1,94 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.awt.Graphics2D;
+import java.util.List;
+
+/**
+ * An immutable and consistent view of a graph at a given version : its nodes,
+ * its links and the locations of the nodes.
+ * 
+ * <p>
+ * A snapshot can be rendered while the graph is modified, for instance by
+ * background threads. Spline anchors are not captured.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class GraphSnapshot<E> {
+
+    /** Version of the graph when the snapshot was taken. */
+    private long version;
+
+    /** Nodes of the graph. */
+    private List<Node<E>> nodes;
+
+    /** Links of the graph. */
+    private List<Link<E>> links;
+
+    /** Locations of the nodes. */
+    private NodePositions<E> positions;
+
+    /**
+     * Creates a snapshot.
+     * 
+     * @param version version of the graph
+     * @param nodes immutable list of the nodes
+     * @param links immutable list of the links
+     * @param positions locations of the nodes
+     */
+    GraphSnapshot(long version, List<Node<E>> nodes, List<Link<E>> links,
+            NodePositions<E> positions) {
+        this.version = version;
+        this.nodes = nodes;
+        this.links = links;
+        this.positions = positions;
+    }
+
+    /** @return the version of the graph when the snapshot was taken */
+    public long getVersion() {
+        return version;
+    }
+
+    /** @return the nodes of the graph */
+    public List<Node<E>> getNodes() {
+        return nodes;
+    }
+
+    /** @return the links of the graph */
+    public List<Link<E>> getLinks() {
+        return links;
+    }
+
+    /** @return the locations of the nodes */
+    public NodePositions<E> getPositions() {
+        return positions;
+    }
+
+    /**
+     * Renders the snapshot on a graphic, links and then nodes.
+     * 
+     * @param graphics Graphics where to render
+     */
+    public void draw(Graphics2D graphics) {
+        draw(graphics, positions);
+    }
+
+    /**
+     * Renders the nodes and links of the snapshot on a graphic, at given
+     * locations.
+     * 
+     * @param graphics Graphics where to render
+     * @param locator locations of the nodes
+     */
+    public void draw(Graphics2D graphics, NodeLocator<E> locator) {
+
+        for (Link<E> l : links) {
+            l.draw(graphics, Graph.LINK_LAYER, locator);
+        }
+
+        for (Node<E> n : nodes) {
+            n.draw(graphics, Graph.NODE_LAYER, locator.xLoc(n), locator.yLoc(n));
+        }
+    }
+
+}
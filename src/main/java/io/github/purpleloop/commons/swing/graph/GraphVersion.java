@@ -0,0 +1,369 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import io.github.purpleloop.commons.swing.graph.Node.NodeShape;
+
+/**
+ * An immutable version of a graph : its nodes and links, with node labels,
+ * locations, shapes, colors and pinned states, and link labels.
+ * 
+ * <p>
+ * States are stored in persistent maps indexed by graph object id. A new
+ * version shares all unchanged states with the version it derives from, so
+ * that keeping a version costs nothing and each change costs O(log N) memory.
+ * Comparing two versions only visits their differences.
+ * </p>
+ * 
+ * <p>
+ * Versions are created by a {@link GraphHistory}. Node data, sizes and spline
+ * anchors are not part of a version.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public final class GraphVersion<E> implements NodeLocator<E> {
+
+    /**
+     * State of a node in a version.
+     * 
+     * @param <E> the graph content type
+     * @param node the node
+     * @param label the node label
+     * @param x the node abscissa
+     * @param y the node ordinate
+     * @param shape the node shape
+     * @param color the node color
+     * @param pinned the pinned state of the node
+     */
+    record NodeState<E>(Node<E> node, String label, double x, double y, NodeShape shape,
+            Color color, boolean pinned) {
+
+        /**
+         * @param <E> the graph content type
+         * @param node a node
+         * @return the current state of the node
+         */
+        static <E> NodeState<E> of(Node<E> node) {
+            return new NodeState<>(node, node.getLabel(), node.xLoc(), node.yLoc(),
+                    node.getShape(), node.getColor(), node.isPinned());
+        }
+
+        /**
+         * @param other another state of the node
+         * @return true if the label, shape, color or pinned state differ
+         */
+        boolean isUpdatedFrom(NodeState<E> other) {
+            return !(Objects.equals(label, other.label) && shape == other.shape
+                    && Objects.equals(color, other.color) && pinned == other.pinned);
+        }
+
+        /**
+         * @param other another state of the node
+         * @return true if the location differs
+         */
+        boolean isMovedFrom(NodeState<E> other) {
+            return x != other.x || y != other.y;
+        }
+
+        /** Gives back this state to the node. */
+        void restore() {
+
+            if (!Objects.equals(node.getLabel(), label)) {
+                node.setLabel(label);
+            }
+            node.setShape(shape);
+            node.setColor(color);
+            if (node.xLoc() != x || node.yLoc() != y) {
+                node.setPinned(false);
+                node.moveTo(x, y);
+            }
+            node.setPinned(pinned);
+        }
+    }
+
+    /**
+     * State of a link in a version.
+     * 
+     * @param <E> the graph content type
+     * @param link the link
+     * @param label the link label
+     */
+    record LinkState<E>(Link<E> link, String label) {
+
+        /**
+         * @param <E> the graph content type
+         * @param link a link
+         * @return the current state of the link
+         */
+        static <E> LinkState<E> of(Link<E> link) {
+            return new LinkState<>(link, link.getLabel());
+        }
+    }
+
+    /** The graph. */
+    private Graph<E> graph;
+
+    /** States of the nodes, by id. */
+    private PersistentIntMap<NodeState<E>> nodes;
+
+    /** States of the links, by id. */
+    private PersistentIntMap<LinkState<E>> links;
+
+    /**
+     * Creates a version.
+     * 
+     * @param graph the graph
+     * @param nodes states of the nodes, by id
+     * @param links states of the links, by id
+     */
+    private GraphVersion(Graph<E> graph, PersistentIntMap<NodeState<E>> nodes,
+            PersistentIntMap<LinkState<E>> links) {
+        this.graph = graph;
+        this.nodes = nodes;
+        this.links = links;
+    }
+
+    /**
+     * Captures the current version of a graph, in O(N log N).
+     * 
+     * @param <E> the graph content type
+     * @param graph the graph
+     * @return the current version of the graph
+     */
+    static <E> GraphVersion<E> capture(Graph<E> graph) {
+
+        GraphSnapshot<E> snapshot = graph.snapshot();
+
+        PersistentIntMap<NodeState<E>> nodeStates = PersistentIntMap.empty();
+        for (Node<E> node : snapshot.getNodes()) {
+            nodeStates = nodeStates.put(node.getId(),
+                    new NodeState<>(node, node.getLabel(), snapshot.getPositions().xLoc(node),
+                            snapshot.getPositions().yLoc(node), node.getShape(),
+                            node.getColor(), node.isPinned()));
+        }
+
+        PersistentIntMap<LinkState<E>> linkStates = PersistentIntMap.empty();
+        for (Link<E> link : snapshot.getLinks()) {
+            linkStates = linkStates.put(link.getId(), LinkState.of(link));
+        }
+
+        return new GraphVersion<>(graph, nodeStates, linkStates);
+    }
+
+    /**
+     * Derives a version from the changes of the graph, in O(C log N) for C
+     * changes.
+     * 
+     * @param event changes of the graph since this version
+     * @return the version after the changes
+     */
+    GraphVersion<E> apply(GraphChangeEvent<E> event) {
+
+        PersistentIntMap<NodeState<E>> nodeStates = nodes;
+        PersistentIntMap<LinkState<E>> linkStates = links;
+
+        for (Link<E> link : event.getRemovedLinks()) {
+            linkStates = linkStates.remove(link.getId());
+        }
+        for (Node<E> node : event.getRemovedNodes()) {
+            nodeStates = nodeStates.remove(node.getId());
+        }
+        nodeStates = putNodes(nodeStates, event.getAddedNodes());
+        nodeStates = putNodes(nodeStates, event.getMovedNodes());
+        nodeStates = putNodes(nodeStates, event.getUpdatedNodes());
+        linkStates = putLinks(linkStates, event.getAddedLinks());
+        linkStates = putLinks(linkStates, event.getUpdatedLinks());
+
+        return (nodeStates == nodes && linkStates == links) ? this
+                : new GraphVersion<>(graph, nodeStates, linkStates);
+    }
+
+    /**
+     * @param nodeStates states of nodes
+     * @param changedNodes nodes whose current state is stored
+     * @return the states of nodes, updated
+     */
+    private static <E> PersistentIntMap<NodeState<E>> putNodes(
+            PersistentIntMap<NodeState<E>> nodeStates, List<Node<E>> changedNodes) {
+
+        PersistentIntMap<NodeState<E>> result = nodeStates;
+        for (Node<E> node : changedNodes) {
+            result = result.put(node.getId(), NodeState.of(node));
+        }
+        return result;
+    }
+
+    /**
+     * @param linkStates states of links
+     * @param changedLinks links whose current state is stored
+     * @return the states of links, updated
+     */
+    private static <E> PersistentIntMap<LinkState<E>> putLinks(
+            PersistentIntMap<LinkState<E>> linkStates, List<Link<E>> changedLinks) {
+
+        PersistentIntMap<LinkState<E>> result = linkStates;
+        for (Link<E> link : changedLinks) {
+            result = result.put(link.getId(), LinkState.of(link));
+        }
+        return result;
+    }
+
+    /** @return the graph */
+    public Graph<E> getGraph() {
+        return graph;
+    }
+
+    /** @return the number of nodes in this version */
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    /** @return the number of links in this version */
+    public int linkCount() {
+        return links.size();
+    }
+
+    /**
+     * @param node a node
+     * @return true if the node belongs to this version
+     */
+    public boolean contains(Node<E> node) {
+        NodeState<E> state = nodes.get(node.getId());
+        return state != null && state.node() == node;
+    }
+
+    /**
+     * @param link a link
+     * @return true if the link belongs to this version
+     */
+    public boolean contains(Link<E> link) {
+        LinkState<E> state = links.get(link.getId());
+        return state != null && state.link() == link;
+    }
+
+    /**
+     * @param node a node
+     * @return the label of the node in this version
+     */
+    public String getLabel(Node<E> node) {
+        NodeState<E> state = nodes.get(node.getId());
+        return (state != null && state.node() == node) ? state.label() : node.getLabel();
+    }
+
+    /**
+     * @param node a node
+     * @return the abscissa of the node in this version, or its current one if
+     *         it does not belong to this version
+     */
+    @Override
+    public double xLoc(Node<E> node) {
+        NodeState<E> state = nodes.get(node.getId());
+        return (state != null && state.node() == node) ? state.x() : node.xLoc();
+    }
+
+    /**
+     * @param node a node
+     * @return the ordinate of the node in this version, or its current one if
+     *         it does not belong to this version
+     */
+    @Override
+    public double yLoc(Node<E> node) {
+        NodeState<E> state = nodes.get(node.getId());
+        return (state != null && state.node() == node) ? state.y() : node.yLoc();
+    }
+
+    /** @return states of the nodes, by id */
+    PersistentIntMap<NodeState<E>> getNodeStates() {
+        return nodes;
+    }
+
+    /** @return states of the links, by id */
+    PersistentIntMap<LinkState<E>> getLinkStates() {
+        return links;
+    }
+
+    /**
+     * Lists the changes from this version to another one, of the same graph.
+     * Parts shared by both versions are not visited.
+     * 
+     * @param target the other version
+     * @return an event describing the changes leading to the other version
+     */
+    public GraphChangeEvent<E> diff(GraphVersion<E> target) {
+
+        List<Node<E>> addedNodes = new ArrayList<>();
+        List<Node<E>> removedNodes = new ArrayList<>();
+        List<Node<E>> movedNodes = new ArrayList<>();
+        List<Node<E>> updatedNodes = new ArrayList<>();
+
+        nodes.diff(target.nodes, new PersistentIntMap.DiffVisitor<>() {
+
+            @Override
+            public void added(int key, NodeState<E> value) {
+                addedNodes.add(value.node());
+            }
+
+            @Override
+            public void removed(int key, NodeState<E> value) {
+                removedNodes.add(value.node());
+            }
+
+            @Override
+            public void changed(int key, NodeState<E> oldValue, NodeState<E> newValue) {
+                if (oldValue.node() != newValue.node()) {
+                    // The id has been reused by another node
+                    removedNodes.add(oldValue.node());
+                    addedNodes.add(newValue.node());
+                } else {
+                    if (newValue.isMovedFrom(oldValue)) {
+                        movedNodes.add(newValue.node());
+                    }
+                    if (newValue.isUpdatedFrom(oldValue)) {
+                        updatedNodes.add(newValue.node());
+                    }
+                }
+            }
+        });
+
+        List<Link<E>> addedLinks = new ArrayList<>();
+        List<Link<E>> removedLinks = new ArrayList<>();
+        List<Link<E>> updatedLinks = new ArrayList<>();
+
+        links.diff(target.links, new PersistentIntMap.DiffVisitor<>() {
+
+            @Override
+            public void added(int key, LinkState<E> value) {
+                addedLinks.add(value.link());
+            }
+
+            @Override
+            public void removed(int key, LinkState<E> value) {
+                removedLinks.add(value.link());
+            }
+
+            @Override
+            public void changed(int key, LinkState<E> oldValue, LinkState<E> newValue) {
+                if (oldValue.link() != newValue.link()) {
+                    removedLinks.add(oldValue.link());
+                    addedLinks.add(newValue.link());
+                } else {
+                    updatedLinks.add(newValue.link());
+                }
+            }
+        });
+
+        return new GraphChangeEvent<>(graph, addedNodes, removedNodes, movedNodes, updatedNodes,
+                addedLinks, removedLinks, updatedLinks);
+    }
+
+    @Override
+    public String toString() {
+        return "GraphVersion[" + graph.getId() + ", " + nodes.size() + " nodes, " + links.size()
+                + " links]";
+    }
+
+}
@@ -13,6 +13,21 @@ import io.github.purpleloop.commons.swing.graph.exception.GraphException;
  */
 public interface IGraph<E> {
 
+    /** @return the graph id, "Default" unless the implementation has one */
+    default String getId() {
+        return "Default";
+    }
+
+    /** @return is the graph oriented, true unless the implementation tells otherwise */
+    default boolean isOriented() {
+        return true;
+    }
+
+    /** @return true if the link labels are used, false unless the implementation uses them */
+    default boolean hasLinkLabels() {
+        return false;
+    }
+
     /** @return true if the graph is empty (containing no nodes). */
     boolean isEmpty();
 
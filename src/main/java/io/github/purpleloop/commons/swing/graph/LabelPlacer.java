@@ -0,0 +1,582 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.purpleloop.commons.swing.TextBox;
+
+/**
+ * Places the labels of a graph so that they do not overlap, labels that
+ * cannot be placed being hidden.
+ * 
+ * <p>
+ * Labels are placed greedily by rank : node labels first, nodes with the most
+ * links before the others, and then link labels, each link label trying the
+ * middle, then the thirds of the link. Placed labels are indexed in a grid,
+ * so testing a position only costs the labels around it. The placement is
+ * kept between frames : when nodes move, only the labels whose candidate
+ * positions are near the moved labels are placed again. Text measures are
+ * cached until the font changes.
+ * </p>
+ * 
+ * <p>
+ * Labels of spline links, drawn along their curve, are not placed. Labels
+ * are hidden only while the graph itself is rendered, not in other views of
+ * its nodes. A placer is used by the thread rendering the graph.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class LabelPlacer<E> {
+
+    /** Size of the cells of the grids indexing labels. */
+    private static final double CELL_SIZE = 64;
+
+    /** Positions tried for a link label, as ratios from the source. */
+    private static final double[] LINK_RATIOS = { 0.5, 1.0 / 3, 2.0 / 3 };
+
+    /** A label of a node or a link. */
+    private static final class Label {
+
+        /** The labeled object. */
+        private final GraphObject<?> object;
+
+        /** Priority of the label, lower priorities being placed first. */
+        private int priority;
+
+        /** Rank of the label, by priority. */
+        private int rank;
+
+        /** Rendered text. */
+        private String text;
+
+        /** Measured text. */
+        private TextBox box;
+
+        /** Candidate centers of the label, as x,y pairs. */
+        private double[] candidates;
+
+        /** Index of the candidate where the label is placed, -1 if hidden. */
+        private int placed = -1;
+
+        /** Placed rectangle : min x, min y, max x, max y. */
+        private double[] bounds = new double[4];
+
+        /** Candidate rectangles : min x, min y, max x, max y. */
+        private double[][] areas = new double[0][];
+
+        /** Last frame where the object has been seen. */
+        private long frame;
+
+        /** Last query where the label has been found. */
+        private long query;
+
+        /** Last frame where the label has been found around a moved label. */
+        private long affected;
+
+        /** Has the label to be placed again. */
+        private boolean dirty = true;
+
+        /**
+         * Creates a label.
+         * 
+         * @param object the labeled object
+         */
+        private Label(GraphObject<?> object) {
+            this.object = object;
+        }
+
+        /** @return the abscissa of the label center */
+        private double x() {
+            return candidates[2 * Math.max(placed, 0)];
+        }
+
+        /** @return the ordinate of the label center */
+        private double y() {
+            return candidates[2 * Math.max(placed, 0) + 1];
+        }
+    }
+
+    /** A uniform grid indexing labels by rectangles. */
+    private final class Grid {
+
+        /** Labels of each cell, by packed cell coordinates. */
+        private Map<Long, List<Label>> cells = new HashMap<>();
+
+        /**
+         * Adds or removes a label in the cells covered by a rectangle.
+         * 
+         * @param label the label
+         * @param bounds the rectangle : min x, min y, max x, max y
+         * @param add true to add the label, false to remove it
+         */
+        private void update(Label label, double[] bounds, boolean add) {
+            int x0 = cell(bounds[0]);
+            int x1 = cell(bounds[2]);
+            int y0 = cell(bounds[1]);
+            int y1 = cell(bounds[3]);
+            for (int cx = x0; cx <= x1; cx++) {
+                for (int cy = y0; cy <= y1; cy++) {
+                    Long key = ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+                    if (add) {
+                        cells.computeIfAbsent(key, k -> new ArrayList<>()).add(label);
+                    } else {
+                        List<Label> labels = cells.get(key);
+                        if (labels != null) {
+                            labels.remove(label);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Finds the labels of the cells covered by a rectangle, each label once.
+         * 
+         * @param bounds the rectangle : min x, min y, max x, max y
+         * @param found where to add the found labels
+         */
+        private void query(double[] bounds, List<Label> found) {
+            long current = ++queries;
+            int x0 = cell(bounds[0]);
+            int x1 = cell(bounds[2]);
+            int y0 = cell(bounds[1]);
+            int y1 = cell(bounds[3]);
+            for (int cx = x0; cx <= x1; cx++) {
+                for (int cy = y0; cy <= y1; cy++) {
+                    List<Label> labels = cells.get(((long) cx << 32) | (cy & 0xFFFFFFFFL));
+                    if (labels != null) {
+                        for (Label label : labels) {
+                            if (label.query != current) {
+                                label.query = current;
+                                found.add(label);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param coordinate a coordinate
+         * @return the index of the cell containing the coordinate
+         */
+        private int cell(double coordinate) {
+            return (int) Math.floor(coordinate / CELL_SIZE);
+        }
+    }
+
+    /** The graph. */
+    private Graph<E> graph;
+
+    /** Labels of the nodes and links. */
+    private Map<GraphObject<E>, Label> labels = new IdentityHashMap<>();
+
+    /** Labels, by rank. */
+    private List<Label> ranked = new ArrayList<>();
+
+    /** Grid of the placed labels. */
+    private Grid placedGrid = new Grid();
+
+    /** Grid of the candidate areas of all labels. */
+    private Grid candidateGrid = new Grid();
+
+    /** Measured texts. */
+    private Map<String, TextBox> boxes = new HashMap<>();
+
+    /** Font of the measured texts. */
+    private Font font;
+
+    /** Rendering context of the measured texts. */
+    private FontRenderContext fontRenderContext;
+
+    /** Number of placements. */
+    private long frames;
+
+    /** Number of grid queries. */
+    private long queries;
+
+    /** Number of labels placed during the last placement. */
+    private int replacedCount;
+
+    /** Is the graph being rendered with the placed labels. */
+    private boolean rendering;
+
+    /**
+     * Creates a label placer.
+     * 
+     * @param graph the graph whose labels are placed
+     */
+    LabelPlacer(Graph<E> graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Updates the placement of the labels, before rendering.
+     * 
+     * @param graphics Graphics where labels will be rendered
+     * @param nodes the rendered nodes
+     * @param links the rendered links
+     * @param locator locations of the nodes
+     */
+    void place(Graphics2D graphics, List<Node<E>> nodes, List<Link<E>> links,
+            NodeLocator<E> locator) {
+
+        long frame = ++frames;
+        rendering = true;
+        if (!graphics.getFont().equals(font)
+                || !graphics.getFontRenderContext().equals(fontRenderContext)) {
+            font = graphics.getFont();
+            fontRenderContext = graphics.getFontRenderContext();
+            boxes.clear();
+            for (Label label : labels.values()) {
+                label.box = null;
+            }
+        }
+
+        // Collects the labels, finding the moved ones and the areas they leave
+        List<double[]> freedAreas = new ArrayList<>();
+        boolean structureChanged = false;
+        int seenCount = 0;
+        if (graph.hasNodeLabels()) {
+            for (Node<E> node : nodes) {
+                structureChanged |= update(node, node.getRenderedLabel(), frame,
+                        nodeCandidate(node, locator), freedAreas);
+                seenCount++;
+            }
+        }
+        if (graph.hasLinkLabels()) {
+            for (Link<E> link : links) {
+                if (!(link instanceof SplineLink)) {
+                    structureChanged |= update(link, link.getRenderedLabel(), frame,
+                            linkCandidates(link, locator), freedAreas);
+                    seenCount++;
+                }
+            }
+        }
+
+        // Labels not seen in this frame are those of removed objects
+        if (structureChanged || seenCount != labels.size() || labels.size() != ranked.size()) {
+            rank(frame, links, freedAreas);
+        }
+
+        List<Label> dirtyLabels = new ArrayList<>();
+        for (Label label : ranked) {
+            if (label.dirty) {
+                dirtyLabels.add(label);
+            }
+        }
+        List<Label> found = new ArrayList<>();
+        if (2 * dirtyLabels.size() > ranked.size()) {
+
+            // Most labels have changed, all labels are placed again
+            placedGrid = new Grid();
+            for (Label label : ranked) {
+                label.dirty = false;
+                placeLabel(label, found);
+            }
+            replacedCount = ranked.size();
+            return;
+        }
+
+        // Changed labels take the place of the placed labels of lower rank
+        List<Label> queue = new ArrayList<>();
+        for (Label label : dirtyLabels) {
+            enqueue(label, frame, queue);
+            for (double[] area : label.areas) {
+                found.clear();
+                placedGrid.query(area, found);
+                for (Label other : found) {
+                    if (other.rank > label.rank && overlap(area, other.bounds)) {
+                        freedAreas.add(other.bounds);
+                        enqueue(other, frame, queue);
+                    }
+                }
+            }
+        }
+
+        // Hidden labels may take the places that have been left
+        for (double[] area : freedAreas) {
+            found.clear();
+            candidateGrid.query(area, found);
+            for (Label label : found) {
+                if (label.placed < 0) {
+                    enqueue(label, frame, queue);
+                }
+            }
+        }
+
+        queue.sort(Comparator.comparingInt(label -> label.rank));
+        for (Label label : queue) {
+            label.dirty = false;
+            placeLabel(label, found);
+        }
+        replacedCount = queue.size();
+    }
+
+    /**
+     * Adds a label to the labels to place again, once by frame, the label
+     * leaving its place.
+     * 
+     * @param label the label
+     * @param frame the current frame
+     * @param queue labels to place again, updated
+     */
+    private void enqueue(Label label, long frame, List<Label> queue) {
+        if (label.affected != frame) {
+            label.affected = frame;
+            queue.add(label);
+            if (label.placed >= 0) {
+                placedGrid.update(label, label.bounds, false);
+                label.placed = -1;
+            }
+        }
+    }
+
+    /**
+     * @param first a rectangle : min x, min y, max x, max y
+     * @param second another rectangle
+     * @return true if the rectangles overlap
+     */
+    private static boolean overlap(double[] first, double[] second) {
+        return first[0] < second[2] && second[0] < first[2] && first[1] < second[3]
+                && second[1] < first[3];
+    }
+
+    /**
+     * Updates the label of an object.
+     * 
+     * @param object the labeled object
+     * @param text the rendered text
+     * @param frame the current frame
+     * @param candidates the candidate centers of the label
+     * @param freedAreas areas left by moved labels, updated
+     * @return true if the label is new
+     */
+    private boolean update(GraphObject<E> object, String text, long frame, double[] candidates,
+            List<double[]> freedAreas) {
+
+        Label label = labels.get(object);
+        boolean created = (label == null);
+        if (created) {
+            label = new Label(object);
+            labels.put(object, label);
+        }
+        label.frame = frame;
+
+        boolean resized = (label.box == null || !text.equals(label.text));
+        if (resized) {
+            label.text = text;
+            label.box = boxes.computeIfAbsent(text,
+                    t -> new TextBox(t, font, fontRenderContext));
+        } else if (Arrays.equals(candidates, label.candidates)) {
+            return false;
+        }
+
+        for (double[] area : label.areas) {
+            candidateGrid.update(label, area, false);
+        }
+        if (label.placed >= 0) {
+            placedGrid.update(label, label.bounds, false);
+            freedAreas.add(label.bounds);
+            label.placed = -1;
+        }
+        label.dirty = true;
+        label.candidates = candidates;
+        double width = label.box.getWidth();
+        double height = label.box.getHeight();
+        label.areas = new double[candidates.length / 2][];
+        for (int c = 0; c < label.areas.length; c++) {
+            double minX = candidates[2 * c] - width / 2;
+            double minY = candidates[2 * c + 1] - height / 2;
+            label.areas[c] = new double[] { minX, minY, minX + width, minY + height };
+            candidateGrid.update(label, label.areas[c], true);
+        }
+        return created;
+    }
+
+    /**
+     * Ranks the labels, removing the labels of removed objects.
+     * 
+     * @param frame the current frame
+     * @param links the rendered links
+     * @param freedAreas areas left by removed labels, updated
+     */
+    private void rank(long frame, List<Link<E>> links, List<double[]> freedAreas) {
+
+        labels.values().removeIf(label -> {
+            if (label.frame != frame) {
+                for (double[] area : label.areas) {
+                    candidateGrid.update(label, area, false);
+                }
+                if (label.placed >= 0) {
+                    placedGrid.update(label, label.bounds, false);
+                    freedAreas.add(label.bounds);
+                }
+                return true;
+            }
+            return false;
+        });
+
+        // Nodes with the most links first, then links
+        Map<Node<E>, Integer> degrees = new IdentityHashMap<>();
+        for (Link<E> link : links) {
+            degrees.merge(link.getSource(), 1, Integer::sum);
+            degrees.merge(link.getTarget(), 1, Integer::sum);
+        }
+        for (Label label : labels.values()) {
+            int priority = (label.object instanceof Node<?> node)
+                    ? -degrees.getOrDefault(node, 0)
+                    : 1;
+            if (label.priority != priority) {
+                label.priority = priority;
+                label.dirty = true;
+            }
+        }
+
+        // Labels keep their order among labels of the same priority
+        ranked = new ArrayList<>(labels.values());
+        ranked.sort(Comparator.<Label> comparingInt(label -> label.priority)
+                .thenComparingInt(label -> label.dirty ? Integer.MAX_VALUE : label.rank));
+        for (int r = 0; r < ranked.size(); r++) {
+            ranked.get(r).rank = r;
+        }
+    }
+
+    /**
+     * Places a label at its first free candidate position, or hides it.
+     * 
+     * @param label the label
+     * @param obstacles list used to find the labels around a position
+     */
+    private void placeLabel(Label label, List<Label> obstacles) {
+
+        for (int c = 0; c < label.areas.length; c++) {
+            double[] bounds = label.areas[c];
+
+            obstacles.clear();
+            placedGrid.query(bounds, obstacles);
+            boolean free = true;
+            for (Label obstacle : obstacles) {
+                if (overlap(bounds, obstacle.bounds)) {
+                    free = false;
+                    break;
+                }
+            }
+            if (free) {
+                label.placed = c;
+                label.bounds = bounds;
+                placedGrid.update(label, bounds, true);
+                return;
+            }
+        }
+        label.placed = -1;
+    }
+
+    /**
+     * @param node a node
+     * @param locator locations of the nodes
+     * @return the candidate center of the node label, the node itself
+     */
+    private double[] nodeCandidate(Node<E> node, NodeLocator<E> locator) {
+        return new double[] { locator.xLoc(node), locator.yLoc(node) };
+    }
+
+    /**
+     * @param link a link
+     * @param locator locations of the nodes
+     * @return the candidate centers of the link label, along the link
+     */
+    private double[] linkCandidates(Link<E> link, NodeLocator<E> locator) {
+        double x1 = locator.xLoc(link.getSource());
+        double y1 = locator.yLoc(link.getSource());
+        double x2 = locator.xLoc(link.getTarget());
+        double y2 = locator.yLoc(link.getTarget());
+        double[] candidates = new double[2 * LINK_RATIOS.length];
+        for (int c = 0; c < LINK_RATIOS.length; c++) {
+            candidates[2 * c] = x1 + LINK_RATIOS[c] * (x2 - x1);
+            candidates[2 * c + 1] = y1 + LINK_RATIOS[c] * (y2 - y1);
+        }
+        return candidates;
+    }
+
+    /** Ends the rendering of the graph with the placed labels. */
+    void endRendering() {
+        rendering = false;
+    }
+
+    /**
+     * @param object a node or a link
+     * @return true if the graph is rendered with the placed labels, and the
+     *         label of the object is hidden
+     */
+    boolean hidesLabel(GraphObject<E> object) {
+        return rendering && !isShown(object);
+    }
+
+    /**
+     * @param object a node or a link
+     * @return true if the label of the object is rendered, labels that have
+     *         not been placed being rendered
+     */
+    public boolean isShown(GraphObject<E> object) {
+        Label label = labels.get(object);
+        return label == null || label.placed >= 0;
+    }
+
+    /**
+     * @param object a node or a link
+     * @return the measured label of the object, or null if the graph is not
+     *         rendered with the placed labels or the label has not been placed
+     */
+    TextBox getTextBox(GraphObject<E> object) {
+        Label label = rendering ? labels.get(object) : null;
+        return (label == null) ? null : label.box;
+    }
+
+    /**
+     * @param object a node or a link whose label has been placed
+     * @return the abscissa of the center of the label
+     */
+    public double xLoc(GraphObject<E> object) {
+        return labels.get(object).x();
+    }
+
+    /**
+     * @param object a node or a link whose label has been placed
+     * @return the ordinate of the center of the label
+     */
+    public double yLoc(GraphObject<E> object) {
+        return labels.get(object).y();
+    }
+
+    /** @return the number of rendered labels */
+    public int getShownCount() {
+        int shown = 0;
+        for (Label label : ranked) {
+            if (label.placed >= 0) {
+                shown++;
+            }
+        }
+        return shown;
+    }
+
+    /** @return the number of placed labels */
+    public int getLabelCount() {
+        return ranked.size();
+    }
+
+    /** @return the number of labels placed during the last placement */
+    public int getReplacedCount() {
+        return replacedCount;
+    }
+
+}
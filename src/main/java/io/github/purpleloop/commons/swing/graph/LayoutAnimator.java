@@ -0,0 +1,371 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/**
+ * Runs the iterations of a layout algorithm in background, and publishes the
+ * node locations to the user interface.
+ * 
+ * <p>
+ * Iterations run on a virtual thread (or a given executor), each one in a
+ * batch of the graph. After an iteration, if the frame interval has elapsed,
+ * the node locations are captured as immutable {@link NodePositions} and
+ * published : frame listeners are notified on the event dispatch thread, and
+ * {@link #getLocator()} interpolates between the two last published frames,
+ * so that a view repainted at its own rate moves smoothly, whatever the
+ * duration of the iterations.
+ * </p>
+ * 
+ * <p>
+ * Nodes are moved by the layout thread. Views should render through the
+ * locator, and a {@link ConcurrentGraph} should be used if the graph is
+ * edited while the layout is running.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class LayoutAnimator<E> {
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(LayoutAnimator.class);
+
+    /** Default maximal number of frames per second. */
+    public static final int DEFAULT_FRAME_RATE = 30;
+
+    /** Default number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 500;
+
+    /** One iteration of a layout algorithm. */
+    @FunctionalInterface
+    public interface LayoutStep {
+
+        /**
+         * Runs an iteration, moving nodes of the graph.
+         * 
+         * @throws GraphException in case of error on the graph
+         */
+        void iterate() throws GraphException;
+    }
+
+    /**
+     * Two consecutive published frames.
+     * 
+     * @param previous locations of the previous frame
+     * @param latest locations of the latest frame
+     * @param time time of publication of the latest frame, in nanoseconds
+     * @param duration time between the two frames, in nanoseconds
+     */
+    private record Frames<E>(NodePositions<E> previous, NodePositions<E> latest, long time,
+            long duration) {
+    }
+
+    /** The laid out graph. */
+    private Graph<E> graph;
+
+    /** The layout iteration. */
+    private LayoutStep step;
+
+    /** Executor running the layout, a new virtual thread if null. */
+    private Executor executor;
+
+    /** Maximal number of frames per second. */
+    private int frameRate = DEFAULT_FRAME_RATE;
+
+    /** Number of iterations of a run. */
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+
+    /** Listeners notified of published frames, on the event dispatch thread. */
+    private List<Consumer<NodePositions<E>>> frameListeners = new CopyOnWriteArrayList<>();
+
+    /** Lock for pauses. */
+    private final Object pauseLock = new Object();
+
+    /** Is the layout running. */
+    private volatile boolean running;
+
+    /** Is the layout paused. */
+    private volatile boolean paused;
+
+    /** Is the layout cancelled. */
+    private volatile boolean cancelled;
+
+    /** Number of iterations done in the current run. */
+    private volatile int iterations;
+
+    /** Last published frames. */
+    private volatile Frames<E> frames;
+
+    /** Is a notification of frame listeners pending on the EDT. */
+    private AtomicBoolean notificationPending = new AtomicBoolean();
+
+    /** Released when the current run ends. */
+    private volatile CountDownLatch termination = new CountDownLatch(0);
+
+    /**
+     * Creates a layout animator.
+     * 
+     * @param graph the graph to lay out
+     * @param step an iteration of the layout, for instance
+     *            {@code organizer::applyForces}
+     */
+    public LayoutAnimator(Graph<E> graph, LayoutStep step) {
+        this.graph = graph;
+        this.step = step;
+    }
+
+    /** @return the laid out graph */
+    public Graph<E> getGraph() {
+        return graph;
+    }
+
+    /** @param executor executor running the layout, null for a virtual thread */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /** @return the maximal number of frames per second */
+    public int getFrameRate() {
+        return frameRate;
+    }
+
+    /** @param frameRate the maximal number of frames per second */
+    public void setFrameRate(int frameRate) {
+        this.frameRate = Math.max(1, frameRate);
+    }
+
+    /** @param maxIterations number of iterations of a run */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /** @return the number of iterations done in the current or last run */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /** @param listener listener notified of frames, on the EDT */
+    public void addFrameListener(Consumer<NodePositions<E>> listener) {
+        frameListeners.add(listener);
+    }
+
+    /** @param listener listener to remove */
+    public void removeFrameListener(Consumer<NodePositions<E>> listener) {
+        frameListeners.remove(listener);
+    }
+
+    /** @return true if the layout is running, even paused */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** @return true if the layout is paused */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Starts the layout, if it is not running.
+     * 
+     * @return true if the layout has been started
+     */
+    public synchronized boolean start() {
+
+        if (running) {
+            return false;
+        }
+        running = true;
+        paused = false;
+        cancelled = false;
+        iterations = 0;
+        termination = new CountDownLatch(1);
+
+        NodePositions<E> initial = graph.snapshot().getPositions();
+        frames = new Frames<>(initial, initial, System.nanoTime(), frameInterval());
+
+        if (executor == null) {
+            Thread.ofVirtual().name("layout-animator").start(this::run);
+        } else {
+            executor.execute(this::run);
+        }
+        return true;
+    }
+
+    /** Pauses the layout. */
+    public void pause() {
+        paused = true;
+    }
+
+    /** Resumes a paused layout. */
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    /** Cancels the layout, nodes stay where the last iteration put them. */
+    public void cancel() {
+        synchronized (pauseLock) {
+            cancelled = true;
+            pauseLock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits for the end of the current run.
+     * 
+     * @param timeout maximal time to wait
+     * @param unit unit of the timeout
+     * @return true if the run has ended, false if the timeout elapsed
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return termination.await(timeout, unit);
+    }
+
+    /** @return the locations of the latest published frame, or null */
+    public NodePositions<E> getPositions() {
+        Frames<E> current = frames;
+        return (current == null) ? null : current.latest();
+    }
+
+    /**
+     * @return the locations of nodes interpolated at the current time between
+     *         the two last frames, or null if no frame has been published
+     */
+    public NodeLocator<E> getLocator() {
+        Frames<E> current = frames;
+        return (current == null) ? null : interpolation(current, System.nanoTime());
+    }
+
+    /**
+     * @return true if the layout is running or if the interpolation towards
+     *         the latest frame is not finished
+     */
+    public boolean isAnimating() {
+        Frames<E> current = frames;
+        return running
+                || (current != null && System.nanoTime() - current.time() < current.duration());
+    }
+
+    /** Runs the iterations of the layout. */
+    private void run() {
+
+        CountDownLatch runTermination = termination;
+        long interval = frameInterval();
+        long lastPublication = System.nanoTime();
+
+        try {
+            while (iterations < maxIterations && !cancelled) {
+
+                synchronized (pauseLock) {
+                    while (paused && !cancelled) {
+                        pauseLock.wait();
+                    }
+                }
+                if (cancelled) {
+                    break;
+                }
+
+                GraphBatch<E> batch = graph.beginBatch();
+                try {
+                    step.iterate();
+                } finally {
+                    batch.commit();
+                }
+                iterations++;
+
+                long now = System.nanoTime();
+                if (now - lastPublication >= interval) {
+                    publish(now);
+                    lastPublication = now;
+                }
+            }
+        } catch (GraphException e) {
+            LOG.error("Layout iteration failed", e);
+        } catch (InterruptedException e) {
+            LOG.debug("Layout interrupted");
+            Thread.currentThread().interrupt();
+        } finally {
+            publish(System.nanoTime());
+            running = false;
+            runTermination.countDown();
+        }
+    }
+
+    /**
+     * Publishes the current locations of the nodes.
+     * 
+     * @param now current time, in nanoseconds
+     */
+    private void publish(long now) {
+
+        Frames<E> current = frames;
+        GraphSnapshot<E> snapshot = graph.snapshot();
+        NodePositions<E> positions = snapshot.getPositions();
+
+        // Interpolates from where the view currently is
+        NodePositions<E> from = NodePositions.capture(snapshot.getNodes(),
+                interpolation(current, now));
+        frames = new Frames<>(from, positions, now, Math.max(now - current.time(), 1));
+
+        if (!frameListeners.isEmpty() && notificationPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                notificationPending.set(false);
+                NodePositions<E> latest = frames.latest();
+                for (Consumer<NodePositions<E>> listener : frameListeners) {
+                    listener.accept(latest);
+                }
+            });
+        }
+    }
+
+    /** @return the minimal time between two frames, in nanoseconds */
+    private long frameInterval() {
+        return TimeUnit.SECONDS.toNanos(1) / frameRate;
+    }
+
+    /**
+     * @param current published frames
+     * @param now current time, in nanoseconds
+     * @return the interpolated locations
+     */
+    private NodeLocator<E> interpolation(Frames<E> current, long now) {
+
+        double ratio = Math.clamp((now - current.time()) / (double) current.duration(), 0.0,
+                1.0);
+        NodePositions<E> previous = current.previous();
+        NodePositions<E> latest = current.latest();
+
+        return new NodeLocator<>() {
+
+            @Override
+            public double xLoc(Node<E> node) {
+                double x = latest.xLoc(node);
+                return previous.contains(node) ? previous.xLoc(node) * (1 - ratio) + x * ratio
+                        : x;
+            }
+
+            @Override
+            public double yLoc(Node<E> node) {
+                double y = latest.yLoc(node);
+                return previous.contains(node) ? previous.yLoc(node) * (1 - ratio) + y * ratio
+                        : y;
+            }
+        };
+    }
+
+}
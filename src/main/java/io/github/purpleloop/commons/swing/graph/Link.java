@@ -176,6 +176,7 @@ public class Link<E> extends GraphObject<E> implements Selectable {
      */
     public void setLabel(String label) {
         this.label = label;
+        owner.linkUpdated(this);
     }
 
     /**
@@ -301,6 +302,33 @@ public class Link<E> extends GraphObject<E> implements Selectable {
      * @param layer Layer to draw
      */
     public void draw(Graphics2D g, int layer) {
+        draw(g, layer, source.xLoc(), source.yLoc(), target.xLoc(), target.yLoc());
+    }
+
+    /**
+     * Draws the link on the graphic, with restriction to elements belonging to
+     * the given layer. Locations of the ends are given by a locator.
+     * 
+     * @param g Graphics where to draw
+     * @param layer Layer to draw
+     * @param locator locator of the link ends
+     */
+    public void draw(Graphics2D g, int layer, NodeLocator<E> locator) {
+        draw(g, layer, locator.xLoc(source), locator.yLoc(source), locator.xLoc(target),
+                locator.yLoc(target));
+    }
+
+    /**
+     * Draws the link between given locations.
+     * 
+     * @param g Graphics where to draw
+     * @param layer Layer to draw
+     * @param x1 source abscissa
+     * @param y1 source ordinate
+     * @param x2 target abscissa
+     * @param y2 target ordinate
+     */
+    protected void draw(Graphics2D g, int layer, double x1, double y1, double x2, double y2) {
 
         /* A link is represented by a segment of line. An arrow placed in the
          * middle shows the direction. The label is displayed at the first
@@ -314,14 +342,6 @@ public class Link<E> extends GraphObject<E> implements Selectable {
                 g.setColor(Color.black);
             }
 
-            // Source
-            double x1 = source.xLoc();
-            double y1 = source.yLoc();
-
-            // Target
-            double x2 = target.xLoc();
-            double y2 = target.yLoc();
-
             // Holder line
             g.drawLine((int) x1, (int) y1, (int) x2, (int) y2);
 
@@ -337,20 +357,44 @@ public class Link<E> extends GraphObject<E> implements Selectable {
             }
 
             if (owner.hasLinkLabels()) {
-                // Draws the label
 
-                TextBox tb = new TextBox(owner.abbreviateIfNeeded(label), g.getFont(),
-                        g.getFontRenderContext());
+                // Labels that do not fit are hidden by the label placer, if any
+                LabelPlacer<E> placer = owner.getLabelPlacer();
+                TextBox tb = (placer == null) ? null : placer.getTextBox(this);
+                if (tb == null) {
+                    tb = new TextBox(getRenderedLabel(), g.getFont(), g.getFontRenderContext());
+                    drawLabel(g, tb, mx, my);
+                } else if (!placer.hidesLabel(this)) {
+                    drawLabel(g, tb, placer.xLoc(this), placer.yLoc(this));
+                } else if (selected) {
+                    drawLabel(g, tb, mx, my);
+                }
+            }
+        }
+    }
 
-                int width = tb.getWidth();
-                int height = tb.getHeight();
+    /**
+     * Draws the label of the link, on a cleared background.
+     * 
+     * @param g Graphics where to draw
+     * @param tb the measured label
+     * @param x abscissa of the label center
+     * @param y ordinate of the label center
+     */
+    private void drawLabel(Graphics2D g, TextBox tb, double x, double y) {
 
-                g.clearRect((int) mx - (width / 2), (int) my - (height / 2), width, height);
+        int width = tb.getWidth();
+        int height = tb.getHeight();
 
-                g.setColor(Color.black);
-                tb.renderText(g, mx, my);
-            }
-        }
+        g.clearRect((int) x - (width / 2), (int) y - (height / 2), width, height);
+
+        g.setColor(Color.black);
+        tb.renderText(g, x, y);
+    }
+
+    /** @return the rendered label, abbreviated if needed */
+    String getRenderedLabel() {
+        return owner.abbreviateIfNeeded(label);
     }
 
     private void drawLinkArrow(Graphics2D g, double dx, double dy, double mx, double my) {
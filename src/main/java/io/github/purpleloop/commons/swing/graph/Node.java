@@ -11,6 +11,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.commons.logging.Log;
@@ -117,7 +118,7 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
     public Node(Graph<E> g, String t) {
 
         this(g);
-        setLabel(t);
+        label = t;
     }
 
     /**
@@ -175,7 +176,9 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
      * @param label new label
      */
     public void setLabel(String label) {
+        String oldLabel = this.label;
         this.label = label;
+        owner.nodeRelabeled(this, oldLabel);
     }
 
     /**
@@ -211,7 +214,7 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
      * @param text added text
      */
     public void appendLabel(String text) {
-        label += text;
+        setLabel(label + text);
     }
 
     @Override
@@ -332,9 +335,9 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
      */
     public void moveTo(double x, double y) {
 
-        // We use moveRel because we have also to move anchors with a reduced
-        // effet.
-        moveRel(x - xl, y - yl);
+        // The move is relative because we have also to move anchors with a
+        // reduced effet.
+        owner.moveNodeTo(this, x, y);
     }
 
     /**
@@ -344,6 +347,18 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
      * @param dy relative vertical move
      */
     public void moveRel(double dx, double dy) {
+        owner.moveNode(this, dx, dy);
+    }
+
+    /**
+     * Translates the node by the vector (dx,dy) if it is not pinned. The owner
+     * graph is in charge of synchronizing and notifying moves.
+     * 
+     * @param dx relative horizontal move
+     * @param dy relative vertical move
+     * @return true if the node has been moved, false if it is pinned
+     */
+    boolean translate(double dx, double dy) {
 
         if (!pinned) {
 
@@ -367,7 +382,9 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
                     lsp.getAnchor(2).moveRel(dx / 2, dy / 2);
                 }
             }
+            return true;
         }
+        return false;
     }
 
     /**
@@ -402,7 +419,10 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
      * @param newShape the new node shape
      */
     public void setShape(NodeShape newShape) {
-        shape = newShape;
+        if (shape != newShape) {
+            shape = newShape;
+            owner.nodeUpdated(this);
+        }
     }
 
     /**
@@ -416,7 +436,10 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
      * @param newColor the new node color
      */
     public void setColor(Color newColor) {
-        col = newColor;
+        if (!Objects.equals(col, newColor)) {
+            col = newColor;
+            owner.nodeUpdated(this);
+        }
     }
 
     /**
@@ -445,6 +468,11 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
         return selected;
     }
 
+    /** Marks the node as selected. */
+    void markSelected() {
+        selected = true;
+    }
+
     /** Unselect the node. */
     public void unselect() {
         selected = false;
@@ -455,7 +483,10 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
      *            of the node
      */
     public void setPinned(boolean pinned) {
-        this.pinned = pinned;
+        if (this.pinned != pinned) {
+            this.pinned = pinned;
+            owner.nodeUpdated(this);
+        }
     }
 
     /**
@@ -474,13 +505,27 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
      * @return true if the node is in (x,y), false otherwise
      */
     public boolean isIn(int x, int y) {
+        return isIn(x, y, xl, yl);
+    }
+
+    /**
+     * Test if the node, drawn at a given location, is in (x,y).
+     * 
+     * @param x Tested abscissa
+     * @param y Tested ordinate
+     * @param nodeX abscissa where the node is drawn (center)
+     * @param nodeY ordinate where the node is drawn (center)
+     * @return true if the node is in (x,y), false otherwise
+     */
+    public boolean isIn(int x, int y, double nodeX, double nodeY) {
 
         // If there is a specific size, we use it
         if ((width != 0) && (height != 0)) {
 
-            return (Math.abs(x - xl) <= (width / 2)) && (Math.abs(y - yl) <= (height / 2));
+            return (Math.abs(x - nodeX) <= (width / 2))
+                    && (Math.abs(y - nodeY) <= (height / 2));
         } else {
-            return isIn(x, y, 10);
+            return GeomUtils.distance(nodeX, nodeY, x, y) < 10;
         }
 
     }
@@ -511,6 +556,22 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
         }
     }
 
+    /**
+     * @return the rendered label : the contents if they are rendered, the label
+     *         otherwise, abbreviated if needed
+     */
+    String getRenderedLabel() {
+
+        String str = label;
+        if (owner.isRenderContents()) {
+            Optional<E> contentsOpt = getContents();
+            if (contentsOpt.isPresent()) {
+                str = contentsOpt.get().toString();
+            }
+        }
+        return owner.abbreviateIfNeeded(str);
+    }
+
     /**
      * Draws the node on the given graphic. Drawn elements are limited to the
      * given layer.
@@ -519,6 +580,19 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
      * @param layer the layer to render
      */
     public void draw(Graphics2D g, int layer) {
+        draw(g, layer, xl, yl);
+    }
+
+    /**
+     * Draws the node at a given location, on the given graphic. Drawn elements
+     * are limited to the given layer.
+     * 
+     * @param g the graphics where to draw
+     * @param layer the layer to render
+     * @param x abscissa of the node (center)
+     * @param y ordinate of the node (center)
+     */
+    public void draw(Graphics2D g, int layer, double x, double y) {
 
         if (layer == 1) {
             if (selected) {
@@ -527,24 +601,15 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
                 g.setColor(col);
             }
 
-            if (owner.hasNodeLabels()) {
-
-                String str;
-                if (owner.isRenderContents()) {
+            // Labels that do not fit are hidden by the label placer, if any
+            LabelPlacer<E> placer = owner.getLabelPlacer();
+            if (owner.hasNodeLabels()
+                    && (placer == null || selected || !placer.hidesLabel(this))) {
 
-                    Optional<E> contentsOpt = getContents();
-                    if (contentsOpt.isPresent()) {
-                        str = contentsOpt.get().toString();
-                    } else {
-                        str = label;
-                    }
-
-                } else {
-                    str = label;
+                TextBox tb = (placer == null) ? null : placer.getTextBox(this);
+                if (tb == null) {
+                    tb = new TextBox(getRenderedLabel(), g.getFont(), g.getFontRenderContext());
                 }
-
-                TextBox tb = new TextBox(owner.abbreviateIfNeeded(str), g.getFont(),
-                        g.getFontRenderContext());
                 width = tb.getWidth();
                 height = tb.getHeight();
 
@@ -552,15 +617,15 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
 
                 switch (shape) {
                 case ROUND_RECT:
-                    nodeShape = new RoundRectangle2D.Double((int) xl - width / 2.0,
-                            (int) yl - height / 2.0, width, height, 10, 10);
+                    nodeShape = new RoundRectangle2D.Double((int) x - width / 2.0,
+                            (int) y - height / 2.0, width, height, 10, 10);
                     g.fill(nodeShape);
                     g.setColor(Color.black);
                     g.draw(nodeShape);
 
                     break;
                 case RECT:
-                    nodeShape = new Rectangle((int) xl - width / 2, (int) yl - height / 2, width,
+                    nodeShape = new Rectangle((int) x - width / 2, (int) y - height / 2, width,
                             height);
                     g.fill(nodeShape);
                     g.setColor(Color.black);
@@ -568,16 +633,16 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
                     break;
                 case ELLIPSE:
 
-                    nodeShape = new Ellipse2D.Double((int) xl - width / 2.0,
-                            (int) yl - height / 2.0, width, height);
+                    nodeShape = new Ellipse2D.Double((int) x - width / 2.0,
+                            (int) y - height / 2.0, width, height);
                     g.fill(nodeShape);
                     g.setColor(Color.black);
                     g.draw(nodeShape);
                     break;
                 case HALF_ROUNDED_RIGHT:
 
-                    nodeShape = new RightRoundedRectangle((int) xl - width / 2,
-                            (int) yl - height / 2, width, height);
+                    nodeShape = new RightRoundedRectangle((int) x - width / 2,
+                            (int) y - height / 2, width, height);
 
                     g.fill(nodeShape);
                     g.setColor(Color.black);
@@ -588,14 +653,14 @@ public class Node<E> extends GraphObject<E> implements Selectable, Comparable<No
 
                 } // switch
 
-                tb.renderText(g, xl, yl);
+                tb.renderText(g, x, y);
 
             } else {
                 width = 10;
                 height = 10;
-                g.fillOval((int) xl - 5, (int) yl - 5, 10, 10);
+                g.fillOval((int) x - 5, (int) y - 5, 10, 10);
                 g.setColor(Color.black);
-                g.drawOval((int) xl - 5, (int) yl - 5, 10, 10);
+                g.drawOval((int) x - 5, (int) y - 5, 10, 10);
             }
 
         } // layer test
@@ -0,0 +1,42 @@
+package io.github.purpleloop.commons.swing.graph;
+
+/**
+ * Gives the locations of nodes, for instance to render a graph with locations
+ * that differ from the current ones of its nodes.
+ * 
+ * @param <E> the graph content type
+ */
+public interface NodeLocator<E> {
+
+    /**
+     * @param node a node
+     * @return the abscissa of the node (center)
+     */
+    double xLoc(Node<E> node);
+
+    /**
+     * @param node a node
+     * @return the ordinate of the node (center)
+     */
+    double yLoc(Node<E> node);
+
+    /**
+     * @param <E> the graph content type
+     * @return a locator giving the current locations of the nodes
+     */
+    static <E> NodeLocator<E> current() {
+        return new NodeLocator<>() {
+
+            @Override
+            public double xLoc(Node<E> node) {
+                return node.xLoc();
+            }
+
+            @Override
+            public double yLoc(Node<E> node) {
+                return node.yLoc();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Immutable locations of a set of nodes, captured at a given time.
+ * 
+ * <p>
+ * Nodes for which no location has been captured are located at their current
+ * location.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class NodePositions<E> implements NodeLocator<E> {
+
+    /** Index of the nodes in the coordinates arrays. */
+    private Map<Node<E>, Integer> slots;
+
+    /** Abscissas of the nodes. */
+    private double[] xs;
+
+    /** Ordinates of the nodes. */
+    private double[] ys;
+
+    /**
+     * Creates node positions.
+     * 
+     * @param slots index of the nodes in the coordinates arrays
+     * @param xs abscissas of the nodes
+     * @param ys ordinates of the nodes
+     */
+    private NodePositions(Map<Node<E>, Integer> slots, double[] xs, double[] ys) {
+        this.slots = slots;
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Captures the current locations of nodes.
+     * 
+     * @param <E> the graph content type
+     * @param nodes the nodes
+     * @return the captured locations
+     */
+    public static <E> NodePositions<E> capture(Collection<Node<E>> nodes) {
+        return capture(nodes, NodeLocator.current());
+    }
+
+    /**
+     * Captures the locations of nodes given by a locator.
+     * 
+     * @param <E> the graph content type
+     * @param nodes the nodes
+     * @param locator locations of the nodes
+     * @return the captured locations
+     */
+    public static <E> NodePositions<E> capture(Collection<Node<E>> nodes,
+            NodeLocator<E> locator) {
+
+        Map<Node<E>, Integer> slots = new IdentityHashMap<>(nodes.size());
+        double[] xs = new double[nodes.size()];
+        double[] ys = new double[nodes.size()];
+
+        int slot = 0;
+        for (Node<E> node : nodes) {
+            slots.put(node, slot);
+            xs[slot] = locator.xLoc(node);
+            ys[slot] = locator.yLoc(node);
+            slot++;
+        }
+
+        return new NodePositions<>(slots, xs, ys);
+    }
+
+    /** @return the number of located nodes */
+    public int size() {
+        return xs.length;
+    }
+
+    /**
+     * @param node a node
+     * @return true if a location has been captured for the node
+     */
+    public boolean contains(Node<E> node) {
+        return slots.containsKey(node);
+    }
+
+    @Override
+    public double xLoc(Node<E> node) {
+        Integer slot = slots.get(node);
+        return (slot == null) ? node.xLoc() : xs[slot];
+    }
+
+    @Override
+    public double yLoc(Node<E> node) {
+        Integer slot = slots.get(node);
+        return (slot == null) ? node.yLoc() : ys[slot];
+    }
+
+}
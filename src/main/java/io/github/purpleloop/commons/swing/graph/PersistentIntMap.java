@@ -0,0 +1,369 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable map with int keys, implemented as a hash array mapped trie.
+ * 
+ * <p>
+ * Each trie node has up to 32 children, selected by 5 bits of the key (low
+ * bits first, so that consecutive keys are spread on the root). Updates copy
+ * the path from the root to the changed entry, O(log N), and share all other
+ * trie nodes with the previous map. Shared sub-tries are skipped when two maps
+ * are compared.
+ * </p>
+ * 
+ * @param <V> type of the values
+ */
+class PersistentIntMap<V> {
+
+    /** Bits of the key used at each level. */
+    private static final int BITS = 5;
+
+    /** Mask for the bits of a level. */
+    private static final int MASK = (1 << BITS) - 1;
+
+    /** The empty map. */
+    @SuppressWarnings("rawtypes")
+    private static final PersistentIntMap EMPTY = new PersistentIntMap<>(null, 0);
+
+    /** A map entry. */
+    private record Entry(int key, Object value) {
+    }
+
+    /** A trie node, whose children are entries or trie nodes. */
+    private record Trie(int bitmap, Object[] children) {
+    }
+
+    /**
+     * Receives the differences between two maps.
+     * 
+     * @param <V> type of the values
+     */
+    interface DiffVisitor<V> {
+
+        /**
+         * @param key key only present in the second map
+         * @param value value in the second map
+         */
+        void added(int key, V value);
+
+        /**
+         * @param key key only present in the first map
+         * @param value value in the first map
+         */
+        void removed(int key, V value);
+
+        /**
+         * @param key key present in both maps
+         * @param oldValue value in the first map
+         * @param newValue different value in the second map
+         */
+        void changed(int key, V oldValue, V newValue);
+    }
+
+    /** Root of the trie, null for the empty map. */
+    private Trie root;
+
+    /** Number of entries. */
+    private int size;
+
+    /**
+     * Creates a map.
+     * 
+     * @param root root of the trie
+     * @param size number of entries
+     */
+    private PersistentIntMap(Trie root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @param <V> type of the values
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <V> PersistentIntMap<V> empty() {
+        return EMPTY;
+    }
+
+    /** @return the number of entries */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key a key
+     * @return the value for the key, or null
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+
+        Trie trie = root;
+        int shift = 0;
+        while (trie != null) {
+            int bit = 1 << ((key >>> shift) & MASK);
+            if ((trie.bitmap & bit) == 0) {
+                return null;
+            }
+            Object child = trie.children[Integer.bitCount(trie.bitmap & (bit - 1))];
+            if (child instanceof Entry entry) {
+                return (entry.key == key) ? (V) entry.value : null;
+            }
+            trie = (Trie) child;
+            shift += BITS;
+        }
+        return null;
+    }
+
+    /**
+     * @param key a key
+     * @param value the value for the key
+     * @return a map with the key associated to the value
+     */
+    PersistentIntMap<V> put(int key, V value) {
+
+        int[] sizeChange = new int[1];
+        Trie newRoot = put(root, new Entry(key, value), 0, sizeChange);
+        return (newRoot == root) ? this : new PersistentIntMap<>(newRoot, size + sizeChange[0]);
+    }
+
+    /**
+     * @param key a key
+     * @return a map without the key
+     */
+    PersistentIntMap<V> remove(int key) {
+
+        if (root == null) {
+            return this;
+        }
+        Object newRoot = remove(root, key, 0);
+        if (newRoot == root) {
+            return this;
+        }
+
+        // A single entry left at the root is kept in a trie node
+        Trie rootTrie = (newRoot instanceof Entry entry) ? singleton(entry, 0) : (Trie) newRoot;
+        return new PersistentIntMap<>(rootTrie, size - 1);
+    }
+
+    /**
+     * Calls an action for each entry.
+     * 
+     * @param action the action
+     */
+    void forEach(BiConsumer<Integer, V> action) {
+        forEach(root, action);
+    }
+
+    /**
+     * Compares this map with another one.
+     * 
+     * @param other the other map
+     * @param visitor visitor of the differences
+     */
+    void diff(PersistentIntMap<V> other, DiffVisitor<V> visitor) {
+        diff(root, other.root, 0, visitor);
+    }
+
+    /**
+     * @param entry an entry
+     * @param shift shift of the trie node level
+     * @return a trie node containing only the entry
+     */
+    private static Trie singleton(Entry entry, int shift) {
+        return new Trie(1 << ((entry.key >>> shift) & MASK), new Object[] { entry });
+    }
+
+    /**
+     * Puts an entry in a trie node.
+     * 
+     * @param trie the trie node, can be null
+     * @param entry the entry to put
+     * @param shift shift of the trie node level
+     * @param sizeChange receives 1 if an entry is added
+     * @return the new trie node, or the same if nothing changed
+     */
+    private static Trie put(Trie trie, Entry entry, int shift, int[] sizeChange) {
+
+        if (trie == null) {
+            sizeChange[0] = 1;
+            return singleton(entry, shift);
+        }
+
+        int bit = 1 << ((entry.key >>> shift) & MASK);
+        int pos = Integer.bitCount(trie.bitmap & (bit - 1));
+
+        if ((trie.bitmap & bit) == 0) {
+            Object[] children = new Object[trie.children.length + 1];
+            System.arraycopy(trie.children, 0, children, 0, pos);
+            children[pos] = entry;
+            System.arraycopy(trie.children, pos, children, pos + 1, trie.children.length - pos);
+            sizeChange[0] = 1;
+            return new Trie(trie.bitmap | bit, children);
+        }
+
+        Object child = trie.children[pos];
+        Object newChild;
+        if (child instanceof Entry existing) {
+            if (existing.key == entry.key) {
+                if (existing.value == entry.value) {
+                    return trie;
+                }
+                newChild = entry;
+            } else {
+                // Both entries are pushed down in a new trie node
+                Trie pushed = singleton(existing, shift + BITS);
+                newChild = put(pushed, entry, shift + BITS, sizeChange);
+            }
+        } else {
+            newChild = put((Trie) child, entry, shift + BITS, sizeChange);
+            if (newChild == child) {
+                return trie;
+            }
+        }
+
+        Object[] children = trie.children.clone();
+        children[pos] = newChild;
+        return new Trie(trie.bitmap, children);
+    }
+
+    /**
+     * Removes a key from a trie node.
+     * 
+     * @param trie the trie node
+     * @param key the key to remove
+     * @param shift shift of the trie node level
+     * @return the new trie node (or a single entry, or null if empty), or the
+     *         same trie node if the key is absent
+     */
+    private static Object remove(Trie trie, int key, int shift) {
+
+        int bit = 1 << ((key >>> shift) & MASK);
+        if ((trie.bitmap & bit) == 0) {
+            return trie;
+        }
+
+        int pos = Integer.bitCount(trie.bitmap & (bit - 1));
+        Object child = trie.children[pos];
+        Object newChild;
+        if (child instanceof Entry entry) {
+            if (entry.key != key) {
+                return trie;
+            }
+            newChild = null;
+        } else {
+            newChild = remove((Trie) child, key, shift + BITS);
+            if (newChild == child) {
+                return trie;
+            }
+        }
+
+        if (newChild != null) {
+            Object[] children = trie.children.clone();
+            children[pos] = newChild;
+            return new Trie(trie.bitmap, children);
+        }
+
+        int newBitmap = trie.bitmap & ~bit;
+        if (newBitmap == 0) {
+            return null;
+        }
+
+        Object[] children = new Object[trie.children.length - 1];
+        System.arraycopy(trie.children, 0, children, 0, pos);
+        System.arraycopy(trie.children, pos + 1, children, pos, children.length - pos);
+
+        // A trie node with a single entry is collapsed in its parent
+        if (children.length == 1 && children[0] instanceof Entry) {
+            return children[0];
+        }
+        return new Trie(newBitmap, children);
+    }
+
+    /**
+     * Calls an action for each entry of a trie node.
+     * 
+     * @param node a trie node or an entry, can be null
+     * @param action the action
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Object node, BiConsumer<Integer, V> action) {
+
+        if (node instanceof Entry entry) {
+            action.accept(entry.key, (V) entry.value);
+        } else if (node instanceof Trie trie) {
+            for (Object child : trie.children) {
+                forEach(child, action);
+            }
+        }
+    }
+
+    /**
+     * Compares two trie nodes, or entries, of the same level.
+     * 
+     * @param first node of the first map, can be null
+     * @param second node of the second map, can be null
+     * @param shift shift of the level
+     * @param visitor visitor of the differences
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> void diff(Object first, Object second, int shift,
+            DiffVisitor<V> visitor) {
+
+        // Shared parts are identical
+        if (first == second) {
+            return;
+        }
+
+        if (first == null) {
+            forEach(second, (BiConsumer<Integer, V>) visitor::added);
+        } else if (second == null) {
+            forEach(first, (BiConsumer<Integer, V>) visitor::removed);
+
+        } else if (first instanceof Entry firstEntry && second instanceof Entry secondEntry) {
+            if (firstEntry.key == secondEntry.key) {
+                if (!Objects.equals(firstEntry.value, secondEntry.value)) {
+                    visitor.changed(firstEntry.key, (V) firstEntry.value,
+                            (V) secondEntry.value);
+                }
+            } else {
+                visitor.removed(firstEntry.key, (V) firstEntry.value);
+                visitor.added(secondEntry.key, (V) secondEntry.value);
+            }
+
+        } else {
+            Trie firstTrie = (first instanceof Entry entry) ? singleton(entry, shift) : (Trie) first;
+            Trie secondTrie = (second instanceof Entry entry) ? singleton(entry, shift)
+                    : (Trie) second;
+
+            int bits = firstTrie.bitmap | secondTrie.bitmap;
+            while (bits != 0) {
+                int bit = Integer.lowestOneBit(bits);
+                bits &= ~bit;
+                diff(childFor(firstTrie, bit), childFor(secondTrie, bit), shift + BITS, visitor);
+            }
+        }
+    }
+
+    /**
+     * @param trie a trie node
+     * @param bit bit of the child
+     * @return the child for the bit, or null
+     */
+    private static Object childFor(Trie trie, int bit) {
+        return ((trie.bitmap & bit) == 0) ? null
+                : trie.children[Integer.bitCount(trie.bitmap & (bit - 1))];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> sb.append(sb.length() > 1 ? ", " : "").append(key).append('=')
+                .append(value));
+        return sb.append('}').toString();
+    }
+
+}
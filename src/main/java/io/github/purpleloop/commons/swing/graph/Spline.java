@@ -77,8 +77,8 @@ public final class Spline {
 
         for (ttau = 0; ttau <= STEP; ttau++) {
             tau = ttau / STEP;
-            spx = (int) (tau * tau / 2 * (x1 - 2 * x2 + x3) + tau * (x2 - x1) + 0.5 * (x1 + x2));
-            spy = (int) (tau * tau / 2 * (y1 - 2 * y2 + y3) + tau * (y2 - y1) + 0.5 * (y1 + y2));
+            spx = (int) point(tau, x1, x2, x3);
+            spy = (int) point(tau, y1, y2, y3);
             g.drawLine(ospx, ospy, spx, spy);
             ospx = spx;
             ospy = spy;
@@ -106,6 +106,20 @@ public final class Spline {
         }
     }
 
+    /**
+     * Gives a coordinate of a point of the spline.
+     * 
+     * @param tau position on the spline, from 0 (middle of [AB]) to 1 (middle
+     *            of [BC])
+     * @param c1 coordinate of the start point A
+     * @param c2 coordinate of the middle hold point B
+     * @param c3 coordinate of the end point C
+     * @return the coordinate of the point of the spline
+     */
+    public static double point(double tau, double c1, double c2, double c3) {
+        return tau * tau / 2 * (c1 - 2 * c2 + c3) + tau * (c2 - c1) + 0.5 * (c1 + c2);
+    }
+
     /**
      * This method tests if a given M (x,y) point is "on" the spline with a
      * given precision.
@@ -136,8 +150,8 @@ public final class Spline {
 
         for (ttau = 0; (ttau <= STEP) && (!found); ttau++) {
             tau = ttau / STEP;
-            spx = (int) (tau * tau / 2 * (x1 - 2 * x2 + x3) + tau * (x2 - x1) + 0.5 * (x1 + x2));
-            spy = (int) (tau * tau / 2 * (y1 - 2 * y2 + y3) + tau * (y2 - y1) + 0.5 * (y1 + y2));
+            spx = (int) point(tau, x1, x2, x3);
+            spy = (int) point(tau, y1, y2, y3);
             found = (Math.abs(x - spx) <= eps) && (Math.abs(y - spy) <= eps);
         }
 
@@ -66,7 +66,7 @@ public class SplineLink<E> extends Link<E> {
 
     /**
      * Creates a spline link from an XML element.
-     *
+     * 
      * Warning, contained data are not saved.
      * 
      * @param g the owner graph
@@ -115,7 +115,7 @@ public class SplineLink<E> extends Link<E> {
     }
 
     @Override
-    public void draw(Graphics2D g, int layer) {
+    protected void draw(Graphics2D g, int layer, double x1, double y1, double x2, double y2) {
 
         double mxx;
         double myy;
@@ -139,14 +139,14 @@ public class SplineLink<E> extends Link<E> {
 
             // Draws the curve with two splines
 
-            Spline.draw(g, source.xLoc(), source.yLoc(), anchor1.xLoc(), anchor1.yLoc(),
-                    anchor2.xLoc(), anchor2.yLoc(), bs);
+            Spline.draw(g, x1, y1, anchor1.xLoc(), anchor1.yLoc(), anchor2.xLoc(), anchor2.yLoc(),
+                    bs);
 
             bs = new BitSet(3);
             bs.set(2);
 
-            Spline.draw(g, anchor1.xLoc(), anchor1.yLoc(), anchor2.xLoc(), anchor2.yLoc(),
-                    target.xLoc(), target.yLoc(), bs);
+            Spline.draw(g, anchor1.xLoc(), anchor1.yLoc(), anchor2.xLoc(), anchor2.yLoc(), x2, y2,
+                    bs);
 
             // Draws the anchors if one anchor is selected or if the link is
             // selected.
@@ -156,8 +156,8 @@ public class SplineLink<E> extends Link<E> {
                 // g.drawLine(at1.xLoc(),at1.yLoc(),at2.xLoc(),at2.yLoc());
             }
 
-            mxx = (source.xLoc() + anchor1.xLoc()) / 2;
-            myy = (source.yLoc() + anchor1.yLoc()) / 2;
+            mxx = (x1 + anchor1.xLoc()) / 2;
+            myy = (y1 + anchor1.yLoc()) / 2;
 
             // Draws the label
             Rectangle2D rect = (g.getFont()).getStringBounds(label, g.getFontRenderContext());
@@ -15,9 +15,11 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.Timer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -74,6 +76,44 @@ public class ViewPanel<E> extends JPanel {
     /** The text field used to edit the labels. */
     private boolean textFieldInternal;
 
+    /** History of the graph, where edits are checkpointed, if any. */
+    private GraphHistory<E> history;
+
+    /** View of the focused node neighborhood, in focus mode. */
+    private FocusView<E> focusView;
+
+    /** Communities of the graph, rendered as super-nodes, if any. */
+    private CommunityView<E> communityView;
+
+    /** Bundler of the graph links, whose bundles are rendered, if any. */
+    private EdgeBundler<E> edgeBundler;
+
+    /** Repaints the view when new bundles are available. */
+    private Consumer<EdgeBundles<E>> bundlesListener = bundles -> repaint();
+
+    /** Animator of the graph layout, whose locations are rendered, if any. */
+    private LayoutAnimator<E> layoutAnimator;
+
+    /** Timer repainting the view while the layout is animated. */
+    private Timer animationTimer;
+
+    /** Restarts the animation timer when the layout publishes a frame. */
+    private Consumer<NodePositions<E>> frameListener = positions -> {
+        if (animationTimer != null && !animationTimer.isRunning()) {
+            animationTimer.start();
+        }
+    };
+
+    /** Is the graph being painted ? Changes made while painting are ignored. */
+    private boolean painting;
+
+    /** Repaints the view when the graph changes (once per batch). */
+    private GraphChangeListener<E> graphChangeListener = event -> {
+        if (!painting) {
+            repaint();
+        }
+    };
+
     /** An empty layout manager class. */
     private LayoutManager lm = new LayoutManager() {
 
@@ -127,8 +167,18 @@ public class ViewPanel<E> extends JPanel {
 
             if (graph != null) {
 
+                CommunityView<E> communities = getCommunityView();
+                if (communities != null && getFocusView() == null) {
+                    int community = communities.communityAt(e.getX(), e.getY());
+                    if (community >= 0) {
+                        communities.toggle(community);
+                        repaint();
+                        return;
+                    }
+                }
+
                 graph.unselect();
-                selection = graph.select(e.getX(), e.getY());
+                selection = selectAt(e.getX(), e.getY());
 
                 if (selection instanceof Node) {
 
@@ -136,6 +186,7 @@ public class ViewPanel<E> extends JPanel {
 
                     if (e.getClickCount() == 2) {
 
+                        checkpoint();
                         updateTfNodeLabel(e.getX(), e.getY());
                         tfNodeLabel.setVisible(true);
 
@@ -147,6 +198,7 @@ public class ViewPanel<E> extends JPanel {
 
                         if (toDo == GraphAction.DO_LINK) {
 
+                            checkpoint();
                             try {
                                 graph.addLink(source, selectedNode);
                             } catch (GraphException e1) {
@@ -155,6 +207,7 @@ public class ViewPanel<E> extends JPanel {
                             toDo = GraphAction.DO_NOTHING;
                         } else if (toDo == GraphAction.DO_SPLINE_LINK) {
 
+                            checkpoint();
                             graph.addSplineLink(source, selectedNode);
                             toDo = GraphAction.DO_NOTHING;
                         }
@@ -175,8 +228,12 @@ public class ViewPanel<E> extends JPanel {
             hideTFNodeLabel();
 
             if (graph != null) {
+
+                // A drag may follow
+                checkpoint();
+
                 graph.unselect();
-                selection = graph.select(e.getX(), e.getY());
+                selection = selectAt(e.getX(), e.getY());
                 if (tfNodeLabel != null) {
                     if (selection instanceof Node) {
                         tfNodeLabel.setText(((Node<E>) selection).getLabel());
@@ -193,7 +250,8 @@ public class ViewPanel<E> extends JPanel {
 
             hideTFNodeLabel();
 
-            if (graph != null) {
+            // Nodes are not moved in focus mode
+            if (graph != null && getFocusView() == null) {
                 int rx = (e.getX() / 5) * 5;
                 int ry = (e.getY() / 5) * 5;
                 rx = (rx < 0) ? 0 : rx;
@@ -333,13 +391,145 @@ public class ViewPanel<E> extends JPanel {
         }
     }
 
+    /**
+     * Sets the history where the edits made in the view are checkpointed, so
+     * that they can be undone.
+     * 
+     * @param history history of the graph, or null
+     */
+    public void setGraphHistory(GraphHistory<E> history) {
+        this.history = history;
+    }
+
+    /**
+     * Sets the animator of the graph layout. While it is animating, the view
+     * is repainted at its frame rate, with the node locations interpolated by
+     * the animator. The repaints stop once the animation is complete, until
+     * the animator publishes a new frame.
+     * 
+     * @param animator animator of the layout of the graph, or null
+     */
+    public void setLayoutAnimator(LayoutAnimator<E> animator) {
+
+        if (layoutAnimator != null) {
+            layoutAnimator.removeFrameListener(frameListener);
+        }
+        if (animationTimer != null) {
+            animationTimer.stop();
+            animationTimer = null;
+        }
+        this.layoutAnimator = animator;
+        if (animator != null) {
+            animationTimer = new Timer(1000 / animator.getFrameRate(), e -> {
+                repaint();
+                if (!animator.isAnimating()) {
+                    ((Timer) e.getSource()).stop();
+                }
+            });
+            animator.addFrameListener(frameListener);
+            animationTimer.start();
+        }
+    }
+
+    /**
+     * Sets the communities of the graph. Collapsed communities are rendered as
+     * super-nodes, expanded by a click.
+     * 
+     * @param view communities of the graph, or null to render all nodes
+     */
+    public void setCommunityView(CommunityView<E> view) {
+        this.communityView = view;
+        repaint();
+    }
+
+    /** @return the communities of the rendered graph, or null */
+    private CommunityView<E> getCommunityView() {
+        return (communityView != null && communityView.getGraph() == graph) ? communityView
+                : null;
+    }
+
+    /**
+     * Sets the bundler of the graph links. Links are rendered as bundles,
+     * computed again in background when the graph changes, links being
+     * rendered as usual until the bundles are up to date.
+     * 
+     * @param bundler bundler of the graph links, or null
+     */
+    public void setEdgeBundler(EdgeBundler<E> bundler) {
+        if (edgeBundler != null) {
+            edgeBundler.removeBundlesListener(bundlesListener);
+        }
+        this.edgeBundler = bundler;
+        if (bundler != null) {
+            bundler.addBundlesListener(bundlesListener);
+        }
+        repaint();
+    }
+
+    /**
+     * @return the bundles of the graph links if they are up to date, null
+     *         otherwise, a bundling being started in background if needed
+     */
+    private EdgeBundles<E> getEdgeBundles() {
+
+        if (edgeBundler == null || edgeBundler.getGraph() != graph) {
+            return null;
+        }
+        edgeBundler.update();
+        EdgeBundles<E> bundles = edgeBundler.getBundles();
+        return (bundles != null && bundles.getVersion() == graph.getVersion()) ? bundles : null;
+    }
+
+    /**
+     * @return the view of the focused node neighborhood, built again when the
+     *         focus or the graph structure changes, or null if the focus mode
+     *         is off
+     */
+    private FocusView<E> getFocusView() {
+
+        if (graph == null || !focalized || focusedNode == null) {
+            return null;
+        }
+        if (focusView == null || focusView.getGraph() != graph
+                || focusView.getReference() != focusedNode || !focusView.isUpToDate()) {
+            focusView = graph.focusView(focusedNode, 1);
+        }
+        return focusView;
+    }
+
+    /**
+     * Selects the element at a location, among the focused nodes in focus
+     * mode.
+     * 
+     * @param x Selection abscissa
+     * @param y Selection ordinate
+     * @return the selected element or null
+     */
+    private Selectable selectAt(int x, int y) {
+        FocusView<E> view = getFocusView();
+        return (view != null) ? view.select(x, y) : graph.select(x, y);
+    }
+
+    /** Records an undo point before an edit, if a history is set. */
+    private void checkpoint() {
+        if (history != null && history.getGraph() == graph) {
+            history.checkpoint();
+        }
+    }
+
     /**
      * Change the associated graph and updates the selection.
      * 
      * @param g new graph to render / edit
      */
     public void setGraph(Graph<E> g) {
+        if (graph != null) {
+            graph.removeGraphChangeListener(graphChangeListener);
+        }
         graph = g;
+        if (graph != null) {
+            graph.addGraphChangeListener(graphChangeListener);
+        }
         selection = null;
         setFocus(null);
         setFocalized(false);
@@ -385,10 +575,29 @@ public class ViewPanel<E> extends JPanel {
 
         g2.setColor(Color.black);
         if (graph != null) {
-            if ((!focalized) || (focusedNode == null)) {
-                graph.draw(g2);
-            } else {
-                graph.drawWithFocus(g2, focusedNode, 1);
+            painting = true;
+            try {
+                NodeLocator<E> locator = (layoutAnimator != null
+                        && layoutAnimator.getGraph() == graph) ? layoutAnimator.getLocator()
+                                : null;
+                FocusView<E> view = getFocusView();
+                CommunityView<E> communities = getCommunityView();
+                if (view != null) {
+                    view.draw(g2);
+                } else if (communities != null) {
+                    communities.draw(g2);
+                } else if (locator != null) {
+                    graph.draw(g2, locator);
+                } else {
+                    EdgeBundles<E> bundles = getEdgeBundles();
+                    if (bundles != null) {
+                        bundles.draw(g2);
+                    } else {
+                        graph.draw(g2);
+                    }
+                }
+            } finally {
+                painting = false;
             }
         }
 
@@ -0,0 +1,94 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import io.github.purpleloop.commons.swing.graph.Node;
+
+/**
+ * A partition of the nodes of a graph in communities, found by a
+ * {@link CommunityDetector}. Communities are numbered from 0.
+ * 
+ * @param <E> the graph content type
+ */
+public class Communities<E> {
+
+    /** Index of the nodes. */
+    private Map<Node<E>, Integer> indexes;
+
+    /** Community of each node. */
+    private int[] communities;
+
+    /** Members of each community. */
+    private List<List<Node<E>>> groups;
+
+    /** Modularity of the partition. */
+    private double modularity;
+
+    /**
+     * Creates communities.
+     * 
+     * @param nodes nodes of the graph
+     * @param indexes index of the nodes
+     * @param communities community of each node, numbered from 0
+     * @param count number of communities
+     * @param modularity modularity of the partition
+     */
+    Communities(List<Node<E>> nodes, Map<Node<E>, Integer> indexes, int[] communities,
+            int count, double modularity) {
+
+        this.indexes = indexes;
+        this.communities = communities;
+        this.modularity = modularity;
+
+        List<List<Node<E>>> members = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = 0; i < communities.length; i++) {
+            members.get(communities[i]).add(nodes.get(i));
+        }
+        for (int c = 0; c < count; c++) {
+            members.set(c, Collections.unmodifiableList(members.get(c)));
+        }
+        this.groups = Collections.unmodifiableList(members);
+    }
+
+    /** @return the number of communities */
+    public int count() {
+        return groups.size();
+    }
+
+    /**
+     * @param node a node
+     * @return the community of the node, -1 if the node is not in the graph
+     */
+    public int getCommunity(Node<E> node) {
+        Integer index = indexes.get(node);
+        return (index == null) ? -1 : communities[index];
+    }
+
+    /**
+     * @param community a community
+     * @return the nodes of the community
+     */
+    public List<Node<E>> getMembers(int community) {
+        return groups.get(community);
+    }
+
+    /** @return the nodes of each community */
+    public List<List<Node<E>>> getGroups() {
+        return groups;
+    }
+
+    /**
+     * @return the modularity of the partition, from -0.5 to 1, higher values
+     *         meaning more links inside communities than expected at random
+     */
+    public double getModularity() {
+        return modularity;
+    }
+
+}
@@ -0,0 +1,593 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.swing.graph.IGraph;
+import io.github.purpleloop.commons.swing.graph.Link;
+import io.github.purpleloop.commons.swing.graph.Node;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/**
+ * Detects communities of a graph : groups of nodes having more links between
+ * them than with the rest of the graph. Links are considered as undirected,
+ * parallel links adding their weights and loops being ignored.
+ * 
+ * <p>
+ * Two algorithms are available :
+ * <ul>
+ * <li>label propagation : each node takes the most frequent community of its
+ * neighbors, until communities are stable. It is fast, and can process nodes
+ * in parallel;</li>
+ * <li>Louvain : nodes are moved to the neighbor community that increases the
+ * most the modularity, then communities are merged into nodes of a smaller
+ * graph, and so on. It is slower but gives a better modularity, and can
+ * also move nodes in parallel.</li>
+ * </ul>
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class CommunityDetector<E> {
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(CommunityDetector.class);
+
+    /** Default maximal number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /** Minimal modularity gain for a move. */
+    private static final double MIN_GAIN = 1e-12;
+
+    /** The graph. */
+    private IGraph<E> graph;
+
+    /** Maximal number of iterations of label propagation or moves phases. */
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+
+    /** Are nodes processed in parallel. */
+    private boolean parallel = false;
+
+    /** Random generator, for the processing order of nodes. */
+    private Random random = new Random();
+
+    /** Nodes of the graph. */
+    private List<Node<E>> nodes;
+
+    /** Index of the nodes. */
+    private Map<Node<E>, Integer> indexes;
+
+    /** Offsets of the neighbors of each node. */
+    private int[] offsets;
+
+    /** Neighbors of the nodes. */
+    private int[] neighbors;
+
+    /** Weights of the links to the neighbors. */
+    private double[] weights;
+
+    /**
+     * Creates a community detector.
+     * 
+     * @param graph the graph
+     */
+    public CommunityDetector(IGraph<E> graph) {
+        this.graph = graph;
+    }
+
+    /** @param maxIterations maximal number of iterations */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /** @param parallel true to process nodes in parallel, in both algorithms */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /** @param seed seed of the random generator, for reproducible results */
+    public void setSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Detects communities by label propagation. In parallel mode, nodes are
+     * split in two random halves at each iteration, each half taking the
+     * labels of its neighbors in parallel.
+     * 
+     * @return the communities
+     * @throws GraphException in case of error on the graph
+     */
+    public Communities<E> labelPropagation() throws GraphException {
+
+        buildAdjacency();
+        int n = nodes.size();
+        int[] labels = new int[n];
+        for (int i = 0; i < n; i++) {
+            labels[i] = i;
+        }
+
+        int iteration = 0;
+        boolean changed = true;
+        while (changed && iteration < maxIterations) {
+
+            long salt = random.nextLong();
+            if (parallel) {
+                changed = false;
+                int[] next = labels.clone();
+                for (int half = 0; half < 2; half++) {
+                    int currentHalf = half;
+                    IntStream.range(0, n).parallel()
+                            .filter(i -> (mix(salt, i) & 1) == currentHalf)
+                            .forEach(i -> next[i] = dominantLabel(i, labels, salt));
+                    changed |= !Arrays.equals(next, labels);
+                    System.arraycopy(next, 0, labels, 0, n);
+                }
+            } else {
+                changed = false;
+                for (int i : shuffledNodes(n)) {
+                    int label = dominantLabel(i, labels, salt);
+                    if (label != labels[i]) {
+                        labels[i] = label;
+                        changed = true;
+                    }
+                }
+            }
+            iteration++;
+        }
+
+        LOG.debug("Label propagation stopped after " + iteration + " iterations");
+        return toCommunities(labels);
+    }
+
+    /**
+     * Gives the most frequent label among the neighbors of a node. The
+     * current label of the node wins ties, other ties are broken randomly.
+     * 
+     * @param node the node
+     * @param labels labels of the nodes
+     * @param salt random salt for ties
+     * @return the dominant label
+     */
+    private int dominantLabel(int node, int[] labels, long salt) {
+
+        int degree = offsets[node + 1] - offsets[node];
+        if (degree == 0) {
+            return labels[node];
+        }
+
+        // Sorts labels, weights following
+        long[] entries = new long[degree];
+        for (int k = 0; k < degree; k++) {
+            entries[k] = ((long) labels[neighbors[offsets[node] + k]] << 32) | k;
+        }
+        Arrays.sort(entries);
+
+        int best = labels[node];
+        double bestWeight = -1;
+        long bestTie = 0;
+        int k = 0;
+        while (k < degree) {
+            int label = (int) (entries[k] >>> 32);
+            double weight = 0;
+            while (k < degree && (int) (entries[k] >>> 32) == label) {
+                weight += weights[offsets[node] + (int) entries[k]];
+                k++;
+            }
+            long tie = (label == labels[node]) ? Long.MAX_VALUE : mix(salt, label) >>> 1;
+            if (weight > bestWeight || (weight == bestWeight && tie > bestTie)) {
+                best = label;
+                bestWeight = weight;
+                bestTie = tie;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Detects communities with the Louvain method. In parallel mode, the
+     * nodes of a level are split in two random halves at each pass, each half
+     * choosing its best community in parallel before the moves are applied.
+     * 
+     * @return the communities
+     * @throws GraphException in case of error on the graph
+     */
+    public Communities<E> louvain() throws GraphException {
+
+        buildAdjacency();
+        int n = nodes.size();
+
+        // Community of each original node
+        int[] membership = new int[n];
+        for (int i = 0; i < n; i++) {
+            membership[i] = i;
+        }
+
+        int levelSize = n;
+        int[] levelOffsets = offsets;
+        int[] levelNeighbors = neighbors;
+        double[] levelWeights = weights;
+        double[] selfWeights = new double[n];
+
+        while (true) {
+
+            int[] communities = moveNodes(levelSize, levelOffsets, levelNeighbors, levelWeights,
+                    selfWeights);
+            int count = renumber(communities);
+            if (count == levelSize) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                membership[i] = communities[membership[i]];
+            }
+
+            // Aggregates communities into the nodes of the next level
+            int[] memberOffsets = new int[count + 1];
+            for (int v = 0; v < levelSize; v++) {
+                memberOffsets[communities[v] + 1]++;
+            }
+            for (int c = 0; c < count; c++) {
+                memberOffsets[c + 1] += memberOffsets[c];
+            }
+            int[] members = new int[levelSize];
+            int[] filled = Arrays.copyOf(memberOffsets, count);
+            for (int v = 0; v < levelSize; v++) {
+                members[filled[communities[v]]++] = v;
+            }
+
+            double[] nextSelfWeights = new double[count];
+            int[] nextOffsets = new int[count + 1];
+            int[] nextNeighbors = new int[levelNeighbors.length];
+            double[] nextWeights = new double[levelNeighbors.length];
+            int[] slots = new int[count];
+            Arrays.fill(slots, -1);
+            int size = 0;
+            for (int c = 0; c < count; c++) {
+                nextOffsets[c] = size;
+                for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                    int v = members[m];
+                    nextSelfWeights[c] += selfWeights[v];
+                    for (int k = levelOffsets[v]; k < levelOffsets[v + 1]; k++) {
+                        int cu = communities[levelNeighbors[k]];
+                        if (cu == c) {
+                            nextSelfWeights[c] += levelWeights[k];
+                        } else {
+                            if (slots[cu] < nextOffsets[c]) {
+                                slots[cu] = size;
+                                nextNeighbors[size++] = cu;
+                            }
+                            nextWeights[slots[cu]] += levelWeights[k];
+                        }
+                    }
+                }
+            }
+            nextOffsets[count] = size;
+
+            levelSize = count;
+            levelOffsets = nextOffsets;
+            levelNeighbors = Arrays.copyOf(nextNeighbors, size);
+            levelWeights = Arrays.copyOf(nextWeights, size);
+            selfWeights = nextSelfWeights;
+        }
+
+        return toCommunities(membership);
+    }
+
+    /**
+     * Moves nodes of a level to the neighbor community giving the best
+     * modularity gain, until no node moves.
+     * 
+     * @param n number of nodes
+     * @param levelOffsets offsets of the neighbors of each node
+     * @param levelNeighbors neighbors of the nodes
+     * @param levelWeights weights of the links to the neighbors
+     * @param selfWeights weights of the links inside each node, counted twice
+     * @return the community of each node
+     */
+    private int[] moveNodes(int n, int[] levelOffsets, int[] levelNeighbors,
+            double[] levelWeights, double[] selfWeights) {
+
+        double[] degrees = new double[n];
+        double total = 0;
+        for (int v = 0; v < n; v++) {
+            degrees[v] = selfWeights[v];
+            for (int k = levelOffsets[v]; k < levelOffsets[v + 1]; k++) {
+                degrees[v] += levelWeights[k];
+            }
+            total += degrees[v];
+        }
+
+        int[] communities = new int[n];
+        double[] totals = degrees.clone();
+        for (int v = 0; v < n; v++) {
+            communities[v] = v;
+        }
+        if (total == 0) {
+            return communities;
+        }
+
+        if (parallel) {
+            moveNodesInParallel(n, levelOffsets, levelNeighbors, levelWeights, degrees, total,
+                    communities, totals);
+            return communities;
+        }
+
+        double[] neighborWeights = new double[n];
+        int[] touched = new int[n];
+        boolean moved = true;
+        for (int pass = 0; moved && pass < maxIterations; pass++) {
+            moved = false;
+            for (int v : shuffledNodes(n)) {
+
+                int current = communities[v];
+                int touchedCount = 0;
+                for (int k = levelOffsets[v]; k < levelOffsets[v + 1]; k++) {
+                    int c = communities[levelNeighbors[k]];
+                    if (neighborWeights[c] == 0) {
+                        touched[touchedCount++] = c;
+                    }
+                    neighborWeights[c] += levelWeights[k];
+                }
+
+                totals[current] -= degrees[v];
+                int best = current;
+                double bestGain = neighborWeights[current] - totals[current] * degrees[v] / total;
+                for (int t = 0; t < touchedCount; t++) {
+                    int c = touched[t];
+                    double gain = neighborWeights[c] - totals[c] * degrees[v] / total;
+                    if (gain > bestGain + MIN_GAIN) {
+                        best = c;
+                        bestGain = gain;
+                    }
+                }
+                totals[best] += degrees[v];
+                if (best != current) {
+                    communities[v] = best;
+                    moved = true;
+                }
+
+                for (int t = 0; t < touchedCount; t++) {
+                    neighborWeights[touched[t]] = 0;
+                }
+            }
+        }
+        return communities;
+    }
+
+    /**
+     * Moves nodes of a level in parallel, until no node moves. At each pass,
+     * nodes are split in two random halves, the nodes of a half choosing
+     * their community in parallel, the other communities being fixed.
+     * 
+     * @param n number of nodes
+     * @param levelOffsets offsets of the neighbors of each node
+     * @param levelNeighbors neighbors of the nodes
+     * @param levelWeights weights of the links to the neighbors
+     * @param degrees weighted degree of each node
+     * @param total sum of the degrees
+     * @param communities community of each node, updated
+     * @param totals sum of the degrees of each community, updated
+     */
+    private void moveNodesInParallel(int n, int[] levelOffsets, int[] levelNeighbors,
+            double[] levelWeights, double[] degrees, double total, int[] communities,
+            double[] totals) {
+
+        int[] targets = new int[n];
+        boolean moved = true;
+        for (int pass = 0; moved && pass < maxIterations; pass++) {
+            moved = false;
+            long salt = random.nextLong();
+            for (int half = 0; half < 2; half++) {
+                int currentHalf = half;
+                IntStream.range(0, n).parallel()
+                        .filter(v -> (mix(salt, v) & 1) == currentHalf)
+                        .forEach(v -> targets[v] = bestCommunity(v, levelOffsets,
+                                levelNeighbors, levelWeights, degrees, total, communities,
+                                totals));
+
+                // The moves of the half are applied once all of them are chosen
+                for (int v = 0; v < n; v++) {
+                    if ((mix(salt, v) & 1) == currentHalf && targets[v] != communities[v]) {
+                        totals[communities[v]] -= degrees[v];
+                        totals[targets[v]] += degrees[v];
+                        communities[v] = targets[v];
+                        moved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives the neighbor community of a node giving the best modularity gain,
+     * the node staying in its community unless another one is strictly better.
+     * 
+     * @param v the node
+     * @param levelOffsets offsets of the neighbors of each node
+     * @param levelNeighbors neighbors of the nodes
+     * @param levelWeights weights of the links to the neighbors
+     * @param degrees weighted degree of each node
+     * @param total sum of the degrees
+     * @param communities community of each node
+     * @param totals sum of the degrees of each community
+     * @return the best community
+     */
+    private static int bestCommunity(int v, int[] levelOffsets, int[] levelNeighbors,
+            double[] levelWeights, double[] degrees, double total, int[] communities,
+            double[] totals) {
+
+        int current = communities[v];
+        int degree = levelOffsets[v + 1] - levelOffsets[v];
+
+        // Sorts neighbor communities, weights following
+        long[] entries = new long[degree];
+        for (int k = 0; k < degree; k++) {
+            entries[k] = ((long) communities[levelNeighbors[levelOffsets[v] + k]] << 32) | k;
+        }
+        Arrays.sort(entries);
+
+        double currentWeight = 0;
+        int best = current;
+        double bestGain = Double.NEGATIVE_INFINITY;
+        int k = 0;
+        while (k < degree) {
+            int c = (int) (entries[k] >>> 32);
+            double weight = 0;
+            while (k < degree && (int) (entries[k] >>> 32) == c) {
+                weight += levelWeights[levelOffsets[v] + (int) entries[k]];
+                k++;
+            }
+            if (c == current) {
+                currentWeight = weight;
+            } else {
+                double gain = weight - totals[c] * degrees[v] / total;
+                if (gain > bestGain) {
+                    best = c;
+                    bestGain = gain;
+                }
+            }
+        }
+
+        double currentGain = currentWeight - (totals[current] - degrees[v]) * degrees[v] / total;
+        return (bestGain > currentGain + MIN_GAIN) ? best : current;
+    }
+
+    /**
+     * Renumbers communities from 0, in order of first appearance.
+     * 
+     * @param communities community of each node, updated
+     * @return the number of communities
+     */
+    private static int renumber(int[] communities) {
+
+        int[] numbers = new int[communities.length];
+        Arrays.fill(numbers, -1);
+        int count = 0;
+        for (int v = 0; v < communities.length; v++) {
+            int c = communities[v];
+            if (numbers[c] < 0) {
+                numbers[c] = count++;
+            }
+            communities[v] = numbers[c];
+        }
+        return count;
+    }
+
+    /**
+     * Builds the result from the community of each node.
+     * 
+     * @param labels community of each node, renumbered
+     * @return the communities
+     */
+    private Communities<E> toCommunities(int[] labels) {
+
+        int count = renumber(labels);
+
+        // Modularity
+        double total = 0;
+        double[] inside = new double[count];
+        double[] totals = new double[count];
+        for (int v = 0; v < labels.length; v++) {
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                total += weights[k];
+                totals[labels[v]] += weights[k];
+                if (labels[neighbors[k]] == labels[v]) {
+                    inside[labels[v]] += weights[k];
+                }
+            }
+        }
+        double modularity = 0;
+        if (total > 0) {
+            for (int c = 0; c < count; c++) {
+                double ratio = totals[c] / total;
+                modularity += inside[c] / total - ratio * ratio;
+            }
+        }
+
+        return new Communities<>(nodes, indexes, labels, count, modularity);
+    }
+
+    /**
+     * @param n number of nodes
+     * @return the nodes in a random order
+     */
+    private int[] shuffledNodes(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Mixes a salt and a value into pseudo-random bits.
+     * 
+     * @param salt the salt
+     * @param value the value
+     * @return pseudo-random bits
+     */
+    private static long mix(long salt, int value) {
+        long bits = salt + value * 0x9E3779B97F4A7C15L;
+        bits = (bits ^ (bits >>> 30)) * 0xBF58476D1CE4E5B9L;
+        bits = (bits ^ (bits >>> 27)) * 0x94D049BB133111EBL;
+        return bits ^ (bits >>> 31);
+    }
+
+    /**
+     * Builds the undirected weighted adjacency of the graph.
+     * 
+     * @throws GraphException if a link has an extremity out of the graph
+     */
+    private void buildAdjacency() throws GraphException {
+
+        nodes = GraphOrganizer.listNodes(graph);
+        int n = nodes.size();
+        indexes = GraphOrganizer.indexNodes(nodes);
+
+        // Both directions of each link, sorted, parallel links being merged
+        List<Link<E>> links = graph.getLinks();
+        long[] pairs = new long[2 * links.size()];
+        int count = 0;
+        for (Link<E> link : links) {
+            int source = GraphOrganizer.indexOf(indexes, link, link.getSource());
+            int target = GraphOrganizer.indexOf(indexes, link, link.getTarget());
+            if (source != target) {
+                pairs[count++] = ((long) source << 32) | target;
+                pairs[count++] = ((long) target << 32) | source;
+            }
+        }
+        Arrays.sort(pairs, 0, count);
+
+        offsets = new int[n + 1];
+        neighbors = new int[count];
+        weights = new double[count];
+        int size = 0;
+        for (int k = 0; k < count; k++) {
+            if (k > 0 && pairs[k] == pairs[k - 1]) {
+                weights[size - 1]++;
+            } else {
+                offsets[(int) (pairs[k] >>> 32) + 1]++;
+                neighbors[size] = (int) pairs[k];
+                weights[size++] = 1;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        neighbors = Arrays.copyOf(neighbors, size);
+        weights = Arrays.copyOf(weights, size);
+    }
+
+}
@@ -1,8 +1,10 @@
 package io.github.purpleloop.commons.swing.graph.algorithm;
 
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import io.github.purpleloop.commons.swing.graph.Cycle;
@@ -39,20 +41,23 @@ public class CycleFinder<E> {
 
         Set<Cycle<E>> cycles = new HashSet<>();
 
-        // Start from empty path
-        List<Node<E>> nodePath = new LinkedList<>();
+        // Start from empty path, positions of nodes in the path are indexed
+        List<Node<E>> nodePath = new ArrayList<>();
+        Map<Node<E>, Integer> pathPositions = new IdentityHashMap<>();
 
         // Consider all graph nodes
         for (Node<E> consideredNode : graph.getNodes()) {
 
             // Consider all path starting with the given node
             nodePath.add(consideredNode);
+            pathPositions.put(consideredNode, 0);
 
             // Find all cycles for these paths
-            checkCyclesForPath(nodePath, cycles);
+            checkCyclesForPath(nodePath, pathPositions, cycles);
 
             // continue (reset path)
-            nodePath.remove(consideredNode);
+            nodePath.removeLast();
+            pathPositions.remove(consideredNode);
         }
 
         return cycles;
@@ -62,18 +67,19 @@ public class CycleFinder<E> {
      * Check if there exist cycles for the given path.
      * 
      * @param pathToCheck the path to check
+     * @param pathPositions positions of the nodes in the path
      * @param cycles collected cycles
      * @throws GraphException in case of graph error
      */
-    private void checkCyclesForPath(List<Node<E>> pathToCheck, Set<Cycle<E>> cycles)
-            throws GraphException {
+    private void checkCyclesForPath(List<Node<E>> pathToCheck,
+            Map<Node<E>, Integer> pathPositions, Set<Cycle<E>> cycles) throws GraphException {
 
         // Consider all successors
         for (Node<E> successorCandidates : graph.listSuccessors(pathToCheck.getLast())) {
 
-            int pathIndex = pathToCheck.indexOf(successorCandidates);
+            Integer pathIndex = pathPositions.get(successorCandidates);
 
-            if (pathIndex != -1) {
+            if (pathIndex != null) {
 
                 Cycle<E> cycle = new Cycle<>(pathToCheck.subList(pathIndex, pathToCheck.size()),
                         graph);
@@ -84,9 +90,11 @@ public class CycleFinder<E> {
             } else {
                 // We add the successor to the path, since it still does not
                 // form a loop.
+                pathPositions.put(successorCandidates, pathToCheck.size());
                 pathToCheck.add(successorCandidates);
-                checkCyclesForPath(pathToCheck, cycles);
-                pathToCheck.remove(successorCandidates);
+                checkCyclesForPath(pathToCheck, pathPositions, cycles);
+                pathToCheck.removeLast();
+                pathPositions.remove(successorCandidates);
             }
 
         }
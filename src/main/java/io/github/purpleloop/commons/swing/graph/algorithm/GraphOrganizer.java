@@ -1,6 +1,16 @@
 package io.github.purpleloop.commons.swing.graph.algorithm;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.purpleloop.commons.swing.graph.Graph;
+import io.github.purpleloop.commons.swing.graph.GraphBatch;
 import io.github.purpleloop.commons.swing.graph.IGraph;
+import io.github.purpleloop.commons.swing.graph.Link;
+import io.github.purpleloop.commons.swing.graph.Node;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
 
 /**
  * A graph organizer.
@@ -17,4 +27,73 @@ public class GraphOrganizer<E> {
         this.graph = graph;
     }
 
+    /**
+     * Lists the nodes of a graph, to access them by index. Graph lists may be
+     * linked lists.
+     * 
+     * @param <E> the graph content type
+     * @param graph the graph
+     * @return the nodes of the graph, in an array list
+     */
+    protected static <E> List<Node<E>> listNodes(IGraph<E> graph) {
+        return new ArrayList<>(graph.getNodes());
+    }
+
+    /**
+     * @param <E> the graph content type
+     * @param nodes the listed nodes
+     * @return the index of each node in the list
+     */
+    protected static <E> Map<Node<E>, Integer> indexNodes(List<Node<E>> nodes) {
+
+        Map<Node<E>, Integer> indexes = new IdentityHashMap<>(2 * nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            indexes.put(nodes.get(i), i);
+        }
+        return indexes;
+    }
+
+    /**
+     * @param <E> the graph content type
+     * @param indexes the index of each node
+     * @param link a link
+     * @param node an extremity of the link
+     * @return the index of the extremity
+     * @throws GraphException if the extremity is out of the graph
+     */
+    protected static <E> int indexOf(Map<Node<E>, Integer> indexes, Link<E> link, Node<E> node)
+            throws GraphException {
+
+        Integer index = indexes.get(node);
+        if (index == null) {
+            throw new GraphException("The link " + link + " has an extremity out of the graph");
+        }
+        return index;
+    }
+
+    /**
+     * Moves the listed nodes to their computed location, in a single batch if
+     * the graph supports it.
+     * 
+     * @param <E> the graph content type
+     * @param graph the graph
+     * @param nodes the listed nodes
+     * @param xs abscissa of the nodes
+     * @param ys ordinate of the nodes
+     */
+    protected static <E> void moveNodes(IGraph<E> graph, List<Node<E>> nodes, double[] xs,
+            double[] ys) {
+
+        GraphBatch<E> batch = (graph instanceof Graph<E> g) ? g.beginBatch() : null;
+        try {
+            for (int i = 0; i < nodes.size(); i++) {
+                nodes.get(i).moveTo(xs[i], ys[i]);
+            }
+        } finally {
+            if (batch != null) {
+                batch.commit();
+            }
+        }
+    }
+
 }
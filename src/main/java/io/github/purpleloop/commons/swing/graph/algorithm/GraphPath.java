@@ -0,0 +1,80 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.github.purpleloop.commons.swing.graph.Link;
+import io.github.purpleloop.commons.swing.graph.Node;
+
+/**
+ * A path in a graph, found by a {@link PathFinder}.
+ * 
+ * @param <E> the graph content type
+ */
+public class GraphPath<E> {
+
+    /** Nodes of the path, from the source to the target. */
+    private List<Node<E>> nodes;
+
+    /** Links of the path, the i-th link joins the i-th and (i+1)-th nodes. */
+    private List<Link<E>> links;
+
+    /** Cost of the path. */
+    private double cost;
+
+    /**
+     * Creates a path.
+     * 
+     * @param nodes nodes of the path, from the source to the target
+     * @param links links of the path
+     * @param cost cost of the path
+     */
+    GraphPath(List<Node<E>> nodes, List<Link<E>> links, double cost) {
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.links = Collections.unmodifiableList(links);
+        this.cost = cost;
+    }
+
+    /** @return the nodes of the path, from the source to the target */
+    public List<Node<E>> getNodes() {
+        return nodes;
+    }
+
+    /** @return the links of the path, from the source to the target */
+    public List<Link<E>> getLinks() {
+        return links;
+    }
+
+    /** @return the path source */
+    public Node<E> getSource() {
+        return nodes.get(0);
+    }
+
+    /** @return the path target */
+    public Node<E> getTarget() {
+        return nodes.getLast();
+    }
+
+    /** @return the number of links of the path */
+    public int getLength() {
+        return links.size();
+    }
+
+    /** @return the cost of the path (sum of link weights) */
+    public double getCost() {
+        return cost;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder("(");
+        for (Node<E> node : nodes) {
+            if (description.length() > 1) {
+                description.append(" -> ");
+            }
+            description.append(node.getLabel());
+        }
+        return description.append(")").toString();
+    }
+
+}
@@ -0,0 +1,152 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of int elements (0 to capacity - 1) with double keys,
+ * supporting key decrease. Arrays are allocated once, and clearing the heap
+ * only visits the remaining elements, so that it can be reused without
+ * allocation.
+ */
+class IndexedMinHeap {
+
+    /** Elements, in heap order. */
+    private int[] heap;
+
+    /** Position of each element in the heap, -1 if absent. */
+    private int[] positions;
+
+    /** Key of each element. */
+    private double[] keys;
+
+    /** Number of elements in the heap. */
+    private int size;
+
+    /**
+     * Creates an empty heap.
+     * 
+     * @param capacity number of possible elements
+     */
+    IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /** @return the number of possible elements */
+    int capacity() {
+        return heap.length;
+    }
+
+    /** @return true if the heap is empty */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes all elements. */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /** @return the smallest key, or positive infinity if the heap is empty */
+    double peekKey() {
+        return (size == 0) ? Double.POSITIVE_INFINITY : keys[heap[0]];
+    }
+
+    /**
+     * Adds an element, or decreases its key if it is already in the heap.
+     * 
+     * @param element the element
+     * @param key the element key
+     */
+    void insertOrDecrease(int element, double key) {
+
+        int position = positions[element];
+        if (position < 0) {
+            position = size++;
+            heap[position] = element;
+            positions[element] = position;
+        } else if (key >= keys[element]) {
+            return;
+        }
+        keys[element] = key;
+        siftUp(position);
+    }
+
+    /**
+     * Removes the element having the smallest key.
+     * 
+     * @return the removed element
+     */
+    int poll() {
+
+        int first = heap[0];
+        positions[first] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return first;
+    }
+
+    /**
+     * Moves an element up until its parent has a smaller key.
+     * 
+     * @param position position of the element
+     */
+    private void siftUp(int position) {
+
+        int element = heap[position];
+        double key = keys[element];
+        int current = position;
+        while (current > 0) {
+            int parent = (current - 1) >>> 1;
+            int parentElement = heap[parent];
+            if (keys[parentElement] <= key) {
+                break;
+            }
+            heap[current] = parentElement;
+            positions[parentElement] = current;
+            current = parent;
+        }
+        heap[current] = element;
+        positions[element] = current;
+    }
+
+    /**
+     * Moves an element down until its children have greater keys.
+     * 
+     * @param position position of the element
+     */
+    private void siftDown(int position) {
+
+        int element = heap[position];
+        double key = keys[element];
+        int current = position;
+        int half = size >>> 1;
+        while (current < half) {
+            int child = 2 * current + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int childElement = heap[child];
+            if (key <= keys[childElement]) {
+                break;
+            }
+            heap[current] = childElement;
+            positions[childElement] = current;
+            current = child;
+        }
+        heap[current] = element;
+        positions[element] = current;
+    }
+
+}
@@ -1,10 +1,12 @@
 package io.github.purpleloop.commons.swing.graph.algorithm;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import io.github.purpleloop.commons.swing.graph.Node;
 import io.github.purpleloop.commons.swing.graph.exception.GraphException;
@@ -13,7 +15,10 @@ import io.github.purpleloop.commons.swing.graph.exception.GraphException;
  * A left-to-right, by level, graph organizer.
  * 
  * @param <E> the graph content type.
+ * @deprecated nodes are placed by breadth-first rows without crossing
+ *             reduction, use {@link LayeredOrganizer}
  */
+@Deprecated
 public class LROrganizer<E> extends GraphOrganizer<E> {
 
     /** X origin. */
@@ -35,7 +40,7 @@ public class LROrganizer<E> extends GraphOrganizer<E> {
      */
     public void process() throws GraphException {
 
-        Map<Node<E>, Integer> rowsForNodes = new HashMap<>();
+        Map<Node<E>, Integer> rowsForNodes = new IdentityHashMap<>();
         Map<Integer, List<Node<E>>> nodesForRow = new HashMap<>();
 
         // Begin with all start nodes put in the first row.
@@ -50,7 +55,7 @@ public class LROrganizer<E> extends GraphOrganizer<E> {
         int row = 0;
         int nbNodesToVisit;
 
-        List<Node<E>> visitedNodes = new LinkedList<>();
+        Set<Node<E>> visitedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
 
         while (!nodesToVisit.isEmpty()) {
 
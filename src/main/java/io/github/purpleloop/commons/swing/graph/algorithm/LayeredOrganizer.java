@@ -0,0 +1,724 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.swing.graph.Graph;
+import io.github.purpleloop.commons.swing.graph.Link;
+import io.github.purpleloop.commons.swing.graph.Node;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/**
+ * A left-to-right layered graph organizer (Sugiyama method).
+ * 
+ * <p>
+ * The layout is computed in four phases :
+ * <ol>
+ * <li>cycle removal : strongly connected components are computed, and links
+ * going backwards in the discovery order of their component are reversed,
+ * which makes the graph acyclic;</li>
+ * <li>layering : each node is given the layer of its longest path from a
+ * source, then sources are pulled next to their successors. Links spanning
+ * several layers are split by dummy nodes;</li>
+ * <li>crossing reduction : layers are reordered by the barycenter of their
+ * neighbors, by alternate down and up sweeps, keeping the order having the
+ * fewest crossings;</li>
+ * <li>coordinate assignment : nodes are moved towards the mean ordinate of
+ * their neighbors, while keeping their order and spacing.</li>
+ * </ol>
+ * All phases work on primitive arrays, in linear or log-linear time, so that
+ * large graphs can be organized. When parallel mode is enabled, the crossing
+ * reduction processes odd and even layers alternately, each group of layers
+ * being reordered in parallel.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class LayeredOrganizer<E> extends GraphOrganizer<E> {
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(LayeredOrganizer.class);
+
+    /** X origin. */
+    private static final int OX = 20;
+
+    /** Y origin. */
+    private static final int OY = 20;
+
+    /** Default space between layers. */
+    public static final double DEFAULT_LAYER_SPACING = 150;
+
+    /** Default space between nodes of a layer. */
+    public static final double DEFAULT_NODE_SPACING = 40;
+
+    /** Default number of crossing reduction iterations. */
+    public static final int DEFAULT_SWEEPS = 8;
+
+    /** Number of coordinate assignment iterations. */
+    private static final int COORDINATE_PASSES = 4;
+
+    /** Space between layers. */
+    private double layerSpacing = DEFAULT_LAYER_SPACING;
+
+    /** Space between nodes of a layer. */
+    private double nodeSpacing = DEFAULT_NODE_SPACING;
+
+    /** Number of crossing reduction iterations (a down and an up sweep). */
+    private int sweeps = DEFAULT_SWEEPS;
+
+    /** Are layers reordered in parallel. */
+    private boolean parallel = false;
+
+    /** Is the layout scaled down to fit in the graph bounds. */
+    private boolean fitToBounds = true;
+
+    /** Number of layers of the last layout. */
+    private int layerCount;
+
+    /** Number of crossings of the last layout. */
+    private long crossings;
+
+    /** Number of links reversed to break cycles in the last layout. */
+    private int reversedLinks;
+
+    /** Number of nodes, real and dummy ones. */
+    private int nodeCount;
+
+    /** Layer of each node. */
+    private int[] layers;
+
+    /** Position of each node in its layer. */
+    private int[] positions;
+
+    /** Nodes of each layer, in order. */
+    private int[][] layerNodes;
+
+    /** Offsets of the neighbors in the previous layer, for each node. */
+    private int[] upOffsets;
+
+    /** Neighbors in the previous layer. */
+    private int[] upNodes;
+
+    /** Offsets of the neighbors in the next layer, for each node. */
+    private int[] downOffsets;
+
+    /** Neighbors in the next layer. */
+    private int[] downNodes;
+
+    /** @return the space between layers */
+    public double getLayerSpacing() {
+        return layerSpacing;
+    }
+
+    /** @param layerSpacing the space between layers */
+    public void setLayerSpacing(double layerSpacing) {
+        this.layerSpacing = layerSpacing;
+    }
+
+    /** @return the space between nodes of a layer */
+    public double getNodeSpacing() {
+        return nodeSpacing;
+    }
+
+    /** @param nodeSpacing the space between nodes of a layer */
+    public void setNodeSpacing(double nodeSpacing) {
+        this.nodeSpacing = nodeSpacing;
+    }
+
+    /** @return the number of crossing reduction iterations */
+    public int getSweeps() {
+        return sweeps;
+    }
+
+    /** @param sweeps the number of crossing reduction iterations */
+    public void setSweeps(int sweeps) {
+        this.sweeps = sweeps;
+    }
+
+    /** @return true if layers are reordered in parallel */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /** @param parallel true to reorder layers in parallel */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /** @return true if the layout is scaled down to fit in the graph bounds */
+    public boolean isFitToBounds() {
+        return fitToBounds;
+    }
+
+    /**
+     * @param fitToBounds true to scale the layout down when it exceeds the
+     *            graph bounds
+     */
+    public void setFitToBounds(boolean fitToBounds) {
+        this.fitToBounds = fitToBounds;
+    }
+
+    /** @return the number of layers of the last layout */
+    public int getLayerCount() {
+        return layerCount;
+    }
+
+    /** @return the number of link crossings of the last layout */
+    public long getCrossings() {
+        return crossings;
+    }
+
+    /** @return the number of links reversed to break cycles */
+    public int getReversedLinks() {
+        return reversedLinks;
+    }
+
+    /**
+     * Organize the graph.
+     * 
+     * @throws GraphException in case of error on the graph
+     */
+    public void process() throws GraphException {
+
+        if (graph == null) {
+            throw new GraphException("Graph is not initialized");
+        }
+
+        List<Node<E>> nodes = listNodes(graph);
+        int n = nodes.size();
+        Map<Node<E>, Integer> indexes = indexNodes(nodes);
+
+        // Links, without loops
+        List<Link<E>> links = graph.getLinks();
+        int[] sources = new int[links.size()];
+        int[] targets = new int[links.size()];
+        int m = 0;
+        for (Link<E> link : links) {
+            int source = indexOf(indexes, link, link.getSource());
+            int target = indexOf(indexes, link, link.getTarget());
+            if (source != target) {
+                sources[m] = source;
+                targets[m] = target;
+                m++;
+            }
+        }
+
+        removeCycles(n, m, sources, targets);
+        int[] realLayers = assignLayers(n, m, sources, targets);
+        buildProperGraph(n, m, sources, targets, realLayers);
+        reduceCrossings();
+        double[] ys = assignOrdinates();
+
+        double[] xs = new double[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            xs[v] = OX + layers[v] * layerSpacing;
+        }
+        if (fitToBounds) {
+            fit(xs, OX, Graph.MAX_WIDTH);
+            fit(ys, OY, Graph.MAX_HEIGHT);
+        }
+
+        moveNodes(graph, nodes, xs, ys);
+
+        LOG.debug("Layered layout of " + n + " nodes : " + layerCount + " layers, "
+                + (nodeCount - n) + " dummy nodes, " + reversedLinks + " reversed links, "
+                + crossings + " crossings");
+    }
+
+    /**
+     * Scales coordinates down so that they do not exceed a maximum value.
+     * 
+     * @param coordinates the coordinates, greater or equal to the origin
+     * @param origin the origin, kept as margin on both sides
+     * @param max the maximum value
+     */
+    private static void fit(double[] coordinates, double origin, double max) {
+
+        double highest = origin;
+        for (double coordinate : coordinates) {
+            highest = Math.max(highest, coordinate);
+        }
+        double limit = max - origin;
+        if (highest > limit) {
+            double ratio = (limit - origin) / (highest - origin);
+            for (int i = 0; i < coordinates.length; i++) {
+                coordinates[i] = origin + (coordinates[i] - origin) * ratio;
+            }
+        }
+    }
+
+    /**
+     * Makes the links acyclic. Strongly connected components are computed
+     * with an iterative Tarjan algorithm ; links inside a component going to a
+     * node discovered earlier are reversed. Links between components follow
+     * the component order, and links inside a component follow the discovery
+     * order, so no cycle remains.
+     * 
+     * @param n number of nodes
+     * @param m number of links
+     * @param sources link sources, updated
+     * @param targets link targets, updated
+     */
+    private void removeCycles(int n, int m, int[] sources, int[] targets) {
+
+        int[] offsets = new int[n + 1];
+        int[] successors = buildAdjacency(n, m, sources, targets, offsets);
+
+        int[] order = new int[n];
+        int[] low = new int[n];
+        int[] components = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callNodes = new int[n];
+        int[] callEdges = new int[n];
+        Arrays.fill(order, -1);
+
+        int counter = 0;
+        int componentCount = 0;
+        for (int root = 0; root < n; root++) {
+            if (order[root] >= 0) {
+                continue;
+            }
+            int stackSize = 0;
+            int callSize = 0;
+            order[root] = counter;
+            low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            callNodes[callSize] = root;
+            callEdges[callSize++] = offsets[root];
+
+            while (callSize > 0) {
+                int v = callNodes[callSize - 1];
+                if (callEdges[callSize - 1] < offsets[v + 1]) {
+                    int w = successors[callEdges[callSize - 1]++];
+                    if (order[w] < 0) {
+                        order[w] = counter;
+                        low[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        callNodes[callSize] = w;
+                        callEdges[callSize++] = offsets[w];
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], order[w]);
+                    }
+                } else {
+                    callSize--;
+                    if (low[v] == order[v]) {
+                        int w;
+                        do {
+                            w = stack[--stackSize];
+                            onStack[w] = false;
+                            components[w] = componentCount;
+                        } while (w != v);
+                        componentCount++;
+                    }
+                    if (callSize > 0) {
+                        int parent = callNodes[callSize - 1];
+                        low[parent] = Math.min(low[parent], low[v]);
+                    }
+                }
+            }
+        }
+
+        reversedLinks = 0;
+        for (int e = 0; e < m; e++) {
+            int s = sources[e];
+            int t = targets[e];
+            if (components[s] == components[t] && order[t] < order[s]) {
+                sources[e] = t;
+                targets[e] = s;
+                reversedLinks++;
+            }
+        }
+    }
+
+    /**
+     * Assigns layers to the nodes of an acyclic graph, by longest path from
+     * the sources. Sources are then pulled just before their nearest
+     * successor, to shorten their links.
+     * 
+     * @param n number of nodes
+     * @param m number of links
+     * @param sources link sources
+     * @param targets link targets
+     * @return the layer of each node
+     */
+    private int[] assignLayers(int n, int m, int[] sources, int[] targets) {
+
+        int[] offsets = new int[n + 1];
+        int[] successors = buildAdjacency(n, m, sources, targets, offsets);
+        int[] inDegrees = new int[n];
+        for (int e = 0; e < m; e++) {
+            inDegrees[targets[e]]++;
+        }
+
+        // Topological order (Kahn)
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        int[] remaining = inDegrees.clone();
+        for (int v = 0; v < n; v++) {
+            if (remaining[v] == 0) {
+                queue[tail++] = v;
+            }
+        }
+        int[] result = new int[n];
+        while (head < tail) {
+            int v = queue[head++];
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int w = successors[i];
+                result[w] = Math.max(result[w], result[v] + 1);
+                if (--remaining[w] == 0) {
+                    queue[tail++] = w;
+                }
+            }
+        }
+
+        layerCount = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegrees[v] == 0 && offsets[v] < offsets[v + 1]) {
+                int nearest = Integer.MAX_VALUE;
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    nearest = Math.min(nearest, result[successors[i]]);
+                }
+                result[v] = nearest - 1;
+            }
+            layerCount = Math.max(layerCount, result[v] + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Builds the proper layered graph, where each link joins two consecutive
+     * layers, by splitting long links with dummy nodes.
+     * 
+     * @param n number of real nodes
+     * @param m number of links
+     * @param sources link sources
+     * @param targets link targets
+     * @param realLayers layer of the real nodes
+     */
+    private void buildProperGraph(int n, int m, int[] sources, int[] targets,
+            int[] realLayers) {
+
+        int dummies = 0;
+        for (int e = 0; e < m; e++) {
+            dummies += realLayers[targets[e]] - realLayers[sources[e]] - 1;
+        }
+
+        nodeCount = n + dummies;
+        int segments = m + dummies;
+        layers = Arrays.copyOf(realLayers, nodeCount);
+        int[] uppers = new int[segments];
+        int[] lowers = new int[segments];
+
+        int next = n;
+        int segment = 0;
+        for (int e = 0; e < m; e++) {
+            int previous = sources[e];
+            for (int layer = realLayers[previous] + 1; layer < realLayers[targets[e]]; layer++) {
+                layers[next] = layer;
+                uppers[segment] = previous;
+                lowers[segment++] = next;
+                previous = next++;
+            }
+            uppers[segment] = previous;
+            lowers[segment++] = targets[e];
+        }
+
+        downOffsets = new int[nodeCount + 1];
+        downNodes = buildAdjacency(nodeCount, segments, uppers, lowers, downOffsets);
+        upOffsets = new int[nodeCount + 1];
+        upNodes = buildAdjacency(nodeCount, segments, lowers, uppers, upOffsets);
+
+        // Initial order : by node index in each layer
+        int[] layerSizes = new int[layerCount];
+        for (int v = 0; v < nodeCount; v++) {
+            layerSizes[layers[v]]++;
+        }
+        layerNodes = new int[layerCount][];
+        for (int layer = 0; layer < layerCount; layer++) {
+            layerNodes[layer] = new int[layerSizes[layer]];
+        }
+        positions = new int[nodeCount];
+        Arrays.fill(layerSizes, 0);
+        for (int v = 0; v < nodeCount; v++) {
+            int position = layerSizes[layers[v]]++;
+            layerNodes[layers[v]][position] = v;
+            positions[v] = position;
+        }
+    }
+
+    /**
+     * Reorders the layers by barycenter sweeps, keeping the order having the
+     * fewest crossings.
+     */
+    private void reduceCrossings() {
+
+        crossings = countCrossings();
+        int[][] best = copyLayers();
+
+        for (int iteration = 0; iteration < sweeps && crossings > 0; iteration++) {
+
+            if (parallel) {
+                parallelSweep(true);
+                parallelSweep(false);
+            } else {
+                for (int layer = 1; layer < layerCount; layer++) {
+                    reorder(layer, upOffsets, upNodes);
+                }
+                for (int layer = layerCount - 2; layer >= 0; layer--) {
+                    reorder(layer, downOffsets, downNodes);
+                }
+            }
+
+            long current = countCrossings();
+            if (current < crossings) {
+                crossings = current;
+                best = copyLayers();
+            }
+        }
+
+        layerNodes = best;
+        for (int[] nodesOfLayer : layerNodes) {
+            for (int position = 0; position < nodesOfLayer.length; position++) {
+                positions[nodesOfLayer[position]] = position;
+            }
+        }
+    }
+
+    /**
+     * Reorders odd layers in parallel, then even layers in parallel. Each
+     * layer only reads the positions of its neighbor layers, which are not
+     * reordered at the same time.
+     * 
+     * @param down true to reorder according to previous layers, false for the
+     *            next layers
+     */
+    private void parallelSweep(boolean down) {
+
+        int[] offsets = down ? upOffsets : downOffsets;
+        int[] neighbors = down ? upNodes : downNodes;
+        int first = down ? 1 : 0;
+        int last = down ? layerCount : layerCount - 1;
+
+        for (int parity = 1; parity >= 0; parity--) {
+            int currentParity = parity;
+            IntStream.range(first, last).parallel().filter(layer -> layer % 2 == currentParity)
+                    .forEach(layer -> reorder(layer, offsets, neighbors));
+        }
+    }
+
+    /**
+     * Sorts a layer by the barycenter of the positions of neighbors in an
+     * adjacent layer. Nodes without neighbors keep their position.
+     * 
+     * @param layer the layer to sort
+     * @param offsets offsets of neighbors for each node
+     * @param neighbors neighbors in the adjacent layer
+     */
+    private void reorder(int layer, int[] offsets, int[] neighbors) {
+
+        int[] nodesOfLayer = layerNodes[layer];
+        long[] keys = new long[nodesOfLayer.length];
+        for (int position = 0; position < nodesOfLayer.length; position++) {
+            int v = nodesOfLayer[position];
+            double barycenter = position;
+            int degree = offsets[v + 1] - offsets[v];
+            if (degree > 0) {
+                double sum = 0;
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    sum += positions[neighbors[i]];
+                }
+                barycenter = sum / degree;
+            }
+
+            // Non negative floats are ordered as their bits, ties keep order
+            keys[position] = ((long) Float.floatToIntBits((float) barycenter) << 32) | position;
+        }
+        Arrays.sort(keys);
+
+        int[] sorted = new int[nodesOfLayer.length];
+        for (int position = 0; position < keys.length; position++) {
+            int v = nodesOfLayer[(int) keys[position]];
+            sorted[position] = v;
+            positions[v] = position;
+        }
+        layerNodes[layer] = sorted;
+    }
+
+    /** @return a copy of the layer orders */
+    private int[][] copyLayers() {
+        int[][] copy = new int[layerCount][];
+        for (int layer = 0; layer < layerCount; layer++) {
+            copy[layer] = layerNodes[layer].clone();
+        }
+        return copy;
+    }
+
+    /** @return the number of link crossings for the current order */
+    private long countCrossings() {
+        IntStream layerRange = IntStream.range(0, Math.max(0, layerCount - 1));
+        if (parallel) {
+            layerRange = layerRange.parallel();
+        }
+        return layerRange.mapToLong(this::countCrossings).sum();
+    }
+
+    /**
+     * Counts the crossings between a layer and the next one. Links are
+     * visited by position of their upper extremity, and crossings are the
+     * inversions of the positions of their lower extremity, counted with a
+     * Fenwick tree.
+     * 
+     * @param layer the upper layer
+     * @return number of crossings
+     */
+    private long countCrossings(int layer) {
+
+        int width = layerNodes[layer + 1].length;
+        int[] tree = new int[width + 1];
+        int[] lowerPositions = new int[16];
+        long count = 0;
+        int inserted = 0;
+
+        for (int v : layerNodes[layer]) {
+            int degree = downOffsets[v + 1] - downOffsets[v];
+            if (lowerPositions.length < degree) {
+                lowerPositions = new int[degree];
+            }
+            for (int i = 0; i < degree; i++) {
+                lowerPositions[i] = positions[downNodes[downOffsets[v] + i]];
+            }
+            Arrays.sort(lowerPositions, 0, degree);
+
+            for (int i = 0; i < degree; i++) {
+                int position = lowerPositions[i];
+
+                // Already inserted links ending after this one cross it
+                int notAfter = 0;
+                for (int k = position + 1; k > 0; k -= k & -k) {
+                    notAfter += tree[k];
+                }
+                count += inserted - notAfter;
+            }
+            for (int i = 0; i < degree; i++) {
+                for (int k = lowerPositions[i] + 1; k <= width; k += k & -k) {
+                    tree[k]++;
+                }
+                inserted++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the ordinate of each node. Layers are spaced by their order,
+     * then alternately moved towards the mean ordinate of their neighbors in
+     * the previous or next layer, keeping their order and spacing.
+     * 
+     * @return ordinate of each node
+     */
+    private double[] assignOrdinates() {
+
+        double[] ys = new double[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            ys[v] = positions[v] * nodeSpacing;
+        }
+
+        for (int pass = 0; pass < COORDINATE_PASSES; pass++) {
+            for (int layer = 1; layer < layerCount; layer++) {
+                align(layerNodes[layer], upOffsets, upNodes, ys);
+            }
+            for (int layer = layerCount - 2; layer >= 0; layer--) {
+                align(layerNodes[layer], downOffsets, downNodes, ys);
+            }
+        }
+
+        double lowest = Double.POSITIVE_INFINITY;
+        for (double y : ys) {
+            lowest = Math.min(lowest, y);
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            ys[v] += OY - lowest;
+        }
+        return ys;
+    }
+
+    /**
+     * Moves the nodes of a layer towards the mean ordinate of their
+     * neighbors. The layer is placed twice, pushing nodes downwards and then
+     * upwards to respect the spacing, and the two placements are averaged.
+     * 
+     * @param nodesOfLayer nodes of the layer, in order
+     * @param offsets offsets of neighbors for each node
+     * @param neighbors neighbors in the adjacent layer
+     * @param ys ordinates of the nodes, updated
+     */
+    private void align(int[] nodesOfLayer, int[] offsets, int[] neighbors, double[] ys) {
+
+        int size = nodesOfLayer.length;
+        double[] desired = new double[size];
+        for (int position = 0; position < size; position++) {
+            int v = nodesOfLayer[position];
+            int degree = offsets[v + 1] - offsets[v];
+            if (degree == 0) {
+                desired[position] = ys[v];
+            } else {
+                double sum = 0;
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    sum += ys[neighbors[i]];
+                }
+                desired[position] = sum / degree;
+            }
+        }
+
+        double[] downwards = new double[size];
+        double[] upwards = new double[size];
+        for (int position = 0; position < size; position++) {
+            downwards[position] = (position == 0) ? desired[position]
+                    : Math.max(desired[position], downwards[position - 1] + nodeSpacing);
+        }
+        for (int position = size - 1; position >= 0; position--) {
+            upwards[position] = (position == size - 1) ? desired[position]
+                    : Math.min(desired[position], upwards[position + 1] - nodeSpacing);
+        }
+        for (int position = 0; position < size; position++) {
+            ys[nodesOfLayer[position]] = (downwards[position] + upwards[position]) / 2;
+        }
+    }
+
+    /**
+     * Builds a compressed adjacency.
+     * 
+     * @param n number of nodes
+     * @param m number of links
+     * @param sources link sources
+     * @param targets link targets
+     * @param offsets offsets of the targets of each node, filled
+     * @return the link targets, grouped by source
+     */
+    private static int[] buildAdjacency(int n, int m, int[] sources, int[] targets,
+            int[] offsets) {
+
+        for (int e = 0; e < m; e++) {
+            offsets[sources[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] filled = Arrays.copyOf(offsets, n);
+        int[] adjacency = new int[m];
+        for (int e = 0; e < m; e++) {
+            adjacency[filled[sources[e]]++] = targets[e];
+        }
+        return adjacency;
+    }
+
+}
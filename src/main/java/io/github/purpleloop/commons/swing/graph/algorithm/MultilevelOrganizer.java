@@ -0,0 +1,584 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.swing.graph.Graph;
+import io.github.purpleloop.commons.swing.graph.Link;
+import io.github.purpleloop.commons.swing.graph.Node;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/**
+ * A multilevel force directed graph organizer, for large graphs.
+ * 
+ * <p>
+ * The graph is repeatedly coarsened by matching each node with a neighbor,
+ * matched nodes being merged, until it is small enough or no more nodes can be
+ * merged. The coarsest graph is laid out by a force directed algorithm, then
+ * each level is laid out starting from the positions of the coarser one
+ * (prolongation) and refined by a few force directed iterations. Coarse
+ * levels give the global structure of the layout, so that fine levels only
+ * need local refinements.
+ * </p>
+ * <p>
+ * Repulsion is only computed between close nodes, found in a grid of cells,
+ * so that each iteration runs in linear time. Forces can be computed in
+ * parallel.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class MultilevelOrganizer<E> extends GraphOrganizer<E> {
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(MultilevelOrganizer.class);
+
+    /** X origin. */
+    private static final int OX = 20;
+
+    /** Y origin. */
+    private static final int OY = 20;
+
+    /** Default number of refinement iterations for each level. */
+    public static final int DEFAULT_ITERATIONS = 30;
+
+    /** Default number of nodes below which the graph is not coarsened. */
+    public static final int DEFAULT_COARSEST_SIZE = 16;
+
+    /** Maximal ratio of nodes kept by a coarsening to go on coarsening. */
+    private static final double MIN_REDUCTION = 0.9;
+
+    /** Ratio between the natural lengths of a level and the coarser one. */
+    private static final double LENGTH_RATIO = Math.sqrt(4.0 / 7.0);
+
+    /** Strength of the repulsion. */
+    private static final double REPULSION = 0.2;
+
+    /** Number of iterations of the coarsest layout, per refinement iteration. */
+    private static final int COARSEST_ITERATIONS_FACTOR = 4;
+
+    /**
+     * A level of the coarsening hierarchy.
+     * 
+     * @param size number of nodes
+     * @param offsets offsets of the neighbors of each node
+     * @param neighbors neighbors of the nodes
+     * @param weights number of original nodes merged in each node
+     */
+    private record Level(int size, int[] offsets, int[] neighbors, int[] weights) {
+    }
+
+    /** Number of refinement iterations for each level. */
+    private int iterations = DEFAULT_ITERATIONS;
+
+    /** Number of nodes below which the graph is not coarsened. */
+    private int coarsestSize = DEFAULT_COARSEST_SIZE;
+
+    /** Are forces computed in parallel. */
+    private boolean parallel = false;
+
+    /** Random generator for matchings and initial positions. */
+    private Random random = new Random();
+
+    /** Number of levels of the last layout. */
+    private int levelCount;
+
+    /** @return the number of refinement iterations for each level */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /** @param iterations the number of refinement iterations for each level */
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /** @return the number of nodes below which the graph is not coarsened */
+    public int getCoarsestSize() {
+        return coarsestSize;
+    }
+
+    /**
+     * @param coarsestSize the number of nodes below which the graph is not
+     *            coarsened
+     */
+    public void setCoarsestSize(int coarsestSize) {
+        this.coarsestSize = coarsestSize;
+    }
+
+    /** @return true if forces are computed in parallel */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /** @param parallel true to compute forces in parallel */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /** @param seed seed of the random generator, for reproducible layouts */
+    public void setSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /** @return the number of levels of the last layout */
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * Organize the graph.
+     * 
+     * @throws GraphException in case of error on the graph
+     */
+    public void process() throws GraphException {
+
+        if (graph == null) {
+            throw new GraphException("Graph is not initialized");
+        }
+
+        List<Node<E>> nodes = listNodes(graph);
+        int n = nodes.size();
+        if (n == 0) {
+            levelCount = 0;
+            return;
+        }
+
+        // Levels, and parents of the nodes of each level in the coarser one
+        List<Level> levels = new ArrayList<>();
+        List<int[]> parents = new ArrayList<>();
+        Level current = finestLevel(nodes);
+        levels.add(current);
+        while (current.size() > coarsestSize) {
+            int[] levelParents = new int[current.size()];
+            Level coarser = coarsen(current, levelParents);
+            if (coarser.size() > MIN_REDUCTION * current.size()) {
+                break;
+            }
+            levels.add(coarser);
+            parents.add(levelParents);
+            current = coarser;
+        }
+        levelCount = levels.size();
+
+        // Natural length of links at the finest level, then at the coarsest
+        double width = Graph.MAX_WIDTH - 2.0 * OX;
+        double height = Graph.MAX_HEIGHT - 2.0 * OY;
+        double length = Math.sqrt(width * height / n);
+        for (int l = 1; l < levelCount; l++) {
+            length /= LENGTH_RATIO;
+        }
+
+        // Coarsest layout, from random positions
+        Level coarsest = levels.getLast();
+        double side = length * Math.sqrt(coarsest.size());
+        double[] xs = new double[coarsest.size()];
+        double[] ys = new double[coarsest.size()];
+        for (int v = 0; v < coarsest.size(); v++) {
+            xs[v] = random.nextDouble() * side;
+            ys[v] = random.nextDouble() * side;
+        }
+        refine(coarsest, xs, ys, length, side / 4,
+                COARSEST_ITERATIONS_FACTOR * iterations);
+
+        // Prolongation and refinement
+        for (int l = levelCount - 2; l >= 0; l--) {
+            Level level = levels.get(l);
+            int[] levelParents = parents.get(l);
+            length *= LENGTH_RATIO;
+            double[] fineXs = new double[level.size()];
+            double[] fineYs = new double[level.size()];
+            double jitter = length / 10;
+            for (int v = 0; v < level.size(); v++) {
+                int parent = levelParents[v];
+                fineXs[v] = xs[parent] + (random.nextDouble() - 0.5) * jitter;
+                fineYs[v] = ys[parent] + (random.nextDouble() - 0.5) * jitter;
+            }
+            xs = fineXs;
+            ys = fineYs;
+            refine(level, xs, ys, length, 2 * length, iterations);
+        }
+
+        fit(xs, ys, width, height);
+        moveNodes(graph, nodes, xs, ys);
+
+        LOG.debug("Multilevel layout of " + n + " nodes with " + levelCount + " levels");
+    }
+
+    /**
+     * Builds the finest level from the graph, links being undirected.
+     * 
+     * @param nodes nodes of the graph
+     * @return the finest level
+     * @throws GraphException if a link has an extremity out of the graph
+     */
+    private Level finestLevel(List<Node<E>> nodes) throws GraphException {
+
+        int n = nodes.size();
+        Map<Node<E>, Integer> indexes = indexNodes(nodes);
+
+        List<Link<E>> links = graph.getLinks();
+        int[] sources = new int[links.size()];
+        int[] targets = new int[links.size()];
+        int m = 0;
+        int[] offsets = new int[n + 1];
+        for (Link<E> link : links) {
+            int source = indexOf(indexes, link, link.getSource());
+            int target = indexOf(indexes, link, link.getTarget());
+            if (source != target) {
+                sources[m] = source;
+                targets[m++] = target;
+                offsets[source + 1]++;
+                offsets[target + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] filled = new int[n];
+        System.arraycopy(offsets, 0, filled, 0, n);
+        int[] neighbors = new int[2 * m];
+        for (int e = 0; e < m; e++) {
+            neighbors[filled[sources[e]]++] = targets[e];
+            neighbors[filled[targets[e]]++] = sources[e];
+        }
+
+        int[] weights = new int[n];
+        Arrays.fill(weights, 1);
+        return new Level(n, offsets, neighbors, weights);
+    }
+
+    /**
+     * Builds a coarser level by matching nodes in a random order. Each node
+     * is matched with the unmatched neighbor having the smallest weight, so
+     * that coarse nodes stay balanced.
+     * 
+     * @param level the level to coarsen
+     * @param parents node of the coarser level for each node, filled
+     * @return the coarser level
+     */
+    private Level coarsen(Level level, int[] parents) {
+
+        int n = level.size();
+        int[] offsets = level.offsets();
+        int[] neighbors = level.neighbors();
+        int[] weights = level.weights();
+
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        int[] matches = new int[n];
+        Arrays.fill(matches, -1);
+        for (int v : order) {
+            if (matches[v] >= 0) {
+                continue;
+            }
+            int best = v;
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int u = neighbors[i];
+                if (matches[u] < 0 && u != v && (best == v || weights[u] < weights[best])) {
+                    best = u;
+                }
+            }
+            matches[v] = best;
+            matches[best] = v;
+        }
+
+        // Coarse nodes, with their representatives
+        Arrays.fill(parents, -1);
+        int[] representatives = new int[n];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            if (parents[v] < 0) {
+                parents[v] = size;
+                parents[matches[v]] = size;
+                representatives[size++] = v;
+            }
+        }
+
+        // Coarse adjacency, merging parallel links
+        int[] coarseWeights = new int[size];
+        int[] coarseOffsets = new int[size + 1];
+        int[] coarseNeighbors = new int[neighbors.length];
+        int[] markers = new int[size];
+        Arrays.fill(markers, -1);
+        int count = 0;
+        for (int c = 0; c < size; c++) {
+            int first = representatives[c];
+            int second = matches[first];
+            coarseOffsets[c] = count;
+            coarseWeights[c] = weights[first] + ((second != first) ? weights[second] : 0);
+            for (int member = first;; member = second) {
+                for (int i = offsets[member]; i < offsets[member + 1]; i++) {
+                    int neighbor = parents[neighbors[i]];
+                    if (neighbor != c && markers[neighbor] != c) {
+                        markers[neighbor] = c;
+                        coarseNeighbors[count++] = neighbor;
+                    }
+                }
+                if (member == second) {
+                    break;
+                }
+            }
+        }
+        coarseOffsets[size] = count;
+
+        return new Level(size, coarseOffsets, Arrays.copyOf(coarseNeighbors, count),
+                coarseWeights);
+    }
+
+    /**
+     * Refines the layout of a level by force directed iterations. Linked
+     * nodes attract each other, and close nodes repel each other, heavier
+     * nodes repelling more. Moves are limited by a temperature decreasing
+     * linearly.
+     * 
+     * @param level the level
+     * @param xs abscissa of the nodes, updated
+     * @param ys ordinate of the nodes, updated
+     * @param length natural length of links
+     * @param temperature initial maximal move
+     * @param count number of iterations
+     */
+    private void refine(Level level, double[] xs, double[] ys, double length,
+            double temperature, int count) {
+
+        int n = level.size();
+        double[] dxs = new double[n];
+        double[] dys = new double[n];
+        double radius = 2 * length;
+
+        for (int iteration = 0; iteration < count; iteration++) {
+
+            CellGrid grid = new CellGrid(xs, ys, n, radius);
+            IntStream range = IntStream.range(0, n);
+            if (parallel) {
+                range = range.parallel();
+            }
+            range.forEach(v -> computeForce(level, grid, xs, ys, length, v, dxs, dys));
+
+            double maxMove = temperature * (1 - iteration / (double) count);
+            for (int v = 0; v < n; v++) {
+                double move = Math.hypot(dxs[v], dys[v]);
+                if (move > 0) {
+                    double ratio = Math.min(move, maxMove) / move;
+                    xs[v] += dxs[v] * ratio;
+                    ys[v] += dys[v] * ratio;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the force applied on a node.
+     * 
+     * @param level the level
+     * @param grid grid of the nodes
+     * @param xs abscissa of the nodes
+     * @param ys ordinate of the nodes
+     * @param length natural length of links
+     * @param v the node
+     * @param dxs horizontal forces, set for the node
+     * @param dys vertical forces, set for the node
+     */
+    private static void computeForce(Level level, CellGrid grid, double[] xs, double[] ys,
+            double length, int v, double[] dxs, double[] dys) {
+
+        double fx = 0;
+        double fy = 0;
+        double radius2 = grid.cellSize * grid.cellSize;
+        double strength = REPULSION * length * length;
+        int[] weights = level.weights();
+
+        // Repulsion of the nodes of the neighbor cells
+        int[] visited = new int[9];
+        int visitedCount = 0;
+        int cx = grid.cellX(xs[v]);
+        int cy = grid.cellY(ys[v]);
+        for (int ox = -1; ox <= 1; ox++) {
+            for (int oy = -1; oy <= 1; oy++) {
+                int bucket = grid.bucket(cx + ox, cy + oy);
+                boolean seen = false;
+                for (int i = 0; i < visitedCount && !seen; i++) {
+                    seen = visited[i] == bucket;
+                }
+                if (seen) {
+                    continue;
+                }
+                visited[visitedCount++] = bucket;
+
+                for (int i = grid.starts[bucket]; i < grid.starts[bucket + 1]; i++) {
+                    int u = grid.nodes[i];
+                    if (u == v) {
+                        continue;
+                    }
+                    double dx = xs[v] - xs[u];
+                    double dy = ys[v] - ys[u];
+                    double d2 = dx * dx + dy * dy;
+                    if (d2 == 0) {
+                        // Separates nodes at the same location
+                        dx = (v < u ? -length : length) / 100;
+                        d2 = dx * dx;
+                    }
+                    if (d2 < radius2) {
+                        double force = strength * weights[u] / d2;
+                        fx += force * dx;
+                        fy += force * dy;
+                    }
+                }
+            }
+        }
+
+        // Attraction of linked nodes
+        int[] offsets = level.offsets();
+        int[] neighbors = level.neighbors();
+        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+            int u = neighbors[i];
+            double dx = xs[u] - xs[v];
+            double dy = ys[u] - ys[v];
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            fx += distance * dx / length;
+            fy += distance * dy / length;
+        }
+
+        dxs[v] = fx;
+        dys[v] = fy;
+    }
+
+    /**
+     * Scales and centers the layout in the graph bounds, keeping its aspect.
+     * 
+     * @param xs abscissa of the nodes, updated
+     * @param ys ordinate of the nodes, updated
+     * @param width available width
+     * @param height available height
+     */
+    private static void fit(double[] xs, double[] ys, double width, double height) {
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < xs.length; v++) {
+            minX = Math.min(minX, xs[v]);
+            maxX = Math.max(maxX, xs[v]);
+            minY = Math.min(minY, ys[v]);
+            maxY = Math.max(maxY, ys[v]);
+        }
+
+        double scale = Math.min(width / Math.max(maxX - minX, 1e-9),
+                height / Math.max(maxY - minY, 1e-9));
+        double left = OX + (width - (maxX - minX) * scale) / 2;
+        double top = OY + (height - (maxY - minY) * scale) / 2;
+        for (int v = 0; v < xs.length; v++) {
+            xs[v] = left + (xs[v] - minX) * scale;
+            ys[v] = top + (ys[v] - minY) * scale;
+        }
+    }
+
+    /**
+     * Nodes grouped by square cells, hashed in buckets. Nodes closer than the
+     * cell size are in the same or neighbor cells.
+     */
+    private static final class CellGrid {
+
+        /** Size of a cell. */
+        private final double cellSize;
+
+        /** Minimal abscissa. */
+        private final double minX;
+
+        /** Minimal ordinate. */
+        private final double minY;
+
+        /** Mask of the bucket indexes. */
+        private final int mask;
+
+        /** Start of the nodes of each bucket. */
+        private final int[] starts;
+
+        /** Nodes, grouped by bucket. */
+        private final int[] nodes;
+
+        /**
+         * Creates the grid.
+         * 
+         * @param xs abscissa of the nodes
+         * @param ys ordinate of the nodes
+         * @param n number of nodes
+         * @param cellSize size of a cell
+         */
+        CellGrid(double[] xs, double[] ys, int n, double cellSize) {
+
+            this.cellSize = cellSize;
+            double lowestX = Double.POSITIVE_INFINITY;
+            double lowestY = Double.POSITIVE_INFINITY;
+            for (int v = 0; v < n; v++) {
+                lowestX = Math.min(lowestX, xs[v]);
+                lowestY = Math.min(lowestY, ys[v]);
+            }
+            this.minX = lowestX;
+            this.minY = lowestY;
+
+            int buckets = Integer.highestOneBit(Math.max(1, 2 * n - 1)) << 1;
+            this.mask = buckets - 1;
+            this.starts = new int[buckets + 1];
+            this.nodes = new int[n];
+
+            int[] nodeBuckets = new int[n];
+            for (int v = 0; v < n; v++) {
+                nodeBuckets[v] = bucket(cellX(xs[v]), cellY(ys[v]));
+                starts[nodeBuckets[v] + 1]++;
+            }
+            for (int b = 0; b < buckets; b++) {
+                starts[b + 1] += starts[b];
+            }
+            int[] filled = Arrays.copyOf(starts, buckets);
+            for (int v = 0; v < n; v++) {
+                nodes[filled[nodeBuckets[v]]++] = v;
+            }
+        }
+
+        /**
+         * @param x an abscissa
+         * @return the cell column
+         */
+        int cellX(double x) {
+            return (int) ((x - minX) / cellSize);
+        }
+
+        /**
+         * @param y an ordinate
+         * @return the cell row
+         */
+        int cellY(double y) {
+            return (int) ((y - minY) / cellSize);
+        }
+
+        /**
+         * @param cellX cell column
+         * @param cellY cell row
+         * @return the bucket of the cell
+         */
+        int bucket(int cellX, int cellY) {
+            return ((cellX * 73856093) ^ (cellY * 19349663)) & mask;
+        }
+    }
+
+}
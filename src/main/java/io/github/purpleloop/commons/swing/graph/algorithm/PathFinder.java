@@ -0,0 +1,567 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.swing.graph.Graph;
+import io.github.purpleloop.commons.swing.graph.Link;
+import io.github.purpleloop.commons.swing.graph.Node;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/**
+ * Path queries on a graph : breadth first, Dijkstra, A* and bidirectional
+ * shortest paths, and nodes within a number of hops.
+ * 
+ * <p>
+ * Nodes are numbered and links are stored in primitive adjacency arrays,
+ * rebuilt only when the graph structure changes. Distance arrays and priority
+ * queues are allocated once and reused : they are invalidated between
+ * queries by a stamp rather than cleared, so that a query only allocates its
+ * result.
+ * </p>
+ * 
+ * <p>
+ * Links are followed from their source to their target in oriented graphs,
+ * both ways otherwise. Link weights are given by a weight function (1 by
+ * default), they have to be positive or zero. A path finder is not thread
+ * safe.
+ * </p>
+ * 
+ * @param <E> the graph content type
+ */
+public class PathFinder<E> {
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(PathFinder.class);
+
+    /**
+     * Links of the nodes, in compressed rows : the links of node n are at
+     * indexes offsets[n] to offsets[n + 1] - 1.
+     * 
+     * @param <E> the graph content type
+     */
+    private static class Adjacency<E> {
+
+        /** Offsets of the links of each node, plus the number of entries. */
+        private int[] offsets;
+
+        /** Node reached by each link. */
+        private int[] neighbors;
+
+        /** Links. */
+        private Link<E>[] links;
+    }
+
+    /** State of a search, reused by queries. */
+    private static class Search {
+
+        /** Distances from the search origin. */
+        private double[] distances;
+
+        /** Previous node on the best path from the origin. */
+        private int[] parents;
+
+        /** Adjacency entry of the link from the previous node. */
+        private int[] parentEntries;
+
+        /** Stamp of the query that reached each node. */
+        private int[] stamps;
+
+        /** Nodes to expand. */
+        private IndexedMinHeap heap;
+
+        /**
+         * Creates a search state.
+         * 
+         * @param capacity number of nodes
+         */
+        Search(int capacity) {
+            distances = new double[capacity];
+            parents = new int[capacity];
+            parentEntries = new int[capacity];
+            stamps = new int[capacity];
+            heap = new IndexedMinHeap(capacity);
+        }
+
+        /**
+         * Records a better path to a node.
+         * 
+         * @param node the reached node
+         * @param distance distance from the origin
+         * @param parent previous node, -1 for the origin
+         * @param parentEntry adjacency entry of the link, -1 for the origin
+         * @param stamp stamp of the query
+         */
+        void reach(int node, double distance, int parent, int parentEntry, int stamp) {
+            distances[node] = distance;
+            parents[node] = parent;
+            parentEntries[node] = parentEntry;
+            stamps[node] = stamp;
+        }
+    }
+
+    /** The graph. */
+    private Graph<E> graph;
+
+    /** Weight of links. */
+    private ToDoubleFunction<? super Link<E>> weight = link -> 1.0;
+
+    /** Graph structure version of the adjacency, -1 if not built. */
+    private long preparedVersion = -1;
+
+    /** Orientation of the graph when the adjacency was built. */
+    private boolean preparedOriented;
+
+    /** Nodes, by number. */
+    private Node<E>[] nodes;
+
+    /** Numbers of nodes. */
+    private Map<Node<E>, Integer> nodeNumbers = new IdentityHashMap<>();
+
+    /** Links followed forward (from a node to its successors). */
+    private Adjacency<E> forwardAdjacency;
+
+    /** Links followed backward (from a node to its predecessors). */
+    private Adjacency<E> backwardAdjacency;
+
+    /** Forward search state. */
+    private Search forward;
+
+    /** Backward search state. */
+    private Search backward;
+
+    /** Queue of the breadth first searches. */
+    private int[] queue;
+
+    /** Stamp of the current query. */
+    private int stamp;
+
+    /**
+     * Creates a path finder for a graph.
+     * 
+     * @param graph the graph
+     */
+    public PathFinder(Graph<E> graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * @param weight weight of links, must be positive or zero (1 for all links
+     *            by default)
+     */
+    public void setWeight(ToDoubleFunction<? super Link<E>> weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * @param <E> the graph content type
+     * @return a weight function giving the distance between the link ends
+     */
+    public static <E> ToDoubleFunction<Link<E>> linkLength() {
+        return link -> Math.hypot(link.getTarget().xLoc() - link.getSource().xLoc(),
+                link.getTarget().yLoc() - link.getSource().yLoc());
+    }
+
+    /**
+     * @param <E> the graph content type
+     * @return an A* heuristic giving the straight distance between nodes,
+     *         admissible with the {@link #linkLength()} weight
+     */
+    public static <E> ToDoubleBiFunction<Node<E>, Node<E>> straightDistance() {
+        return (node, target) -> Math.hypot(target.xLoc() - node.xLoc(),
+                target.yLoc() - node.yLoc());
+    }
+
+    /**
+     * Finds a path having the fewest links, ignoring weights.
+     * 
+     * @param source the path source
+     * @param target the path target
+     * @return the path, if the target can be reached
+     * @throws GraphException if a node does not belong to the graph
+     */
+    public Optional<GraphPath<E>> breadthFirst(Node<E> source, Node<E> target)
+            throws GraphException {
+
+        int targetNumber = prepare(target);
+        int reached = breadthFirst(prepare(source), Integer.MAX_VALUE, targetNumber);
+        return (reached < 0) ? Optional.empty()
+                : Optional.of(buildPath(forward, targetNumber, forwardAdjacency, null, -1));
+    }
+
+    /**
+     * Lists the nodes that can be reached from a node with at most a number of
+     * links, in breadth first order.
+     * 
+     * @param source the starting node
+     * @param maxHops maximal number of links
+     * @return the reached nodes, including the starting node
+     * @throws GraphException if the node does not belong to the graph
+     */
+    public List<Node<E>> withinHops(Node<E> source, int maxHops) throws GraphException {
+
+        int count = breadthFirst(prepare(source), maxHops, -1);
+        List<Node<E>> reachedNodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reachedNodes.add(nodes[queue[i]]);
+        }
+        return reachedNodes;
+    }
+
+    /**
+     * Finds a path of minimal weight, with the Dijkstra algorithm.
+     * 
+     * @param source the path source
+     * @param target the path target
+     * @return the path, if the target can be reached
+     * @throws GraphException if a node does not belong to the graph, or in case
+     *             of negative weight
+     */
+    public Optional<GraphPath<E>> dijkstra(Node<E> source, Node<E> target) throws GraphException {
+        return aStar(source, target, null);
+    }
+
+    /**
+     * Finds a path of minimal weight, with the A* algorithm.
+     * 
+     * @param source the path source
+     * @param target the path target
+     * @param heuristic estimation of the weight from a node to the target,
+     *            which must not overestimate it (null for none)
+     * @return the path, if the target can be reached
+     * @throws GraphException if a node does not belong to the graph, or in case
+     *             of negative weight
+     */
+    public Optional<GraphPath<E>> aStar(Node<E> source, Node<E> target,
+            ToDoubleBiFunction<? super Node<E>, ? super Node<E>> heuristic)
+            throws GraphException {
+
+        int targetNumber = prepare(target);
+        int sourceNumber = prepare(source);
+        nextStamp();
+
+        Search search = forward;
+        search.heap.clear();
+        search.reach(sourceNumber, 0, -1, -1, stamp);
+        search.heap.insertOrDecrease(sourceNumber,
+                estimate(heuristic, sourceNumber, target));
+
+        while (!search.heap.isEmpty()) {
+
+            int node = search.heap.poll();
+            if (node == targetNumber) {
+                return Optional.of(buildPath(search, targetNumber, forwardAdjacency, null, -1));
+            }
+
+            for (int entry = forwardAdjacency.offsets[node]; entry < forwardAdjacency.offsets[node
+                    + 1]; entry++) {
+
+                int neighbor = forwardAdjacency.neighbors[entry];
+                double distance = search.distances[node]
+                        + getWeight(forwardAdjacency.links[entry]);
+
+                // Nodes already expanded are reopened if a better path is found
+                if (search.stamps[neighbor] != stamp
+                        || distance < search.distances[neighbor]) {
+                    search.reach(neighbor, distance, node, entry, stamp);
+                    search.heap.insertOrDecrease(neighbor,
+                            distance + estimate(heuristic, neighbor, target));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Finds a path of minimal weight, with a bidirectional Dijkstra search
+     * from the source and from the target, that usually visits less nodes.
+     * 
+     * @param source the path source
+     * @param target the path target
+     * @return the path, if the target can be reached
+     * @throws GraphException if a node does not belong to the graph, or in case
+     *             of negative weight
+     */
+    public Optional<GraphPath<E>> bidirectional(Node<E> source, Node<E> target)
+            throws GraphException {
+
+        int targetNumber = prepare(target);
+        int sourceNumber = prepare(source);
+        nextStamp();
+
+        forward.heap.clear();
+        forward.reach(sourceNumber, 0, -1, -1, stamp);
+        forward.heap.insertOrDecrease(sourceNumber, 0);
+
+        backward.heap.clear();
+        backward.reach(targetNumber, 0, -1, -1, stamp);
+        backward.heap.insertOrDecrease(targetNumber, 0);
+
+        double best = (sourceNumber == targetNumber) ? 0 : Double.POSITIVE_INFINITY;
+        int meeting = (sourceNumber == targetNumber) ? sourceNumber : -1;
+
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()
+                && forward.heap.peekKey() + backward.heap.peekKey() < best) {
+
+            boolean forwardStep = forward.heap.peekKey() <= backward.heap.peekKey();
+            Search search = forwardStep ? forward : backward;
+            Search other = forwardStep ? backward : forward;
+            Adjacency<E> adjacency = forwardStep ? forwardAdjacency : backwardAdjacency;
+
+            int node = search.heap.poll();
+            for (int entry = adjacency.offsets[node]; entry < adjacency.offsets[node
+                    + 1]; entry++) {
+
+                int neighbor = adjacency.neighbors[entry];
+                double distance = search.distances[node] + getWeight(adjacency.links[entry]);
+
+                if (search.stamps[neighbor] != stamp || distance < search.distances[neighbor]) {
+                    search.reach(neighbor, distance, node, entry, stamp);
+                    search.heap.insertOrDecrease(neighbor, distance);
+                }
+
+                // Both searches met
+                if (other.stamps[neighbor] == stamp
+                        && search.distances[neighbor] + other.distances[neighbor] < best) {
+                    best = search.distances[neighbor] + other.distances[neighbor];
+                    meeting = neighbor;
+                }
+            }
+        }
+
+        return (meeting < 0) ? Optional.empty()
+                : Optional.of(buildPath(forward, meeting, forwardAdjacency, backward,
+                        targetNumber));
+    }
+
+    /**
+     * Runs a breadth first search in the forward adjacency. Reached nodes are
+     * left in the queue.
+     * 
+     * @param sourceNumber number of the starting node
+     * @param maxHops maximal number of links
+     * @param targetNumber number of a node ending the search, -1 for none
+     * @return the number of reached nodes, or -1 if the target has not been
+     *         reached
+     */
+    private int breadthFirst(int sourceNumber, int maxHops, int targetNumber) {
+
+        nextStamp();
+        forward.reach(sourceNumber, 0, -1, -1, stamp);
+        queue[0] = sourceNumber;
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail) {
+            int node = queue[head++];
+            if (node == targetNumber) {
+                return tail;
+            }
+
+            double hops = forward.distances[node] + 1;
+            if (hops > maxHops) {
+                continue;
+            }
+
+            for (int entry = forwardAdjacency.offsets[node]; entry < forwardAdjacency.offsets[node
+                    + 1]; entry++) {
+                int neighbor = forwardAdjacency.neighbors[entry];
+                if (forward.stamps[neighbor] != stamp) {
+                    forward.reach(neighbor, hops, node, entry, stamp);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return (targetNumber < 0) ? tail : -1;
+    }
+
+    /**
+     * @param link a link
+     * @return the link weight
+     * @throws GraphException if the weight is negative
+     */
+    private double getWeight(Link<E> link) throws GraphException {
+
+        double linkWeight = weight.applyAsDouble(link);
+        if (!(linkWeight >= 0)) {
+            throw new GraphException("Invalid weight " + linkWeight + " for link " + link);
+        }
+        return linkWeight;
+    }
+
+    /**
+     * @param heuristic the heuristic, or null
+     * @param node a node number
+     * @param target the target node
+     * @return the estimated weight from the node to the target
+     */
+    private double estimate(ToDoubleBiFunction<? super Node<E>, ? super Node<E>> heuristic,
+            int node, Node<E> target) {
+        return (heuristic == null) ? 0 : heuristic.applyAsDouble(nodes[node], target);
+    }
+
+    /**
+     * Builds the path found by a search.
+     * 
+     * @param search the (forward) search
+     * @param end the end of the path found by the search
+     * @param adjacency the adjacency used by the search
+     * @param backwardSearch the backward search continuing the path, or null
+     * @param target the target of the backward search
+     * @return the path
+     */
+    private GraphPath<E> buildPath(Search search, int end, Adjacency<E> adjacency,
+            Search backwardSearch, int target) {
+
+        List<Node<E>> pathNodes = new ArrayList<>();
+        List<Link<E>> pathLinks = new ArrayList<>();
+
+        for (int node = end; node >= 0; node = search.parents[node]) {
+            pathNodes.add(nodes[node]);
+            if (search.parentEntries[node] >= 0) {
+                pathLinks.add(adjacency.links[search.parentEntries[node]]);
+            }
+        }
+        Collections.reverse(pathNodes);
+        Collections.reverse(pathLinks);
+
+        double cost = search.distances[end];
+        if (backwardSearch != null) {
+            for (int node = end; node != target; node = backwardSearch.parents[node]) {
+                pathLinks.add(backwardAdjacency.links[backwardSearch.parentEntries[node]]);
+                pathNodes.add(nodes[backwardSearch.parents[node]]);
+            }
+            cost += backwardSearch.distances[end];
+        }
+
+        return new GraphPath<>(pathNodes, pathLinks, cost);
+    }
+
+    /** Starts a new query, invalidating the search states. */
+    private void nextStamp() {
+
+        stamp++;
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(forward.stamps, 0);
+            Arrays.fill(backward.stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Rebuilds the adjacency if the graph structure changed, and gives the
+     * number of a node.
+     * 
+     * @param node a node of the graph
+     * @return the node number
+     * @throws GraphException if the node does not belong to the graph
+     */
+    private int prepare(Node<E> node) throws GraphException {
+
+        if (preparedVersion != graph.getStructureVersion()
+                || preparedOriented != graph.isOriented()) {
+            rebuild();
+        }
+
+        Integer number = nodeNumbers.get(node);
+        if (number == null) {
+            throw new GraphException("The node does not belong to the graph.");
+        }
+        return number;
+    }
+
+    /** Numbers the nodes and builds the adjacency arrays. */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void rebuild() {
+
+        long version = graph.getStructureVersion();
+        boolean oriented = graph.isOriented();
+        List<Node<E>> graphNodes = graph.getNodes();
+        List<Link<E>> graphLinks = graph.getLinks();
+
+        LOG.debug("Building path finder adjacency for " + graphNodes.size() + " nodes");
+
+        int nodeCount = graphNodes.size();
+        nodes = graphNodes.toArray(new Node[nodeCount]);
+        nodeNumbers.clear();
+        for (int i = 0; i < nodeCount; i++) {
+            nodeNumbers.put(nodes[i], i);
+        }
+
+        int[] sources = new int[graphLinks.size()];
+        int[] targets = new int[graphLinks.size()];
+        Link<E>[] links = graphLinks.toArray(new Link[graphLinks.size()]);
+        for (int i = 0; i < links.length; i++) {
+            sources[i] = nodeNumbers.get(links[i].getSource());
+            targets[i] = nodeNumbers.get(links[i].getTarget());
+        }
+
+        forwardAdjacency = buildAdjacency(nodeCount, links, sources, targets, oriented);
+        backwardAdjacency = buildAdjacency(nodeCount, links, targets, sources, oriented);
+
+        if (forward == null || forward.stamps.length < nodeCount) {
+            forward = new Search(nodeCount);
+            backward = new Search(nodeCount);
+            queue = new int[nodeCount];
+            stamp = 0;
+        }
+
+        preparedVersion = version;
+        preparedOriented = oriented;
+    }
+
+    /**
+     * Builds the adjacency of nodes.
+     * 
+     * @param nodeCount number of nodes
+     * @param links the links
+     * @param from node from which each link is followed
+     * @param to node to which each link is followed
+     * @param oriented if false, links are also followed the other way
+     * @return the adjacency
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <E> Adjacency<E> buildAdjacency(int nodeCount, Link<E>[] links, int[] from,
+            int[] to, boolean oriented) {
+
+        Adjacency<E> adjacency = new Adjacency<>();
+        int entryCount = oriented ? links.length : 2 * links.length;
+        adjacency.offsets = new int[nodeCount + 1];
+        adjacency.neighbors = new int[entryCount];
+        adjacency.links = new Link[entryCount];
+
+        for (int i = 0; i < links.length; i++) {
+            adjacency.offsets[from[i] + 1]++;
+            if (!oriented) {
+                adjacency.offsets[to[i] + 1]++;
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            adjacency.offsets[node + 1] += adjacency.offsets[node];
+        }
+
+        int[] fill = Arrays.copyOf(adjacency.offsets, nodeCount);
+        for (int i = 0; i < links.length; i++) {
+            int entry = fill[from[i]]++;
+            adjacency.neighbors[entry] = to[i];
+            adjacency.links[entry] = links[i];
+            if (!oriented) {
+                entry = fill[to[i]]++;
+                adjacency.neighbors[entry] = from[i];
+                adjacency.links[entry] = links[i];
+            }
+        }
+        return adjacency;
+    }
+
+}
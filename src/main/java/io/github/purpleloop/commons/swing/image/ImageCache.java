@@ -0,0 +1,342 @@
+package io.github.purpleloop.commons.swing.image;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.File;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+
+/**
+ * A process-wide cache of the images loaded from files.
+ * 
+ * <p>
+ * Images are cached by resolved path, and loaded again when their file has
+ * been modified. An image is acquired by each of its users, who release it
+ * once they do not use it anymore. The sprite sets release their source
+ * image at the latest once they are not reachable anymore, but an image
+ * acquired directly stays in use until it is released. Images not used
+ * anymore stay in the cache while the memory used by the cached images is
+ * under a budget, the least recently used ones being evicted first. An image
+ * requested while it is being loaded by another thread is loaded once.
+ * </p>
+ * 
+ * <p>
+ * The cached images are shared by their users, and must not be modified.
+ * </p>
+ */
+public final class ImageCache {
+
+    /** Default memory budget, in bytes. */
+    private static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(ImageCache.class);
+
+    /** Singleton object. */
+    private static ImageCache singleton;
+
+    /** A cached image. */
+    private static class Entry {
+
+        /** Resolved path of the image file. */
+        private final String path;
+
+        /** Modification time of the image file when it was loaded. */
+        private final long lastModified;
+
+        /** The image, completed once loaded. */
+        private final CompletableFuture<BufferedImage> image = new CompletableFuture<>();
+
+        /** Number of users of the image. */
+        private int referenceCount;
+
+        /** Memory used by the image, in bytes, 0 while it is loading. */
+        private long bytes;
+
+        /** Is the entry in the cache ? */
+        private boolean cached = true;
+
+        /**
+         * Creates an entry for an image to load.
+         * 
+         * @param path resolved path of the image file
+         * @param lastModified modification time of the image file
+         */
+        private Entry(String path, long lastModified) {
+            this.path = path;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /** Cached images by resolved path, from the least recently used. */
+    private Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Loaded images, cached or still used. */
+    private Map<Image, Entry> loadedImages = new IdentityHashMap<>();
+
+    /** Memory budget, in bytes. */
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    /** Memory used by the cached images, in bytes. */
+    private long memoryUsage;
+
+    /** Number of requests served from the cache. */
+    private long hitCount;
+
+    /** Number of requests which loaded the image. */
+    private long missCount;
+
+    /** Number of images evicted from the cache. */
+    private long evictionCount;
+
+    /** Private constructor. */
+    private ImageCache() {
+    }
+
+    /** @return the image cache */
+    public static synchronized ImageCache getInstance() {
+
+        if (singleton == null) {
+            singleton = new ImageCache();
+        }
+
+        return singleton;
+    }
+
+    /**
+     * Acquires an image, loading it if it is not cached or if its file has
+     * been modified. The image must be released once it is not used anymore.
+     * 
+     * @param imageFileName name of the image file
+     * @return the image
+     * @throws PurpleException in case of problem
+     */
+    public BufferedImage acquire(String imageFileName) throws PurpleException {
+
+        File file = new File(imageFileName).getAbsoluteFile().toPath().normalize().toFile();
+        String path = file.getPath();
+        long lastModified = file.lastModified();
+
+        Entry entry;
+        boolean loading;
+        synchronized (this) {
+            entry = entries.get(path);
+            if (entry != null && entry.lastModified != lastModified) {
+
+                // The users of the outdated image keep it until they release it
+                LOG.debug("The image file " + path + " has been modified");
+                removeEntry(entry);
+                entry = null;
+            }
+            loading = entry == null;
+            if (loading) {
+                entry = new Entry(path, lastModified);
+                entries.put(path, entry);
+                missCount++;
+            } else {
+                hitCount++;
+            }
+            entry.referenceCount++;
+        }
+
+        if (loading) {
+            return load(entry);
+        }
+        try {
+            return entry.image.join();
+        } catch (CompletionException e) {
+            synchronized (this) {
+                entry.referenceCount--;
+            }
+            throw new PurpleException("Error while loading the image " + path, e.getCause());
+        }
+    }
+
+    /**
+     * Loads the image of a new entry.
+     * 
+     * @param entry the entry
+     * @return the image
+     * @throws PurpleException in case of problem
+     */
+    private BufferedImage load(Entry entry) throws PurpleException {
+
+        BufferedImage image;
+        try {
+            image = ImageUtils.loadImageFromFile(entry.path);
+        } catch (PurpleException | RuntimeException e) {
+            synchronized (this) {
+                entry.cached = false;
+                entries.remove(entry.path, entry);
+            }
+            entry.image.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (this) {
+            entry.bytes = getMemorySize(image);
+            loadedImages.put(image, entry);
+            if (entry.cached) {
+                memoryUsage += entry.bytes;
+                evict();
+            }
+        }
+        entry.image.complete(image);
+        return image;
+    }
+
+    /**
+     * Releases an image acquired from the cache. Images not acquired from the
+     * cache are ignored.
+     * 
+     * @param image the image
+     */
+    public synchronized void release(Image image) {
+
+        Entry entry = loadedImages.get(image);
+        if (entry == null || entry.referenceCount == 0) {
+            LOG.debug("The released image is not used from the cache");
+            return;
+        }
+
+        entry.referenceCount--;
+        if (entry.referenceCount == 0) {
+            if (!entry.cached) {
+
+                // Outdated image, which is not cached anymore
+                loadedImages.remove(image);
+            } else {
+                evict();
+            }
+        }
+    }
+
+    /**
+     * @param image an image
+     * @return number of users of the image, 0 if it is not acquired from the
+     *         cache
+     */
+    public synchronized int getReferenceCount(Image image) {
+        Entry entry = loadedImages.get(image);
+        return (entry == null) ? 0 : entry.referenceCount;
+    }
+
+    /** Evicts the least recently used images not used anymore, until the budget is met. */
+    private void evict() {
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (memoryUsage > memoryBudget && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.referenceCount == 0 && entry.image.isDone()) {
+                LOG.debug("Evicting the image " + entry.path + " from the cache");
+                iterator.remove();
+                forget(entry);
+                evictionCount++;
+            }
+        }
+    }
+
+    /**
+     * Removes an entry from the cache. Its image is forgotten if it is not
+     * used anymore.
+     * 
+     * @param entry the entry
+     */
+    private void removeEntry(Entry entry) {
+        entries.remove(entry.path);
+        if (entry.referenceCount == 0) {
+            forget(entry);
+        } else {
+            entry.cached = false;
+            memoryUsage -= entry.bytes;
+        }
+    }
+
+    /**
+     * Forgets the image of an entry removed from the cache.
+     * 
+     * @param entry the entry
+     */
+    private void forget(Entry entry) {
+        entry.cached = false;
+        memoryUsage -= entry.bytes;
+        if (entry.image.isDone() && !entry.image.isCompletedExceptionally()) {
+            loadedImages.remove(entry.image.join());
+        }
+    }
+
+    /**
+     * @param image an image
+     * @return memory used by the image pixels, in bytes
+     */
+    private static long getMemorySize(BufferedImage image) {
+        DataBuffer dataBuffer = image.getRaster().getDataBuffer();
+        return (long) dataBuffer.getSize() * dataBuffer.getNumBanks()
+                * DataBuffer.getDataTypeSize(dataBuffer.getDataType()) / Byte.SIZE;
+    }
+
+    /** Removes the images not used anymore from the cache. */
+    public synchronized void clear() {
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.referenceCount == 0 && entry.image.isDone()) {
+                iterator.remove();
+                forget(entry);
+            }
+        }
+    }
+
+    /**
+     * Sets the memory budget of the images not used anymore. Images in use are
+     * kept in the cache, even over the budget.
+     * 
+     * @param memoryBudget memory budget, in bytes
+     */
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        evict();
+    }
+
+    /** @return the memory budget, in bytes */
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /** @return the memory used by the cached images, in bytes */
+    public synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /** @return the number of cached images */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** @return the number of requests served from the cache */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /** @return the number of requests which loaded the image */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /** @return the number of images evicted from the cache */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+}
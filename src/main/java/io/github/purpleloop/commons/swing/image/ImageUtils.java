@@ -1,7 +1,13 @@
 package io.github.purpleloop.commons.swing.image;
 
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -127,6 +133,98 @@ public final class ImageUtils {
 
 	}
 
+	/**
+	 * Copies an image into an image compatible with the default screen, with the
+	 * same transparency. Compatible images are rendered without format conversion
+	 * and can be accelerated, unlike most images read by ImageIO.
+	 * 
+	 * @param image the image to convert
+	 * @return the compatible image, the given image if it is already compatible
+	 */
+	public static BufferedImage toCompatibleImage(BufferedImage image) {
+
+		GraphicsConfiguration configuration = null;
+		if (!GraphicsEnvironment.isHeadless()) {
+			configuration = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+					.getDefaultConfiguration();
+		}
+		return toCompatibleImage(image, configuration);
+	}
+
+	/**
+	 * Copies an image into an image compatible with a graphics configuration, with
+	 * the same transparency.
+	 * 
+	 * @param image         the image to convert
+	 * @param configuration the graphics configuration, null when there is no
+	 *                      screen: software rendering has fast loops for usual
+	 *                      opaque images, only translucent images are converted,
+	 *                      to a premultiplied integer ARGB image
+	 * @return the compatible image, the given image if it is already compatible
+	 */
+	public static BufferedImage toCompatibleImage(BufferedImage image, GraphicsConfiguration configuration) {
+
+		int transparency = image.getTransparency();
+		BufferedImage compatibleImage;
+		if (configuration != null) {
+			if (image.getColorModel().equals(configuration.getColorModel(transparency))) {
+				return image;
+			}
+			compatibleImage = configuration.createCompatibleImage(image.getWidth(), image.getHeight(),
+					transparency);
+		} else {
+			if (transparency == Transparency.OPAQUE || image.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+				return image;
+			}
+			compatibleImage = new BufferedImage(image.getWidth(), image.getHeight(),
+					BufferedImage.TYPE_INT_ARGB_PRE);
+		}
+
+		Graphics2D graphics = compatibleImage.createGraphics();
+		graphics.drawImage(image, 0, 0, null);
+		graphics.dispose();
+		return compatibleImage;
+	}
+
+	/**
+	 * Computes the bounds of the pixels of a region that are not fully
+	 * transparent.
+	 * 
+	 * @param image  an image with an alpha channel
+	 * @param region the region of the image to analyze
+	 * @return the bounds of the pixels that are not fully transparent, an empty
+	 *         rectangle if the region is fully transparent
+	 */
+	public static Rectangle getOpaqueBounds(BufferedImage image, Rectangle region) {
+
+		Rectangle clipped = region.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+		WritableRaster alphaRaster = image.getAlphaRaster();
+		if (clipped.isEmpty() || alphaRaster == null) {
+			return clipped.isEmpty() ? new Rectangle() : clipped;
+		}
+
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = -1;
+		int maxY = -1;
+		int[] row = new int[clipped.width];
+		for (int y = clipped.y; y < clipped.y + clipped.height; y++) {
+			alphaRaster.getSamples(clipped.x, y, clipped.width, 1, 0, row);
+			for (int i = 0; i < clipped.width; i++) {
+				if (row[i] != 0) {
+					minX = Math.min(minX, clipped.x + i);
+					maxX = Math.max(maxX, clipped.x + i);
+					minY = Math.min(minY, y);
+					maxY = y;
+				}
+			}
+		}
+		if (maxX < 0) {
+			return new Rectangle();
+		}
+		return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+	}
+
 	/**
 	 * Saves a rendered image to a local file.
 	 * 
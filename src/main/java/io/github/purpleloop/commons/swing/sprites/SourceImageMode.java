@@ -0,0 +1,21 @@
+package io.github.purpleloop.commons.swing.sprites;
+
+/** How the source image of a sprite set is held for rendering. */
+public enum SourceImageMode {
+
+    /** The image is rendered as it was loaded. */
+    AS_LOADED,
+
+    /**
+     * The image is converted to an image compatible with the screen, that is
+     * rendered without format conversion and can be accelerated.
+     */
+    COMPATIBLE,
+
+    /**
+     * The image is copied to a volatile image of the rendering device,
+     * restored when its contents are lost. This pays off with a hardware
+     * accelerated rendering pipeline only.
+     */
+    VOLATILE;
+}
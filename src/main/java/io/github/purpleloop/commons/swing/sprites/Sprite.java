@@ -4,6 +4,9 @@ package io.github.purpleloop.commons.swing.sprites;
  * Image used for animation purposes.
  * 
  * The sprite image is a part of a more global image loaded once.
+ * 
+ * A sprite can be trimmed to the part of it that is not fully transparent,
+ * only this part is then rendered, at its offset in the sprite.
  */
 public class Sprite {
 
@@ -22,6 +25,18 @@ public class Sprite {
 	/** Sprite height. */
 	protected int height;
 
+	/** Horizontal offset of the trimmed part in the sprite. */
+	protected int trimX;
+
+	/** Vertical offset of the trimmed part in the sprite. */
+	protected int trimY;
+
+	/** Width of the trimmed part. */
+	protected int trimWidth;
+
+	/** Height of the trimmed part. */
+	protected int trimHeight;
+
 	/**
 	 * Creates a sprite.
 	 * 
@@ -38,6 +53,49 @@ public class Sprite {
 		oy = yOrigin;
 		width = spriteWidth;
 		height = spriteHeight;
+		trimWidth = spriteWidth;
+		trimHeight = spriteHeight;
+	}
+
+	/**
+	 * Trims the sprite to a part of it.
+	 * 
+	 * @param x      horizontal offset of the trimmed part in the sprite
+	 * @param y      vertical offset of the trimmed part in the sprite
+	 * @param width  width of the trimmed part, 0 if the sprite is fully transparent
+	 * @param height height of the trimmed part, 0 if the sprite is fully
+	 *               transparent
+	 */
+	public void setTrim(int x, int y, int width, int height) {
+		trimX = x;
+		trimY = y;
+		trimWidth = width;
+		trimHeight = height;
+	}
+
+	/** @return true if the sprite is trimmed to a part of it */
+	public boolean isTrimmed() {
+		return trimX != 0 || trimY != 0 || trimWidth != width || trimHeight != height;
+	}
+
+	/** @return Horizontal offset of the trimmed part in the sprite */
+	public int getTrimX() {
+		return trimX;
+	}
+
+	/** @return Vertical offset of the trimmed part in the sprite */
+	public int getTrimY() {
+		return trimY;
+	}
+
+	/** @return Width of the trimmed part */
+	public int getTrimWidth() {
+		return trimWidth;
+	}
+
+	/** @return Height of the trimmed part */
+	public int getTrimHeight() {
+		return trimHeight;
 	}
 
 	/** @return name of the sprite */
@@ -0,0 +1,229 @@
+package io.github.purpleloop.commons.swing.sprites;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.ImageObserver;
+import java.util.Arrays;
+
+import io.github.purpleloop.commons.swing.sprites.exception.SpriteRenderingException;
+
+/**
+ * Collects the sprites of a frame and renders them in one pass.
+ * 
+ * <p>
+ * Sprites are submitted in any order, with a layer. When the batch is flushed,
+ * sprites are sorted by layer, lower layers first, then by sprite set so that
+ * sprites sharing a source image are rendered together. Within a layer,
+ * sprites of a same sprite set keep their submission order, but sprites of
+ * different sprite sets should not overlap. Sprites outside of the clip of the
+ * canvas are not rendered.
+ * </p>
+ * 
+ * <p>
+ * Submitting a sprite does not allocate once the batch has grown to the size
+ * of a frame.
+ * </p>
+ */
+public class SpriteBatch {
+
+    /** Number of bits of the submission order in the sort keys. */
+    private static final int ORDER_BITS = 22;
+
+    /** Maximum number of sprites in a frame. */
+    public static final int MAX_SPRITES = 1 << ORDER_BITS;
+
+    /** Maximum number of sprite sets in a frame. */
+    public static final int MAX_SPRITE_SETS = 1 << (32 - ORDER_BITS);
+
+    /** Initial capacity of the batch. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** Sprite sets of the submitted sprites, in order of first submission. */
+    private SpriteSet[] spriteSets = new SpriteSet[4];
+
+    /** Number of sprite sets of the submitted sprites. */
+    private int spriteSetCount;
+
+    /** Index of the sprite set of the last submitted sprite. */
+    private int lastSpriteSet = -1;
+
+    /** Sprite set index of each sprite. */
+    private int[] spriteSetIndexes = new int[INITIAL_CAPACITY];
+
+    /** Handle of each sprite. */
+    private int[] handles = new int[INITIAL_CAPACITY];
+
+    /** Abscissa of each sprite. */
+    private int[] xs = new int[INITIAL_CAPACITY];
+
+    /** Ordinate of each sprite. */
+    private int[] ys = new int[INITIAL_CAPACITY];
+
+    /** Zoom factor of each sprite. */
+    private double[] zooms = new double[INITIAL_CAPACITY];
+
+    /** Sort keys: layer, sprite set index and submission order. */
+    private long[] keys = new long[INITIAL_CAPACITY];
+
+    /** Number of submitted sprites. */
+    private int size;
+
+    /** Number of sprites submitted in the last flushed frame. */
+    private int submittedCount;
+
+    /** Number of sprites culled in the last flushed frame. */
+    private int culledCount;
+
+    /** Number of sprites drawn in the last flushed frame. */
+    private int drawnCount;
+
+    /**
+     * Submits a sprite with the zoom factor of its sprite set.
+     * 
+     * @param spriteSet the sprite set
+     * @param handle handle of the sprite in the sprite set
+     * @param x horizontal location
+     * @param y vertical location
+     * @param layer layer of the sprite, lower layers are rendered first
+     */
+    public void add(SpriteSet spriteSet, int handle, int x, int y, int layer) {
+        add(spriteSet, handle, x, y, spriteSet.zoomFactor, layer);
+    }
+
+    /**
+     * Submits a sprite.
+     * 
+     * @param spriteSet the sprite set
+     * @param handle handle of the sprite in the sprite set
+     * @param x horizontal location
+     * @param y vertical location
+     * @param zoom zoom factor to apply
+     * @param layer layer of the sprite, lower layers are rendered first
+     */
+    public void add(SpriteSet spriteSet, int handle, int x, int y, double zoom, int layer) {
+
+        if (handle < 0 || handle >= spriteSet.getHandleCount()) {
+            throw new SpriteRenderingException(
+                    "There is no sprite with handle " + handle + " in the SpriteSet.");
+        }
+        if (size == MAX_SPRITES) {
+            throw new SpriteRenderingException(
+                    "A sprite batch can not hold more than " + MAX_SPRITES + " sprites.");
+        }
+        if (size == keys.length) {
+            grow();
+        }
+
+        int spriteSetIndex = indexOf(spriteSet);
+        spriteSetIndexes[size] = spriteSetIndex;
+        handles[size] = handle;
+        xs[size] = x;
+        ys[size] = y;
+        zooms[size] = zoom;
+
+        // The layer is the signed high part, the low part is not negative
+        keys[size] = ((long) layer << 32) | ((long) spriteSetIndex << ORDER_BITS) | size;
+        size++;
+    }
+
+    /**
+     * @param spriteSet a sprite set
+     * @return the index of the sprite set, registered if it is not yet
+     */
+    private int indexOf(SpriteSet spriteSet) {
+
+        if (lastSpriteSet >= 0 && spriteSets[lastSpriteSet] == spriteSet) {
+            return lastSpriteSet;
+        }
+        for (int i = 0; i < spriteSetCount; i++) {
+            if (spriteSets[i] == spriteSet) {
+                lastSpriteSet = i;
+                return i;
+            }
+        }
+        if (spriteSetCount == MAX_SPRITE_SETS) {
+            throw new SpriteRenderingException("A sprite batch can not hold sprites of more than "
+                    + MAX_SPRITE_SETS + " sprite sets.");
+        }
+        if (spriteSetCount == spriteSets.length) {
+            spriteSets = Arrays.copyOf(spriteSets, spriteSetCount * 2);
+        }
+        spriteSets[spriteSetCount] = spriteSet;
+        lastSpriteSet = spriteSetCount;
+        return spriteSetCount++;
+    }
+
+    /** Doubles the capacity of the batch. */
+    private void grow() {
+        int capacity = keys.length * 2;
+        spriteSetIndexes = Arrays.copyOf(spriteSetIndexes, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        zooms = Arrays.copyOf(zooms, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    /**
+     * Renders the submitted sprites and empties the batch for the next frame.
+     * 
+     * @param canvas Graphic canvas where to do the rendering
+     * @param imageObserver ImageObserver to notify once drawing has been done
+     */
+    public void flush(Graphics canvas, ImageObserver imageObserver) {
+
+        Arrays.sort(keys, 0, size);
+
+        Rectangle clip = canvas.getClipBounds();
+        int culled = 0;
+        for (int k = 0; k < size; k++) {
+            int i = (int) (keys[k] & (MAX_SPRITES - 1));
+            SpriteSet spriteSet = spriteSets[spriteSetIndexes[i]];
+            int handle = handles[i];
+            int x = xs[i];
+            int y = ys[i];
+            double zoom = zooms[i];
+
+            if (clip != null && !clip.intersects(x, y, spriteSet.getWidth(handle) * zoom,
+                    spriteSet.getHeight(handle) * zoom)) {
+                culled++;
+                continue;
+            }
+            spriteSet.putSprite(canvas, imageObserver, handle, x, y, zoom);
+        }
+
+        submittedCount = size;
+        culledCount = culled;
+        drawnCount = size - culled;
+        clear();
+    }
+
+    /** Empties the batch, without rendering the submitted sprites. */
+    public void clear() {
+        Arrays.fill(spriteSets, 0, spriteSetCount, null);
+        spriteSetCount = 0;
+        lastSpriteSet = -1;
+        size = 0;
+    }
+
+    /** @return the number of sprites submitted since the last flush */
+    public int size() {
+        return size;
+    }
+
+    /** @return the number of sprites submitted in the last flushed frame */
+    public int getSubmittedCount() {
+        return submittedCount;
+    }
+
+    /** @return the number of sprites culled in the last flushed frame */
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    /** @return the number of sprites drawn in the last flushed frame */
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+
+}
@@ -0,0 +1,283 @@
+package io.github.purpleloop.commons.swing.sprites;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+
+/**
+ * A binary bundle of precompiled sprite sets, loaded quickly at startup.
+ * 
+ * <p>
+ * A bundle holds named sprite sets, typically compiled from sprite models or
+ * atlas pages. The source images are stored as raw premultiplied ARGB pixels
+ * and the sprites as a packed table, names being stored once in a shared
+ * table. Reading a bundle maps the file in memory and copies the pixels into
+ * the images, without XML parsing nor image decoding.
+ * </p>
+ * 
+ * <p>
+ * The bundle layout is, in big endian order :
+ * </p>
+ * <ul>
+ * <li>magic number, version, number of sprite sets, number of names,</li>
+ * <li>the names, each one as its UTF-8 length and bytes, padded to 4
+ * bytes,</li>
+ * <li>for each sprite set : the name index of its key, the image width and
+ * height, the number of sprites, a row of 9 integers for each sprite (name
+ * index, ox, oy, width, height, trimX, trimY, trimWidth, trimHeight) and the
+ * pixels.</li>
+ * </ul>
+ */
+public final class SpriteBundle {
+
+    /** Magic number of the bundles, 'PSPB'. */
+    private static final int MAGIC = 0x50535042;
+
+    /** Version of the bundle format. */
+    private static final int VERSION = 1;
+
+    /** Number of integers describing a sprite. */
+    private static final int SPRITE_INTS = 9;
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(SpriteBundle.class);
+
+    /** Private constructor. */
+    private SpriteBundle() {
+    }
+
+    /**
+     * Writes sprite sets in a bundle.
+     * 
+     * @param file the bundle file
+     * @param spriteSets the sprite sets, by key
+     * @throws PurpleException in case of problem
+     */
+    public static void write(File file, Map<String, SpriteSet> spriteSets)
+            throws PurpleException {
+
+        // Name table, shared by keys and sprites
+        List<byte[]> names = new ArrayList<>();
+        Map<String, Integer> nameIndexes = new HashMap<>();
+        long size = 4L * Integer.BYTES;
+        List<BufferedImage> images = new ArrayList<>();
+        for (Map.Entry<String, SpriteSet> entry : spriteSets.entrySet()) {
+            size += internName(entry.getKey(), names, nameIndexes);
+            SpriteSet spriteSet = entry.getValue();
+            for (String spriteName : spriteSet.getSpritesNames()) {
+                size += internName(spriteName, names, nameIndexes);
+            }
+
+            BufferedImage image = toPremultipliedImage(spriteSet.getSourceImage());
+            images.add(image);
+            size += 4L * Integer.BYTES
+                    + (long) spriteSet.getSpritesNames().size() * SPRITE_INTS * Integer.BYTES
+                    + (long) image.getWidth() * image.getHeight() * Integer.BYTES;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new PurpleException("The sprite bundle is too large : " + size + " bytes.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(spriteSets.size());
+        buffer.putInt(names.size());
+        for (byte[] name : names) {
+            buffer.putInt(name.length);
+            buffer.put(name);
+            buffer.position(align(buffer.position()));
+        }
+
+        int setIndex = 0;
+        for (Map.Entry<String, SpriteSet> entry : spriteSets.entrySet()) {
+            SpriteSet spriteSet = entry.getValue();
+            BufferedImage image = images.get(setIndex++);
+            buffer.putInt(nameIndexes.get(entry.getKey()));
+            buffer.putInt(image.getWidth());
+            buffer.putInt(image.getHeight());
+            buffer.putInt(spriteSet.getSpritesNames().size());
+            for (String spriteName : spriteSet.getSpritesNames()) {
+                Sprite sprite = spriteSet.getSprite(spriteName);
+                buffer.putInt(nameIndexes.get(spriteName));
+                buffer.putInt(sprite.ox);
+                buffer.putInt(sprite.oy);
+                buffer.putInt(sprite.width);
+                buffer.putInt(sprite.height);
+                buffer.putInt(sprite.trimX);
+                buffer.putInt(sprite.trimY);
+                buffer.putInt(sprite.trimWidth);
+                buffer.putInt(sprite.trimHeight);
+            }
+
+            // Copied, as taking the data buffer would make a source image unmanaged
+            int[] pixels = (int[]) image.getRaster().getDataElements(0, 0, image.getWidth(),
+                    image.getHeight(), null);
+            buffer.asIntBuffer().put(pixels);
+            buffer.position(buffer.position() + pixels.length * Integer.BYTES);
+        }
+        buffer.flip();
+
+        LOG.info("Writing a sprite bundle of " + spriteSets.size() + " sprite sets to "
+                + file.getAbsolutePath());
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new PurpleException("Error writing sprite bundle " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Adds a name to the name table, if it is not yet.
+     * 
+     * @param name the name
+     * @param names the name table
+     * @param nameIndexes indexes of the names in the table
+     * @return the number of bytes added to the bundle
+     */
+    private static int internName(String name, List<byte[]> names,
+            Map<String, Integer> nameIndexes) {
+
+        if (nameIndexes.containsKey(name)) {
+            return 0;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        nameIndexes.put(name, names.size());
+        names.add(bytes);
+        return Integer.BYTES + align(bytes.length);
+    }
+
+    /**
+     * @param position a position in the bundle
+     * @return the position aligned on integers
+     */
+    private static int align(int position) {
+        return (position + Integer.BYTES - 1) & -Integer.BYTES;
+    }
+
+    /**
+     * @param source a source image
+     * @return the image as premultiplied ARGB pixels
+     * @throws PurpleException if the image is not loaded
+     */
+    private static BufferedImage toPremultipliedImage(Image source) throws PurpleException {
+
+        if (source instanceof BufferedImage bufferedImage
+                && bufferedImage.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+            return bufferedImage;
+        }
+        int width = source.getWidth(null);
+        int height = source.getHeight(null);
+        if (width < 0 || height < 0) {
+            throw new PurpleException("The source image is not loaded.");
+        }
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D graphics = image.createGraphics();
+        graphics.drawImage(source, 0, 0, null);
+        graphics.dispose();
+        return image;
+    }
+
+    /**
+     * Reads the sprite sets of a bundle.
+     * 
+     * @param file the bundle file
+     * @return the sprite sets, by key, in the order they were written
+     * @throws PurpleException in case of problem
+     */
+    public static Map<String, SpriteSet> read(File file) throws PurpleException {
+
+        LOG.info("Reading sprite bundle " + file.getAbsolutePath());
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            return read(buffer);
+        } catch (IOException | RuntimeException e) {
+            throw new PurpleException("Error reading sprite bundle " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Reads the sprite sets of a bundle.
+     * 
+     * @param buffer the bundle content
+     * @return the sprite sets, by key
+     * @throws PurpleException if the content is not a bundle
+     */
+    private static Map<String, SpriteSet> read(ByteBuffer buffer) throws PurpleException {
+
+        if (buffer.getInt() != MAGIC) {
+            throw new PurpleException("This is not a sprite bundle.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new PurpleException("Unsupported sprite bundle version " + version);
+        }
+        int setCount = buffer.getInt();
+        String[] names = new String[buffer.getInt()];
+        for (int i = 0; i < names.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            buffer.position(align(buffer.position()));
+            names[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Map<String, SpriteSet> spriteSets = new LinkedHashMap<>();
+        int[] table = new int[0];
+        int[] pixels = new int[0];
+        for (int s = 0; s < setCount; s++) {
+            String key = names[buffer.getInt()];
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int spriteCount = buffer.getInt();
+
+            if (table.length < spriteCount * SPRITE_INTS) {
+                table = new int[spriteCount * SPRITE_INTS];
+            }
+            buffer.asIntBuffer().get(table, 0, spriteCount * SPRITE_INTS);
+            buffer.position(buffer.position() + spriteCount * SPRITE_INTS * Integer.BYTES);
+
+            // Set through the raster, so that the image stays managed and accelerated
+            int pixelCount = width * height;
+            if (pixels.length < pixelCount) {
+                pixels = new int[pixelCount];
+            }
+            buffer.asIntBuffer().get(pixels, 0, pixelCount);
+            buffer.position(buffer.position() + pixelCount * Integer.BYTES);
+            BufferedImage image = new BufferedImage(width, height,
+                    BufferedImage.TYPE_INT_ARGB_PRE);
+            image.getRaster().setDataElements(0, 0, width, height, pixels);
+
+            SpriteSet spriteSet = new SpriteSet(image);
+            for (int i = 0; i < spriteCount * SPRITE_INTS; i += SPRITE_INTS) {
+                Sprite sprite = new Sprite(names[table[i]], table[i + 1], table[i + 2],
+                        table[i + 3], table[i + 4]);
+                sprite.setTrim(table[i + 5], table[i + 6], table[i + 7], table[i + 8]);
+                spriteSet.addSprite(sprite);
+            }
+            spriteSets.put(key, spriteSet);
+        }
+        return spriteSets;
+    }
+
+}
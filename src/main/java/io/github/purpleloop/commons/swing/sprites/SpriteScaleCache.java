@@ -0,0 +1,179 @@
+package io.github.purpleloop.commons.swing.sprites;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A cache of pre-scaled sprite images, so that zoomed sprites are rendered by
+ * plain unscaled blits.
+ * 
+ * <p>
+ * Images are scaled once for each sprite, zoom factor and interpolation, as
+ * images compatible with the device they are rendered on. The least recently
+ * used images are evicted when the images exceed the memory budget.
+ * </p>
+ */
+public class SpriteScaleCache {
+
+    /** Logger of the class. */
+    private static final Log LOG = LogFactory.getLog(SpriteScaleCache.class);
+
+    /** Bytes used by a pixel of a cached image. */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * Key of a scaled image.
+     * 
+     * @param handle handle of the sprite
+     * @param zoom zoom factor
+     * @param interpolation interpolation rendering hint
+     */
+    private record Key(int handle, double zoom, Object interpolation) {
+    }
+
+    /** Scaled images, from the least recently used. */
+    private final Map<Key, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Memory budget, in bytes. */
+    private final long memoryBudget;
+
+    /** Memory used by the scaled images, in bytes. */
+    private long memoryUsage;
+
+    /** Configuration of the device the images are compatible with. */
+    private GraphicsConfiguration configuration;
+
+    /** Number of images found in the cache. */
+    private long hitCount;
+
+    /** Number of images scaled for the cache. */
+    private long missCount;
+
+    /**
+     * Creates a cache.
+     * 
+     * @param memoryBudget memory budget of the cache, in bytes
+     */
+    public SpriteScaleCache(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Gets the scaled image of a sprite, scaling it if needed.
+     * 
+     * @param canvas the graphics where the image is rendered
+     * @param source image containing the sprite
+     * @param handle handle of the sprite
+     * @param ox horizontal location of the sprite in the source image
+     * @param oy vertical location of the sprite in the source image
+     * @param width width of the sprite
+     * @param height height of the sprite
+     * @param zoom zoom factor
+     * @return the scaled image, null if it can not be cached
+     */
+    BufferedImage get(Graphics2D canvas, Image source, int handle, int ox, int oy, int width,
+            int height, double zoom) {
+
+        GraphicsConfiguration canvasConfiguration = canvas.getDeviceConfiguration();
+        if (canvasConfiguration != configuration) {
+            clear();
+            configuration = canvasConfiguration;
+        }
+
+        Object interpolation = canvas.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        if (interpolation == null) {
+            interpolation = RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+        }
+
+        Key key = new Key(handle, zoom, interpolation);
+        BufferedImage image = images.get(key);
+        if (image != null) {
+            hitCount++;
+            return image;
+        }
+
+        int scaledWidth = (int) (width * zoom);
+        int scaledHeight = (int) (height * zoom);
+        long size = (long) scaledWidth * scaledHeight * BYTES_PER_PIXEL;
+        if (scaledWidth <= 0 || scaledHeight <= 0 || size > memoryBudget) {
+            return null;
+        }
+
+        image = configuration.createCompatibleImage(scaledWidth, scaledHeight,
+                Transparency.TRANSLUCENT);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        boolean complete = graphics.drawImage(source, 0, 0, scaledWidth, scaledHeight, ox, oy,
+                ox + width, oy + height, null);
+        graphics.dispose();
+        if (!complete) {
+
+            // The source image is not fully loaded yet
+            return null;
+        }
+
+        missCount++;
+        images.put(key, image);
+        memoryUsage += size;
+        evict();
+        return image;
+    }
+
+    /** Evicts the least recently used images until the memory budget is met. */
+    private void evict() {
+
+        Iterator<BufferedImage> iterator = images.values().iterator();
+        while (memoryUsage > memoryBudget && iterator.hasNext()) {
+            BufferedImage evicted = iterator.next();
+            memoryUsage -= (long) evicted.getWidth() * evicted.getHeight() * BYTES_PER_PIXEL;
+            iterator.remove();
+        }
+    }
+
+    /** Clears the cache. */
+    public void clear() {
+        if (!images.isEmpty()) {
+            LOG.debug("Clearing " + images.size() + " scaled sprite images");
+        }
+        images.clear();
+        memoryUsage = 0;
+    }
+
+    /** @return the memory budget of the cache, in bytes */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /** @return the memory used by the scaled images, in bytes */
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /** @return the number of cached images */
+    public int size() {
+        return images.size();
+    }
+
+    /** @return the number of images found in the cache */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /** @return the number of images scaled for the cache */
+    public long getMissCount() {
+        return missCount;
+    }
+
+}
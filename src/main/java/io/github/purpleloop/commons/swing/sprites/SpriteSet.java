@@ -1,23 +1,51 @@
 package io.github.purpleloop.commons.swing.sprites;
 
+import java.awt.AlphaComposite;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
 import java.awt.image.ImageObserver;
+import java.awt.image.VolatileImage;
+import java.lang.ref.Cleaner;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.image.ImageCache;
 import io.github.purpleloop.commons.swing.image.ImageUtils;
 import io.github.purpleloop.commons.swing.sprites.exception.SpriteRenderingException;
+import io.github.purpleloop.commons.swing.sprites.model.IndexedSpriteSet;
 
 /**
  * This class defines a sprite set that can be used for animation purposes. A
  * sprite is a named image chunk.
+ * 
+ * <p>
+ * Sprites can be rendered by name, or through integer handles resolved once
+ * with {@link #getHandle(String)} or
+ * {@link #getHandle(IndexedSpriteSet, int)}. Rendering by handle reads the
+ * sprite bounds from dense arrays, without hashing nor allocation, which
+ * matters when thousands of sprites are drawn at each frame. Handles are
+ * invalidated by {@link #resetRegistry()}.
+ * </p>
+ * 
+ * <p>
+ * Zoomed sprites can be scaled once and kept in a {@link SpriteScaleCache},
+ * enabled with {@link #setScaleCacheBudget(long)}. The source image itself
+ * can be converted for faster rendering, with
+ * {@link #setSourceImageMode(SourceImageMode)}.
+ * </p>
  */
 public class SpriteSet {
 
@@ -27,23 +55,111 @@ public class SpriteSet {
     /** The default zoom factor. */
     private static final int DEFAULT_ZOOM_FACTOR = 1;
 
+    /** Initial capacity of the handle arrays. */
+    private static final int INITIAL_HANDLE_CAPACITY = 64;
+
+    /** Releases the source images of the sprite sets which are not reachable anymore. */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /** Releases a source image acquired from the shared image cache, once. */
+    private static final class SourceRelease implements Runnable {
+
+        /** The acquired image, null once released or handed over. */
+        private final AtomicReference<Image> image;
+
+        /** @param image the acquired image */
+        private SourceRelease(Image image) {
+            this.image = new AtomicReference<>(image);
+        }
+
+        /** @return the acquired image, which will not be released by this action */
+        private Image handOver() {
+            return image.getAndSet(null);
+        }
+
+        @Override
+        public void run() {
+            Image acquired = image.getAndSet(null);
+            if (acquired != null) {
+                ImageCache.getInstance().release(acquired);
+            }
+        }
+    }
+
     /** The image containing the sprites. */
     private Image source;
 
+    /** Release of the source image, if it is acquired from the shared image cache. */
+    private SourceRelease sourceRelease;
+
+    /** Runs the release of the source image, at the latest when the set is unreachable. */
+    private Cleaner.Cleanable sourceCleanable;
+
+    /** How the source image is held for rendering. */
+    private SourceImageMode sourceImageMode = SourceImageMode.AS_LOADED;
+
+    /** The image the sprites are rendered from, converted from the source image. */
+    private Image renderedSource;
+
+    /** Volatile copy of the source image, in volatile mode, null until rendered. */
+    private VolatileImage volatileSource;
+
     /** Sprite names mapping. */
     private Map<String, Sprite> sprites;
 
+    /** Handles of the named sprites. */
+    private Map<String, Integer> namedHandles;
+
+    /** Handles of the sprite bounds, named or not. */
+    private Map<Rectangle, Integer> boundsHandles;
+
+    /** Horizontal locations of the sprites in the tileset, by handle. */
+    private int[] handleX;
+
+    /** Vertical locations of the sprites in the tileset, by handle. */
+    private int[] handleY;
+
+    /** Sprite widths, by handle. */
+    private int[] handleWidth;
+
+    /** Sprite heights, by handle. */
+    private int[] handleHeight;
+
+    /** Horizontal offsets of the trimmed parts in the sprites, by handle. */
+    private int[] handleTrimX;
+
+    /** Vertical offsets of the trimmed parts in the sprites, by handle. */
+    private int[] handleTrimY;
+
+    /** Widths of the trimmed parts of the sprites, by handle. */
+    private int[] handleTrimWidth;
+
+    /** Heights of the trimmed parts of the sprites, by handle. */
+    private int[] handleTrimHeight;
+
+    /** Are the sprites trimmed to the opaque parts of the source image ? */
+    private boolean trimmedFromSource;
+
+    /** Number of attributed handles. */
+    private int handleCount;
+
+    /** Cache of the zoomed sprites, null if zoomed sprites are scaled at each rendering. */
+    private SpriteScaleCache scaleCache;
+
     /** Zoom factor for rendering. */
     double zoomFactor;
 
     /**
-     * Creates a sprite set with the file whose name is given as source.
+     * Creates a sprite set with the file whose name is given as source. The
+     * image is acquired from the shared image cache, and released by
+     * {@link #release()} or once the sprite set is not reachable anymore.
      * 
      * @param spriteFileName Sprite file name
      * @throws PurpleException in case of problems during creation
      */
     public SpriteSet(String spriteFileName) throws PurpleException {
-        this(ImageUtils.loadImageFromFile(spriteFileName));
+        this(ImageCache.getInstance().acquire(spriteFileName));
+        holdCachedSource(source);
     }
 
     /**
@@ -53,14 +169,64 @@ public class SpriteSet {
      */
     public SpriteSet(Image spriteSource) {
         source = spriteSource;
+        renderedSource = spriteSource;
         sprites = new HashMap<>();
+        namedHandles = new HashMap<>();
+        boundsHandles = new HashMap<>();
+        handleX = new int[INITIAL_HANDLE_CAPACITY];
+        handleY = new int[INITIAL_HANDLE_CAPACITY];
+        handleWidth = new int[INITIAL_HANDLE_CAPACITY];
+        handleHeight = new int[INITIAL_HANDLE_CAPACITY];
+        handleTrimX = new int[INITIAL_HANDLE_CAPACITY];
+        handleTrimY = new int[INITIAL_HANDLE_CAPACITY];
+        handleTrimWidth = new int[INITIAL_HANDLE_CAPACITY];
+        handleTrimHeight = new int[INITIAL_HANDLE_CAPACITY];
         zoomFactor = DEFAULT_ZOOM_FACTOR;
     }
 
-    /** Reset the sprite registry. */
+    /**
+     * Replaces the source image and the sprites by those of another sprite
+     * set, keeping the rendering settings of this one. The other sprite set
+     * must not be used anymore. Previously resolved handles become invalid.
+     * 
+     * @param other the sprite set giving the new source image and sprites
+     */
+    public void replaceWith(SpriteSet other) {
+
+        LOG.debug("Replacing the source image and the sprite registry");
+        release();
+        source = other.source;
+        if (other.sourceRelease != null) {
+            holdCachedSource(other.sourceRelease.handOver());
+            other.sourceRelease = null;
+            other.sourceCleanable = null;
+        }
+
+        sprites = other.sprites;
+        namedHandles = other.namedHandles;
+        boundsHandles = other.boundsHandles;
+        handleX = other.handleX;
+        handleY = other.handleY;
+        handleWidth = other.handleWidth;
+        handleHeight = other.handleHeight;
+        handleTrimX = other.handleTrimX;
+        handleTrimY = other.handleTrimY;
+        handleTrimWidth = other.handleTrimWidth;
+        handleTrimHeight = other.handleTrimHeight;
+        handleCount = other.handleCount;
+        trimmedFromSource = other.trimmedFromSource;
+        prepareSource();
+    }
+
+    /** Reset the sprite registry. Previously resolved handles become invalid. */
     public void resetRegistry() {
         LOG.debug("Clearing the sprite registry");
         sprites.clear();
+        namedHandles.clear();
+        boundsHandles.clear();
+        handleCount = 0;
+        trimmedFromSource = false;
+        clearScaleCache();
     }
 
     /**
@@ -71,8 +237,188 @@ public class SpriteSet {
      */
     public void addSprite(Sprite sprite) {
 
-        LOG.debug("Registering sprite " + sprite.toString());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Registering sprite " + sprite.toString());
+        }
         sprites.put(sprite.getName(), sprite);
+
+        Rectangle bounds = new Rectangle(sprite.ox, sprite.oy, sprite.width, sprite.height);
+        Integer handle = namedHandles.get(sprite.getName());
+        if (handle == null) {
+            handle = newHandle(bounds);
+            namedHandles.put(sprite.getName(), handle);
+        } else {
+
+            // The sprite is redefined, its handle now designates the new bounds
+            boundsHandles.remove(getBounds(handle), handle);
+            setBounds(handle, bounds);
+            clearScaleCache();
+        }
+        boundsHandles.putIfAbsent(bounds, handle);
+        setTrim(handle, sprite);
+    }
+
+    /**
+     * Attributes a new handle.
+     * 
+     * @param bounds bounds of the sprite in the tileset
+     * @return the new handle
+     */
+    private int newHandle(Rectangle bounds) {
+
+        if (handleCount == handleX.length) {
+            int capacity = handleCount * 2;
+            handleX = Arrays.copyOf(handleX, capacity);
+            handleY = Arrays.copyOf(handleY, capacity);
+            handleWidth = Arrays.copyOf(handleWidth, capacity);
+            handleHeight = Arrays.copyOf(handleHeight, capacity);
+            handleTrimX = Arrays.copyOf(handleTrimX, capacity);
+            handleTrimY = Arrays.copyOf(handleTrimY, capacity);
+            handleTrimWidth = Arrays.copyOf(handleTrimWidth, capacity);
+            handleTrimHeight = Arrays.copyOf(handleTrimHeight, capacity);
+        }
+        setBounds(handleCount, bounds);
+        return handleCount++;
+    }
+
+    /**
+     * Sets the bounds of a sprite, not trimmed.
+     * 
+     * @param handle a sprite handle
+     * @param bounds bounds of the sprite in the tileset
+     */
+    private void setBounds(int handle, Rectangle bounds) {
+        handleX[handle] = bounds.x;
+        handleY[handle] = bounds.y;
+        handleWidth[handle] = bounds.width;
+        handleHeight[handle] = bounds.height;
+        handleTrimX[handle] = 0;
+        handleTrimY[handle] = 0;
+        handleTrimWidth[handle] = bounds.width;
+        handleTrimHeight[handle] = bounds.height;
+    }
+
+    /**
+     * @param handle a sprite handle
+     * @param sprite the sprite giving the trimmed part
+     */
+    private void setTrim(int handle, Sprite sprite) {
+        handleTrimX[handle] = sprite.trimX;
+        handleTrimY[handle] = sprite.trimY;
+        handleTrimWidth[handle] = sprite.trimWidth;
+        handleTrimHeight[handle] = sprite.trimHeight;
+    }
+
+    /**
+     * Trims all the registered sprites to the part of them that is not fully
+     * transparent, so that transparent borders are not rendered. The source
+     * image has to be a buffered image with an alpha channel, otherwise
+     * sprites are not trimmed. With a fractional zoom factor, the edges of a
+     * trimmed sprite may be rounded one pixel away from the untrimmed ones.
+     * 
+     * @return the number of trimmed sprites
+     */
+    public int trimSprites() {
+
+        if (!(source instanceof BufferedImage bufferedSource)
+                || !bufferedSource.getColorModel().hasAlpha()) {
+            LOG.warn("The source image has no alpha channel, sprites can not be trimmed");
+            return 0;
+        }
+
+        int trimmedCount = 0;
+        for (Sprite sprite : sprites.values()) {
+            Rectangle bounds = new Rectangle(sprite.ox, sprite.oy, sprite.width, sprite.height);
+            Rectangle opaqueBounds = ImageUtils.getOpaqueBounds(bufferedSource, bounds);
+            if (opaqueBounds.isEmpty()) {
+                sprite.setTrim(0, 0, 0, 0);
+            } else {
+                sprite.setTrim(opaqueBounds.x - sprite.ox, opaqueBounds.y - sprite.oy,
+                        opaqueBounds.width, opaqueBounds.height);
+            }
+            if (sprite.isTrimmed()) {
+                trimmedCount++;
+            }
+            setTrim(namedHandles.get(sprite.getName()), sprite);
+        }
+        trimmedFromSource = true;
+        clearScaleCache();
+
+        LOG.debug("Trimmed " + trimmedCount + " sprites out of " + sprites.size());
+        return trimmedCount;
+    }
+
+    /**
+     * @param handle a sprite handle
+     * @return bounds of the sprite in the tileset
+     */
+    private Rectangle getBounds(int handle) {
+        return new Rectangle(handleX[handle], handleY[handle], handleWidth[handle],
+                handleHeight[handle]);
+    }
+
+    /**
+     * Resolves the handle of a sprite, to render it quickly with
+     * {@link #putSprite(Graphics, ImageObserver, int, int, int)}.
+     * 
+     * @param spriteName the sprite name
+     * @return the sprite handle
+     * @throws SpriteRenderingException if there is no sprite with this name
+     */
+    public int getHandle(String spriteName) {
+        Integer handle = namedHandles.get(spriteName);
+        if (handle == null) {
+            throw new SpriteRenderingException(
+                    "There is no sprite named '" + spriteName + "' in this SpriteSet.");
+        }
+        return handle;
+    }
+
+    /**
+     * Resolves the handle of a sprite of an index, to render it quickly with
+     * {@link #putSprite(Graphics, ImageObserver, int, int, int)}. The sprite is
+     * given by its bounds in the index, so it needs not be registered.
+     * 
+     * @param index the index
+     * @param indexValue the sprite index value
+     * @return the sprite handle
+     * @throws SpriteRenderingException if the index has no sprite with this
+     *             value
+     */
+    public int getHandle(IndexedSpriteSet index, int indexValue) {
+        if (!index.hasSprite(indexValue)) {
+            throw new SpriteRenderingException("There is no sprite number " + indexValue
+                    + " in the index '" + index.getId() + "'.");
+        }
+        Rectangle bounds = new Rectangle(index.getX(indexValue), index.getY(indexValue),
+                index.getWidth(indexValue), index.getHeight(indexValue));
+        Integer handle = boundsHandles.get(bounds);
+        if (handle == null) {
+            handle = newHandle(bounds);
+            boundsHandles.put(bounds, handle);
+        }
+        return handle;
+    }
+
+    /** @return the number of attributed handles, handles range from 0 to this count excluded */
+    public int getHandleCount() {
+        return handleCount;
+    }
+
+    /**
+     * @param handle a valid sprite handle
+     * @return width of the sprite
+     */
+    int getWidth(int handle) {
+        return handleWidth[handle];
+    }
+
+    /**
+     * @param handle a valid sprite handle
+     * @return height of the sprite
+     */
+    int getHeight(int handle) {
+        return handleHeight[handle];
     }
 
     /**
@@ -108,13 +454,142 @@ public class SpriteSet {
     }
 
     /**
-     * Changes the source image.
+     * Changes the source image. The image is acquired from the shared image
+     * cache, and the previous one is released. Sprites trimmed by
+     * {@link #trimSprites()} are trimmed again to the new image.
      * 
      * @param sourceImageFileName Sprite file name
      * @throws PurpleException in case of problems during creation
      */
     public void setSourceImage(String sourceImageFileName) throws PurpleException {
-        source = ImageUtils.loadImageFromFile(sourceImageFileName);
+        Image newSource = ImageCache.getInstance().acquire(sourceImageFileName);
+        release();
+        source = newSource;
+        holdCachedSource(newSource);
+        prepareSource();
+        if (trimmedFromSource) {
+            trimSprites();
+        }
+    }
+
+    /**
+     * Holds a source image acquired from the shared image cache, until the
+     * sprite set is released or not reachable anymore.
+     * 
+     * @param image the acquired image
+     */
+    private void holdCachedSource(Image image) {
+        sourceRelease = new SourceRelease(image);
+        sourceCleanable = CLEANER.register(this, sourceRelease);
+    }
+
+    /**
+     * Releases the source image to the shared image cache, once the sprite set
+     * is not used anymore. Does nothing if the source image is not acquired
+     * from the cache. An unreachable sprite set releases its source image by
+     * itself, but later.
+     */
+    public void release() {
+        if (sourceCleanable != null) {
+            sourceCleanable.clean();
+            sourceCleanable = null;
+            sourceRelease = null;
+        }
+    }
+
+    /**
+     * Sets how the source image is held for rendering. Images read from files
+     * are often of types that are converted at each rendering, a compatible or
+     * volatile image avoids this conversion.
+     * 
+     * @param mode the source image mode
+     */
+    public void setSourceImageMode(SourceImageMode mode) {
+        this.sourceImageMode = mode;
+        prepareSource();
+    }
+
+    /** @return how the source image is held for rendering */
+    public SourceImageMode getSourceImageMode() {
+        return sourceImageMode;
+    }
+
+    /** Prepares the rendered source image, according to the source image mode. */
+    private void prepareSource() {
+
+        renderedSource = source;
+        if (sourceImageMode != SourceImageMode.AS_LOADED) {
+            if (source instanceof BufferedImage bufferedSource) {
+                renderedSource = ImageUtils.toCompatibleImage(bufferedSource);
+            } else {
+                LOG.warn("The source image is not a buffered image, it is rendered as loaded");
+            }
+        }
+
+        if (volatileSource != null) {
+            volatileSource.flush();
+            volatileSource = null;
+        }
+        clearScaleCache();
+    }
+
+    /**
+     * Gets the volatile copy of the source image for a canvas, creating or
+     * restoring it if needed.
+     * 
+     * @param canvas Graphic canvas where to do the rendering
+     * @return the volatile copy, or the rendered source if there can be none
+     */
+    private Image getVolatileSource(Graphics canvas) {
+
+        int width = renderedSource.getWidth(null);
+        int height = renderedSource.getHeight(null);
+        if (!(canvas instanceof Graphics2D g2d) || width <= 0 || height <= 0) {
+            return renderedSource;
+        }
+
+        GraphicsConfiguration configuration = g2d.getDeviceConfiguration();
+        int status = (volatileSource == null) ? VolatileImage.IMAGE_INCOMPATIBLE
+                : volatileSource.validate(configuration);
+        if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+            if (volatileSource != null) {
+                volatileSource.flush();
+            }
+            int transparency = (renderedSource instanceof BufferedImage bufferedSource)
+                    ? bufferedSource.getTransparency()
+                    : Transparency.TRANSLUCENT;
+            volatileSource = configuration.createCompatibleVolatileImage(width, height,
+                    transparency);
+        }
+        if (status != VolatileImage.IMAGE_OK) {
+            Graphics2D graphics = volatileSource.createGraphics();
+            graphics.setComposite(AlphaComposite.Src);
+            graphics.drawImage(renderedSource, 0, 0, null);
+            graphics.dispose();
+        }
+        return volatileSource;
+    }
+
+    /**
+     * Sets the memory budget of the cache of zoomed sprites.
+     * 
+     * @param memoryBudget memory budget in bytes, 0 to scale zoomed sprites at
+     *            each rendering
+     */
+    public void setScaleCacheBudget(long memoryBudget) {
+        scaleCache = (memoryBudget > 0) ? new SpriteScaleCache(memoryBudget) : null;
+    }
+
+    /** @return the cache of zoomed sprites, null if there is none */
+    public SpriteScaleCache getScaleCache() {
+        return scaleCache;
+    }
+
+    /** Clears the cache of zoomed sprites, if there is one. */
+    private void clearScaleCache() {
+        if (scaleCache != null) {
+            scaleCache.clear();
+        }
     }
 
     /** @return the image source or this sprite set */
@@ -150,16 +625,78 @@ public class SpriteSet {
      */
     public void putSprite(Graphics canvas, ImageObserver imageObserver, String spriteName, int x,
             int y, double localZoomFactor) {
-        Sprite spriteToRender = sprites.get(spriteName);
-        if (spriteToRender == null) {
+        putSprite(canvas, imageObserver, getHandle(spriteName), x, y, localZoomFactor);
+    }
+
+    /**
+     * Renders the sprite with the given handle, on given coordinates with the
+     * global zoom factor.
+     * 
+     * @param canvas Graphic canvas where to do the rendering
+     * @param imageObserver ImageObserver to notify once drawing has been done
+     * @param handle handle of the sprite to render
+     * @param x horizontal location
+     * @param y vertical location
+     */
+    public void putSprite(Graphics canvas, ImageObserver imageObserver, int handle, int x,
+            int y) {
+        putSprite(canvas, imageObserver, handle, x, y, zoomFactor);
+    }
+
+    /**
+     * Renders the sprite with the given handle, on given coordinates with a
+     * specific zoom factor.
+     * 
+     * @param canvas Graphic canvas where to do the rendering
+     * @param imageObserver ImageObserver to notify once drawing has been done
+     * @param handle handle of the sprite to render
+     * @param x horizontal location
+     * @param y vertical location
+     * @param localZoomFactor zoom factor to apply
+     */
+    public void putSprite(Graphics canvas, ImageObserver imageObserver, int handle, int x, int y,
+            double localZoomFactor) {
+        if (handle < 0 || handle >= handleCount) {
             throw new SpriteRenderingException(
-                    "There is no sprite named '" + spriteName + "' in this SpriteSet.");
+                    "There is no sprite with handle " + handle + " in this SpriteSet.");
+        }
+
+        // Only the trimmed part of the sprite is rendered
+        int trimX = handleTrimX[handle];
+        int trimY = handleTrimY[handle];
+        int width = handleTrimWidth[handle];
+        int height = handleTrimHeight[handle];
+        if (width == 0 || height == 0) {
+            return;
+        }
+        int ox = handleX[handle] + trimX;
+        int oy = handleY[handle] + trimY;
+        int x1 = (int) (x + trimX * localZoomFactor);
+        int y1 = (int) (y + trimY * localZoomFactor);
+
+        if (localZoomFactor != 1.0 && scaleCache != null && canvas instanceof Graphics2D g2d) {
+            BufferedImage scaled = scaleCache.get(g2d, renderedSource, handle, ox, oy, width,
+                    height, localZoomFactor);
+            if (scaled != null) {
+                canvas.drawImage(scaled, x1, y1, imageObserver);
+                return;
+            }
         }
 
-        canvas.drawImage(source, x, y, (int) (x + spriteToRender.getWidth() * localZoomFactor),
-                (int) (y + spriteToRender.getHeight() * localZoomFactor), spriteToRender.ox,
-                spriteToRender.oy, spriteToRender.ox + spriteToRender.getWidth(),
-                spriteToRender.oy + spriteToRender.getHeight(), imageObserver);
+        int x2 = (int) (x + (trimX + width) * localZoomFactor);
+        int y2 = (int) (y + (trimY + height) * localZoomFactor);
+        if (sourceImageMode == SourceImageMode.VOLATILE) {
+            canvas.drawImage(getVolatileSource(canvas), x1, y1, x2, y2, ox, oy, ox + width,
+                    oy + height, imageObserver);
+            if (volatileSource == null || !volatileSource.contentsLost()) {
+                return;
+            }
+
+            // The contents were lost while rendering, they are restored at the next rendering
+            LOG.debug("Volatile source image contents lost");
+        }
+        canvas.drawImage(renderedSource, x1, y1, x2, y2, ox, oy, ox + width, oy + height,
+                imageObserver);
     }
 
     /**
@@ -0,0 +1,227 @@
+package io.github.purpleloop.commons.swing.sprites.atlas;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.sprites.Sprite;
+import io.github.purpleloop.commons.swing.sprites.SpriteSet;
+import io.github.purpleloop.commons.swing.sprites.model.SpriteModel;
+
+/**
+ * Builds a sprite atlas from several sprite models.
+ * 
+ * <p>
+ * All the sprites registered by the models, from their grid and serial
+ * indexes as well as their single sprites, are packed into pages with the
+ * MaxRects algorithm. Sprites of a model sharing the same bounds are packed
+ * once. Trimmed sprites are packed without their transparent borders. In the
+ * atlas, sprites keep their names, optionally prefixed to avoid collisions
+ * between models, and are all single sprites.
+ * </p>
+ */
+public class AtlasBuilder {
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(AtlasBuilder.class);
+
+    /** Default size of a side of the pages. */
+    private static final int DEFAULT_PAGE_SIZE = 2048;
+
+    /**
+     * A region of a source image to pack, with the names of its sprites.
+     * 
+     * @param source the source image
+     * @param bounds bounds of the region in the source image, trimmed
+     * @param sprite the first sprite of the region, giving its size and trim
+     * @param names names of the sprites of the region, in the atlas
+     */
+    private record Region(Image source, Rectangle bounds, Sprite sprite, List<String> names) {
+    }
+
+    /** Regions to pack. */
+    private List<Region> regions = new ArrayList<>();
+
+    /** Names of the sprites to pack. */
+    private Set<String> names = new HashSet<>();
+
+    /** Maximum width of the pages. */
+    private int pageWidth = DEFAULT_PAGE_SIZE;
+
+    /** Maximum height of the pages. */
+    private int pageHeight = DEFAULT_PAGE_SIZE;
+
+    /** Empty space around each sprite, in pixels. */
+    private int padding = 1;
+
+    /**
+     * Sets the maximum size of the pages. Pages are cropped to the sprites
+     * they hold.
+     * 
+     * @param pageWidth maximum width of the pages
+     * @param pageHeight maximum height of the pages
+     */
+    public void setPageSize(int pageWidth, int pageHeight) {
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+    }
+
+    /**
+     * Sets the empty space around each sprite, avoiding bleeding between
+     * sprites when they are rendered with interpolation.
+     * 
+     * @param padding empty space around each sprite, in pixels
+     */
+    public void setPadding(int padding) {
+        this.padding = padding;
+    }
+
+    /**
+     * Adds the sprites of a model.
+     * 
+     * @param model the sprite model
+     * @throws PurpleException if a sprite name is already used
+     */
+    public void addModel(SpriteModel model) throws PurpleException {
+        addModel(model, "");
+    }
+
+    /**
+     * Adds the sprites of a model, with prefixed names.
+     * 
+     * @param model the sprite model
+     * @param prefix prefix of the sprite names in the atlas
+     * @throws PurpleException if a sprite name is already used
+     */
+    public void addModel(SpriteModel model, String prefix) throws PurpleException {
+
+        SpriteSet spriteSet = model.getSpriteSet();
+        List<String> spriteNames = new ArrayList<>(spriteSet.getSpritesNames());
+        Collections.sort(spriteNames);
+
+        Map<Rectangle, Region> modelRegions = new HashMap<>();
+        for (String spriteName : spriteNames) {
+            String name = prefix + spriteName;
+            if (!names.add(name)) {
+                throw new PurpleException("The sprite name '" + name + "' is already used.");
+            }
+
+            Sprite sprite = spriteSet.getSprite(spriteName);
+            Rectangle bounds = new Rectangle(sprite.getOx(), sprite.getOy(), sprite.getWidth(),
+                    sprite.getHeight());
+            Region region = modelRegions.get(bounds);
+            if (region == null) {
+                Rectangle trimmedBounds = new Rectangle(sprite.getOx() + sprite.getTrimX(),
+                        sprite.getOy() + sprite.getTrimY(), sprite.getTrimWidth(),
+                        sprite.getTrimHeight());
+                region = new Region(spriteSet.getSourceImage(), trimmedBounds, sprite,
+                        new ArrayList<>());
+                modelRegions.put(bounds, region);
+                regions.add(region);
+            }
+            region.names().add(name);
+        }
+    }
+
+    /**
+     * Packs the sprites.
+     * 
+     * @return the atlas
+     * @throws PurpleException if a sprite is larger than a page
+     */
+    public SpriteAtlas build() throws PurpleException {
+
+        // Large sprites are placed first, while there is room for them
+        List<Region> sortedRegions = new ArrayList<>(regions);
+        sortedRegions.sort(Comparator.comparingInt((Region region) -> region.bounds().height)
+                .thenComparingInt(region -> region.bounds().width).reversed());
+
+        List<MaxRectsPacker> packers = new ArrayList<>();
+        List<List<Region>> pageRegions = new ArrayList<>();
+        List<List<Rectangle>> pagePlacements = new ArrayList<>();
+        for (Region region : sortedRegions) {
+            int width = region.bounds().width + 2 * padding;
+            int height = region.bounds().height + 2 * padding;
+            if (width > pageWidth || height > pageHeight) {
+                throw new PurpleException("The sprite '" + region.names().get(0)
+                        + "' is larger than the atlas pages.");
+            }
+
+            Rectangle placement = null;
+            int page = 0;
+            while (placement == null) {
+                if (page == packers.size()) {
+                    packers.add(new MaxRectsPacker(pageWidth, pageHeight));
+                    pageRegions.add(new ArrayList<>());
+                    pagePlacements.add(new ArrayList<>());
+                }
+                placement = packers.get(page).insert(width, height);
+                page++;
+            }
+            pageRegions.get(page - 1).add(region);
+            pagePlacements.get(page - 1).add(placement);
+        }
+
+        List<SpriteSet> pages = new ArrayList<>();
+        for (int page = 0; page < packers.size(); page++) {
+            pages.add(renderPage(packers.get(page), pageRegions.get(page),
+                    pagePlacements.get(page)));
+        }
+        LOG.info("Packed " + names.size() + " sprites in " + pages.size() + " atlas pages");
+        return new SpriteAtlas(pages);
+    }
+
+    /**
+     * Copies the regions of a page into the page image.
+     * 
+     * @param packer the packer of the page
+     * @param pageRegions the regions of the page
+     * @param placements placements of the regions, with padding
+     * @return the sprite set of the page
+     */
+    private SpriteSet renderPage(MaxRectsPacker packer, List<Region> pageRegions,
+            List<Rectangle> placements) {
+
+        BufferedImage image = new BufferedImage(packer.getUsedWidth(), packer.getUsedHeight(),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        SpriteSet spriteSet = new SpriteSet(image);
+
+        for (int i = 0; i < pageRegions.size(); i++) {
+            Region region = pageRegions.get(i);
+            Rectangle bounds = region.bounds();
+            int x = placements.get(i).x + padding;
+            int y = placements.get(i).y + padding;
+            graphics.drawImage(region.source(), x, y, x + bounds.width, y + bounds.height,
+                    bounds.x, bounds.y, bounds.x + bounds.width, bounds.y + bounds.height, null);
+
+            // The origin of a trimmed sprite is before its trimmed part
+            Sprite sprite = region.sprite();
+            for (String name : region.names()) {
+                Sprite pageSprite = new Sprite(name, x - sprite.getTrimX(), y - sprite.getTrimY(),
+                        sprite.getWidth(), sprite.getHeight());
+                pageSprite.setTrim(sprite.getTrimX(), sprite.getTrimY(), bounds.width,
+                        bounds.height);
+                spriteSet.addSprite(pageSprite);
+            }
+        }
+        graphics.dispose();
+        return spriteSet;
+    }
+
+}
@@ -0,0 +1,134 @@
+package io.github.purpleloop.commons.swing.sprites.atlas;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs rectangles in a page with the MaxRects algorithm.
+ * 
+ * <p>
+ * The packer keeps the maximal free rectangles of the page. Each rectangle is
+ * placed in the free rectangle where it leaves the shortest side free (best
+ * short side fit), then the free rectangles it overlaps are split.
+ * </p>
+ */
+class MaxRectsPacker {
+
+    /** Maximal free rectangles of the page. */
+    private List<Rectangle> freeRectangles = new ArrayList<>();
+
+    /** Width of the used part of the page. */
+    private int usedWidth;
+
+    /** Height of the used part of the page. */
+    private int usedHeight;
+
+    /**
+     * Creates a packer for an empty page.
+     * 
+     * @param width width of the page
+     * @param height height of the page
+     */
+    MaxRectsPacker(int width, int height) {
+        freeRectangles.add(new Rectangle(0, 0, width, height));
+    }
+
+    /**
+     * Places a rectangle in the page.
+     * 
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     * @return the placed rectangle, null if it does not fit in the page
+     */
+    Rectangle insert(int width, int height) {
+
+        Rectangle best = null;
+        int bestShortSide = Integer.MAX_VALUE;
+        int bestLongSide = Integer.MAX_VALUE;
+        for (Rectangle free : freeRectangles) {
+            if (free.width >= width && free.height >= height) {
+                int leftWidth = free.width - width;
+                int leftHeight = free.height - height;
+                int shortSide = Math.min(leftWidth, leftHeight);
+                int longSide = Math.max(leftWidth, leftHeight);
+                if (shortSide < bestShortSide
+                        || (shortSide == bestShortSide && longSide < bestLongSide)) {
+                    best = new Rectangle(free.x, free.y, width, height);
+                    bestShortSide = shortSide;
+                    bestLongSide = longSide;
+                }
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+
+        split(best);
+        usedWidth = Math.max(usedWidth, best.x + best.width);
+        usedHeight = Math.max(usedHeight, best.y + best.height);
+        return best;
+    }
+
+    /**
+     * Splits the free rectangles overlapped by a placed rectangle, and removes
+     * the free rectangles contained in others.
+     * 
+     * @param placed the placed rectangle
+     */
+    private void split(Rectangle placed) {
+
+        List<Rectangle> splitRectangles = new ArrayList<>();
+        for (Rectangle free : freeRectangles) {
+            if (!free.intersects(placed)) {
+                splitRectangles.add(free);
+                continue;
+            }
+
+            // Free parts on each side of the placed rectangle
+            if (placed.x > free.x) {
+                splitRectangles.add(
+                        new Rectangle(free.x, free.y, placed.x - free.x, free.height));
+            }
+            if (placed.x + placed.width < free.x + free.width) {
+                splitRectangles.add(new Rectangle(placed.x + placed.width, free.y,
+                        free.x + free.width - placed.x - placed.width, free.height));
+            }
+            if (placed.y > free.y) {
+                splitRectangles.add(
+                        new Rectangle(free.x, free.y, free.width, placed.y - free.y));
+            }
+            if (placed.y + placed.height < free.y + free.height) {
+                splitRectangles.add(new Rectangle(free.x, placed.y + placed.height, free.width,
+                        free.y + free.height - placed.y - placed.height));
+            }
+        }
+
+        freeRectangles = new ArrayList<>();
+        for (int i = 0; i < splitRectangles.size(); i++) {
+            Rectangle rectangle = splitRectangles.get(i);
+            boolean contained = false;
+            for (int j = 0; j < splitRectangles.size() && !contained; j++) {
+                Rectangle other = splitRectangles.get(j);
+
+                // Of two equal rectangles, the first one is kept
+                contained = i != j && other.contains(rectangle)
+                        && (!rectangle.equals(other) || j < i);
+            }
+            if (!contained) {
+                freeRectangles.add(rectangle);
+            }
+        }
+    }
+
+    /** @return width of the used part of the page */
+    int getUsedWidth() {
+        return usedWidth;
+    }
+
+    /** @return height of the used part of the page */
+    int getUsedHeight() {
+        return usedHeight;
+    }
+
+}
@@ -0,0 +1,189 @@
+package io.github.purpleloop.commons.swing.sprites.atlas;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.image.ImageUtils;
+import io.github.purpleloop.commons.swing.image.ImageUtils.FileFormat;
+import io.github.purpleloop.commons.swing.sprites.Sprite;
+import io.github.purpleloop.commons.swing.sprites.SpriteSet;
+import io.github.purpleloop.commons.swing.sprites.model.SingleSprite;
+import io.github.purpleloop.commons.swing.sprites.model.SpriteModel;
+import io.github.purpleloop.commons.util.PathMode;
+import io.github.purpleloop.commons.xml.XMLTools;
+
+/**
+ * Sprites packed in a few large images, the pages of the atlas.
+ * 
+ * <p>
+ * Each page is a sprite set. An atlas is built by an {@link AtlasBuilder}, or
+ * loaded from a descriptor saved with {@link #save(File)}. Each page is saved
+ * as an image and a sprite model of single sprites, the descriptor lists the
+ * page models.
+ * </p>
+ */
+public class SpriteAtlas {
+
+    /** DOM-XML element name for the atlas descriptor. */
+    private static final String ATLAS_ELEMENT = "atlas";
+
+    /** DOM-XML element name for a page. */
+    private static final String PAGE_ELEMENT = "page";
+
+    /** DOM-XML attribute name for the path of the page model, relative to the descriptor. */
+    private static final String MODEL_ATTRIBUTE = "model";
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(SpriteAtlas.class);
+
+    /** Sprite sets of the pages. */
+    private List<SpriteSet> pages;
+
+    /** Page index of each sprite, by name. */
+    private Map<String, Integer> spritePages = new HashMap<>();
+
+    /**
+     * Creates an atlas.
+     * 
+     * @param pages sprite sets of the pages, with their sprites registered
+     */
+    SpriteAtlas(List<SpriteSet> pages) {
+        this.pages = pages;
+        for (int page = 0; page < pages.size(); page++) {
+            for (String spriteName : pages.get(page).getSpritesNames()) {
+                spritePages.put(spriteName, page);
+            }
+        }
+    }
+
+    /** @return the number of pages */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * @param page index of a page
+     * @return the sprite set of the page
+     */
+    public SpriteSet getPage(int page) {
+        return pages.get(page);
+    }
+
+    /** @return the sprite sets of the pages */
+    public List<SpriteSet> getPages() {
+        return Collections.unmodifiableList(pages);
+    }
+
+    /**
+     * @param spriteName name of a sprite
+     * @return the sprite set of the page holding the sprite, null if there is
+     *         no such sprite
+     */
+    public SpriteSet getSpriteSet(String spriteName) {
+        Integer page = spritePages.get(spriteName);
+        return (page == null) ? null : pages.get(page);
+    }
+
+    /** @return the number of sprites in the atlas */
+    public int getSpriteCount() {
+        return spritePages.size();
+    }
+
+    /**
+     * Saves the atlas. The pages are saved next to the descriptor, as
+     * <code>name-i.png</code> images and <code>name-i.xml</code> sprite models.
+     * 
+     * @param descriptorFile the descriptor file
+     * @throws PurpleException in case of problem
+     */
+    public void save(File descriptorFile) throws PurpleException {
+
+        File directory = descriptorFile.getAbsoluteFile().getParentFile();
+        String baseName = descriptorFile.getName().replaceFirst("\\.xml$", "");
+
+        Document document = XMLTools.createDocument();
+        Element atlasElement = document.createElement(ATLAS_ELEMENT);
+        document.appendChild(atlasElement);
+
+        for (int page = 0; page < pages.size(); page++) {
+            SpriteSet spriteSet = pages.get(page);
+            File imageFile = new File(directory, baseName + "-" + page + ".png");
+            File modelFile = new File(directory, baseName + "-" + page + ".xml");
+
+            ImageUtils.saveImageToFile((BufferedImage) spriteSet.getSourceImage(), imageFile,
+                    FileFormat.PNG);
+
+            SpriteModel pageModel = new SpriteModel(spriteSet, imageFile.getName(),
+                    PathMode.RELATIVE);
+            List<String> spriteNames = new ArrayList<>(spriteSet.getSpritesNames());
+            Collections.sort(spriteNames);
+            for (String spriteName : spriteNames) {
+                Sprite sprite = spriteSet.getSprite(spriteName);
+                SingleSprite singleSprite = pageModel.addSingleSprite(spriteName,
+                        new Rectangle2D.Double(sprite.getOx(), sprite.getOy(), sprite.getWidth(),
+                                sprite.getHeight()));
+                if (sprite.isTrimmed()) {
+                    singleSprite.setTrim(new Rectangle(sprite.getTrimX(), sprite.getTrimY(),
+                            sprite.getTrimWidth(), sprite.getTrimHeight()));
+                }
+            }
+            pageModel.saveToFile(modelFile);
+
+            Element pageElement = document.createElement(PAGE_ELEMENT);
+            pageElement.setAttribute(MODEL_ATTRIBUTE, modelFile.getName());
+            atlasElement.appendChild(pageElement);
+        }
+
+        LOG.info("Saving sprite atlas of " + pages.size() + " pages to "
+                + descriptorFile.getAbsolutePath());
+        XMLTools.writeXmlFile(document, descriptorFile, XMLTools.DEFAULT_UTF8_OUTPUT);
+    }
+
+    /**
+     * Loads a saved atlas.
+     * 
+     * @param descriptorFile the descriptor file
+     * @return the atlas
+     * @throws PurpleException in case of problem
+     */
+    public static SpriteAtlas load(File descriptorFile) throws PurpleException {
+
+        LOG.info("Loading sprite atlas from " + descriptorFile.getAbsolutePath());
+        File directory = descriptorFile.getAbsoluteFile().getParentFile();
+        Element atlasElement = XMLTools.getDocument(descriptorFile).getDocumentElement();
+
+        List<SpriteSet> pages = new ArrayList<>();
+        try {
+            for (Element pageElement : XMLTools.getChildElements(atlasElement, PAGE_ELEMENT)) {
+                File modelFile = new File(directory, pageElement.getAttribute(MODEL_ATTRIBUTE));
+                pages.add(new SpriteModel(modelFile.getAbsolutePath()).getSpriteSet());
+            }
+        } catch (PurpleException | RuntimeException e) {
+            pages.forEach(SpriteSet::release);
+            throw e;
+        }
+        return new SpriteAtlas(pages);
+    }
+
+    /**
+     * Releases the page images to the shared image cache, once the atlas is
+     * not used anymore.
+     */
+    public void release() {
+        pages.forEach(SpriteSet::release);
+    }
+
+}
@@ -37,6 +37,12 @@ public interface IndexedSpriteSet {
      */
     Optional<Integer> getSpriteNumberForPoint(Point point);
 
+    /**
+     * @param indexValue a sprite index value
+     * @return true if the index has a sprite with this index value
+     */
+    boolean hasSprite(int indexValue);
+
     /**
      * @param indexValue the sprite index value
      * @return abscissa of the upper left corner of the sprite with the given
@@ -235,6 +235,14 @@ public class SerialSpriteSetIndex implements IndexedSpriteSet {
 
     }
 
+    @Override
+    public boolean hasSprite(int indexSprite) {
+        if (indexSprite < 0 || indexSprite / SERIAL_OFFSET_IN_NAME >= series.size()) {
+            return false;
+        }
+        return indexSprite % SERIAL_OFFSET_IN_NAME < getSerieForSpriteIndex(indexSprite).getCount();
+    }
+
     @Override
     public int getX(int indexSprite) {
 
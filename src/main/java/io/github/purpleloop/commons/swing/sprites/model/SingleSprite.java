@@ -1,5 +1,6 @@
 package io.github.purpleloop.commons.swing.sprites.model;
 
+import java.awt.Rectangle;
 import java.awt.geom.Rectangle2D;
 
 import org.w3c.dom.Document;
@@ -7,6 +8,7 @@ import org.w3c.dom.Element;
 
 import io.github.purpleloop.commons.swing.sprites.Sprite;
 import io.github.purpleloop.commons.swing.sprites.SpriteSet;
+import io.github.purpleloop.commons.xml.XMLTools;
 
 /** Describes single sprite. */
 public class SingleSprite {
@@ -32,6 +34,18 @@ public class SingleSprite {
     /** DOM-XML attribute for sprite height. */
     private static final String HEIGHT_ATTRIBUTE = "height";   
 
+    /** DOM-XML attribute for the horizontal offset of the trimmed part. */
+    private static final String TRIM_X_ATTRIBUTE = "trimX";
+
+    /** DOM-XML attribute for the vertical offset of the trimmed part. */
+    private static final String TRIM_Y_ATTRIBUTE = "trimY";
+
+    /** DOM-XML attribute for the width of the trimmed part. */
+    private static final String TRIM_WIDTH_ATTRIBUTE = "trimWidth";
+
+    /** DOM-XML attribute for the height of the trimmed part. */
+    private static final String TRIM_HEIGHT_ATTRIBUTE = "trimHeight";
+
     /** The single sprite id. */
     private int id;
 
@@ -41,6 +55,9 @@ public class SingleSprite {
     /** The bounding rectangle of the sprite. */
     private Rectangle2D storage;
 
+    /** The trimmed part of the sprite, relative to the sprite, null if not trimmed. */
+    private Rectangle trim;
+
     /**
      * Constructor of a single sprite.
      * 
@@ -50,6 +67,19 @@ public class SingleSprite {
         this.storage = rectangle;
     }
 
+    /**
+     * Constructor of a named single sprite.
+     * 
+     * @param id the single sprite id
+     * @param name the single sprite name
+     * @param rectangle the bounding rectangle for the sprite
+     */
+    public SingleSprite(int id, String name, Rectangle2D rectangle) {
+        this.id = id;
+        this.name = name;
+        this.storage = rectangle;
+    }
+
     /**
      * Constructor of a single sprite.
      * 
@@ -67,6 +97,24 @@ public class SingleSprite {
         int h = Integer.parseInt(singleSpriteElement.getAttribute(HEIGHT_ATTRIBUTE));
 
         this.storage = new Rectangle2D.Double(x, y, w, h);
+
+        if (singleSpriteElement.hasAttribute(TRIM_WIDTH_ATTRIBUTE)) {
+            this.trim = new Rectangle(
+                    XMLTools.getIntegerAttributeValue(singleSpriteElement, TRIM_X_ATTRIBUTE, 0),
+                    XMLTools.getIntegerAttributeValue(singleSpriteElement, TRIM_Y_ATTRIBUTE, 0),
+                    XMLTools.getIntegerAttributeValue(singleSpriteElement,
+                            TRIM_WIDTH_ATTRIBUTE, w),
+                    XMLTools.getIntegerAttributeValue(singleSpriteElement,
+                            TRIM_HEIGHT_ATTRIBUTE, h));
+        }
+    }
+
+    /**
+     * @param trim the trimmed part of the sprite, relative to the sprite, null
+     *            if the sprite is not trimmed
+     */
+    public void setTrim(Rectangle trim) {
+        this.trim = trim;
     }
 
     /**
@@ -76,8 +124,12 @@ public class SingleSprite {
      */
     public void registerSprite(SpriteSet spriteSet) {
 
-        spriteSet.addSprite(new Sprite(name, (int) storage.getX(), (int) storage.getY(),
-                (int) storage.getWidth(), (int) storage.getHeight()));
+        Sprite sprite = new Sprite(name, (int) storage.getX(), (int) storage.getY(),
+                (int) storage.getWidth(), (int) storage.getHeight());
+        if (trim != null) {
+            sprite.setTrim(trim.x, trim.y, trim.width, trim.height);
+        }
+        spriteSet.addSprite(sprite);
     }
 
     /**
@@ -99,6 +151,13 @@ public class SingleSprite {
                 Integer.toString((int) storage.getWidth()));
         singleSpriteElement.setAttribute(HEIGHT_ATTRIBUTE,
                 Integer.toString((int) storage.getHeight()));
+        if (trim != null) {
+            singleSpriteElement.setAttribute(TRIM_X_ATTRIBUTE, Integer.toString(trim.x));
+            singleSpriteElement.setAttribute(TRIM_Y_ATTRIBUTE, Integer.toString(trim.y));
+            singleSpriteElement.setAttribute(TRIM_WIDTH_ATTRIBUTE, Integer.toString(trim.width));
+            singleSpriteElement.setAttribute(TRIM_HEIGHT_ATTRIBUTE,
+                    Integer.toString(trim.height));
+        }
 
         singleSpritesElement.appendChild(singleSpriteElement);
     }
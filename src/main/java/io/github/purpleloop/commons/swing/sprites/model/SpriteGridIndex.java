@@ -153,6 +153,11 @@ public class SpriteGridIndex implements IndexedSpriteSet {
         this.startPoint = startPoint;
     }
 
+    @Override
+    public boolean hasSprite(int indexValue) {
+        return indexValue >= 0 && indexValue < getSpritesCount();
+    }
+
     @Override
     public int getWidth(int indexValue) {
         return this.cellWidth;
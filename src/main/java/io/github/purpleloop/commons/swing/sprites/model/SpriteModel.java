@@ -10,7 +10,10 @@ import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Properties;
@@ -21,7 +24,9 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.sprites.SourceImageMode;
 import io.github.purpleloop.commons.swing.sprites.SpriteSet;
+import io.github.purpleloop.commons.swing.sprites.exception.SpriteRenderingException;
 import io.github.purpleloop.commons.util.PathMode;
 import io.github.purpleloop.commons.xml.XMLTools;
 
@@ -85,6 +90,9 @@ public class SpriteModel {
     /** Properties for sprite set use. */
     private Properties properties;
 
+    /** Sprite handles of the indexes, by index value, -1 when not resolved yet. */
+    private Map<IndexedSpriteSet, int[]> indexHandles = new IdentityHashMap<>();
+
     /**
      * Constructor of the sprite model.
      * 
@@ -118,6 +126,28 @@ public class SpriteModel {
 
     }
 
+    /**
+     * Creates a sprite model for a sprite set whose source image is already
+     * loaded, the image is not read again. The sprites of the set are not part
+     * of the model until they are added to it.
+     * 
+     * @param spriteSet the sprite set
+     * @param sourceImagePath path of the source image, used when saving the
+     *            model
+     * @param sourceImagePathMode the source image path mode
+     */
+    public SpriteModel(SpriteSet spriteSet, String sourceImagePath,
+            PathMode sourceImagePathMode) {
+
+        nextId = 0;
+        properties = new Properties();
+        indexes = new ArrayList<>();
+        singleSprites = new ArrayList<>();
+        this.spriteSet = spriteSet;
+        this.sourceImagePath = sourceImagePath;
+        this.sourceImagePathMode = sourceImagePathMode;
+    }
+
     /**
      * Get and increment the next id for elements of this model.
      * 
@@ -294,6 +324,7 @@ public class SpriteModel {
 
         LOG.info("Register all sprites");
         spriteSet.resetRegistry();
+        indexHandles.clear();
         for (IndexedSpriteSet indexToRegister : indexes) {
             indexToRegister.registerSprites(spriteSet);
         }
@@ -342,6 +373,7 @@ public class SpriteModel {
         }
 
         Element singleSpritesElement = document.createElement(SINGLE_SPRITES_ELEMENT);
+        spriteDescriptorElement.appendChild(singleSpritesElement);
         for (SingleSprite singleSprite : singleSprites) {
             singleSprite.saveToXml(document, singleSpritesElement);
         }
@@ -370,6 +402,18 @@ public class SpriteModel {
         spriteSet.setSourceImage(sourceImagePath);
     }
 
+    /**
+     * Changes how the source image is referenced when the model is saved,
+     * without loading the image again.
+     * 
+     * @param sourceImagePath the source image path
+     * @param sourceImagePathMode the source image path mode
+     */
+    public void setSourceImagePath(String sourceImagePath, PathMode sourceImagePathMode) {
+        this.sourceImagePath = sourceImagePath;
+        this.sourceImagePathMode = sourceImagePathMode;
+    }
+
     /**
      * @param key property key
      * @return property value
@@ -400,6 +444,21 @@ public class SpriteModel {
         singleSprites.add(new SingleSprite(rect));
     }
 
+    /**
+     * Adds a named single sprite to the model. Sprites have to be registered
+     * again to be rendered.
+     * 
+     * @param name the sprite name
+     * @param rect the bounds of the sprite in the source image
+     * @return the added single sprite
+     */
+    public SingleSprite addSingleSprite(String name, Rectangle2D rect) {
+        LOG.debug("Adding single sprite " + name + " bounded to " + rect);
+        SingleSprite singleSprite = new SingleSprite(getNextId(), name, rect);
+        singleSprites.add(singleSprite);
+        return singleSprite;
+    }
+
     /**
      * Removes a single sprite.
      * 
@@ -450,6 +509,19 @@ public class SpriteModel {
         this.spriteSet.putSprite(canvas, iob, spriteName, x, y);
     }
 
+    /**
+     * Put the sprite with the given handle at the given location.
+     * 
+     * @param canvas the graphics on which to paint
+     * @param iob the image observer
+     * @param handle the handle of the sprite to paint
+     * @param x abscissa
+     * @param y ordinate
+     */
+    public void putSprite(Graphics canvas, ImageObserver iob, int handle, int x, int y) {
+        this.spriteSet.putSprite(canvas, iob, handle, x, y);
+    }
+
     /**
      * Put the sprite for the requested index.
      * 
@@ -459,10 +531,56 @@ public class SpriteModel {
      * @param spriteNumber sprite number in the index
      * @param x abscissa
      * @param y ordinate
+     * @throws SpriteRenderingException if the index has no sprite with this
+     *             number
      */
     public void putSpriteForTime(Graphics canvas, ImageObserver iob, IndexedSpriteSet index,
             int spriteNumber, int x, int y) {
-        putSprite(canvas, iob, "sprite" + "." + index.getId() + "." + spriteNumber, x, y);
+        spriteSet.putSprite(canvas, iob, getHandle(index, spriteNumber), x, y);
+    }
+
+    /**
+     * Resolves the handle of a sprite of an index. Handles are kept by the
+     * model until the sprites are registered again.
+     * 
+     * @param index the index
+     * @param spriteNumber sprite number in the index
+     * @return the sprite handle, for {@link SpriteSet#putSprite(Graphics, ImageObserver, int,
+     *         int, int)}
+     * @throws SpriteRenderingException if the index has no sprite with this
+     *             number
+     */
+    public int getHandle(IndexedSpriteSet index, int spriteNumber) {
+
+        if (!index.hasSprite(spriteNumber)) {
+            throw new SpriteRenderingException("There is no sprite number " + spriteNumber
+                    + " in the index '" + index.getId() + "'.");
+        }
+
+        int[] handles = indexHandles.get(index);
+        if (handles == null || spriteNumber >= handles.length) {
+            int length = Math.max(spriteNumber + 1, handles == null ? 0 : handles.length * 2);
+            int[] grown = new int[length];
+            Arrays.fill(grown, -1);
+            if (handles != null) {
+                System.arraycopy(handles, 0, grown, 0, handles.length);
+            }
+            handles = grown;
+            indexHandles.put(index, handles);
+        }
+        if (handles[spriteNumber] < 0) {
+            handles[spriteNumber] = spriteSet.getHandle(index, spriteNumber);
+        }
+        return handles[spriteNumber];
+    }
+
+    /**
+     * Sets how the source image is held for rendering.
+     * 
+     * @param mode the source image mode
+     */
+    public void setSourceImageMode(SourceImageMode mode) {
+        spriteSet.setSourceImageMode(mode);
     }
 
     /** @return the sprite set */
@@ -470,4 +588,48 @@ public class SpriteModel {
         return spriteSet;
     }
 
+    /** @return the descriptor file, null if the model is made of a single image */
+    File getModelFile() {
+        return modelFile;
+    }
+
+    /**
+     * @return the source image file, with its path resolved
+     * @throws PurpleException in case of problem
+     */
+    File getSourceImageFile() throws PurpleException {
+        if (modelFile == null) {
+            return new File(sourceImagePath).getAbsoluteFile();
+        }
+        return new File(resolvePath(sourceImagePathMode, sourceImagePath, modelFile));
+    }
+
+    /**
+     * Replaces the content of this model by the content of a model loaded
+     * again from the same file. The sprite set is kept, with its sprites and
+     * source image replaced. Previously resolved handles become invalid.
+     * 
+     * @param loadedModel the loaded model, which must not be used anymore
+     */
+    void replaceWith(SpriteModel loadedModel) {
+        nextId = loadedModel.nextId;
+        sourceImagePath = loadedModel.sourceImagePath;
+        sourceImagePathMode = loadedModel.sourceImagePathMode;
+        indexes = loadedModel.indexes;
+        singleSprites = loadedModel.singleSprites;
+        properties = loadedModel.properties;
+        indexHandles.clear();
+        spriteSet.replaceWith(loadedModel.spriteSet);
+    }
+
+    /**
+     * Releases the source image to the shared image cache, once the model is
+     * not used anymore.
+     */
+    public void release() {
+        if (spriteSet != null) {
+            spriteSet.release();
+        }
+    }
+
 }
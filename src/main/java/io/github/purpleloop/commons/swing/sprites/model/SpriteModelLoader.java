@@ -0,0 +1,203 @@
+package io.github.purpleloop.commons.swing.sprites.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.image.ImageCache;
+
+/**
+ * Loads sprite models in background, several at a time.
+ * 
+ * <p>
+ * Each model is loaded by a task, parsing its descriptor and decoding its
+ * source image, so that loading many models takes about the time of the
+ * slowest ones. Source images are acquired from the shared
+ * {@link ImageCache}, so that an image shared by several models is decoded
+ * once, by the first task needing it, the other tasks waiting for it. The
+ * number of tasks running at the same time is bounded, to bound the memory
+ * used by the image decoders.
+ * </p>
+ */
+public class SpriteModelLoader {
+
+    /**
+     * Progress of the loader.
+     * 
+     * @param requested number of models requested
+     * @param loaded number of models loaded
+     * @param failed number of models which failed to load
+     */
+    public record Progress(int requested, int loaded, int failed) {
+
+        /** @return true if all the requested models are loaded or failed */
+        public boolean isDone() {
+            return loaded + failed == requested;
+        }
+    }
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(SpriteModelLoader.class);
+
+    /** Executor running the loading tasks, new virtual threads if null. */
+    private Executor executor;
+
+    /** Permits of the loading tasks, bounding the tasks running at the same time. */
+    private final Semaphore permits;
+
+    /** Listeners notified of the progress, on the event dispatch thread. */
+    private List<Consumer<Progress>> progressListeners = new CopyOnWriteArrayList<>();
+
+    /** Number of models requested. */
+    private int requested;
+
+    /** Number of models loaded. */
+    private int loaded;
+
+    /** Number of models which failed to load. */
+    private int failed;
+
+    /** Creates a loader running as many tasks at a time as there are processors. */
+    public SpriteModelLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a loader.
+     * 
+     * @param parallelism maximum number of models loaded at the same time
+     */
+    public SpriteModelLoader(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be positive: " + parallelism);
+        }
+        permits = new Semaphore(parallelism);
+    }
+
+    /** @param executor executor running the loading tasks, null for new virtual threads */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /** @param listener listener notified of the progress, on the event dispatch thread */
+    public void addProgressListener(Consumer<Progress> listener) {
+        progressListeners.add(listener);
+    }
+
+    /** @param listener listener to remove */
+    public void removeProgressListener(Consumer<Progress> listener) {
+        progressListeners.remove(listener);
+    }
+
+    /** @return the current progress of the loader */
+    public synchronized Progress getProgress() {
+        return new Progress(requested, loaded, failed);
+    }
+
+    /**
+     * Loads a sprite model in background.
+     * 
+     * @param fileName the file name of the model, as for
+     *            {@link SpriteModel#SpriteModel(String)}
+     * @return the future model, completed exceptionally with a
+     *         {@link PurpleException} in case of problem
+     */
+    public CompletableFuture<SpriteModel> load(String fileName) {
+
+        synchronized (this) {
+            requested++;
+        }
+        notifyProgress();
+
+        CompletableFuture<SpriteModel> model = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                complete(model, null, e);
+                return;
+            }
+            try {
+                complete(model, new SpriteModel(fileName), null);
+            } catch (PurpleException | RuntimeException e) {
+                LOG.error("Error while loading the sprite model " + fileName, e);
+                complete(model, null, e);
+            } finally {
+                permits.release();
+            }
+        };
+        if (executor == null) {
+            Thread.ofVirtual().name("sprite-model-loader").start(task);
+        } else {
+            executor.execute(task);
+        }
+        return model;
+    }
+
+    /**
+     * Loads sprite models in background.
+     * 
+     * @param fileNames the file names of the models
+     * @return the future models, in the order of the file names, completed
+     *         exceptionally if a model failed to load
+     */
+    public CompletableFuture<List<SpriteModel>> loadAll(Collection<String> fileNames) {
+
+        List<CompletableFuture<SpriteModel>> models = new ArrayList<>();
+        for (String fileName : fileNames) {
+            models.add(load(fileName));
+        }
+        return CompletableFuture.allOf(models.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> models.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Completes the future of a model and notifies the progress.
+     * 
+     * @param model the future model
+     * @param result the loaded model, null in case of problem
+     * @param error the problem, null if the model is loaded
+     */
+    private void complete(CompletableFuture<SpriteModel> model, SpriteModel result,
+            Throwable error) {
+
+        synchronized (this) {
+            if (error == null) {
+                loaded++;
+            } else {
+                failed++;
+            }
+        }
+        notifyProgress();
+        if (error == null) {
+            model.complete(result);
+        } else {
+            model.completeExceptionally(error);
+        }
+    }
+
+    /** Notifies the listeners of the current progress. */
+    private void notifyProgress() {
+        if (!progressListeners.isEmpty()) {
+            Progress progress = getProgress();
+            SwingUtilities.invokeLater(() -> {
+                for (Consumer<Progress> listener : progressListeners) {
+                    listener.accept(progress);
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,354 @@
+package io.github.purpleloop.commons.swing.sprites.model;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.image.ImageCache;
+
+/**
+ * Reloads sprite models when their files change, for a fast iteration on
+ * assets.
+ * 
+ * <p>
+ * The descriptor and the source image of the watched models are watched with
+ * a {@link WatchService}. Once the writes to a file have settled for the
+ * debounce delay, the model is reloaded in background: a changed descriptor
+ * is parsed again, a changed source image alone is decoded again. The new
+ * sprites and source image are then swapped into the model on the event
+ * dispatch thread, so that a rendering never sees a partly reloaded model,
+ * and the listeners are notified. With a new source image alone, the sprites
+ * trimmed to the previous image are trimmed again on the event dispatch
+ * thread. The sprite set of a model is kept, but the
+ * handles resolved before a reload must be resolved again.
+ * </p>
+ */
+public class SpriteModelWatcher implements AutoCloseable {
+
+    /** Default debounce delay, in milliseconds. */
+    private static final long DEFAULT_DEBOUNCE_DELAY = 200;
+
+    /** Class logger. */
+    private static final Log LOG = LogFactory.getLog(SpriteModelWatcher.class);
+
+    /** A watched model, with its pending changes. */
+    private static class WatchedModel {
+
+        /** The model. */
+        private final SpriteModel model;
+
+        /** The descriptor file, null if the model is made of a single image. */
+        private final Path descriptor;
+
+        /** The source image file. */
+        private Path image;
+
+        /** Has the descriptor changed since the last reload ? */
+        private boolean descriptorChanged;
+
+        /** Has the source image changed since the last reload ? */
+        private boolean imageChanged;
+
+        /** Time of the next reload, in nanoseconds, if a file has changed. */
+        private long reloadTime;
+
+        /**
+         * Creates a watched model.
+         * 
+         * @param model the model
+         * @param descriptor the descriptor file, null if there is none
+         * @param image the source image file
+         */
+        private WatchedModel(SpriteModel model, Path descriptor, Path image) {
+            this.model = model;
+            this.descriptor = descriptor;
+            this.image = image;
+        }
+
+        /** @return true if a file of the model has changed */
+        private boolean isChanged() {
+            return descriptorChanged || imageChanged;
+        }
+    }
+
+    /** The watch service. */
+    private final WatchService watchService;
+
+    /** The watched models. */
+    private List<WatchedModel> watchedModels = new ArrayList<>();
+
+    /** The watched directories. */
+    private Set<Path> directories = new HashSet<>();
+
+    /** Listeners notified of the reloaded models, on the event dispatch thread. */
+    private List<Consumer<SpriteModel>> reloadListeners = new CopyOnWriteArrayList<>();
+
+    /** Delay without writes before reloading a model, in milliseconds. */
+    private volatile long debounceDelay = DEFAULT_DEBOUNCE_DELAY;
+
+    /**
+     * Creates a watcher, watching in background until it is closed.
+     * 
+     * @throws PurpleException if the files can not be watched
+     */
+    public SpriteModelWatcher() throws PurpleException {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new PurpleException("Unable to watch the sprite model files.", e);
+        }
+        Thread.ofVirtual().name("sprite-model-watcher").start(this::run);
+    }
+
+    /** @param debounceDelay delay without writes before reloading a model, in milliseconds */
+    public void setDebounceDelay(long debounceDelay) {
+        this.debounceDelay = debounceDelay;
+    }
+
+    /** @param listener listener notified of the reloaded models, on the event dispatch thread */
+    public void addReloadListener(Consumer<SpriteModel> listener) {
+        reloadListeners.add(listener);
+    }
+
+    /** @param listener listener to remove */
+    public void removeReloadListener(Consumer<SpriteModel> listener) {
+        reloadListeners.remove(listener);
+    }
+
+    /**
+     * Watches the files of a model.
+     * 
+     * @param model the model
+     * @throws PurpleException if the files can not be watched
+     */
+    public void watch(SpriteModel model) throws PurpleException {
+
+        File modelFile = model.getModelFile();
+        Path descriptor = (modelFile == null) ? null
+                : modelFile.getAbsoluteFile().toPath().normalize();
+        Path image = model.getSourceImageFile().toPath().normalize();
+
+        synchronized (this) {
+            if (descriptor != null) {
+                watchDirectory(descriptor.getParent());
+            }
+            watchDirectory(image.getParent());
+            watchedModels.add(new WatchedModel(model, descriptor, image));
+        }
+    }
+
+    /**
+     * Stops watching the files of a model.
+     * 
+     * @param model the model
+     */
+    public synchronized void unwatch(SpriteModel model) {
+        watchedModels.removeIf(watchedModel -> watchedModel.model == model);
+    }
+
+    /**
+     * Watches a directory, if it is not yet.
+     * 
+     * @param directory the directory
+     * @throws PurpleException if the directory can not be watched
+     */
+    private void watchDirectory(Path directory) throws PurpleException {
+
+        if (directories.contains(directory)) {
+            return;
+        }
+        try {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            directories.add(directory);
+        } catch (IOException | ClosedWatchServiceException e) {
+            throw new PurpleException("Unable to watch the directory " + directory, e);
+        }
+    }
+
+    /** Watches the files and reloads the changed models, until the watcher is closed. */
+    private void run() {
+
+        try {
+            while (true) {
+                long waitTime = getWaitTime();
+                WatchKey key = (waitTime < 0) ? watchService.take()
+                        : watchService.poll(waitTime, TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    Path directory = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        fileChanged(event.kind() == StandardWatchEventKinds.OVERFLOW ? directory
+                                : directory.resolve((Path) event.context()), event.kind());
+                    }
+                    key.reset();
+                }
+                reloadChangedModels();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LOG.debug("The sprite model watcher is closed");
+        }
+    }
+
+    /** @return the time to wait for the next reload, in nanoseconds, -1 if there is none */
+    private synchronized long getWaitTime() {
+
+        long now = System.nanoTime();
+        long waitTime = -1;
+        for (WatchedModel watchedModel : watchedModels) {
+            if (watchedModel.isChanged()) {
+                long modelWaitTime = Math.max(0, watchedModel.reloadTime - now);
+                waitTime = (waitTime < 0) ? modelWaitTime : Math.min(waitTime, modelWaitTime);
+            }
+        }
+        return waitTime;
+    }
+
+    /**
+     * Records a change of a file, postponing the reload of its models.
+     * 
+     * @param file the changed file, or its directory if events were lost
+     * @param kind kind of the change
+     */
+    private synchronized void fileChanged(Path file, WatchEvent.Kind<?> kind) {
+
+        boolean overflow = kind == StandardWatchEventKinds.OVERFLOW;
+        long reloadTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceDelay);
+        for (WatchedModel watchedModel : watchedModels) {
+            boolean descriptorChanged = watchedModel.descriptor != null
+                    && (overflow ? watchedModel.descriptor.getParent().equals(file)
+                            : watchedModel.descriptor.equals(file));
+            boolean imageChanged = overflow ? watchedModel.image.getParent().equals(file)
+                    : watchedModel.image.equals(file);
+            if (descriptorChanged || imageChanged) {
+                watchedModel.descriptorChanged |= descriptorChanged;
+                watchedModel.imageChanged |= imageChanged;
+                watchedModel.reloadTime = reloadTime;
+            }
+        }
+    }
+
+    /** Reloads the models whose files have settled. */
+    private void reloadChangedModels() {
+
+        List<WatchedModel> modelsToReload = new ArrayList<>();
+        List<Boolean> descriptorChanges = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (WatchedModel watchedModel : watchedModels) {
+                if (watchedModel.isChanged() && watchedModel.reloadTime - now <= 0) {
+                    modelsToReload.add(watchedModel);
+                    descriptorChanges.add(watchedModel.descriptorChanged);
+                    watchedModel.descriptorChanged = false;
+                    watchedModel.imageChanged = false;
+                }
+            }
+        }
+
+        for (int i = 0; i < modelsToReload.size(); i++) {
+            try {
+                if (descriptorChanges.get(i)) {
+                    reloadDescriptor(modelsToReload.get(i));
+                } else {
+                    reloadImage(modelsToReload.get(i));
+                }
+            } catch (PurpleException | RuntimeException e) {
+                LOG.error("Error while reloading a sprite model", e);
+            }
+        }
+    }
+
+    /**
+     * Parses the descriptor of a model again, and swaps the new content into
+     * the model.
+     * 
+     * @param watchedModel the watched model
+     * @throws PurpleException in case of problem
+     */
+    private void reloadDescriptor(WatchedModel watchedModel) throws PurpleException {
+
+        LOG.info("Reloading the sprite model " + watchedModel.descriptor);
+        SpriteModel loadedModel = new SpriteModel(watchedModel.descriptor.toString());
+        Path image = loadedModel.getSourceImageFile().toPath().normalize();
+        synchronized (this) {
+            watchDirectory(image.getParent());
+            watchedModel.image = image;
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            watchedModel.model.replaceWith(loadedModel);
+            notifyReload(watchedModel.model);
+        });
+    }
+
+    /**
+     * Decodes the source image of a model again, and swaps it into the model,
+     * trimming again the sprites trimmed to the previous image.
+     * 
+     * @param watchedModel the watched model
+     * @throws PurpleException in case of problem
+     */
+    private void reloadImage(WatchedModel watchedModel) throws PurpleException {
+
+        String imagePath = watchedModel.image.toString();
+        LOG.info("Reloading the sprite source image " + imagePath);
+
+        // Decoded here, the image is then taken from the cache
+        ImageCache imageCache = ImageCache.getInstance();
+        BufferedImage image = imageCache.acquire(imagePath);
+
+        SwingUtilities.invokeLater(() -> {
+            try {
+                watchedModel.model.getSpriteSet().setSourceImage(imagePath);
+                notifyReload(watchedModel.model);
+            } catch (PurpleException e) {
+                LOG.error("Error while changing the sprite source image", e);
+            } finally {
+                imageCache.release(image);
+            }
+        });
+    }
+
+    /**
+     * Notifies the listeners of a reloaded model.
+     * 
+     * @param model the reloaded model
+     */
+    private void notifyReload(SpriteModel model) {
+        for (Consumer<SpriteModel> listener : reloadListeners) {
+            listener.accept(model);
+        }
+    }
+
+    /** Stops watching the files. */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOG.error("Error while closing the sprite model watcher", e);
+        }
+    }
+
+}
@@ -8,10 +8,11 @@ module io.github.purpleloop.commons.swing {
     exports io.github.purpleloop.commons.swing.graph.algorithm;
     exports io.github.purpleloop.commons.swing.graph.exception;
     exports io.github.purpleloop.commons.swing.sprites;
+    exports io.github.purpleloop.commons.swing.sprites.atlas;
     exports io.github.purpleloop.commons.swing.sprites.model;
     exports io.github.purpleloop.commons.swing.sprites.exception;
 
     requires transitive java.desktop;
     requires transitive io.github.purpleloop.commons;
     requires org.apache.commons.logging;
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,213 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/** Tests on concurrent graphs. */
+class ConcurrentGraphTest {
+
+    /** Number of producer threads. */
+    private static final int PRODUCERS = 4;
+
+    /** Number of nodes added by each producer. */
+    private static final int NODES_PER_PRODUCER = 500;
+
+    /**
+     * Snapshots and lists do not wait for a batch of another thread, the last
+     * published ones are returned.
+     * 
+     * @throws InterruptedException if the test is interrupted
+     * @throws ExecutionException if a thread failed
+     * @throws TimeoutException if threads do not end
+     */
+    @Test
+    void testReadersDoNotWaitForBatch()
+            throws InterruptedException, ExecutionException, TimeoutException {
+
+        ConcurrentGraph<Integer> g = new ConcurrentGraph<>();
+        g.addNode("a");
+        GraphSnapshot<Integer> published = g.snapshot();
+        List<Node<Integer>> publishedNodes = g.getNodes();
+
+        CountDownLatch inBatch = new CountDownLatch(1);
+        CountDownLatch checked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writer = executor.submit(() -> {
+                GraphBatch<Integer> batch = g.beginBatch();
+                try {
+                    g.addNode("b");
+                    inBatch.countDown();
+                    checked.await();
+                } finally {
+                    batch.commit();
+                }
+                return null;
+            });
+
+            assertTrue(inBatch.await(10, TimeUnit.SECONDS));
+            assertTrue(published == g.snapshot());
+            assertTrue(publishedNodes == g.getNodes());
+            checked.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+
+            assertEquals(2, g.snapshot().getNodes().size());
+            assertEquals(2, g.getNodes().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Stress test : producers add, link, move and remove nodes while a renderer
+     * paints snapshots of the graph.
+     * 
+     * @throws InterruptedException if the test is interrupted
+     * @throws ExecutionException if a thread failed
+     * @throws TimeoutException if threads do not end
+     */
+    @Test
+    void testConcurrentMutationsAndRendering()
+            throws InterruptedException, ExecutionException, TimeoutException {
+
+        ConcurrentGraph<Integer> g = new ConcurrentGraph<>();
+        AtomicInteger removedNodes = new AtomicInteger();
+        AtomicBoolean producing = new AtomicBoolean(true);
+        AtomicInteger renderedSnapshots = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS + 1);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                int producer = p;
+                producers.add(executor.submit(() -> {
+                    start.await();
+                    produce(g, producer, removedNodes);
+                    return null;
+                }));
+            }
+
+            Future<?> renderer = executor.submit(() -> {
+                start.await();
+                BufferedImage image = new BufferedImage(200, 200, BufferedImage.TYPE_INT_ARGB);
+                do {
+                    Graphics2D graphics = image.createGraphics();
+                    GraphSnapshot<Integer> snapshot = g.snapshot();
+                    checkConsistency(snapshot);
+                    snapshot.draw(graphics);
+                    graphics.dispose();
+
+                    // Lists of the graph can be browsed during changes
+                    for (Link<Integer> link : g.getLinks()) {
+                        link.getSource().xLoc();
+                    }
+                    renderedSnapshots.incrementAndGet();
+                } while (producing.get());
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> producer : producers) {
+                producer.get(60, TimeUnit.SECONDS);
+            }
+            producing.set(false);
+            renderer.get(60, TimeUnit.SECONDS);
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(renderedSnapshots.get() > 0);
+        assertEquals(PRODUCERS * NODES_PER_PRODUCER - removedNodes.get(), g.nodeCount());
+        checkConsistency(g.snapshot());
+
+        // Ids are unique
+        Set<Integer> ids = new HashSet<>();
+        for (Node<Integer> node : g.getNodes()) {
+            assertTrue(ids.add(node.getId()));
+        }
+    }
+
+    /**
+     * Adds, links, moves and removes nodes.
+     * 
+     * @param g the graph to modify
+     * @param producer producer number
+     * @param removedNodes counter of removed nodes
+     * @throws GraphException in case of error while linking nodes
+     */
+    private static void produce(ConcurrentGraph<Integer> g, int producer,
+            AtomicInteger removedNodes) throws GraphException {
+
+        List<Node<Integer>> ownNodes = new ArrayList<>();
+        for (int i = 0; i < NODES_PER_PRODUCER; i++) {
+
+            Node<Integer> node = g.addNode("P" + producer + "-" + i);
+            if (!ownNodes.isEmpty()) {
+                g.addLink(ownNodes.getLast(), node);
+            }
+            ownNodes.add(node);
+
+            // Nodes are always located on the diagonal
+            int location = (i * 7 + producer) % Graph.MAX_HEIGHT;
+            node.moveTo(location, location);
+
+            if (i % 25 == 24) {
+                g.removeNode(ownNodes.remove(ownNodes.size() - 2));
+                removedNodes.incrementAndGet();
+
+                try (GraphBatch<Integer> batch = g.beginBatch()) {
+                    for (Node<Integer> ownNode : ownNodes) {
+                        ownNode.moveTo(ownNode.xLoc() / 2, ownNode.yLoc() / 2);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a snapshot is consistent : links are between nodes of the
+     * snapshot, and locations are not torn.
+     * 
+     * @param snapshot the snapshot to check
+     */
+    private static void checkConsistency(GraphSnapshot<Integer> snapshot) {
+
+        Set<Node<Integer>> snapshotNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        snapshotNodes.addAll(snapshot.getNodes());
+
+        for (Node<Integer> node : snapshot.getNodes()) {
+            assertEquals(snapshot.getPositions().xLoc(node), snapshot.getPositions().yLoc(node),
+                    0.0);
+        }
+
+        for (Link<Integer> link : snapshot.getLinks()) {
+            assertTrue(snapshotNodes.contains(link.getSource()));
+            assertTrue(snapshotNodes.contains(link.getTarget()));
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests for the edge bundler. */
+class EdgeBundlerTest {
+
+    /** Number of nodes on each side. */
+    private static final int SIDE_NODES = 10;
+
+    /**
+     * @return a graph where each node on the left is linked to each node on
+     *         the right
+     */
+    private static Graph<Integer> bipartiteGraph() {
+
+        Graph<Integer> graph = new Graph<>();
+        for (int i = 0; i < SIDE_NODES; i++) {
+            graph.addNode("L" + i).moveTo(100, 100 + 50 * i);
+            graph.addNode("R" + i).moveTo(900, 100 + 50 * i);
+        }
+        for (int i = 0; i < SIDE_NODES; i++) {
+            for (int j = 0; j < SIDE_NODES; j++) {
+                graph.addLink("L" + i, "R" + j);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Bundles parallel links : the middles of the links get together, and
+     * bundled links share most of their segments.
+     */
+    @Test
+    void testBundle() {
+
+        Graph<Integer> graph = bipartiteGraph();
+        EdgeBundler<Integer> bundler = new EdgeBundler<>(graph);
+        bundler.setParallel(true);
+        EdgeBundles<Integer> bundles = bundler.bundle();
+
+        assertTrue(bundler.isUpToDate());
+        assertEquals(graph.getLinks().size(), bundles.getLinks().size());
+
+        double minMiddle = Double.MAX_VALUE;
+        double maxMiddle = 0;
+        for (int i = 0; i < bundles.getLinks().size(); i++) {
+            Link<Integer> link = bundles.getLinks().get(i);
+            double[] polyline = bundles.getPolyline(i);
+
+            // Ends do not move
+            assertEquals(link.getSource().yLoc(), polyline[1], 0.0);
+            assertEquals(link.getTarget().yLoc(), polyline[polyline.length - 1], 0.0);
+
+            int middle = polyline.length / 4 * 2;
+            minMiddle = Math.min(minMiddle, polyline[middle + 1]);
+            maxMiddle = Math.max(maxMiddle, polyline[middle + 1]);
+        }
+
+        // Middles of straight links would spread over 450 pixels
+        assertTrue(maxMiddle - minMiddle < 50);
+        assertTrue(bundles.getDistinctSegmentCount() * 2 < bundles.getSegmentCount());
+
+        BufferedImage image = new BufferedImage(1000, 700, BufferedImage.TYPE_INT_RGB);
+        bundles.draw(image.createGraphics());
+    }
+
+    /** Links that are not compatible stay straight. */
+    @Test
+    void testIncompatibleLinks() {
+
+        Graph<Integer> graph = new Graph<>();
+        graph.addNode("A").moveTo(100, 100);
+        graph.addNode("B").moveTo(500, 100);
+        graph.addNode("C").moveTo(300, 0);
+        graph.addNode("D").moveTo(300, 400);
+        graph.addLink("A", "B");
+        graph.addLink("C", "D");
+
+        EdgeBundles<Integer> bundles = new EdgeBundler<>(graph).bundle();
+        assertEquals(4, bundles.getPolyline(0).length);
+        assertEquals(4, bundles.getPolyline(1).length);
+        assertEquals(2, bundles.getDistinctSegmentCount());
+    }
+
+    /** Bundles are computed again when the graph changes. */
+    @Test
+    void testUpdate() {
+
+        Graph<Integer> graph = bipartiteGraph();
+        EdgeBundler<Integer> bundler = new EdgeBundler<>(graph);
+        bundler.setExecutor(Runnable::run);
+        assertFalse(bundler.isUpToDate());
+
+        assertTrue(bundler.update());
+        assertTrue(bundler.isUpToDate());
+        assertFalse(bundler.isComputing());
+        assertFalse(bundler.update());
+
+        graph.getNodeByLabel("L0").get().moveTo(150, 100);
+        assertFalse(bundler.isUpToDate());
+        assertTrue(bundler.update());
+        assertEquals(graph.getVersion(), bundler.getBundles().getVersion());
+    }
+
+}
@@ -0,0 +1,137 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests on graph objects equality and hashing. */
+class GraphObjectTest {
+
+    /** Id of the first node of the collision test. */
+    private static final int FIRST_ID = 7;
+
+    /**
+     * Reads a node with a given id, as when a graph is loaded.
+     * 
+     * @param g owner graph
+     * @param id the node id
+     * @param label the node label
+     * @return the node
+     * @throws IOException in case of problem
+     */
+    private static Node<Integer> readNode(Graph<Integer> g, int id, String label)
+            throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(id);
+            out.writeUTF(label);
+            out.writeDouble(0);
+            out.writeDouble(0);
+        }
+        return new Node<>(g, new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    /** Objects of graphs having the same id and object ids are not equal. */
+    @Test
+    void testEqualityAcrossGraphs() {
+
+        Graph<Integer> first = new Graph<>();
+        Graph<Integer> second = new Graph<>();
+        Node<Integer> firstNode = first.addNode("A");
+        Node<Integer> secondNode = second.addNode("A");
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(firstNode.getId(), secondNode.getId());
+        assertNotEquals(firstNode, secondNode);
+        assertNotEquals(secondNode, firstNode);
+
+        Set<Node<Integer>> nodes = new HashSet<>();
+        nodes.add(firstNode);
+        nodes.add(secondNode);
+        assertEquals(2, nodes.size());
+    }
+
+    /**
+     * Colliding hash codes do not make objects equal : nodes of distinct
+     * graphs are given ids compensating the identity hashes of their graphs.
+     * 
+     * @throws IOException in case of problem
+     */
+    @Test
+    void testHashCollisions() throws IOException {
+
+        Graph<Integer> first = new Graph<>();
+        int firstHash = System.identityHashCode(first);
+        List<Graph<Integer>> graphs = new ArrayList<>();
+        List<Node<Integer>> colliding = new ArrayList<>();
+        Set<Node<Integer>> nodes = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            Graph<Integer> g = (i == 0) ? first : new Graph<>();
+            int id = FIRST_ID + 31 * (firstHash - System.identityHashCode(g));
+            Node<Integer> node = readNode(g, id, "N" + i);
+            graphs.add(g);
+            colliding.add(node);
+            nodes.add(node);
+        }
+
+        assertEquals(50, nodes.size());
+        assertEquals(colliding.get(0).hashCode(), colliding.get(1).hashCode());
+        assertNotEquals(colliding.get(0), colliding.get(1));
+        for (Node<Integer> node : colliding) {
+            assertTrue(nodes.contains(node));
+        }
+
+        // Same owner and id, equal whatever the other fields
+        Node<Integer> copy = readNode(graphs.get(10), colliding.get(10).getId(), "Copy");
+        assertEquals(colliding.get(10), copy);
+        assertEquals(colliding.get(10).hashCode(), copy.hashCode());
+        assertTrue(nodes.contains(copy));
+
+        assertTrue(nodes.remove(copy));
+        assertFalse(nodes.contains(colliding.get(10)));
+        assertEquals(49, nodes.size());
+    }
+
+    /** Equality contract, and hash stability when objects change. */
+    @Test
+    void testEqualsContract() {
+
+        Graph<Integer> g = new Graph<>();
+        Node<Integer> a = g.addNode("A");
+        Node<Integer> b = g.addNode("B");
+        Link<Integer> link = g.addLink("A", "B");
+
+        assertEquals(a, a);
+        assertNotEquals(a, b);
+        assertNotEquals(a, link);
+        assertNotEquals(a, null);
+        assertNotEquals(a, "A");
+
+        Map<Node<Integer>, String> labels = new HashMap<>();
+        labels.put(a, "A");
+        int hash = a.hashCode();
+        a.setLabel("Z");
+        a.moveTo(10, 10);
+        a.setContents(3);
+
+        assertEquals(hash, a.hashCode());
+        assertEquals("A", labels.get(a));
+    }
+
+}
@@ -5,13 +5,19 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.github.purpleloop.commons.exception.PurpleException;
 import io.github.purpleloop.commons.swing.graph.exception.GraphException;
@@ -165,6 +171,447 @@ class GraphTest {
 
     }
 
+    /**
+     * Test the DOT and GraphML exports of a filtered subgraph.
+     * 
+     * @param directory temporary directory of the exported files
+     * @throws IOException in case of error while reading the files
+     * @throws PurpleException in case of error while exporting
+     */
+    @Test
+    void testExportFilteredSubgraph(@TempDir Path directory)
+            throws IOException, PurpleException {
+
+        Graph<Integer> g = simpleGraph();
+        Node<Integer> a = g.getNodeByLabel("A").get();
+        a.moveTo(10, 20);
+        a.setPinned(true);
+        a.setShape(Node.NodeShape.ELLIPSE);
+
+        GraphExporter<Integer> exporter = new GraphExporter<>(g);
+        exporter.setNodeFilter(node -> !node.hasLabel("D"));
+
+        Path dotPath = directory.resolve("TestGraph-export.dot");
+        exporter.exportTo(dotPath, GraphExporter.Format.DOT);
+        String dot = Files.readString(dotPath);
+
+        String aId = "N" + a.getId();
+        assertTrue(dot.startsWith("digraph G {"));
+        assertTrue(dot.contains(
+                aId + " [ label=\"A\", pos=\"10.0,-20.0!\", pin=true, shape=ellipse"));
+        assertFalse(dot.contains("label=\"D\""));
+        assertEquals(2, dot.split(" -> ", -1).length - 1);
+
+        Path graphMLPath = directory.resolve("TestGraph-export.graphml");
+        exporter.exportTo(graphMLPath, GraphExporter.Format.GRAPHML);
+        String graphML = Files.readString(graphMLPath);
+
+        assertEquals(3, graphML.split("<node ", -1).length - 1);
+        assertEquals(2, graphML.split("<edge ", -1).length - 1);
+        assertTrue(graphML.contains("<data key=\"pinned\">true</data>"));
+    }
+
+    /**
+     * Test the bulk import of an edge-list file.
+     * 
+     * @param directory temporary directory of the edge-list file
+     * @throws IOException in case of error while writing the file
+     * @throws PurpleException in case of error while importing
+     */
+    @Test
+    void testImportEdgeList(@TempDir Path directory) throws IOException, PurpleException {
+
+        Path edgeListPath = directory.resolve("TestGraph-edges.txt");
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("N").append(i).append("|N").append(i + 1).append('\n');
+        }
+        sb.append("not a link\n");
+        sb.append("C|E\n");
+        Files.writeString(edgeListPath, sb.toString());
+
+        Graph<Integer> g = simpleGraph();
+        EdgeListImporter<Integer> importer = new EdgeListImporter<>(g);
+
+        assertEquals(1001, importer.importFile(edgeListPath));
+
+        // Existing nodes are reused
+        assertEquals(4 + 1001 + 1, g.nodeCount());
+        assertEquals(3 + 1001, g.linkCount());
+        assertEquals(2, g.getOutgoingLinks(g.getNodeByLabel("C").get()).size());
+
+        Node<Integer> n500 = g.getNodeByLabel("N500").get();
+        assertEquals("N501", g.listSuccessors(n500).get(0).getLabel());
+    }
+
+    /**
+     * Test that changes made in a batch are notified once, coalesced.
+     * 
+     * @throws GraphException in case of error while linking nodes
+     */
+    @Test
+    void testBatchChangeEvent() throws GraphException {
+
+        Graph<Integer> g = simpleGraph();
+        Node<Integer> b = g.getNodeByLabel("B").get();
+        Node<Integer> d = g.getNodeByLabel("D").get();
+
+        List<GraphChangeEvent<Integer>> events = new ArrayList<>();
+        g.addGraphChangeListener(events::add);
+
+        try (GraphBatch<Integer> batch = g.beginBatch()) {
+            Node<Integer> e = g.addNode("E");
+            g.addLink(d, e);
+            Node<Integer> transientNode = g.addNode("F");
+            g.addLink(e, transientNode);
+            g.removeNode(transientNode);
+            b.moveTo(50, 60);
+            e.moveTo(70, 80);
+            g.removeNode(g.getNodeByLabel("C").get());
+
+            assertTrue(events.isEmpty());
+        }
+
+        assertEquals(1, events.size());
+        GraphChangeEvent<Integer> event = events.get(0);
+        assertEquals(1, event.getAddedNodes().size());
+        assertEquals("E", event.getAddedNodes().get(0).getLabel());
+        assertEquals(1, event.getRemovedNodes().size());
+        assertEquals(1, event.getMovedNodes().size());
+        assertEquals(b, event.getMovedNodes().get(0));
+        assertEquals(1, event.getAddedLinks().size());
+        assertEquals(2, event.getRemovedLinks().size());
+
+        // Index is up to date after the batch
+        assertEquals(4, g.nodeCount());
+        assertEquals(2, g.linkCount());
+        assertTrue(g.areLinked(d, g.getNodeByLabel("E").get()));
+        assertTrue(g.getIncomingLinks(d).isEmpty());
+
+        // Out of a batch, each change is notified
+        g.addNode("G");
+        assertEquals(2, events.size());
+    }
+
+    /** Test the label index after nodes relabeling. */
+    @Test
+    void testLabelIndex() {
+
+        Graph<Integer> g = simpleGraph();
+        Node<Integer> c = g.getNodeByLabel("C").get();
+        c.setLabel("Z");
+
+        assertFalse(g.getNodeByLabel("C").isPresent());
+        assertEquals(c, g.getNodeByLabel("Z").get());
+
+        // Links by label use the relabeled node
+        g.addLink("Z", "B");
+        assertEquals(4, g.nodeCount());
+        assertEquals(2, g.getOutgoingLinks(c).size());
+    }
+
+    /**
+     * Test undo and redo of edits with a graph history.
+     * 
+     * @throws GraphException in case of error while linking nodes
+     */
+    @Test
+    void testHistoryUndoRedo() throws GraphException {
+
+        Graph<Integer> g = simpleGraph();
+        GraphHistory<Integer> history = new GraphHistory<>(g);
+        Node<Integer> a = g.getNodeByLabel("A").get();
+        Node<Integer> c = g.getNodeByLabel("C").get();
+        Node<Integer> d = g.getNodeByLabel("D").get();
+        a.moveTo(10, 20);
+        GraphVersion<Integer> initial = history.getCurrentVersion();
+
+        history.checkpoint();
+        g.removeNode(c);
+        a.moveTo(30, 40);
+        a.setLabel("Z");
+        a.setPinned(true);
+        g.addLink(a, d).setLabel("AD");
+        assertEquals(3, g.nodeCount());
+        assertEquals(2, g.linkCount());
+
+        // The differences between versions only list changed objects
+        GraphChangeEvent<Integer> diff = initial.diff(history.getCurrentVersion());
+        assertEquals(List.of(c), diff.getRemovedNodes());
+        assertEquals(List.of(a), diff.getMovedNodes());
+        assertEquals(List.of(a), diff.getUpdatedNodes());
+        assertEquals(1, diff.getAddedLinks().size());
+        assertEquals(2, diff.getRemovedLinks().size());
+
+        assertTrue(history.undo());
+        assertEquals(4, g.nodeCount());
+        assertEquals(3, g.linkCount());
+        assertEquals("A", a.getLabel());
+        assertFalse(a.isPinned());
+        assertEquals(10, a.xLoc(), 0.0);
+        assertEquals(20, a.yLoc(), 0.0);
+        assertTrue(g.areLinked(c, d));
+        assertFalse(g.areLinked(a, d));
+        assertEquals(c, g.getNodeByLabel("C").get());
+        assertTrue(initial.diff(history.getCurrentVersion()).getRemovedNodes().isEmpty());
+
+        assertTrue(history.redo());
+        assertEquals(3, g.nodeCount());
+        assertEquals("Z", a.getLabel());
+        assertTrue(a.isPinned());
+        assertEquals(30, a.xLoc(), 0.0);
+        assertEquals("AD", g.getOutgoingLinks(a).stream()
+                .filter(link -> link.getTarget() == d).findFirst().get().getLabel());
+        assertFalse(history.canRedo());
+
+        // Versions are cheap to keep and to compare
+        for (int i = 0; i < 1000; i++) {
+            g.addNode("N" + i);
+        }
+        GraphVersion<Integer> large = history.getCurrentVersion();
+        g.getNodeByLabel("N500").get().moveRel(5, 5);
+        diff = large.diff(history.getCurrentVersion());
+        assertEquals(1, diff.getMovedNodes().size());
+        assertEquals(1003, history.getCurrentVersion().nodeCount());
+    }
+
+    /**
+     * Test a compact copy of a graph.
+     * 
+     * @param directory temporary directory of the exported file
+     * @throws GraphException in case of error while listing successors
+     * @throws IOException in case of error while reading the file
+     * @throws PurpleException in case of error while exporting
+     */
+    @Test
+    void testCompactGraph(@TempDir Path directory)
+            throws GraphException, IOException, PurpleException {
+
+        Graph<Integer> g = simpleGraph();
+        g.addLink("A", "B").setLabel("AB2");
+        Node<Integer> c = g.getNodeByLabel("C").get();
+        c.moveTo(30, 40);
+        c.setContents(3);
+
+        CompactGraph<Integer> compact = CompactGraph.fromGraph(g);
+        assertEquals(4, compact.nodeCount());
+        assertEquals(4, compact.linkCount());
+        assertTrue(compact.isOriented());
+
+        // Links are sorted by source then target, successors too
+        int a = 0;
+        assertEquals("A", compact.getLabel(a));
+        assertEquals(3, compact.outDegree(a));
+        assertEquals("[B, B, C]", compact.listSuccessors(compact.getNode(a)).toString());
+        assertEquals("AB2", compact.getLinkLabel(compact.firstOutgoingLink(a) + 1));
+
+        Node<Integer> compactC = compact.getNodeForObject(3).get();
+        assertEquals("C", compactC.getLabel());
+        assertEquals(30, compactC.xLoc(), 0.0);
+        assertEquals(40, compactC.yLoc(), 0.0);
+        assertTrue(compact.areLinked(compactC, compact.getNode(a)));
+        assertFalse(compact.areLinked(compactC, compact.getNode(1)));
+        assertFalse(compact.areLinked(c, compact.getNode(a)));
+
+        // Facades are kept, with their ids and locations
+        int compactCId = compactC.getId();
+        compactC = null;
+        System.gc();
+        assertEquals(compactCId, compact.getNode(2).getId());
+        assertTrue(compact.getNodes().get(2) == compact.getNode(2));
+        compact.getNode(2).moveTo(35, 45);
+        assertEquals(35, compact.getNode(2).xLoc(), 0.0);
+        assertEquals(4, compact.getLinks().size());
+        assertEquals("[A]", compact.getStartNodes().toString());
+        assertEquals("[B, D]", compact.getEndNodes().toString());
+
+        // Exported as a graph
+        Path dotPath = directory.resolve("TestCompactGraph.dot");
+        compact.writeDotGraph(dotPath.toString());
+        String dot = Files.readString(dotPath);
+        assertTrue(dot.contains("pos=\"35.0,-45.0\""));
+        assertTrue(dot.contains("label=\"AB2\""));
+        assertEquals(4, dot.split(" -> ", -1).length - 1);
+
+        try {
+            compact.addLink("A", "D");
+            fail("A compact graph is read only");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(4, compact.linkCount());
+        }
+    }
+
+    /**
+     * Tests the focus view : the neighborhood is located apart, nodes keep
+     * their locations.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testFocusView() throws GraphException {
+
+        Graph<Integer> g = simpleGraph();
+        g.addLink("D", "A");
+        Node<Integer> a = g.getNodeByLabel("A").get();
+        Node<Integer> d = g.getNodeByLabel("D").get();
+        a.moveTo(10, 20);
+        d.moveTo(30, 40);
+        long version = g.getVersion();
+
+        FocusView<Integer> view = g.focusView(a, 1);
+        assertEquals("[A, D, B, C]", view.getNodes().toString());
+        assertEquals(3, view.getLinks().size());
+        assertEquals(400, view.xLoc(a), 0.0);
+        assertTrue(view.xLoc(d) != d.xLoc());
+
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        g.drawWithFocus(image.createGraphics(), a, 1);
+        assertEquals(version, g.getVersion());
+        assertEquals(10, a.xLoc(), 0.0);
+        assertEquals(30, d.xLoc(), 0.0);
+
+        // Selection at the transient location
+        assertTrue(view.select((int) view.xLoc(d), (int) view.yLoc(d)) == d);
+        assertTrue(d.isSelected());
+
+        // Unoriented neighborhoods, by distance
+        g.setOriented(false);
+        Node<Integer> b = g.getNodeByLabel("B").get();
+        assertEquals("[B, A]", g.focusView(b, 1).getNodes().toString());
+        FocusView<Integer> wider = g.focusView(b, 2);
+        assertEquals("[B, A, C, D]", wider.getNodes().toString());
+        assertTrue(wider.isUpToDate());
+        g.addLink("B", "E");
+        assertFalse(wider.isUpToDate());
+    }
+
+    /**
+     * Test the community view : collapsed communities are drawn as super-nodes
+     * with aggregated links, and expand on demand.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testCommunityView() throws GraphException {
+
+        Graph<Integer> g = simpleGraph();
+        g.addLink("D", "E");
+        Node<Integer> a = g.getNodeByLabel("A").get();
+        Node<Integer> b = g.getNodeByLabel("B").get();
+        Node<Integer> c = g.getNodeByLabel("C").get();
+        Node<Integer> d = g.getNodeByLabel("D").get();
+        a.moveTo(10, 10);
+        b.moveTo(30, 10);
+        c.moveTo(20, 40);
+
+        CommunityView<Integer> view = new CommunityView<>(g,
+                List.of(List.of(a, b, c), List.of(d)));
+
+        // E is in its own community, single nodes are always expanded
+        assertEquals(3, view.getCommunityCount());
+        assertEquals(2, view.getCommunity(g.getNodeByLabel("E").get()));
+        assertEquals(3, view.getVisibleNodeCount());
+        assertEquals(20, view.xLoc(0), 0.0);
+        assertEquals(0, view.communityAt(20, 20));
+        assertEquals(-1, view.communityAt(300, 300));
+
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        view.draw(image.createGraphics());
+
+        view.toggle(0);
+        assertTrue(view.isExpanded(0));
+        assertEquals(5, view.getVisibleNodeCount());
+        assertEquals(-1, view.communityAt(20, 20));
+        view.draw(image.createGraphics());
+
+        // Centers follow the nodes
+        a.moveTo(40, 10);
+        assertEquals(30, view.xLoc(0), 0.0);
+
+        // Added nodes are put in their own community, removed nodes leave theirs
+        view.toggle(0);
+        Node<Integer> f = g.addNode("F");
+        g.addLink(f, a);
+        g.removeNode(c);
+        assertEquals(4, view.getCommunityCount());
+        assertEquals(3, view.getCommunity(f));
+        assertEquals(-1, view.getCommunity(c));
+        assertEquals(35, view.xLoc(0), 0.0);
+        view.draw(image.createGraphics());
+        view.toggle(0);
+        view.draw(image.createGraphics());
+    }
+
+    /**
+     * Test the label placement : overlapping labels are hidden, and only
+     * labels around moved nodes are placed again.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testLabelPlacement() throws GraphException {
+
+        Graph<Integer> g = new Graph<>();
+        Node<Integer> a = g.addNode("A");
+        Node<Integer> b = g.addNode("B");
+        Node<Integer> c = g.addNode("C");
+        Node<Integer> d = g.addNode("D");
+        a.moveTo(100, 100);
+        b.moveTo(104, 102);
+        c.moveTo(500, 500);
+        d.moveTo(800, 100);
+        g.addLink(a, c);
+        g.addLink(b, c);
+
+        g.setLabelPlacement(true);
+        LabelPlacer<Integer> placer = g.getLabelPlacer();
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        g.draw(image.createGraphics());
+
+        assertEquals(6, placer.getLabelCount());
+        assertEquals(6, placer.getReplacedCount());
+        assertTrue(placer.isShown(c));
+        assertTrue(placer.isShown(a) != placer.isShown(b));
+
+        // Labels are hidden only while the graph is rendered
+        assertFalse(placer.hidesLabel(placer.isShown(a) ? b : a));
+
+        // Close links labels are moved along the links
+        for (Link<Integer> link : g.getLinks()) {
+            assertTrue(placer.isShown(link));
+        }
+
+        // Unchanged graph, nothing to place
+        g.draw(image.createGraphics());
+        assertEquals(0, placer.getReplacedCount());
+
+        // Only the label of the moved node is placed again
+        d.moveTo(900, 200);
+        g.draw(image.createGraphics());
+        assertEquals(1, placer.getReplacedCount());
+
+        b.moveTo(300, 100);
+        g.draw(image.createGraphics());
+        assertTrue(placer.isShown(a));
+        assertTrue(placer.isShown(b));
+        assertEquals(6, placer.getShownCount());
+
+        // Labels of removed objects are forgotten, leaving their place
+        b.moveTo(104, 102);
+        g.draw(image.createGraphics());
+        Node<Integer> shown = placer.isShown(a) ? a : b;
+        Node<Integer> hidden = (shown == a) ? b : a;
+        assertFalse(placer.isShown(hidden));
+        g.removeNode(shown);
+        g.draw(image.createGraphics());
+        assertEquals(4, placer.getLabelCount());
+        assertTrue(placer.isShown(hidden));
+
+        g.setLabelPlacement(false);
+        assertTrue(g.getLabelPlacer() == null);
+    }
+
     /** @return a simple graph of integers. */
     private static Graph<Integer> simpleGraph() {
         Graph<Integer> g = new Graph<>();
@@ -0,0 +1,99 @@
+package io.github.purpleloop.commons.swing.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests for the layout animator. */
+class LayoutAnimatorTest {
+
+    /**
+     * Runs a layout to its end : the last frame has the final locations.
+     * 
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void testRun() throws InterruptedException {
+
+        Graph<Integer> graph = new Graph<>();
+        Node<Integer> a = graph.addNode("A");
+        Node<Integer> b = graph.addNode("B");
+        a.moveTo(10, 10);
+        b.moveTo(10, 100);
+
+        AtomicInteger changes = new AtomicInteger();
+        graph.addGraphChangeListener(event -> changes.incrementAndGet());
+
+        LayoutAnimator<Integer> animator = new LayoutAnimator<>(graph, () -> {
+            a.moveRel(1, 0);
+            b.moveRel(2, 0);
+        });
+        animator.setMaxIterations(100);
+        assertTrue(animator.start());
+        assertTrue(animator.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertFalse(animator.isRunning());
+        assertEquals(100, animator.getIterations());
+        assertEquals(110, a.xLoc(), 0.0);
+        assertEquals(210, b.xLoc(), 0.0);
+
+        // One change event by iteration
+        assertEquals(100, changes.get());
+
+        NodePositions<Integer> positions = animator.getPositions();
+        assertEquals(110, positions.xLoc(a), 0.0);
+        assertEquals(210, positions.xLoc(b), 0.0);
+
+        // The interpolation ends on the last frame
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(TimeUnit.SECONDS.toNanos(2)
+                / animator.getFrameRate()));
+        assertFalse(animator.isAnimating());
+        assertEquals(210, animator.getLocator().xLoc(b), 0.0);
+    }
+
+    /**
+     * Pauses, resumes and cancels a layout.
+     * 
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void testPauseAndCancel() throws InterruptedException {
+
+        Graph<Integer> graph = new Graph<>();
+        Node<Integer> a = graph.addNode("A");
+        LayoutAnimator<Integer> animator = new LayoutAnimator<>(graph, () -> {
+            a.moveRel(1, 0);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        animator.setMaxIterations(Integer.MAX_VALUE);
+        animator.start();
+        assertFalse(animator.start());
+
+        Thread.sleep(50);
+        animator.pause();
+        Thread.sleep(20);
+        int paused = animator.getIterations();
+        Thread.sleep(50);
+        assertTrue(animator.isRunning());
+        assertEquals(paused, animator.getIterations());
+
+        animator.resume();
+        Thread.sleep(50);
+        assertTrue(animator.getIterations() > paused);
+
+        animator.cancel();
+        assertTrue(animator.awaitTermination(10, TimeUnit.SECONDS));
+        assertFalse(animator.isRunning());
+        assertEquals(a.xLoc(), animator.getPositions().xLoc(a), 0.0);
+    }
+
+}
@@ -0,0 +1,137 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.purpleloop.commons.swing.graph.Graph;
+import io.github.purpleloop.commons.swing.graph.Node;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/** Tests for the community detector. */
+class CommunityDetectorTest {
+
+    /** Number of cliques in the ring. */
+    private static final int CLIQUES = 8;
+
+    /** Number of nodes of each clique. */
+    private static final int CLIQUE_SIZE = 5;
+
+    /**
+     * Builds a ring of cliques, each clique linked to the next one by a
+     * single link.
+     * 
+     * @return the graph
+     * @throws GraphException in case of graph errors
+     */
+    private static Graph<Integer> ringOfCliques() throws GraphException {
+
+        Graph<Integer> graph = new Graph<>();
+        for (int c = 0; c < CLIQUES; c++) {
+            for (int i = 0; i < CLIQUE_SIZE; i++) {
+                graph.addNode(c + "-" + i);
+            }
+        }
+        for (int c = 0; c < CLIQUES; c++) {
+            for (int i = 0; i < CLIQUE_SIZE; i++) {
+                for (int j = i + 1; j < CLIQUE_SIZE; j++) {
+                    graph.addLink(c + "-" + i, c + "-" + j);
+                }
+            }
+            graph.addLink(c + "-0", ((c + 1) % CLIQUES) + "-1");
+        }
+        return graph;
+    }
+
+    /**
+     * Checks that the nodes of each clique are in the same community.
+     * 
+     * @param graph the ring of cliques
+     * @param communities the found communities
+     */
+    private static void assertCliquesGrouped(Graph<Integer> graph,
+            Communities<Integer> communities) {
+
+        for (int c = 0; c < CLIQUES; c++) {
+            int community = communities.getCommunity(graph.getNodeByLabel(c + "-0").get());
+            for (int i = 1; i < CLIQUE_SIZE; i++) {
+                Node<Integer> node = graph.getNodeByLabel(c + "-" + i).get();
+                assertEquals(community, communities.getCommunity(node));
+            }
+        }
+        assertTrue(communities.getModularity() > 0.5);
+    }
+
+    /**
+     * Checks that each clique is a community.
+     * 
+     * @param graph the ring of cliques
+     * @param communities the found communities
+     */
+    private static void assertCliques(Graph<Integer> graph, Communities<Integer> communities) {
+
+        assertCliquesGrouped(graph, communities);
+        assertEquals(CLIQUES, communities.count());
+        assertTrue(communities.getModularity() > 0.6);
+    }
+
+    /**
+     * Finds the cliques with the Louvain method, sequential and parallel.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testLouvain() throws GraphException {
+
+        Graph<Integer> graph = ringOfCliques();
+        CommunityDetector<Integer> detector = new CommunityDetector<>(graph);
+        detector.setSeed(1);
+        assertCliques(graph, detector.louvain());
+
+        detector.setParallel(true);
+        assertCliques(graph, detector.louvain());
+    }
+
+    /**
+     * Finds the cliques by label propagation, sequential and parallel. Label
+     * propagation may merge neighbor cliques, but never splits a clique.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testLabelPropagation() throws GraphException {
+
+        Graph<Integer> graph = ringOfCliques();
+        CommunityDetector<Integer> detector = new CommunityDetector<>(graph);
+        detector.setSeed(1);
+        assertCliquesGrouped(graph, detector.labelPropagation());
+
+        detector.setParallel(true);
+        assertCliquesGrouped(graph, detector.labelPropagation());
+    }
+
+    /**
+     * Isolated nodes are communities on their own.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testIsolatedNodes() throws GraphException {
+
+        Graph<Integer> graph = new Graph<>();
+        graph.addNode("A");
+        graph.addNode("B");
+        graph.addNode("C");
+        graph.addLink("A", "B");
+
+        Communities<Integer> communities = new CommunityDetector<>(graph).louvain();
+        assertEquals(2, communities.count());
+        assertEquals(communities.getCommunity(graph.getNodeByLabel("A").get()),
+                communities.getCommunity(graph.getNodeByLabel("B").get()));
+        assertNotEquals(communities.getCommunity(graph.getNodeByLabel("A").get()),
+                communities.getCommunity(graph.getNodeByLabel("C").get()));
+    }
+
+}
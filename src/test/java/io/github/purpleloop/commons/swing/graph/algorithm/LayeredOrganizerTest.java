@@ -0,0 +1,143 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.purpleloop.commons.swing.graph.Graph;
+import io.github.purpleloop.commons.swing.graph.Link;
+import io.github.purpleloop.commons.swing.graph.Node;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/** Tests for the layered organizer. */
+class LayeredOrganizerTest {
+
+    /**
+     * Crossings are removed, and links go from left to right.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testCrossingReduction() throws GraphException {
+
+        Graph<Integer> graph = new Graph<>();
+        graph.addNode("A");
+        graph.addNode("B");
+        graph.addNode("C");
+        graph.addNode("D");
+        graph.addLink("A", "D");
+        graph.addLink("B", "C");
+        graph.addLink("D", "E");
+        graph.addLink("A", "E");
+
+        LayeredOrganizer<Integer> organizer = new LayeredOrganizer<>();
+        organizer.setGraph(graph);
+        organizer.process();
+
+        assertEquals(3, organizer.getLayerCount());
+        assertEquals(0, organizer.getCrossings());
+        assertEquals(0, organizer.getReversedLinks());
+        checkLeftToRight(graph);
+
+        Node<Integer> a = graph.getNodeByLabel("A").get();
+        Node<Integer> b = graph.getNodeByLabel("B").get();
+        Node<Integer> c = graph.getNodeByLabel("C").get();
+        Node<Integer> d = graph.getNodeByLabel("D").get();
+        assertEquals(a.xLoc(), b.xLoc(), 0.0);
+        assertEquals(c.xLoc(), d.xLoc(), 0.0);
+        assertEquals(a.yLoc() < b.yLoc(), d.yLoc() < c.yLoc());
+    }
+
+    /**
+     * Cycles are broken by reversing links.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testCycles() throws GraphException {
+
+        Graph<Integer> graph = new Graph<>();
+        graph.addLink("A", "B");
+        graph.addLink("B", "C");
+        graph.addLink("C", "A");
+        graph.addLink("C", "D");
+        graph.addLink("D", "D");
+
+        LayeredOrganizer<Integer> organizer = new LayeredOrganizer<>();
+        organizer.setGraph(graph);
+        organizer.process();
+
+        assertEquals(1, organizer.getReversedLinks());
+        assertEquals(4, organizer.getLayerCount());
+
+        Set<Double> abscissas = new HashSet<>();
+        for (Node<Integer> node : graph.getNodes()) {
+            abscissas.add(node.xLoc());
+        }
+        assertEquals(4, abscissas.size());
+    }
+
+    /**
+     * Organizes a large random acyclic graph, sequentially and in parallel.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testLargeGraph() throws GraphException {
+
+        Graph<Integer> graph = new Graph<>();
+        Random random = new Random(5);
+        List<Node<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            nodes.add(graph.addNode("N" + i));
+        }
+        for (int i = 1; i < nodes.size(); i++) {
+            int links = 1 + random.nextInt(2);
+            for (int l = 0; l < links; l++) {
+                int source = Math.max(0, i - 1 - random.nextInt(50));
+                graph.addLink(nodes.get(source), nodes.get(i));
+            }
+        }
+
+        LayeredOrganizer<Integer> organizer = new LayeredOrganizer<>();
+        organizer.setGraph(graph);
+        organizer.setSweeps(0);
+        organizer.process();
+        long initialCrossings = organizer.getCrossings();
+
+        organizer.setSweeps(1);
+        organizer.process();
+        assertTrue(organizer.getCrossings() < initialCrossings);
+        assertEquals(0, organizer.getReversedLinks());
+
+        // Layers reordered in parallel do not depend on the thread scheduling
+        organizer.setParallel(true);
+        organizer.setSweeps(4);
+        organizer.process();
+        long parallelCrossings = organizer.getCrossings();
+        checkLeftToRight(graph);
+        for (int run = 0; run < 3; run++) {
+            organizer.process();
+            assertEquals(parallelCrossings, organizer.getCrossings());
+        }
+    }
+
+    /**
+     * Checks that all links of an acyclic graph go from left to right.
+     * 
+     * @param graph the organized graph
+     */
+    private static void checkLeftToRight(Graph<Integer> graph) {
+        for (Link<Integer> link : graph.getLinks()) {
+            assertTrue(link.getSource().xLoc() < link.getTarget().xLoc(), link.toString());
+        }
+    }
+
+}
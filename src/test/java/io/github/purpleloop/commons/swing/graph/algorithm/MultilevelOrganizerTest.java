@@ -0,0 +1,106 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.purpleloop.commons.math.geom.GeomUtils;
+import io.github.purpleloop.commons.swing.graph.Graph;
+import io.github.purpleloop.commons.swing.graph.Link;
+import io.github.purpleloop.commons.swing.graph.Node;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/** Tests for the multilevel organizer. */
+class MultilevelOrganizerTest {
+
+    /** Size of the side of the grid graph. */
+    private static final int GRID_SIZE = 30;
+
+    /**
+     * Organizes a grid : linked nodes end up much closer than other nodes.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testGridLayout() throws GraphException {
+
+        Graph<Integer> graph = new Graph<>();
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                graph.addNode(row + "-" + col);
+            }
+        }
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                if (col + 1 < GRID_SIZE) {
+                    graph.addLink(row + "-" + col, row + "-" + (col + 1));
+                }
+                if (row + 1 < GRID_SIZE) {
+                    graph.addLink(row + "-" + col, (row + 1) + "-" + col);
+                }
+            }
+        }
+
+        MultilevelOrganizer<Integer> organizer = new MultilevelOrganizer<>();
+        organizer.setGraph(graph);
+        organizer.setSeed(3);
+        organizer.setParallel(true);
+        organizer.process();
+
+        assertTrue(organizer.getLevelCount() > 3);
+
+        double linkLengths = 0;
+        for (Link<Integer> link : graph.getLinks()) {
+            linkLengths += distance(link.getSource(), link.getTarget());
+        }
+        linkLengths /= graph.getLinks().size();
+
+        // Opposite corners are far apart
+        Node<Integer> first = graph.getNodeByLabel("0-0").get();
+        Node<Integer> last = graph.getNodeByLabel((GRID_SIZE - 1) + "-" + (GRID_SIZE - 1)).get();
+        assertTrue(distance(first, last) > 10 * linkLengths);
+
+        for (Node<Integer> node : graph.getNodes()) {
+            assertTrue(node.xLoc() >= 0 && node.xLoc() <= Graph.MAX_WIDTH);
+            assertTrue(node.yLoc() >= 0 && node.yLoc() <= Graph.MAX_HEIGHT);
+        }
+    }
+
+    /**
+     * Organizes degenerate graphs.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testSmallGraphs() throws GraphException {
+
+        Graph<Integer> graph = new Graph<>();
+        MultilevelOrganizer<Integer> organizer = new MultilevelOrganizer<>();
+        organizer.setGraph(graph);
+        organizer.process();
+        assertEquals(0, organizer.getLevelCount());
+
+        graph.addNode("A");
+        organizer.process();
+        assertEquals(1, organizer.getLevelCount());
+
+        graph.addNode("B");
+        graph.addLink("C", "C");
+        organizer.process();
+        List<Node<Integer>> nodes = graph.getNodes();
+        assertTrue(distance(nodes.get(0), nodes.get(1)) > 0);
+    }
+
+    /**
+     * @param first first node
+     * @param second second node
+     * @return the distance between the nodes
+     */
+    private static double distance(Node<Integer> first, Node<Integer> second) {
+        return GeomUtils.distance(first.xLoc(), first.yLoc(), second.xLoc(), second.yLoc());
+    }
+
+}
@@ -0,0 +1,195 @@
+package io.github.purpleloop.commons.swing.graph.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.purpleloop.commons.swing.graph.Graph;
+import io.github.purpleloop.commons.swing.graph.Link;
+import io.github.purpleloop.commons.swing.graph.Node;
+import io.github.purpleloop.commons.swing.graph.exception.GraphException;
+
+/** Tests for the path finder. */
+class PathFinderTest {
+
+    /** Size of the side of the grid graph. */
+    private static final int GRID_SIZE = 12;
+
+    /**
+     * Test breadth first paths and hops.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testBreadthFirst() throws GraphException {
+
+        Graph<Integer> graph = sampleGraph();
+        PathFinder<Integer> pathFinder = new PathFinder<>(graph);
+        Node<Integer> a = graph.getNodeByLabel("A").get();
+        Node<Integer> d = graph.getNodeByLabel("D").get();
+
+        GraphPath<Integer> path = pathFinder.breadthFirst(a, d).get();
+        assertEquals("(A -> C -> D)", path.toString());
+        assertEquals(2, path.getLength());
+        assertEquals(graph.getPathString(path.getNodes()), path.toString());
+        assertTrue(path.getLinks().get(0).hasExtremity(a));
+
+        // Links are followed in their direction
+        assertFalse(pathFinder.breadthFirst(d, a).isPresent());
+
+        assertEquals("[A]", pathFinder.withinHops(a, 0).toString());
+        assertEquals("[A, B, C, E]", pathFinder.withinHops(a, 1).toString());
+        assertEquals(5, pathFinder.withinHops(a, 2).size());
+
+        // The path finder follows the changes of the graph
+        graph.setOriented(false);
+        assertEquals("(D -> C -> A)", pathFinder.breadthFirst(d, a).get().toString());
+        graph.removeNode(graph.getNodeByLabel("C").get());
+        assertEquals("(D -> E -> A)", pathFinder.breadthFirst(d, a).get().toString());
+    }
+
+    /**
+     * Test weighted paths.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testWeightedPaths() throws GraphException {
+
+        Graph<Integer> graph = sampleGraph();
+        PathFinder<Integer> pathFinder = new PathFinder<>(graph);
+        Node<Integer> a = graph.getNodeByLabel("A").get();
+        Node<Integer> e = graph.getNodeByLabel("E").get();
+
+        // The direct link A -> E is expensive
+        pathFinder.setWeight(link -> link.getTarget() == e && link.getSource() == a ? 10 : 1);
+        GraphPath<Integer> path = pathFinder.dijkstra(a, e).get();
+        assertEquals("(A -> C -> D -> E)", path.toString());
+        assertEquals(3, path.getCost(), 0.0);
+        assertEquals(path.toString(), pathFinder.bidirectional(a, e).get().toString());
+        assertEquals(3, pathFinder.aStar(a, e, (node, target) -> 0.5).get().getCost(), 0.0);
+
+        assertEquals(0, pathFinder.dijkstra(a, a).get().getCost(), 0.0);
+        assertEquals(0, pathFinder.bidirectional(a, a).get().getLength());
+
+        pathFinder.setWeight(link -> -1);
+        assertThrows(GraphException.class, () -> pathFinder.dijkstra(a, e));
+
+        Node<Integer> foreign = new Graph<Integer>().addNode("A");
+        assertThrows(GraphException.class, () -> pathFinder.dijkstra(a, foreign));
+    }
+
+    /**
+     * Compares the algorithms on random paths of a grid, with link lengths as
+     * weights.
+     * 
+     * @throws GraphException in case of graph errors
+     */
+    @Test
+    void testAlgorithmsAgree() throws GraphException {
+
+        Graph<Integer> graph = gridGraph(new Random(7));
+        PathFinder<Integer> pathFinder = new PathFinder<>(graph);
+        pathFinder.setWeight(PathFinder.linkLength());
+        List<Node<Integer>> nodes = graph.getNodes();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 200; i++) {
+            Node<Integer> source = nodes.get(random.nextInt(nodes.size()));
+            Node<Integer> target = nodes.get(random.nextInt(nodes.size()));
+
+            Optional<GraphPath<Integer>> dijkstra = pathFinder.dijkstra(source, target);
+            Optional<GraphPath<Integer>> aStar = pathFinder.aStar(source, target,
+                    PathFinder.straightDistance());
+            Optional<GraphPath<Integer>> bidirectional = pathFinder.bidirectional(source, target);
+
+            assertEquals(dijkstra.isPresent(), aStar.isPresent());
+            assertEquals(dijkstra.isPresent(), bidirectional.isPresent());
+            if (dijkstra.isPresent()) {
+                assertEquals(dijkstra.get().getCost(), aStar.get().getCost(), 1e-9);
+                assertEquals(dijkstra.get().getCost(), bidirectional.get().getCost(), 1e-9);
+                checkPath(bidirectional.get(), source, target);
+                checkPath(aStar.get(), source, target);
+            }
+        }
+    }
+
+    /**
+     * Checks that a path is made of consecutive links.
+     * 
+     * @param path the path to check
+     * @param source expected source
+     * @param target expected target
+     */
+    private static void checkPath(GraphPath<Integer> path, Node<Integer> source,
+            Node<Integer> target) {
+
+        assertTrue(path.getSource() == source);
+        assertTrue(path.getTarget() == target);
+        assertEquals(path.getNodes().size(), path.getLength() + 1);
+
+        double cost = 0;
+        for (int i = 0; i < path.getLength(); i++) {
+            Link<Integer> link = path.getLinks().get(i);
+            assertTrue(link.getSource() == path.getNodes().get(i));
+            assertTrue(link.getTarget() == path.getNodes().get(i + 1));
+            cost += PathFinder.<Integer> linkLength().applyAsDouble(link);
+        }
+        assertEquals(path.getCost(), cost, 1e-9);
+    }
+
+    /** @return a small oriented graph */
+    private static Graph<Integer> sampleGraph() {
+
+        Graph<Integer> graph = new Graph<>();
+        graph.addLink("A", "B");
+        graph.addLink("A", "C");
+        graph.addLink("C", "D");
+        graph.addLink("D", "E");
+        graph.addLink("A", "E");
+        return graph;
+    }
+
+    /**
+     * @param random random generator for missing links
+     * @return an oriented grid graph, with links going right and down, and some
+     *         links missing
+     */
+    @SuppressWarnings("unchecked")
+    private static Graph<Integer> gridGraph(Random random) {
+
+        Graph<Integer> graph = new Graph<>();
+        Node<Integer>[][] grid = new Node[GRID_SIZE][GRID_SIZE];
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                grid[row][col] = graph.addNode(row + "-" + col);
+                grid[row][col].moveTo(20 + col * 40 + random.nextInt(10),
+                        20 + row * 40 + random.nextInt(10));
+            }
+        }
+
+        try {
+            for (int row = 0; row < GRID_SIZE; row++) {
+                for (int col = 0; col < GRID_SIZE; col++) {
+                    if (col + 1 < GRID_SIZE && random.nextInt(5) > 0) {
+                        graph.addLink(grid[row][col], grid[row][col + 1]);
+                    }
+                    if (row + 1 < GRID_SIZE && random.nextInt(5) > 0) {
+                        graph.addLink(grid[row][col], grid[row + 1][col]);
+                    }
+                }
+            }
+        } catch (GraphException e) {
+            throw new IllegalStateException(e);
+        }
+        return graph;
+    }
+
+}
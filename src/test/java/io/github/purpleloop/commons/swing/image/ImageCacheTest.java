@@ -0,0 +1,143 @@
+package io.github.purpleloop.commons.swing.image;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.image.ImageUtils.FileFormat;
+import io.github.purpleloop.commons.swing.sprites.SpriteSet;
+
+/** Tests for the shared image cache. */
+class ImageCacheTest {
+
+    /** Maximum number of garbage collections requested to release an image. */
+    private static final int GC_ATTEMPTS = 50;
+
+    /** Delay after a garbage collection request, in milliseconds. */
+    private static final long GC_DELAY = 20;
+
+    /** Images are shared by their users and counted. */
+    @Test
+    void testAcquireAndRelease(@TempDir Path directory) throws PurpleException {
+
+        ImageCache cache = ImageCache.getInstance();
+        try {
+            File file = createImageFile(directory, "a.png", 8, 4);
+            long hits = cache.getHitCount();
+            long misses = cache.getMissCount();
+
+            BufferedImage image = cache.acquire(file.getPath());
+            SpriteSet spriteSet = new SpriteSet(
+                    directory.resolve("other").resolve("..").resolve("a.png").toString());
+            assertSame(image, spriteSet.getSourceImage());
+            assertEquals(2, cache.getReferenceCount(image));
+            assertEquals(misses + 1, cache.getMissCount());
+            assertEquals(hits + 1, cache.getHitCount());
+
+            spriteSet.release();
+            spriteSet.release();
+            cache.release(image);
+            assertEquals(0, cache.getReferenceCount(image));
+
+            // Not used anymore, but still cached
+            assertSame(image, cache.acquire(file.getPath()));
+            cache.release(image);
+
+            // A modified file is loaded again
+            assertEquals(true, file.setLastModified(file.lastModified() - 10_000));
+            BufferedImage modified = cache.acquire(file.getPath());
+            assertNotSame(image, modified);
+            cache.release(modified);
+
+            assertThrows(PurpleException.class,
+                    () -> cache.acquire(directory.resolve("missing.png").toString()));
+        } finally {
+            cache.clear();
+        }
+    }
+
+    /** Sprite sets not released release their source image once unreachable. */
+    @Test
+    void testUnreachableSpriteSet(@TempDir Path directory)
+            throws PurpleException, InterruptedException {
+
+        ImageCache cache = ImageCache.getInstance();
+        try {
+            File file = createImageFile(directory, "a.png", 8, 4);
+            BufferedImage image = cache.acquire(file.getPath());
+            new SpriteSet(file.getPath());
+            assertEquals(2, cache.getReferenceCount(image));
+
+            for (int i = 0; i < GC_ATTEMPTS && cache.getReferenceCount(image) > 1; i++) {
+                System.gc();
+                Thread.sleep(GC_DELAY);
+            }
+            assertEquals(1, cache.getReferenceCount(image));
+            cache.release(image);
+        } finally {
+            cache.clear();
+        }
+    }
+
+    /** Images not used anymore are evicted over the memory budget. */
+    @Test
+    void testEviction(@TempDir Path directory) throws PurpleException {
+
+        ImageCache cache = ImageCache.getInstance();
+        long budget = cache.getMemoryBudget();
+        try {
+            cache.clear();
+            int size = cache.size();
+            long usage = cache.getMemoryUsage();
+            File first = createImageFile(directory, "first.png", 10, 10);
+            File second = createImageFile(directory, "second.png", 10, 10);
+            BufferedImage firstImage = cache.acquire(first.getPath());
+            BufferedImage secondImage = cache.acquire(second.getPath());
+            long imageSize = (cache.getMemoryUsage() - usage) / 2;
+            long evictions = cache.getEvictionCount();
+
+            // Images in use are kept over the budget
+            cache.setMemoryBudget(usage + imageSize);
+            assertEquals(size + 2, cache.size());
+
+            cache.release(firstImage);
+            assertEquals(size + 1, cache.size());
+            assertEquals(evictions + 1, cache.getEvictionCount());
+            assertEquals(usage + imageSize, cache.getMemoryUsage());
+
+            cache.release(secondImage);
+            assertEquals(size + 1, cache.size());
+            assertSame(secondImage, cache.acquire(second.getPath()));
+            cache.release(secondImage);
+        } finally {
+            cache.setMemoryBudget(budget);
+            cache.clear();
+        }
+    }
+
+    /**
+     * @param directory directory of the image file
+     * @param name name of the image file
+     * @param width width of the image
+     * @param height height of the image
+     * @return the image file
+     * @throws PurpleException in case of problem
+     */
+    private static File createImageFile(Path directory, String name, int width, int height)
+            throws PurpleException {
+        File file = directory.resolve(name).toFile();
+        ImageUtils.saveImageToFile(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB),
+                file, FileFormat.PNG);
+        return file;
+    }
+
+}
@@ -0,0 +1,139 @@
+package io.github.purpleloop.commons.swing.sprites;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import io.github.purpleloop.commons.swing.image.ImageUtils;
+
+/**
+ * Measures the rendering time of sprites for each source image mode and
+ * source image type.
+ * 
+ * <p>
+ * This is not a unit test, run it with the main method. Rendering frames in an
+ * image compatible with the screen gives figures close to rendering in a
+ * window.
+ * </p>
+ */
+public final class SpriteBlitBenchmark {
+
+    /** Size of a side of the sprite sheet. */
+    private static final int SHEET_SIZE = 512;
+
+    /** Size of a side of a sprite. */
+    private static final int SPRITE_SIZE = 32;
+
+    /** Size of a side of a frame. */
+    private static final int FRAME_SIZE = 1024;
+
+    /** Number of sprites rendered in each frame. */
+    private static final int SPRITES_PER_FRAME = 20000;
+
+    /** Number of frames rendered before measuring. */
+    private static final int WARMUP_FRAMES = 20;
+
+    /** Number of measured frames. */
+    private static final int MEASURED_FRAMES = 50;
+
+    /** Private constructor. */
+    private SpriteBlitBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     * 
+     * @param args unused
+     */
+    public static void main(String[] args) {
+
+        int[] sheetTypes = { BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_BYTE_INDEXED,
+                BufferedImage.TYPE_4BYTE_ABGR };
+        String[] sheetTypeNames = { "3BYTE_BGR", "BYTE_INDEXED", "4BYTE_ABGR" };
+
+        BufferedImage frame = ImageUtils.toCompatibleImage(
+                new BufferedImage(FRAME_SIZE, FRAME_SIZE, BufferedImage.TYPE_INT_RGB));
+        for (int t = 0; t < sheetTypes.length; t++) {
+            BufferedImage sheet = createSheet(sheetTypes[t]);
+            double asLoaded = 0;
+            for (SourceImageMode mode : SourceImageMode.values()) {
+                SpriteSet spriteSet = createSpriteSet(sheet);
+                spriteSet.setSourceImageMode(mode);
+                double millis = measure(spriteSet, frame);
+                if (mode == SourceImageMode.AS_LOADED) {
+                    asLoaded = millis;
+                }
+                System.out.printf("%-12s %-10s %8.2f ms/frame  x%.1f%n", sheetTypeNames[t], mode,
+                        millis, asLoaded / millis);
+            }
+        }
+    }
+
+    /**
+     * @param type type of the image
+     * @return a sprite sheet of colored squares
+     */
+    private static BufferedImage createSheet(int type) {
+
+        BufferedImage sheet = new BufferedImage(SHEET_SIZE, SHEET_SIZE, type);
+        Graphics2D graphics = sheet.createGraphics();
+        Random random = new Random(1);
+        for (int y = 0; y < SHEET_SIZE; y += SPRITE_SIZE) {
+            for (int x = 0; x < SHEET_SIZE; x += SPRITE_SIZE) {
+                graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+                graphics.fillOval(x, y, SPRITE_SIZE, SPRITE_SIZE);
+            }
+        }
+        graphics.dispose();
+        return sheet;
+    }
+
+    /**
+     * @param sheet the sprite sheet
+     * @return a sprite set with a sprite for each square of the sheet
+     */
+    private static SpriteSet createSpriteSet(BufferedImage sheet) {
+
+        SpriteSet spriteSet = new SpriteSet(sheet);
+        for (int y = 0; y < SHEET_SIZE; y += SPRITE_SIZE) {
+            for (int x = 0; x < SHEET_SIZE; x += SPRITE_SIZE) {
+                spriteSet.addSprite(new Sprite(x + "," + y, x, y, SPRITE_SIZE, SPRITE_SIZE));
+            }
+        }
+        return spriteSet;
+    }
+
+    /**
+     * @param spriteSet the sprite set to render
+     * @param frame the image where frames are rendered
+     * @return the mean rendering time of a frame, in milliseconds
+     */
+    private static double measure(SpriteSet spriteSet, BufferedImage frame) {
+
+        Random random = new Random(1);
+        int handleCount = spriteSet.getHandleCount();
+        int[] handles = new int[SPRITES_PER_FRAME];
+        int[] locations = new int[SPRITES_PER_FRAME * 2];
+        for (int i = 0; i < SPRITES_PER_FRAME; i++) {
+            handles[i] = random.nextInt(handleCount);
+            locations[2 * i] = random.nextInt(FRAME_SIZE - SPRITE_SIZE);
+            locations[2 * i + 1] = random.nextInt(FRAME_SIZE - SPRITE_SIZE);
+        }
+
+        long start = 0;
+        for (int f = 0; f < WARMUP_FRAMES + MEASURED_FRAMES; f++) {
+            if (f == WARMUP_FRAMES) {
+                start = System.nanoTime();
+            }
+            Graphics2D graphics = frame.createGraphics();
+            for (int i = 0; i < SPRITES_PER_FRAME; i++) {
+                spriteSet.putSprite(graphics, null, handles[i], locations[2 * i],
+                        locations[2 * i + 1]);
+            }
+            graphics.dispose();
+        }
+        return (System.nanoTime() - start) / 1e6 / MEASURED_FRAMES;
+    }
+
+}
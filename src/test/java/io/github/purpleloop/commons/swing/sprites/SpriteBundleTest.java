@@ -0,0 +1,116 @@
+package io.github.purpleloop.commons.swing.sprites;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.sprites.model.SpriteModel;
+
+/** Tests for the binary sprite bundles. */
+class SpriteBundleTest {
+
+    /**
+     * Writes a bundle of a sample model and of trimmed sprites, reads it back
+     * and checks that sprites are rendered as from the original sprite sets.
+     */
+    @Test
+    void testWriteAndRead() throws PurpleException, URISyntaxException, IOException {
+
+        URL url = SpriteBundleTest.class.getClassLoader().getResource("sprite-sample-numbers.xml");
+        SpriteSet numbers = new SpriteModel(Paths.get(url.toURI()).toString()).getSpriteSet();
+
+        BufferedImage source = new BufferedImage(20, 10, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = source.createGraphics();
+        graphics.setColor(new Color(255, 0, 0, 128));
+        graphics.fillRect(3, 2, 4, 5);
+        graphics.dispose();
+        SpriteSet blocks = new SpriteSet(source);
+        blocks.addSprite(new Sprite("red", 0, 0, 10, 10));
+        blocks.addSprite(new Sprite("0", 10, 0, 10, 10));
+        assertEquals(2, blocks.trimSprites());
+
+        Map<String, SpriteSet> spriteSets = new LinkedHashMap<>();
+        spriteSets.put("numbers", numbers);
+        spriteSets.put("blocks", blocks);
+
+        File file = Files.createTempFile("sprites", ".bundle").toFile();
+        try {
+            SpriteBundle.write(file, spriteSets);
+            Map<String, SpriteSet> loadedSets = SpriteBundle.read(file);
+
+            assertEquals(List.of("numbers", "blocks"), new ArrayList<>(loadedSets.keySet()));
+            assertSameSprites(numbers, loadedSets.get("numbers"));
+            assertSameSprites(blocks, loadedSets.get("blocks"));
+
+            Sprite red = loadedSets.get("blocks").getSprite("red");
+            assertTrue(red.isTrimmed());
+            assertEquals(3, red.getTrimX());
+            assertEquals(5, red.getTrimHeight());
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    /** Reading a file which is not a bundle fails. */
+    @Test
+    void testReadInvalidFile() throws IOException {
+
+        File file = Files.createTempFile("sprites", ".bundle").toFile();
+        try {
+            Files.writeString(file.toPath(), "<spriteModel/>");
+            assertThrows(PurpleException.class, () -> SpriteBundle.read(file));
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    /**
+     * Checks that each sprite of a sprite set is rendered the same from a
+     * loaded sprite set.
+     * 
+     * @param spriteSet the original sprite set
+     * @param loadedSet the loaded sprite set
+     */
+    private static void assertSameSprites(SpriteSet spriteSet, SpriteSet loadedSet) {
+
+        assertEquals(spriteSet.getSpritesNames(), loadedSet.getSpritesNames());
+        for (String name : spriteSet.getSpritesNames()) {
+            Sprite sprite = spriteSet.getSprite(name);
+            assertArrayEquals(render(spriteSet, name, sprite), render(loadedSet, name, sprite));
+        }
+    }
+
+    /**
+     * @param spriteSet a sprite set
+     * @param name name of the sprite to render
+     * @param sprite the sprite, giving its size
+     * @return the pixels of the rendered sprite
+     */
+    private static int[] render(SpriteSet spriteSet, String name, Sprite sprite) {
+
+        BufferedImage image = new BufferedImage(sprite.getWidth(), sprite.getHeight(),
+                BufferedImage.TYPE_INT_ARGB);
+        spriteSet.putSprite(image.getGraphics(), null, name, 0, 0);
+        return image.getRGB(0, 0, sprite.getWidth(), sprite.getHeight(), null, 0,
+                sprite.getWidth());
+    }
+
+}
@@ -2,7 +2,12 @@ package io.github.purpleloop.commons.swing.sprites;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
 import java.net.URISyntaxException;
@@ -13,6 +18,8 @@ import org.junit.jupiter.api.Test;
 
 import io.github.purpleloop.commons.exception.PurpleException;
 import io.github.purpleloop.commons.swing.image.ImageUtils;
+import io.github.purpleloop.commons.swing.sprites.exception.SpriteRenderingException;
+import io.github.purpleloop.commons.swing.sprites.model.IndexedSpriteSet;
 import io.github.purpleloop.commons.swing.sprites.model.SpriteModel;
 
 /** Tests on sprite sets. */
@@ -74,6 +81,218 @@ class SpriteSetTest {
         assertArrayEquals(expectedArray, actualArray);
     }
 
+    /**
+     * Renders sprites through handles, resolved from names and from the index
+     * of the model.
+     */
+    @Test
+    void testHandles() throws PurpleException, URISyntaxException {
+
+        BufferedImage expectedImage = ImageUtils
+                .loadImageFromFile(resolveResourceWithFileName("sprite-sample-numbers-linear.png"));
+        byte[] expectedArray = ((DataBufferByte) expectedImage.getData().getDataBuffer()).getData();
+
+        SpriteModel spriteModel = new SpriteModel(
+                resolveResourceWithFileName("sprite-sample-numbers.xml"));
+        SpriteSet spriteSet = spriteModel.getSpriteSet();
+
+        int[] handles = new int[NUM_DIGITS];
+        for (int i = 0; i < NUM_DIGITS; i++) {
+            handles[i] = spriteSet.getHandle(Integer.toString(i, 16).toUpperCase());
+        }
+
+        BufferedImage actualImage = new BufferedImage(SPRITE_WIDTH * NUM_DIGITS, SPRITE_HEIGHT,
+                BufferedImage.TYPE_4BYTE_ABGR);
+        Graphics graphics = actualImage.getGraphics();
+        for (int i = 0; i < NUM_DIGITS; i++) {
+            spriteSet.putSprite(graphics, null, handles[i], i * SPRITE_WIDTH, 0);
+        }
+        byte[] actualArray = ((DataBufferByte) actualImage.getData().getDataBuffer()).getData();
+        assertArrayEquals(expectedArray, actualArray);
+
+        // The digit 0 is in the fourth cell of the grid index
+        IndexedSpriteSet index = spriteModel.getIndexes().get(0);
+        assertEquals(handles[0], spriteModel.getHandle(index, 3));
+        assertEquals(handles[0], spriteModel.getHandle(index, 3));
+        assertEquals(spriteSet.getSpritesNames().size(), spriteSet.getHandleCount());
+
+        assertThrows(SpriteRenderingException.class, () -> spriteSet.getHandle("unknown"));
+
+        // The grid index has 4 x 3 cells
+        assertThrows(SpriteRenderingException.class, () -> spriteModel.getHandle(index, -1));
+        assertThrows(SpriteRenderingException.class, () -> spriteModel.getHandle(index, 12));
+        assertThrows(SpriteRenderingException.class,
+                () -> spriteSet.putSprite(graphics, null, spriteSet.getHandleCount(), 0, 0));
+    }
+
+    /** Renders sprites from compatible and volatile source images. */
+    @Test
+    void testSourceImageModes() throws PurpleException, URISyntaxException {
+
+        SpriteModel spriteModel = new SpriteModel(
+                resolveResourceWithFileName("sprite-sample-numbers.xml"));
+        SpriteSet spriteSet = spriteModel.getSpriteSet();
+        spriteSet.setZoomFactor(3);
+        byte[] expectedArray = renderZoomedDigits(spriteSet);
+
+        for (SourceImageMode mode : SourceImageMode.values()) {
+            spriteModel.setSourceImageMode(mode);
+            assertEquals(mode, spriteSet.getSourceImageMode());
+            assertArrayEquals(expectedArray, renderZoomedDigits(spriteSet));
+        }
+    }
+
+    /**
+     * Renders zoomed sprites through the scale cache, with the same result as
+     * scaling at each rendering, and evicts scaled images beyond the budget.
+     */
+    @Test
+    void testScaleCache() throws PurpleException, URISyntaxException {
+
+        SpriteModel spriteModel = new SpriteModel(
+                resolveResourceWithFileName("sprite-sample-numbers.xml"));
+        SpriteSet spriteSet = spriteModel.getSpriteSet();
+        spriteSet.setZoomFactor(3);
+
+        byte[] expectedArray = renderZoomedDigits(spriteSet);
+
+        // Each scaled digit uses 15 x 21 pixels of 4 bytes
+        int budget = 15 * 21 * 4 * 4;
+        spriteSet.setScaleCacheBudget(budget);
+        SpriteScaleCache cache = spriteSet.getScaleCache();
+        assertArrayEquals(expectedArray, renderZoomedDigits(spriteSet));
+        assertEquals(4, cache.size());
+        assertEquals(budget, cache.getMemoryUsage());
+        assertEquals(NUM_DIGITS, cache.getMissCount());
+
+        // The last digits are still in the cache
+        for (int i = NUM_DIGITS - 4; i < NUM_DIGITS; i++) {
+            spriteSet.putSprite(new BufferedImage(1, 1, BufferedImage.TYPE_4BYTE_ABGR)
+                    .createGraphics(), null, Integer.toString(i, 16).toUpperCase(), 0, 0);
+        }
+        assertEquals(4, cache.getHitCount());
+
+        spriteSet.resetRegistry();
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Renders sprites through a batch : sprites are rendered by layer, and
+     * sprites outside of the clip are culled.
+     */
+    @Test
+    void testBatch() throws PurpleException, URISyntaxException {
+
+        SpriteModel spriteModel = new SpriteModel(
+                resolveResourceWithFileName("sprite-sample-numbers.xml"));
+        SpriteSet spriteSet = spriteModel.getSpriteSet();
+        SpriteSet otherSpriteSet = new SpriteSet(spriteSet.getSourceImage());
+        otherSpriteSet.addSprite(spriteSet.getSprite("B"));
+        int handle0 = spriteSet.getHandle("0");
+        int handle1 = spriteSet.getHandle("1");
+        int handleB = otherSpriteSet.getHandle("B");
+
+        // Expected image : 1 over 0 in the first cell, B in the second one
+        BufferedImage expectedImage = new BufferedImage(SPRITE_WIDTH * 2, SPRITE_HEIGHT,
+                BufferedImage.TYPE_4BYTE_ABGR);
+        Graphics graphics = expectedImage.getGraphics();
+        spriteSet.putSprite(graphics, null, handle0, 0, 0);
+        spriteSet.putSprite(graphics, null, handle1, 0, 0);
+        otherSpriteSet.putSprite(graphics, null, handleB, SPRITE_WIDTH, 0);
+
+        SpriteBatch batch = new SpriteBatch();
+        batch.add(spriteSet, handle1, 0, 0, 2);
+        batch.add(otherSpriteSet, handleB, SPRITE_WIDTH, 0, 1);
+        batch.add(spriteSet, handle0, 0, 0, -1);
+        batch.add(spriteSet, handle0, SPRITE_WIDTH * 2, 0, 0);
+        batch.add(spriteSet, handle0, 0, -SPRITE_HEIGHT, 1.0, 0);
+        assertEquals(5, batch.size());
+
+        BufferedImage actualImage = new BufferedImage(SPRITE_WIDTH * 2, SPRITE_HEIGHT,
+                BufferedImage.TYPE_4BYTE_ABGR);
+        graphics = actualImage.getGraphics();
+        graphics.setClip(0, 0, SPRITE_WIDTH * 2, SPRITE_HEIGHT);
+        batch.flush(graphics, null);
+
+        assertArrayEquals(((DataBufferByte) expectedImage.getData().getDataBuffer()).getData(),
+                ((DataBufferByte) actualImage.getData().getDataBuffer()).getData());
+        assertEquals(0, batch.size());
+        assertEquals(5, batch.getSubmittedCount());
+        assertEquals(2, batch.getCulledCount());
+        assertEquals(3, batch.getDrawnCount());
+
+        assertThrows(SpriteRenderingException.class,
+                () -> batch.add(otherSpriteSet, handle1, 0, 0, 0));
+    }
+
+    /**
+     * Trims sprites with transparent borders, and renders them as they were
+     * before trimming.
+     */
+    @Test
+    void testTrim() {
+
+        BufferedImage source = new BufferedImage(40, 20, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D sourceGraphics = source.createGraphics();
+        sourceGraphics.setColor(Color.RED);
+        sourceGraphics.fillRect(7, 9, 4, 3);
+        sourceGraphics.setColor(Color.BLUE);
+        sourceGraphics.fillRect(8, 10, 1, 1);
+        sourceGraphics.dispose();
+
+        SpriteSet spriteSet = new SpriteSet(source);
+        spriteSet.addSprite(new Sprite("block", 0, 0, 20, 20));
+        spriteSet.addSprite(new Sprite("empty", 20, 0, 20, 20));
+        spriteSet.setZoomFactor(2);
+        byte[] expectedArray = renderTrimSprites(spriteSet);
+
+        assertEquals(2, spriteSet.trimSprites());
+        Sprite block = spriteSet.getSprite("block");
+        assertTrue(block.isTrimmed());
+        assertEquals(7, block.getTrimX());
+        assertEquals(9, block.getTrimY());
+        assertEquals(4, block.getTrimWidth());
+        assertEquals(3, block.getTrimHeight());
+        assertEquals(0, spriteSet.getSprite("empty").getTrimWidth());
+        assertEquals(20, spriteSet.widest().getAsInt());
+
+        assertArrayEquals(expectedArray, renderTrimSprites(spriteSet));
+        spriteSet.setScaleCacheBudget(1 << 20);
+        assertArrayEquals(expectedArray, renderTrimSprites(spriteSet));
+    }
+
+    /**
+     * @param spriteSet the sprite set of the trim test
+     * @return raster of the sprites, rendered at various locations
+     */
+    private byte[] renderTrimSprites(SpriteSet spriteSet) {
+
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_4BYTE_ABGR);
+        Graphics graphics = image.getGraphics();
+        spriteSet.putSprite(graphics, null, "block", 3, 5);
+        spriteSet.putSprite(graphics, null, "block", 50, 50, 1.0);
+        spriteSet.putSprite(graphics, null, "block", 60, 10, 3.0);
+        spriteSet.putSprite(graphics, null, "empty", 0, 50);
+        return ((DataBufferByte) image.getData().getDataBuffer()).getData();
+    }
+
+    /**
+     * @param spriteSet the sample numbers sprite set, zoomed
+     * @return raster of the hexa digits rendered in a single row
+     */
+    private byte[] renderZoomedDigits(SpriteSet spriteSet) {
+
+        int zoom = (int) spriteSet.zoomFactor;
+        BufferedImage image = new BufferedImage(SPRITE_WIDTH * zoom * NUM_DIGITS,
+                SPRITE_HEIGHT * zoom, BufferedImage.TYPE_4BYTE_ABGR);
+        Graphics graphics = image.getGraphics();
+        for (int i = 0; i < NUM_DIGITS; i++) {
+            String spriteName = Integer.toString(i, 16).toUpperCase();
+            spriteSet.putSprite(graphics, null, spriteName, i * SPRITE_WIDTH * zoom, 0);
+        }
+        return ((DataBufferByte) image.getData().getDataBuffer()).getData();
+    }
+
     /**
      * @param fileName the name of the resource file
      * @return resource file location from classPath
@@ -0,0 +1,190 @@
+package io.github.purpleloop.commons.swing.sprites.atlas;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.image.ImageCache;
+import io.github.purpleloop.commons.swing.image.ImageUtils;
+import io.github.purpleloop.commons.swing.image.ImageUtils.FileFormat;
+import io.github.purpleloop.commons.swing.sprites.Sprite;
+import io.github.purpleloop.commons.swing.sprites.SpriteSet;
+import io.github.purpleloop.commons.swing.sprites.model.SpriteModel;
+
+/** Tests for the sprite atlas builder. */
+class AtlasBuilderTest {
+
+    /** Size of the atlas pages, holding 12 padded sample sprites. */
+    private static final int PAGE_SIZE = 32;
+
+    /**
+     * Packs two sample models in several pages, and checks that sprites are
+     * rendered as from their models.
+     */
+    @Test
+    void testBuild() throws PurpleException, URISyntaxException {
+
+        SpriteModel model = loadSampleModel();
+        AtlasBuilder builder = new AtlasBuilder();
+        builder.setPageSize(PAGE_SIZE, PAGE_SIZE);
+        builder.addModel(model, "a.");
+        builder.addModel(loadSampleModel(), "b.");
+        SpriteAtlas atlas = builder.build();
+
+        int spriteCount = model.getSpriteSet().getSpritesNames().size();
+        assertEquals(2 * spriteCount, atlas.getSpriteCount());
+        assertTrue(atlas.getPageCount() > 1);
+        assertNull(atlas.getSpriteSet("0"));
+        assertSameSprites(model.getSpriteSet(), atlas, "a.");
+        assertSameSprites(model.getSpriteSet(), atlas, "b.");
+
+        // Sprites of a page do not overlap
+        for (SpriteSet page : atlas.getPages()) {
+            List<Rectangle> bounds = new ArrayList<>();
+            for (String name : page.getSpritesNames()) {
+                Sprite sprite = page.getSprite(name);
+                Rectangle spriteBounds = new Rectangle(sprite.getOx() + sprite.getTrimX(),
+                        sprite.getOy() + sprite.getTrimY(), sprite.getTrimWidth(),
+                        sprite.getTrimHeight());
+                for (Rectangle other : bounds) {
+                    assertFalse(other.intersects(spriteBounds));
+                }
+                bounds.add(spriteBounds);
+            }
+        }
+
+        assertThrows(PurpleException.class, () -> builder.addModel(model, "a."));
+    }
+
+    /** Saves an atlas and loads it back. */
+    @Test
+    void testSaveAndLoad(@TempDir Path directory) throws PurpleException, URISyntaxException {
+
+        SpriteModel model = loadSampleModel();
+        AtlasBuilder builder = new AtlasBuilder();
+        builder.setPageSize(PAGE_SIZE, PAGE_SIZE);
+        builder.addModel(model);
+        SpriteAtlas atlas = builder.build();
+
+        File descriptor = directory.resolve("sample-atlas.xml").toFile();
+
+        // The saved pages are not read back
+        ImageCache cache = ImageCache.getInstance();
+        long requests = cache.getHitCount() + cache.getMissCount();
+        atlas.save(descriptor);
+        assertEquals(requests, cache.getHitCount() + cache.getMissCount());
+
+        SpriteAtlas loadedAtlas = SpriteAtlas.load(descriptor);
+
+        assertEquals(atlas.getPageCount(), loadedAtlas.getPageCount());
+        assertEquals(atlas.getSpriteCount(), loadedAtlas.getSpriteCount());
+        assertSameSprites(model.getSpriteSet(), loadedAtlas, "");
+
+        Image page = loadedAtlas.getPage(0).getSourceImage();
+        assertEquals(1, cache.getReferenceCount(page));
+        loadedAtlas.release();
+        assertEquals(0, cache.getReferenceCount(page));
+    }
+
+    /**
+     * Packs trimmed sprites without their transparent borders, and keeps them
+     * trimmed when saved.
+     */
+    @Test
+    void testTrimmedSprites(@TempDir Path directory) throws PurpleException {
+
+        BufferedImage source = new BufferedImage(40, 20, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = source.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(7, 9, 4, 3);
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(22, 1, 5, 6);
+        graphics.dispose();
+
+        File imageFile = directory.resolve("blocks.png").toFile();
+        ImageUtils.saveImageToFile(source, imageFile, FileFormat.PNG);
+        SpriteModel model = new SpriteModel(imageFile.getAbsolutePath());
+        model.addSingleSprite("red", new Rectangle(0, 0, 20, 20));
+        model.addSingleSprite("blue", new Rectangle(20, 0, 20, 20));
+        model.registerSprites();
+        assertEquals(2, model.getSpriteSet().trimSprites());
+
+        AtlasBuilder builder = new AtlasBuilder();
+        builder.setPadding(0);
+        builder.addModel(model);
+        SpriteAtlas atlas = builder.build();
+
+        // The trimmed parts are stacked, the tallest first
+        BufferedImage page = (BufferedImage) atlas.getPage(0).getSourceImage();
+        assertEquals(5, page.getWidth());
+        assertEquals(9, page.getHeight());
+        assertSameSprites(model.getSpriteSet(), atlas, "");
+
+        File descriptor = directory.resolve("blocks-atlas.xml").toFile();
+        atlas.save(descriptor);
+        SpriteAtlas loadedAtlas = SpriteAtlas.load(descriptor);
+        assertTrue(loadedAtlas.getPage(0).getSprite("red").isTrimmed());
+        assertSameSprites(model.getSpriteSet(), loadedAtlas, "");
+    }
+
+
+    /**
+     * Checks that each sprite of a sprite set is rendered the same from the
+     * atlas.
+     * 
+     * @param spriteSet the original sprite set
+     * @param atlas the atlas
+     * @param prefix prefix of the sprite names in the atlas
+     */
+    private static void assertSameSprites(SpriteSet spriteSet, SpriteAtlas atlas,
+            String prefix) {
+
+        for (String name : spriteSet.getSpritesNames()) {
+            Sprite sprite = spriteSet.getSprite(name);
+            SpriteSet page = atlas.getSpriteSet(prefix + name);
+            assertArrayEquals(render(spriteSet, name, sprite), render(page, prefix + name, sprite));
+        }
+    }
+
+    /**
+     * @param spriteSet a sprite set
+     * @param name name of the sprite to render
+     * @param sprite the sprite, giving its size
+     * @return the pixels of the rendered sprite
+     */
+    private static int[] render(SpriteSet spriteSet, String name, Sprite sprite) {
+
+        BufferedImage image = new BufferedImage(sprite.getWidth(), sprite.getHeight(),
+                BufferedImage.TYPE_INT_ARGB);
+        spriteSet.putSprite(image.getGraphics(), null, name, 0, 0);
+        return image.getRGB(0, 0, sprite.getWidth(), sprite.getHeight(), null, 0,
+                sprite.getWidth());
+    }
+
+    /** @return the sample numbers sprite model */
+    private static SpriteModel loadSampleModel() throws PurpleException, URISyntaxException {
+        URL url = AtlasBuilderTest.class.getClassLoader().getResource("sprite-sample-numbers.xml");
+        return new SpriteModel(Paths.get(url.toURI()).toString());
+    }
+
+}
@@ -0,0 +1,83 @@
+package io.github.purpleloop.commons.swing.sprites.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.sprites.model.SpriteModelLoader.Progress;
+
+/** Tests for the background loading of sprite models. */
+class SpriteModelLoaderTest {
+
+    /** Maximum time to wait for the models, in seconds. */
+    private static final int TIMEOUT = 10;
+
+    /**
+     * Loads the sample model several times, and checks that its source image
+     * is decoded once and that the progress is reported.
+     */
+    @Test
+    void testLoadAll() throws URISyntaxException, InterruptedException, ExecutionException,
+            TimeoutException, InvocationTargetException {
+
+        String fileName = getSampleFileName();
+        SpriteModelLoader loader = new SpriteModelLoader(2);
+        List<Progress> progresses = new CopyOnWriteArrayList<>();
+        loader.addProgressListener(progresses::add);
+
+        List<SpriteModel> models = loader.loadAll(List.of(fileName, fileName, fileName))
+                .get(TIMEOUT, TimeUnit.SECONDS);
+
+        assertEquals(3, models.size());
+        for (SpriteModel model : models) {
+            assertEquals(12, model.getSpriteSet().getSpritesNames().size());
+            assertSame(models.get(0).getImage(), model.getImage());
+        }
+        assertEquals(new Progress(3, 3, 0), loader.getProgress());
+
+        // Waits for the notifications on the event dispatch thread
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        assertTrue(progresses.get(progresses.size() - 1).isDone());
+    }
+
+    /** A model which can not be loaded completes exceptionally. */
+    @Test
+    void testLoadFailure() throws URISyntaxException {
+
+        SpriteModelLoader loader = new SpriteModelLoader();
+        CompletableFuture<SpriteModel> missing = loader.load("missing-sprite-model.xml");
+        CompletableFuture<SpriteModel> sample = loader.load(getSampleFileName());
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> missing.get(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof PurpleException);
+        assertTrue(sample.join().getSpriteSet() != null);
+        assertEquals(new Progress(2, 1, 1), loader.getProgress());
+    }
+
+    /** @return the file name of the sample numbers sprite model */
+    private static String getSampleFileName() throws URISyntaxException {
+        URL url = SpriteModelLoaderTest.class.getClassLoader()
+                .getResource("sprite-sample-numbers.xml");
+        return Paths.get(url.toURI()).toString();
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.github.purpleloop.commons.swing.sprites.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.image.ImageUtils;
+import io.github.purpleloop.commons.swing.image.ImageUtils.FileFormat;
+import io.github.purpleloop.commons.swing.sprites.Sprite;
+import io.github.purpleloop.commons.swing.sprites.SpriteSet;
+import io.github.purpleloop.commons.util.PathMode;
+
+/** Tests for the sprite models. */
+class SpriteModelTest {
+
+    /** Saves single sprites and loads them back. */
+    @Test
+    void testSaveAndLoadSingleSprites(@TempDir Path directory) throws PurpleException {
+
+        File imageFile = directory.resolve("blocks.png").toFile();
+        File modelFile = directory.resolve("blocks.xml").toFile();
+        ImageUtils.saveImageToFile(new BufferedImage(16, 8, BufferedImage.TYPE_INT_ARGB),
+                imageFile, FileFormat.PNG);
+
+        SpriteModel model = new SpriteModel(imageFile.getAbsolutePath());
+        model.setSourceImagePath(imageFile.getName(), PathMode.RELATIVE);
+        model.addSingleSprite("a", new Rectangle(0, 0, 8, 8));
+        model.addSingleSprite("b", new Rectangle(8, 2, 6, 4)).setTrim(new Rectangle(1, 1, 3, 2));
+        model.saveToFile(modelFile);
+        model.release();
+
+        SpriteModel loadedModel = new SpriteModel(modelFile.getAbsolutePath());
+        assertEquals(2, loadedModel.getSingleSprites().size());
+        SpriteSet spriteSet = loadedModel.getSpriteSet();
+
+        Sprite a = spriteSet.getSprite("a");
+        assertEquals(0, a.getOx());
+        assertEquals(8, a.getWidth());
+        assertFalse(a.isTrimmed());
+
+        Sprite b = spriteSet.getSprite("b");
+        assertEquals(8, b.getOx());
+        assertEquals(2, b.getOy());
+        assertEquals(6, b.getWidth());
+        assertEquals(4, b.getHeight());
+        assertTrue(b.isTrimmed());
+        assertEquals(1, b.getTrimX());
+        assertEquals(3, b.getTrimWidth());
+        loadedModel.release();
+    }
+
+}
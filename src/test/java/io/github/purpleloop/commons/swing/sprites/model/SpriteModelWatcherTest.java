@@ -0,0 +1,102 @@
+package io.github.purpleloop.commons.swing.sprites.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.purpleloop.commons.exception.PurpleException;
+import io.github.purpleloop.commons.swing.image.ImageUtils;
+import io.github.purpleloop.commons.swing.image.ImageUtils.FileFormat;
+import io.github.purpleloop.commons.swing.sprites.SpriteSet;
+import io.github.purpleloop.commons.util.PathMode;
+
+/** Tests for the hot reload of sprite models. */
+class SpriteModelWatcherTest {
+
+    /** Maximum time to wait for a reload, in seconds. */
+    private static final int TIMEOUT = 10;
+
+    /**
+     * Changes the descriptor then the source image of a watched model, and
+     * checks that the model is reloaded in its sprite set.
+     */
+    @Test
+    void testReload(@TempDir Path directory) throws PurpleException, InterruptedException {
+
+        try (SpriteModelWatcher watcher = new SpriteModelWatcher()) {
+            File imageFile = directory.resolve("blocks.png").toFile();
+            File modelFile = directory.resolve("blocks.xml").toFile();
+            saveImage(imageFile, Color.RED, 8);
+            SpriteModel sourceModel = new SpriteModel(imageFile.getAbsolutePath());
+            sourceModel.setSourceImagePath(imageFile.getName(), PathMode.RELATIVE);
+            sourceModel.addSingleSprite("a", new Rectangle(0, 0, 4, 4));
+            sourceModel.saveToFile(modelFile);
+            sourceModel.release();
+
+            SpriteModel model = new SpriteModel(modelFile.getAbsolutePath());
+            SpriteSet spriteSet = model.getSpriteSet();
+            BlockingQueue<SpriteModel> reloads = new LinkedBlockingQueue<>();
+            watcher.setDebounceDelay(50);
+            watcher.addReloadListener(reloads::add);
+            watcher.watch(model);
+
+            // The descriptor changes
+            sourceModel.addSingleSprite("b", new Rectangle(4, 0, 4, 4));
+            sourceModel.saveToFile(modelFile);
+            assertSame(model, reloads.poll(TIMEOUT, TimeUnit.SECONDS));
+            assertSame(spriteSet, model.getSpriteSet());
+            assertNotNull(spriteSet.getSprite("b"));
+            assertEquals(2, model.getSingleSprites().size());
+            assertEquals(0, spriteSet.trimSprites());
+
+            // The source image changes, with a distinct modification time
+            saveImage(imageFile, Color.BLUE, 2);
+            assertTrue(imageFile.setLastModified(imageFile.lastModified() + 2000));
+            assertSame(model, reloads.poll(TIMEOUT, TimeUnit.SECONDS));
+            BufferedImage image = (BufferedImage) spriteSet.getSourceImage();
+            assertEquals(Color.BLUE.getRGB(), image.getRGB(1, 1));
+
+            // The sprites are trimmed again to the new image
+            assertTrue(spriteSet.getSprite("a").isTrimmed());
+            assertEquals(2, spriteSet.getSprite("a").getTrimWidth());
+
+            // Once unwatched, the model is not reloaded anymore
+            watcher.unwatch(model);
+            sourceModel.saveToFile(modelFile);
+            assertNull(reloads.poll(500, TimeUnit.MILLISECONDS));
+            model.release();
+        }
+    }
+
+    /**
+     * @param file the image file to save
+     * @param color color of the image
+     * @param opaqueWidth width of the opaque part of the image, on the left
+     * @throws PurpleException in case of problem
+     */
+    private static void saveImage(File file, Color color, int opaqueWidth)
+            throws PurpleException {
+        BufferedImage image = new BufferedImage(8, 4, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < opaqueWidth; x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, color.getRGB());
+            }
+        }
+        ImageUtils.saveImageToFile(image, file, FileFormat.PNG);
+    }
+
+}